@@ -12,6 +12,7 @@ Write-Host ""
 
 # Lista de servicios backend
 $services = @(
+    "common",
     "gateway",
     "user-service",
     "event-service",
@@ -33,7 +34,7 @@ foreach ($service in $services) {
     Push-Location $service
     
     try {
-        mvn clean package -DskipTests -q
+        mvn clean install -DskipTests -q
         if ($LASTEXITCODE -ne 0) {
             throw "Error compilando $service"
         }
@@ -1,15 +1,30 @@
 package com.example.camunda.config;
 
 import lombok.RequiredArgsConstructor;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
+import java.time.Duration;
 import java.util.Collections;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Configuración de RestTemplate con interceptor para comunicación entre servicios.
  * Agrega automáticamente el header X-Gateway-Secret en todas las peticiones.
+ *
+ * Las conexiones salen de un pool keep-alive con límite por servicio destino. Este módulo
+ * sigue en Spring Boot 2.7 / Java 17 y no puede usar el pool de common (HttpClient 5, Java 21),
+ * por eso usa HttpClient 4 leyendo las mismas propiedades soa.http-client.* (duraciones con unidad,
+ * p. ej. 2s). El read-timeout por defecto se mantiene en 30s, el que tenía antes este servicio.
+ * No publica métricas del pool ni el endpoint httpclientpools: camunda-service no incluye Actuator.
  */
 @Configuration
 @RequiredArgsConstructor
@@ -17,9 +32,54 @@ public class RestTemplateConfig {
     
     private final GatewaySecretInterceptor gatewaySecretInterceptor;
 
+    @Value("${soa.http-client.max-total:200}")
+    private int maxTotal;
+
+    @Value("${soa.http-client.max-per-route:50}")
+    private int maxPerRoute;
+
+    @Value("${soa.http-client.connect-timeout:2s}")
+    private Duration connectTimeout;
+
+    @Value("${soa.http-client.read-timeout:30s}")
+    private Duration readTimeout;
+
+    @Value("${soa.http-client.connection-request-timeout:2s}")
+    private Duration connectionRequestTimeout;
+
+    @Value("${soa.http-client.keep-alive:30s}")
+    private Duration keepAlive;
+
+    @Value("${soa.http-client.idle-timeout:60s}")
+    private Duration idleTimeout;
+
     @Bean
     public RestTemplate restTemplate() {
-        RestTemplate restTemplate = new RestTemplate();
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(maxTotal);
+        // Límite por servicio destino: cada ruta (host:puerto) tiene su propio tope de conexiones
+        connectionManager.setDefaultMaxPerRoute(maxPerRoute);
+        connectionManager.setValidateAfterInactivity(2000);
+
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout((int) connectTimeout.toMillis())
+                .setSocketTimeout((int) readTimeout.toMillis())
+                .setConnectionRequestTimeout((int) connectionRequestTimeout.toMillis())
+                .build();
+
+        CloseableHttpClient httpClient = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                // Keep-alive indicado por el servidor o, si no lo indica, soa.http-client.keep-alive
+                .setKeepAliveStrategy((response, context) -> {
+                    long servidor = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+                    return servidor > 0 ? servidor : keepAlive.toMillis();
+                })
+                .evictExpiredConnections()
+                .evictIdleConnections(idleTimeout.toMillis(), TimeUnit.MILLISECONDS)
+                .build();
+
+        RestTemplate restTemplate = new RestTemplate(new HttpComponentsClientHttpRequestFactory(httpClient));
         restTemplate.setInterceptors(Collections.singletonList(gatewaySecretInterceptor));
         return restTemplate;
     }
@@ -0,0 +1,53 @@
+package com.example.common.config;
+
+import com.example.common.http.HttpClientPoolsEndpoint;
+import com.example.common.http.PooledHttpClientFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.endpoint.condition.ConditionalOnAvailableEndpoint;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Pool de conexiones HTTP compartido por los RestTemplate de comunicación entre servicios.
+ *
+ * Los defaults se ajustan con soa.http-client.*; cada servicio registra sus destinos
+ * (límite de conexiones y timeouts por ruta) al crear su pool con {@link PooledHttpClientFactory}.
+ *
+ * El endpoint /actuator/httpclientpools solo se registra si el servicio incluye Actuator en su pom;
+ * common no lo arrastra.
+ */
+@AutoConfiguration
+@ConditionalOnClass(name = "org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager")
+public class PooledHttpClientAutoConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean
+    public PooledHttpClientFactory pooledHttpClientFactory(
+            @Value("${soa.http-client.max-total:200}") int maxTotal,
+            @Value("${soa.http-client.max-per-route:50}") int maxPerRoute,
+            @Value("${soa.http-client.connect-timeout:2s}") Duration connectTimeout,
+            @Value("${soa.http-client.read-timeout:5s}") Duration readTimeout,
+            @Value("${soa.http-client.connection-request-timeout:2s}") Duration connectionRequestTimeout,
+            @Value("${soa.http-client.keep-alive:30s}") Duration keepAlive,
+            @Value("${soa.http-client.idle-timeout:60s}") Duration idleTimeout) {
+        return new PooledHttpClientFactory(maxTotal, maxPerRoute, connectTimeout, readTimeout,
+                connectionRequestTimeout, keepAlive, idleTimeout);
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(name = "org.springframework.boot.actuate.endpoint.annotation.Endpoint")
+    static class HttpClientPoolsEndpointConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean
+        @ConditionalOnAvailableEndpoint
+        public HttpClientPoolsEndpoint httpClientPoolsEndpoint(PooledHttpClientFactory pooledHttpClientFactory) {
+            return new HttpClientPoolsEndpoint(pooledHttpClientFactory);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.common.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.autoconfigure.task.TaskSchedulingAutoConfiguration;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+import java.util.concurrent.Executors;
+
+/**
+ * Modo de ejecución con hilos virtuales (Java 21) compartido por los servicios Spring MVC.
+ *
+ * Desactivado por defecto, así que los servicios no declaran la propiedad. Para activarlo en
+ * un servicio: soa.virtual-threads.enabled=true en su application.properties o
+ * SOA_VIRTUAL_THREADS_ENABLED=true en el entorno. Reemplaza:
+ * - El pool de hilos de Tomcat: cada petición corre en su propio hilo virtual
+ * - El executor de @Async (applicationTaskExecutor / taskExecutor)
+ * - El scheduler de @Scheduled
+ *
+ * Las esperas en MySQL o RestTemplate liberan el hilo portador en lugar de bloquear
+ * un hilo de plataforma; el límite real pasa a ser el pool de conexiones (Hikari).
+ * Comparación de carga frente al pool de Tomcat: VirtualThreadsLoadTest.
+ */
+@AutoConfiguration(before = {TaskExecutionAutoConfiguration.class, TaskSchedulingAutoConfiguration.class})
+@ConditionalOnProperty(name = "soa.virtual-threads.enabled", havingValue = "true")
+public class VirtualThreadsAutoConfiguration {
+
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadsAutoConfiguration.class);
+
+    @Bean
+    @ConditionalOnClass(name = "org.apache.catalina.startup.Tomcat")
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadsProtocolHandlerCustomizer() {
+        log.info("Tomcat configurado con hilos virtuales");
+        return protocolHandler -> protocolHandler.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    @Bean(name = {"applicationTaskExecutor", "taskExecutor"})
+    public AsyncTaskExecutor applicationTaskExecutor() {
+        return new TaskExecutorAdapter(Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    @Bean
+    public ThreadPoolTaskScheduler taskScheduler(
+            @Value("${soa.virtual-threads.scheduler-pool-size:4}") int poolSize) {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        // Los workers del scheduler son hilos virtuales: un job esperando BD/HTTP no retiene un hilo de plataforma
+        scheduler.setThreadFactory(Thread.ofVirtual().name("scheduling-", 0).factory());
+        scheduler.setPoolSize(poolSize);
+        return scheduler;
+    }
+}
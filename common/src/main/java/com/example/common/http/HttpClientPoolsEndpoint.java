@@ -0,0 +1,46 @@
+package com.example.common.http;
+
+import org.apache.hc.core5.pool.PoolStats;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Endpoint de Actuator (/actuator/httpclientpools) con el estado de cada pool HTTP:
+ * conexiones en uso, peticiones esperando y conexiones ociosas, en total y por destino.
+ */
+@Endpoint(id = "httpclientpools")
+public class HttpClientPoolsEndpoint {
+
+    private final PooledHttpClientFactory pooledHttpClientFactory;
+
+    public HttpClientPoolsEndpoint(PooledHttpClientFactory pooledHttpClientFactory) {
+        this.pooledHttpClientFactory = pooledHttpClientFactory;
+    }
+
+    @ReadOperation
+    public Map<String, Object> pools() {
+        Map<String, Object> pools = new TreeMap<>();
+        for (PooledClientHttpRequestFactory pool : pooledHttpClientFactory.getPools()) {
+            Map<String, Object> detalle = new LinkedHashMap<>();
+            detalle.put("total", estadisticas(pool.getTotalStats()));
+            Map<String, Object> rutas = new TreeMap<>();
+            pool.getRouteStats().forEach((ruta, stats) -> rutas.put(ruta, estadisticas(stats)));
+            detalle.put("routes", rutas);
+            pools.put(pool.getName(), detalle);
+        }
+        return pools;
+    }
+
+    private Map<String, Integer> estadisticas(PoolStats stats) {
+        Map<String, Integer> valores = new LinkedHashMap<>();
+        valores.put("leased", stats.getLeased());
+        valores.put("pending", stats.getPending());
+        valores.put("available", stats.getAvailable());
+        valores.put("max", stats.getMax());
+        return valores;
+    }
+}
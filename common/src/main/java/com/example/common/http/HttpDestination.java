@@ -0,0 +1,25 @@
+package com.example.common.http;
+
+import java.time.Duration;
+
+/**
+ * Destino HTTP de un pool compartido: URL base y límites propios de esa ruta.
+ *
+ * Los valores nulos (o maxConnections &lt;= 0) usan los defaults de soa.http-client.*.
+ *
+ * @param name           nombre lógico del destino (se usa como tag de métricas)
+ * @param baseUrl        URL base, p. ej. http://localhost:8082
+ * @param maxConnections conexiones simultáneas máximas hacia este destino
+ * @param connectTimeout timeout de conexión TCP
+ * @param readTimeout    timeout de respuesta (sin datos recibidos)
+ */
+public record HttpDestination(String name,
+                              String baseUrl,
+                              int maxConnections,
+                              Duration connectTimeout,
+                              Duration readTimeout) {
+
+    public static HttpDestination of(String name, String baseUrl) {
+        return new HttpDestination(name, baseUrl, 0, null, null);
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.common.http;
+
+import org.apache.hc.client5.http.classic.HttpClient;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.protocol.HttpClientContext;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.pool.PoolStats;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+
+import java.net.URI;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Request factory de RestTemplate respaldada por un pool de conexiones persistentes.
+ *
+ * Cada petición recibe la RequestConfig de su destino (timeout de respuesta y de espera
+ * por una conexión del pool); los destinos no registrados usan la configuración por defecto.
+ * Se crea con {@link PooledHttpClientFactory#create(String, List)}.
+ */
+public class PooledClientHttpRequestFactory extends HttpComponentsClientHttpRequestFactory {
+
+    private final String name;
+    private final PoolingHttpClientConnectionManager connectionManager;
+    private final Map<String, RequestConfig> requestConfigs;
+    private final RequestConfig defaultRequestConfig;
+    private final List<HttpDestination> destinations;
+
+    PooledClientHttpRequestFactory(String name,
+                                   HttpClient httpClient,
+                                   PoolingHttpClientConnectionManager connectionManager,
+                                   Map<String, RequestConfig> requestConfigs,
+                                   RequestConfig defaultRequestConfig,
+                                   List<HttpDestination> destinations) {
+        super(httpClient);
+        this.name = name;
+        this.connectionManager = connectionManager;
+        this.requestConfigs = requestConfigs;
+        this.defaultRequestConfig = defaultRequestConfig;
+        this.destinations = List.copyOf(destinations);
+    }
+
+    @Override
+    protected HttpContext createHttpContext(HttpMethod httpMethod, URI uri) {
+        HttpClientContext context = HttpClientContext.create();
+        context.setRequestConfig(requestConfigs.getOrDefault(PooledHttpClientFactory.routeKey(uri), defaultRequestConfig));
+        return context;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public List<HttpDestination> getDestinations() {
+        return destinations;
+    }
+
+    /**
+     * Estadísticas globales del pool (leased / pending / available / max).
+     */
+    public PoolStats getTotalStats() {
+        return connectionManager.getTotalStats();
+    }
+
+    /**
+     * Estadísticas de las rutas con conexiones abiertas o pendientes, por "esquema://host:puerto".
+     */
+    public Map<String, PoolStats> getRouteStats() {
+        Map<String, PoolStats> stats = new TreeMap<>();
+        connectionManager.getRoutes().forEach(route ->
+                stats.put(route.getTargetHost().toURI(), connectionManager.getStats(route)));
+        return Collections.unmodifiableMap(stats);
+    }
+
+    PoolStats getStats(String baseUrl) {
+        return connectionManager.getStats(PooledHttpClientFactory.route(baseUrl));
+    }
+}
@@ -0,0 +1,204 @@
+package com.example.common.http;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.pool.PoolStats;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Fábrica de clientes HTTP con pool de conexiones keep-alive para la comunicación entre servicios.
+ *
+ * Cada pool limita las conexiones totales y por destino; los timeouts de conexión y de respuesta
+ * se resuelven por ruta, de modo que un destino lento (payment-service) no impone su timeout al resto.
+ *
+ * Registra los pools creados y publica sus métricas en Micrometer
+ * (http.client.pool.leased / pending / available / max, con tags pool y route).
+ */
+public class PooledHttpClientFactory implements MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(PooledHttpClientFactory.class);
+    private static final String RUTA_TOTAL = "total";
+
+    private final int maxTotal;
+    private final int defaultMaxPerRoute;
+    private final Duration connectTimeout;
+    private final Duration readTimeout;
+    private final Duration connectionRequestTimeout;
+    private final Duration keepAlive;
+    private final Duration idleTimeout;
+
+    private final Map<String, PooledClientHttpRequestFactory> pools = new ConcurrentHashMap<>();
+    private MeterRegistry meterRegistry;
+
+    public PooledHttpClientFactory(int maxTotal,
+                                   int defaultMaxPerRoute,
+                                   Duration connectTimeout,
+                                   Duration readTimeout,
+                                   Duration connectionRequestTimeout,
+                                   Duration keepAlive,
+                                   Duration idleTimeout) {
+        this.maxTotal = maxTotal;
+        this.defaultMaxPerRoute = defaultMaxPerRoute;
+        this.connectTimeout = connectTimeout;
+        this.readTimeout = readTimeout;
+        this.connectionRequestTimeout = connectionRequestTimeout;
+        this.keepAlive = keepAlive;
+        this.idleTimeout = idleTimeout;
+    }
+
+    /**
+     * Crea un pool con límites y timeouts propios para cada destino indicado.
+     *
+     * @param name         nombre del pool (tag de métricas y clave en el endpoint de Actuator)
+     * @param destinations destinos conocidos; el resto de URLs usa los defaults
+     */
+    public PooledClientHttpRequestFactory create(String name, List<HttpDestination> destinations) {
+        Map<String, ConnectionConfig> connectionConfigs = new HashMap<>();
+        Map<String, RequestConfig> requestConfigs = new HashMap<>();
+        ConnectionConfig defaultConnectionConfig = connectionConfig(connectTimeout);
+        RequestConfig defaultRequestConfig = requestConfig(readTimeout);
+
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxTotal)
+                .setMaxConnPerRoute(defaultMaxPerRoute)
+                .build();
+
+        for (HttpDestination destination : destinations) {
+            if (destination.baseUrl() == null || destination.baseUrl().isBlank()) {
+                continue;
+            }
+            String key = routeKey(URI.create(destination.baseUrl()));
+            connectionConfigs.put(key, connectionConfig(valorODefault(destination.connectTimeout(), connectTimeout)));
+            requestConfigs.put(key, requestConfig(valorODefault(destination.readTimeout(), readTimeout)));
+            if (destination.maxConnections() > 0) {
+                connectionManager.setMaxPerRoute(route(destination.baseUrl()), destination.maxConnections());
+            }
+        }
+        connectionManager.setConnectionConfigResolver(route ->
+                connectionConfigs.getOrDefault(routeKey(route.getTargetHost()), defaultConnectionConfig));
+
+        CloseableHttpClient httpClient = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(defaultRequestConfig)
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.of(idleTimeout))
+                .build();
+
+        PooledClientHttpRequestFactory factory = new PooledClientHttpRequestFactory(
+                name, httpClient, connectionManager, requestConfigs, defaultRequestConfig, destinations);
+        registrar(factory);
+        log.info("Pool HTTP '{}' creado: {} conexiones totales, {} por destino por defecto, {} destinos configurados",
+                name, maxTotal, defaultMaxPerRoute, requestConfigs.size());
+        return factory;
+    }
+
+    public Collection<PooledClientHttpRequestFactory> getPools() {
+        return pools.values();
+    }
+
+    @Override
+    public synchronized void bindTo(MeterRegistry registry) {
+        this.meterRegistry = registry;
+        pools.values().forEach(this::registrarMetricas);
+    }
+
+    private synchronized void registrar(PooledClientHttpRequestFactory factory) {
+        pools.put(factory.getName(), factory);
+        if (meterRegistry != null) {
+            registrarMetricas(factory);
+        }
+    }
+
+    private void registrarMetricas(PooledClientHttpRequestFactory factory) {
+        registrarGauges(factory.getName(), RUTA_TOTAL, factory, f -> f.getTotalStats());
+        for (HttpDestination destination : factory.getDestinations()) {
+            if (destination.baseUrl() != null && !destination.baseUrl().isBlank()) {
+                registrarGauges(factory.getName(), destination.name(), factory, f -> f.getStats(destination.baseUrl()));
+            }
+        }
+    }
+
+    private void registrarGauges(String pool, String ruta, PooledClientHttpRequestFactory factory,
+                                 Function<PooledClientHttpRequestFactory, PoolStats> stats) {
+        gauge("http.client.pool.leased", "Conexiones en uso", pool, ruta, factory, f -> stats.apply(f).getLeased());
+        gauge("http.client.pool.pending", "Peticiones esperando una conexión", pool, ruta, factory, f -> stats.apply(f).getPending());
+        gauge("http.client.pool.available", "Conexiones ociosas reutilizables", pool, ruta, factory, f -> stats.apply(f).getAvailable());
+        gauge("http.client.pool.max", "Conexiones máximas", pool, ruta, factory, f -> stats.apply(f).getMax());
+    }
+
+    private void gauge(String nombre, String descripcion, String pool, String ruta,
+                       PooledClientHttpRequestFactory factory, ToDoubleFunction<PooledClientHttpRequestFactory> valor) {
+        Gauge.builder(nombre, factory, valor)
+                .description(descripcion)
+                .tag("pool", pool)
+                .tag("route", ruta)
+                .register(meterRegistry);
+    }
+
+    private ConnectionConfig connectionConfig(Duration connect) {
+        return ConnectionConfig.custom()
+                .setConnectTimeout(Timeout.of(connect))
+                .setValidateAfterInactivity(TimeValue.ofSeconds(2))
+                .build();
+    }
+
+    private RequestConfig requestConfig(Duration read) {
+        return RequestConfig.custom()
+                .setResponseTimeout(Timeout.of(read))
+                .setConnectionRequestTimeout(Timeout.of(connectionRequestTimeout))
+                .setConnectionKeepAlive(TimeValue.of(keepAlive))
+                .build();
+    }
+
+    private static Duration valorODefault(Duration valor, Duration porDefecto) {
+        return valor != null ? valor : porDefecto;
+    }
+
+    static HttpRoute route(String baseUrl) {
+        URI uri = URI.create(baseUrl);
+        HttpHost host = new HttpHost(esquema(uri), uri.getHost(), puerto(uri));
+        return new HttpRoute(host, null, "https".equals(host.getSchemeName()));
+    }
+
+    static String routeKey(URI uri) {
+        return esquema(uri) + "://" + uri.getHost().toLowerCase(Locale.ROOT) + ":" + puerto(uri);
+    }
+
+    private static String routeKey(HttpHost host) {
+        return routeKey(URI.create(host.toURI()));
+    }
+
+    private static String esquema(URI uri) {
+        return uri.getScheme() != null ? uri.getScheme().toLowerCase(Locale.ROOT) : "http";
+    }
+
+    private static int puerto(URI uri) {
+        if (uri.getPort() > 0) {
+            return uri.getPort();
+        }
+        return "https".equals(esquema(uri)) ? 443 : 80;
+    }
+}
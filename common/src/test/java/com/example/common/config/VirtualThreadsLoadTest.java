@@ -0,0 +1,110 @@
+package com.example.common.config;
+
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Comparación de carga del modo de hilos virtuales frente al pool de Tomcat con el mismo
+ * límite de hilos (server.tomcat.threads.max=20): 200 peticiones concurrentes contra un
+ * endpoint que bloquea 50 ms, como una consulta a MySQL o una llamada RestTemplate.
+ */
+class VirtualThreadsLoadTest {
+
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadsLoadTest.class);
+
+    private static final int PETICIONES = 2000;
+    private static final int CONCURRENCIA = 200;
+
+    @Test
+    void hilosVirtualesNoQuedanLimitadosPorElPoolDeTomcat() throws Exception {
+        Resultado plataforma = medir(false);
+        Resultado virtuales = medir(true);
+
+        log.info("Hilos de plataforma (20): {} req/s, p50={} ms, p99={} ms",
+                plataforma.peticionesPorSegundo(), plataforma.p50(), plataforma.p99());
+        log.info("Hilos virtuales:          {} req/s, p50={} ms, p99={} ms",
+                virtuales.peticionesPorSegundo(), virtuales.p50(), virtuales.p99());
+
+        assertThat(plataforma.enHiloVirtual()).isFalse();
+        assertThat(virtuales.enHiloVirtual()).isTrue();
+        assertThat(virtuales.peticionesPorSegundo()).isGreaterThan(plataforma.peticionesPorSegundo());
+    }
+
+    private Resultado medir(boolean hilosVirtuales) throws Exception {
+        try (ConfigurableApplicationContext contexto = new SpringApplicationBuilder(AplicacionPrueba.class)
+                .properties(
+                        "server.port=0",
+                        "server.tomcat.threads.max=20",
+                        "spring.main.banner-mode=off",
+                        "soa.virtual-threads.enabled=" + hilosVirtuales)
+                .run()) {
+            String url = "http://localhost:" + contexto.getEnvironment().getProperty("local.server.port") + "/bloqueante";
+            HttpClient cliente = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+            HttpRequest peticion = HttpRequest.newBuilder(URI.create(url)).GET().build();
+
+            // Calentamiento: conexiones abiertas y JIT
+            lanzar(cliente, peticion, CONCURRENCIA, new ConcurrentLinkedQueue<>());
+
+            ConcurrentLinkedQueue<Long> latencias = new ConcurrentLinkedQueue<>();
+            long inicio = System.nanoTime();
+            List<String> cuerpos = lanzar(cliente, peticion, PETICIONES, latencias);
+            double segundos = (System.nanoTime() - inicio) / 1e9;
+
+            long[] ordenadas = latencias.stream().mapToLong(Long::longValue).sorted().toArray();
+            return new Resultado(Math.round(PETICIONES / segundos),
+                    ordenadas[ordenadas.length / 2], ordenadas[(int) (ordenadas.length * 0.99)],
+                    cuerpos.stream().allMatch("true"::equals));
+        }
+    }
+
+    private List<String> lanzar(HttpClient cliente, HttpRequest peticion, int total,
+                                ConcurrentLinkedQueue<Long> latencias) throws InterruptedException {
+        Semaphore enVuelo = new Semaphore(CONCURRENCIA);
+        List<CompletableFuture<String>> respuestas = new ArrayList<>(total);
+        for (int i = 0; i < total; i++) {
+            enVuelo.acquire();
+            long inicio = System.nanoTime();
+            respuestas.add(cliente.sendAsync(peticion, HttpResponse.BodyHandlers.ofString())
+                    .thenApply(respuesta -> {
+                        latencias.add((System.nanoTime() - inicio) / 1_000_000);
+                        return respuesta.body();
+                    })
+                    .whenComplete((cuerpo, error) -> enVuelo.release()));
+        }
+        return respuestas.stream().map(CompletableFuture::join).toList();
+    }
+
+    private record Resultado(long peticionesPorSegundo, long p50, long p99, boolean enHiloVirtual) {
+    }
+
+    @SpringBootConfiguration
+    @EnableAutoConfiguration
+    @RestController
+    static class AplicacionPrueba {
+
+        @GetMapping("/bloqueante")
+        String bloqueante() throws InterruptedException {
+            Thread.sleep(50);
+            return String.valueOf(Thread.currentThread().isVirtual());
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.eventservice.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+/**
+ * Listeners de Redis para el tier compartido del catálogo (catalog.cache.shared.enabled=true).
+ *
+ * La conexión (spring.data.redis.*) y el StringRedisTemplate los crea la autoconfiguración
+ * de Spring Boot; aquí solo se añade el contenedor que recibe las invalidaciones publicadas
+ * por las demás instancias. Spring lo arranca y lo detiene con el contexto.
+ */
+@Configuration
+@ConditionalOnProperty(name = "catalog.cache.shared.enabled", havingValue = "true")
+public class CatalogRedisConfig {
+
+    @Bean
+    public RedisMessageListenerContainer catalogListenerContainer(RedisConnectionFactory connectionFactory) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        return container;
+    }
+}
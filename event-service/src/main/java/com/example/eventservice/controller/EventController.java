@@ -2,6 +2,7 @@ package com.example.eventservice.controller;
 
 import com.example.eventservice.dto.CreateEventRequest;
 import com.example.eventservice.dto.EventDto;
+import com.example.eventservice.dto.EventPageResponse;
 import com.example.eventservice.dto.UpdateEventRequest;
 import com.example.eventservice.service.EventService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -11,10 +12,12 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 
@@ -65,6 +68,32 @@ public class EventController {
         return ResponseEntity.ok(events);
     }
 
+    @GetMapping("/pagina")
+    @Operation(summary = "Listar eventos paginados",
+            description = "Lista eventos ordenados por fecha con paginación por cursor (keyset) y filtros en la base de datos")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Página obtenida exitosamente"),
+            @ApiResponse(responseCode = "400", description = "Filtros o cursor inválidos")
+    })
+    public ResponseEntity<EventPageResponse> getEventsPage(
+            @Parameter(description = "Estado del evento (ACTIVO, CANCELADO, FINALIZADO)")
+            @RequestParam(required = false) String estado,
+            @Parameter(description = "Categoría del evento")
+            @RequestParam(required = false) String categoria,
+            @Parameter(description = "Fecha mínima del evento (inclusive), ej. 2025-01-01T00:00:00")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime desde,
+            @Parameter(description = "Fecha máxima del evento (exclusiva)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime hasta,
+            @Parameter(description = "Solo eventos con entradas disponibles")
+            @RequestParam(required = false, defaultValue = "false") boolean conDisponibilidad,
+            @Parameter(description = "Cursor devuelto en nextCursor de la página anterior")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Tamaño de página (1-100)")
+            @RequestParam(required = false, defaultValue = "20") int size) {
+        return ResponseEntity.ok(eventService.getEventsPage(
+                estado, categoria, desde, hasta, conDisponibilidad, cursor, size));
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "Obtener evento por ID", description = "Obtiene los detalles de un evento específico")
     @ApiResponses(value = {
@@ -1,5 +1,7 @@
 package com.example.eventservice.controller;
 
+import com.example.eventservice.dto.StockLoteRequest;
+import com.example.eventservice.dto.StockReservaResponse;
 import com.example.eventservice.dto.TipoEntradaDto;
 import com.example.eventservice.dto.UpdateTipoEntradaRequest;
 import com.example.eventservice.service.TipoEntradaService;
@@ -11,6 +13,8 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/tipos-entrada")
 @RequiredArgsConstructor
@@ -56,6 +60,16 @@ public class TipoEntradaByIdController {
         return ResponseEntity.ok().build();
     }
 
+    @PutMapping("/{id}/reservar")
+    @Operation(summary = "Reservar cantidad", description = "Decremento atómico condicional del stock; devuelve la cantidad restante (uso interno)")
+    public ResponseEntity<StockReservaResponse> reservarCantidad(
+            @PathVariable Long id,
+            @RequestParam int cantidad) {
+        log.info("PUT /api/tipos-entrada/{}/reservar - cantidad: {}", id, cantidad);
+        StockReservaResponse response = tipoEntradaService.reservarCantidad(id, cantidad);
+        return ResponseEntity.ok(response);
+    }
+
     @PutMapping("/{id}/incrementar")
     @Operation(summary = "Incrementar cantidad", description = "Incrementa la cantidad disponible - Compensación/Rollback")
     public ResponseEntity<Void> increaseCantidad(
@@ -65,4 +79,20 @@ public class TipoEntradaByIdController {
         tipoEntradaService.increaseCantidad(id, cantidad);
         return ResponseEntity.ok().build();
     }
+
+    @PutMapping("/reservar-lote")
+    @Operation(summary = "Reservar lote", description = "Reserva varios tipos de entrada de forma atómica: todas las líneas o ninguna (uso interno)")
+    public ResponseEntity<List<StockReservaResponse>> reservarLote(@Valid @RequestBody StockLoteRequest request) {
+        log.info("PUT /api/tipos-entrada/reservar-lote - {} líneas", request.getLineas().size());
+        List<StockReservaResponse> response = tipoEntradaService.reservarLote(request);
+        return ResponseEntity.ok(response);
+    }
+
+    @PutMapping("/liberar-lote")
+    @Operation(summary = "Liberar lote", description = "Restaura el stock de un lote reservado - Compensación/Rollback")
+    public ResponseEntity<Void> liberarLote(@Valid @RequestBody StockLoteRequest request) {
+        log.info("PUT /api/tipos-entrada/liberar-lote - {} líneas (ROLLBACK)", request.getLineas().size());
+        tipoEntradaService.liberarLote(request);
+        return ResponseEntity.ok().build();
+    }
 }
@@ -0,0 +1,40 @@
+package com.example.eventservice.dto;
+
+import com.example.eventservice.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Posición de la paginación por keyset: último (fechaEvento, id) entregado.
+ * Viaja al cliente como un token opaco en Base64 URL-safe.
+ */
+public record EventCursor(LocalDateTime fechaEvento, Long id) {
+
+    private static final String SEPARADOR = "|";
+
+    public static EventCursor of(EventDto evento) {
+        return new EventCursor(evento.getFechaEvento(), evento.getId());
+    }
+
+    public String encode() {
+        String valor = fechaEvento + SEPARADOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(valor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws BadRequestException si el token no fue generado por {@link #encode()}
+     */
+    public static EventCursor decode(String token) {
+        try {
+            String valor = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separador = valor.indexOf(SEPARADOR);
+            return new EventCursor(LocalDateTime.parse(valor.substring(0, separador)),
+                    Long.valueOf(valor.substring(separador + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new BadRequestException("Cursor de paginación inválido");
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.eventservice.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Schema(description = "Página de eventos ordenada por fecha del evento")
+public class EventPageResponse {
+
+    @Schema(description = "Eventos de la página")
+    private List<EventDto> eventos;
+
+    @Schema(description = "Cursor para pedir la página siguiente (null si no hay más)", example = "MjAyNS0xMi0zMVQyMDowMHwxMg")
+    private String nextCursor;
+
+    @Schema(description = "Indica si hay más eventos después de esta página", example = "true")
+    private boolean hasMore;
+
+    @Schema(description = "Cantidad de eventos en la página", example = "20")
+    private int size;
+}
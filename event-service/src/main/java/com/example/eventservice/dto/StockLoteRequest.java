@@ -0,0 +1,48 @@
+package com.example.eventservice.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Schema(description = "Operación de stock sobre varios tipos de entrada en una sola llamada")
+public class StockLoteRequest {
+
+    @NotEmpty(message = "Debe indicar al menos una línea")
+    @Valid
+    @Schema(description = "Líneas de stock a reservar o restaurar", required = true)
+    private List<Linea> lineas;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class Linea {
+
+        @NotNull(message = "El tipo de entrada es requerido")
+        @Schema(description = "ID del tipo de entrada", example = "1", required = true)
+        private Long tipoEntradaId;
+
+        @NotNull(message = "La cantidad es requerida")
+        @Min(value = 1, message = "La cantidad debe ser al menos 1")
+        @Schema(description = "Cantidad de entradas", example = "2", required = true)
+        private Integer cantidad;
+
+        @Size(max = 64, message = "El ID de operación no puede superar 64 caracteres")
+        @Schema(description = "Clave de idempotencia de la línea; la misma clave reserva o libera una sola vez",
+                example = "5f0c2d7e-0b4e-4c1a-9d55-8f3f3a1c2b10")
+        private String operacionId;
+    }
+}
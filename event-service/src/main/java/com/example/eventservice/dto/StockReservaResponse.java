@@ -0,0 +1,24 @@
+package com.example.eventservice.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Schema(description = "Resultado de una reserva atómica de stock")
+public class StockReservaResponse {
+
+    @Schema(description = "ID del tipo de entrada", example = "1")
+    private Long tipoEntradaId;
+
+    @Schema(description = "Cantidad reservada", example = "2")
+    private Integer cantidadReservada;
+
+    @Schema(description = "Cantidad disponible tras la reserva", example = "448")
+    private Integer cantidadDisponible;
+}
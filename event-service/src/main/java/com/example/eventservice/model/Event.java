@@ -6,6 +6,7 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -37,14 +38,17 @@ public class Event {
     @Column(name = "fecha_evento", nullable = false)
     private LocalDateTime fechaEvento;
 
-    @Column(nullable = false)
+    // Agregados de los tipos de entrada: se fijan al crear el evento y luego solo cambian con los
+    // UPDATE incrementales de EventRepository (updatable = false evita pisar ventas concurrentes)
+    @Column(nullable = false, updatable = false)
     private Integer capacidadTotal;
 
-    @Column(nullable = false)
+    @Column(nullable = false, updatable = false)
     private Integer entradasDisponibles;
 
     @OneToMany(mappedBy = "evento", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
     @JsonManagedReference
+    @BatchSize(size = 100) // Listados sin fetch join (p. ej. paginados): un IN por cada 100 eventos, no un SELECT por evento
     @Builder.Default
     private List<TipoEntrada> tiposEntrada = new ArrayList<>();
 
@@ -83,12 +87,7 @@ public class Event {
         if (estado == null) {
             estado = EstadoEvento.ACTIVO;
         }
-        // Las entradas disponibles se calculan desde los tipos de entrada
-        calcularEntradasDisponibles();
-    }
-
-    @PreUpdate
-    public void preUpdate() {
+        // Valor inicial desde los tipos de entrada (aún en memoria); después se mantiene por deltas
         calcularEntradasDisponibles();
     }
 
@@ -1,21 +1,92 @@
 package com.example.eventservice.repository;
 
 import com.example.eventservice.model.Event;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface EventRepository extends JpaRepository<Event, Long> {
     
+    // Los listados que se mapean a EventDto cargan tiposEntrada en la misma consulta (evita N+1)
+
+    @EntityGraph(attributePaths = "tiposEntrada")
+    @Query("SELECT e FROM Event e")
+    List<Event> findAllConTiposEntrada();
+
+    @EntityGraph(attributePaths = "tiposEntrada")
     List<Event> findByActivoTrue();
+
+    @EntityGraph(attributePaths = "tiposEntrada")
+    List<Event> findByEstado(Event.EstadoEvento estado);
     
+    @EntityGraph(attributePaths = "tiposEntrada")
     @Query("SELECT e FROM Event e WHERE e.fechaEvento >= :fechaDesde AND e.activo = true")
     List<Event> findEventosProximos(LocalDateTime fechaDesde);
     
+    /**
+     * Listado "disponibles" de EventService.getEventsWithAvailability (cacheado como lista de IDs).
+     * Usa idx_eventos_activo_disponibles (V9).
+     */
+    @EntityGraph(attributePaths = "tiposEntrada")
     @Query("SELECT e FROM Event e WHERE e.entradasDisponibles > 0 AND e.activo = true")
     List<Event> findEventosConDisponibilidad();
+
+    /**
+     * Ajusta las entradas disponibles del evento dueño del tipo de entrada sin
+     * cargar la colección tiposEntrada (delta negativo = venta, positivo = devolución).
+     */
+    @Modifying
+    @Query("UPDATE Event e SET e.entradasDisponibles = e.entradasDisponibles + :delta " +
+           "WHERE e.id = (SELECT t.evento.id FROM TipoEntrada t WHERE t.id = :tipoEntradaId)")
+    int ajustarEntradasDisponiblesPorTipo(@Param("tipoEntradaId") Long tipoEntradaId, @Param("delta") int delta);
+
+    /**
+     * Ajusta capacidad total y entradas disponibles del evento al crear, editar o eliminar
+     * uno de sus tipos de entrada.
+     */
+    @Modifying
+    @Query("UPDATE Event e SET e.capacidadTotal = e.capacidadTotal + :deltaCapacidad, " +
+           "e.entradasDisponibles = e.entradasDisponibles + :deltaDisponibles WHERE e.id = :eventoId")
+    int ajustarAgregados(@Param("eventoId") Long eventoId,
+                         @Param("deltaCapacidad") int deltaCapacidad,
+                         @Param("deltaDisponibles") int deltaDisponibles);
+
+    /**
+     * Entradas disponibles actuales de varios eventos: filas [eventoId, entradasDisponibles].
+     */
+    @Query("SELECT e.id, e.entradasDisponibles FROM Event e WHERE e.id IN :ids")
+    List<Object[]> findEntradasDisponiblesByIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Página de eventos por keyset sobre (fechaEvento, id): devuelve los eventos posteriores
+     * al cursor, sin OFFSET. Los filtros nulos se ignoran; cursorFecha nulo = primera página.
+     * Usa idx_eventos_estado_fecha / idx_eventos_categoria_estado_fecha (V8).
+     * Sin fetch join (paginaría en memoria): tiposEntrada se carga por lotes con @BatchSize.
+     */
+    @Query("SELECT e FROM Event e " +
+           "WHERE (:estado IS NULL OR e.estado = :estado) " +
+           "AND (:categoria IS NULL OR e.categoria = :categoria) " +
+           "AND (:desde IS NULL OR e.fechaEvento >= :desde) " +
+           "AND (:hasta IS NULL OR e.fechaEvento < :hasta) " +
+           "AND (:conDisponibilidad = false OR e.entradasDisponibles > 0) " +
+           "AND (:cursorFecha IS NULL OR e.fechaEvento > :cursorFecha " +
+           "     OR (e.fechaEvento = :cursorFecha AND e.id > :cursorId)) " +
+           "ORDER BY e.fechaEvento ASC, e.id ASC")
+    List<Event> findPaginaPorKeyset(@Param("estado") Event.EstadoEvento estado,
+                                    @Param("categoria") String categoria,
+                                    @Param("desde") LocalDateTime desde,
+                                    @Param("hasta") LocalDateTime hasta,
+                                    @Param("conDisponibilidad") boolean conDisponibilidad,
+                                    @Param("cursorFecha") LocalDateTime cursorFecha,
+                                    @Param("cursorId") Long cursorId,
+                                    Pageable limite);
 }
@@ -2,8 +2,12 @@ package com.example.eventservice.repository;
 
 import com.example.eventservice.model.TipoEntrada;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -14,4 +18,26 @@ public interface TipoEntradaRepository extends JpaRepository<TipoEntrada, Long>
     List<TipoEntrada> findByEventoIdOrderByOrdenAsc(Long eventoId);
     
     boolean existsByEventoIdAndNombre(Long eventoId, String nombre);
+
+    /**
+     * Decremento condicional en una sola sentencia: solo afecta la fila si el tipo
+     * está activo y tiene stock suficiente. Devuelve 1 si se reservó, 0 si no.
+     */
+    @Modifying
+    @Query("UPDATE TipoEntrada t SET t.cantidadDisponible = t.cantidadDisponible - :cantidad " +
+           "WHERE t.id = :id AND t.cantidadDisponible >= :cantidad AND t.activo = true")
+    int decrementarSiDisponible(@Param("id") Long id, @Param("cantidad") int cantidad);
+
+    @Modifying
+    @Query("UPDATE TipoEntrada t SET t.cantidadDisponible = t.cantidadDisponible + :cantidad WHERE t.id = :id")
+    int incrementar(@Param("id") Long id, @Param("cantidad") int cantidad);
+
+    @Query("SELECT t.cantidadDisponible FROM TipoEntrada t WHERE t.id = :id")
+    Integer findCantidadDisponibleById(@Param("id") Long id);
+
+    /**
+     * Stock actual de los tipos de entrada de varios eventos: filas [tipoEntradaId, cantidadDisponible].
+     */
+    @Query("SELECT t.id, t.cantidadDisponible FROM TipoEntrada t WHERE t.evento.id IN :eventoIds")
+    List<Object[]> findCantidadesDisponiblesByEventoIds(@Param("eventoIds") Collection<Long> eventoIds);
 }
@@ -0,0 +1,34 @@
+package com.example.eventservice.service;
+
+import com.example.eventservice.dto.EventDto;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Tier compartido (entre instancias) de {@link EventCatalogCache}.
+ *
+ * Guarda la metadata de eventos y los listados de IDs; nunca el stock. Los fallos del tier
+ * compartido no deben propagarse: la cache vuelve a la BD.
+ */
+public interface CatalogSharedTier {
+
+    Optional<EventDto> getEvento(Long eventoId);
+
+    void putEvento(EventDto evento);
+
+    Optional<List<Long>> getListado(String nombre);
+
+    void putListado(String nombre, List<Long> eventoIds);
+
+    /**
+     * Borra el evento y los listados, y avisa a las demás instancias para que limpien su tier local.
+     */
+    void invalidar(Long eventoId);
+
+    /**
+     * Registra la acción a ejecutar cuando otra instancia invalida un evento.
+     */
+    void alInvalidar(Consumer<Long> listener);
+}
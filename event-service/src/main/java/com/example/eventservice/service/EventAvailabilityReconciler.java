@@ -0,0 +1,86 @@
+package com.example.eventservice.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * RECONCILIACIÓN de los agregados del evento (capacidad_total, entradas_disponibles).
+ *
+ * Los agregados se mantienen por deltas en la misma transacción que cada cambio de stock;
+ * este job detecta periódicamente los eventos cuyo agregado no coincide con la suma de sus
+ * tipos de entrada (ediciones manuales en la BD, bugs) y los corrige.
+ *
+ * Cada corrección bloquea primero las filas de tipos_entrada y luego la del evento, el mismo
+ * orden que las reservas, para no perder ventas concurrentes ni provocar deadlocks.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "inventory.reconcile.enabled", havingValue = "true", matchIfMissing = true)
+public class EventAvailabilityReconciler {
+
+    // LEFT JOIN: un evento sin tipos de entrada (p. ej. tras eliminar el último) debe quedar en 0
+    private static final String SQL_DESCUADRADOS =
+            "SELECT e.id FROM eventos e LEFT JOIN tipos_entrada t ON t.evento_id = e.id " +
+            "GROUP BY e.id, e.capacidad_total, e.entradas_disponibles " +
+            "HAVING e.capacidad_total <> COALESCE(SUM(t.cantidad_total), 0) " +
+            "OR e.entradas_disponibles <> COALESCE(SUM(t.cantidad_disponible), 0)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final EventCatalogCache catalogCache;
+
+    public EventAvailabilityReconciler(JdbcTemplate jdbcTemplate,
+                                       PlatformTransactionManager transactionManager,
+                                       EventCatalogCache catalogCache) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.catalogCache = catalogCache;
+    }
+
+    @Scheduled(initialDelayString = "${inventory.reconcile.interval-ms:300000}",
+               fixedDelayString = "${inventory.reconcile.interval-ms:300000}")
+    public void reconciliar() {
+        List<Long> descuadrados = jdbcTemplate.queryForList(SQL_DESCUADRADOS, Long.class);
+        if (descuadrados.isEmpty()) {
+            return;
+        }
+        int corregidos = 0;
+        for (Long eventoId : descuadrados) {
+            try {
+                if (Boolean.TRUE.equals(transactionTemplate.execute(status -> corregir(eventoId)))) {
+                    catalogCache.invalidarEvento(eventoId);
+                    corregidos++;
+                }
+            } catch (RuntimeException e) {
+                log.error("Error reconciliando disponibilidad del evento {}: {}", eventoId, e.getMessage());
+            }
+        }
+        log.warn("Reconciliación de disponibilidad: {} eventos descuadrados, {} corregidos", descuadrados.size(), corregidos);
+    }
+
+    private boolean corregir(Long eventoId) {
+        // Suma sobre las filas bloqueadas: ninguna reserva puede cambiarlas hasta el commit
+        List<Map<String, Object>> tipos = jdbcTemplate.queryForList(
+                "SELECT cantidad_total, cantidad_disponible FROM tipos_entrada WHERE evento_id = ? FOR UPDATE", eventoId);
+        int capacidad = tipos.stream().mapToInt(fila -> ((Number) fila.get("cantidad_total")).intValue()).sum();
+        int disponibles = tipos.stream().mapToInt(fila -> ((Number) fila.get("cantidad_disponible")).intValue()).sum();
+
+        int filas = jdbcTemplate.update(
+                "UPDATE eventos SET capacidad_total = ?, entradas_disponibles = ? " +
+                "WHERE id = ? AND (capacidad_total <> ? OR entradas_disponibles <> ?)",
+                capacidad, disponibles, eventoId, capacidad, disponibles);
+        if (filas > 0) {
+            log.warn("Evento {} reconciliado: capacidad_total={}, entradas_disponibles={}", eventoId, capacidad, disponibles);
+        }
+        return filas > 0;
+    }
+}
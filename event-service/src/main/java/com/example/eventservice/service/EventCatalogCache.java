@@ -0,0 +1,195 @@
+package com.example.eventservice.service;
+
+import com.example.eventservice.dto.EventDto;
+import com.example.eventservice.model.Event;
+import com.example.eventservice.repository.EventRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * CACHE DEL CATÁLOGO DE EVENTOS en dos niveles: tier local en memoria (LRU + TTL) y
+ * tier compartido opcional (Redis, ver {@link RedisCatalogSharedTier}).
+ *
+ * Se cachea la metadata de cada evento por ID y los listados como listas de IDs
+ * ("todos", "activos", "proximos", "disponibles"), de modo que invalidar un evento no obliga a
+ * reconstruir el DTO de los demás. El stock NO se sirve desde aquí: cambia con cada venta
+ * y lo superpone {@link EventStockView} al leer.
+ *
+ * Las escrituras llaman a {@link #invalidarEvento(Long)}, que actúa después del commit.
+ * Un contador de generación evita que una lectura iniciada antes de la invalidación
+ * vuelva a guardar datos viejos.
+ */
+@Component
+@Slf4j
+public class EventCatalogCache {
+
+    public static final String LISTADO_TODOS = "todos";
+    public static final String LISTADO_ACTIVOS = "activos";
+    public static final String LISTADO_PROXIMOS = "proximos";
+    public static final String LISTADO_DISPONIBLES = "disponibles";
+    public static final Set<String> LISTADOS =
+            Set.of(LISTADO_TODOS, LISTADO_ACTIVOS, LISTADO_PROXIMOS, LISTADO_DISPONIBLES);
+
+    private final EventRepository eventRepository;
+    private final Optional<CatalogSharedTier> sharedTier;
+    private final boolean enabled;
+    private final LocalTtlCache<Long, EventDto> eventos;
+    private final LocalTtlCache<String, List<Long>> listados;
+    private final AtomicLong generacion = new AtomicLong();
+
+    public EventCatalogCache(EventRepository eventRepository,
+                             Optional<CatalogSharedTier> sharedTier,
+                             @Value("${catalog.cache.enabled:true}") boolean enabled,
+                             @Value("${catalog.cache.local.max-size:1000}") int maxSize,
+                             @Value("${catalog.cache.local.ttl-ms:60000}") long ttlMs) {
+        this.eventRepository = eventRepository;
+        this.sharedTier = sharedTier;
+        this.enabled = enabled;
+        this.eventos = new LocalTtlCache<>(maxSize, ttlMs);
+        this.listados = new LocalTtlCache<>(LISTADOS.size(), ttlMs);
+        sharedTier.ifPresent(tier -> tier.alInvalidar(this::invalidarLocal));
+        log.info("Cache de catálogo {} (tier local: {} eventos, TTL {} ms; tier compartido: {})",
+                enabled ? "activa" : "desactivada", maxSize, ttlMs, sharedTier.isPresent() ? "Redis" : "no");
+    }
+
+    /**
+     * Metadata de los eventos de un listado, en el orden de la consulta.
+     * Debe llamarse dentro de una transacción (los DTOs recorren tiposEntrada).
+     *
+     * @param nombre   uno de {@link #LISTADOS}
+     * @param consulta consulta a la BD cuando el listado no está cacheado
+     */
+    public List<EventDto> listado(String nombre, Supplier<List<Event>> consulta) {
+        if (!enabled) {
+            return consulta.get().stream().map(EventDto::fromEntity).toList();
+        }
+
+        List<Long> ids = listados.get(nombre);
+        if (ids == null) {
+            ids = sharedTier.flatMap(tier -> tier.getListado(nombre)).orElse(null);
+            if (ids != null) {
+                listados.put(nombre, ids);
+            }
+        }
+        if (ids != null) {
+            return eventos(ids);
+        }
+
+        long generacionLeida = generacion.get();
+        List<EventDto> resultado = consulta.get().stream().map(EventDto::fromEntity).toList();
+        List<Long> idsLeidos = resultado.stream().map(EventDto::getId).toList();
+        if (generacionLeida == generacion.get()) {
+            resultado.forEach(this::guardar);
+            listados.put(nombre, idsLeidos);
+            sharedTier.ifPresent(tier -> tier.putListado(nombre, idsLeidos));
+        }
+        log.debug("Listado '{}' cargado desde la BD: {} eventos", nombre, resultado.size());
+        return resultado;
+    }
+
+    /**
+     * Metadata de un evento por ID: tier local, luego compartido, luego BD.
+     */
+    public Optional<EventDto> evento(Long id) {
+        if (!enabled) {
+            return eventRepository.findById(id).map(EventDto::fromEntity);
+        }
+        EventDto evento = buscarEnCache(id);
+        if (evento != null) {
+            return Optional.of(evento);
+        }
+        long generacionLeida = generacion.get();
+        Optional<EventDto> leido = eventRepository.findById(id).map(EventDto::fromEntity);
+        if (generacionLeida == generacion.get()) {
+            leido.ifPresent(this::guardar);
+        }
+        return leido;
+    }
+
+    /**
+     * Invalida un evento y todos los listados en ambos tiers. Dentro de una transacción
+     * la invalidación se aplica tras el commit (si hay rollback no hay nada que invalidar).
+     */
+    public void invalidarEvento(Long id) {
+        if (!enabled) {
+            return;
+        }
+        generacion.incrementAndGet();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidarAhora(id);
+                }
+            });
+        } else {
+            invalidarAhora(id);
+        }
+    }
+
+    private void invalidarAhora(Long id) {
+        invalidarLocal(id);
+        sharedTier.ifPresent(tier -> tier.invalidar(id));
+        log.debug("Evento {} invalidado en la cache de catálogo", id);
+    }
+
+    /**
+     * También la ejecuta el tier compartido cuando otra instancia invalida el evento: la
+     * generación cambia para que una lectura local en curso no vuelva a guardar el dato viejo.
+     */
+    private void invalidarLocal(Long id) {
+        generacion.incrementAndGet();
+        eventos.remove(id);
+        listados.clear();
+    }
+
+    private List<EventDto> eventos(List<Long> ids) {
+        Map<Long, EventDto> encontrados = new LinkedHashMap<>();
+        List<Long> faltantes = new ArrayList<>();
+        for (Long id : ids) {
+            EventDto evento = buscarEnCache(id);
+            if (evento != null) {
+                encontrados.put(id, evento);
+            } else {
+                faltantes.add(id);
+            }
+        }
+        if (!faltantes.isEmpty()) {
+            long generacionLeida = generacion.get();
+            List<EventDto> leidos = eventRepository.findAllById(faltantes).stream().map(EventDto::fromEntity).toList();
+            leidos.forEach(evento -> encontrados.put(evento.getId(), evento));
+            if (generacionLeida == generacion.get()) {
+                leidos.forEach(this::guardar);
+            }
+        }
+        return ids.stream().map(encontrados::get).filter(evento -> evento != null).toList();
+    }
+
+    private EventDto buscarEnCache(Long id) {
+        EventDto evento = eventos.get(id);
+        if (evento == null) {
+            evento = sharedTier.flatMap(tier -> tier.getEvento(id)).orElse(null);
+            if (evento != null) {
+                eventos.put(id, evento);
+            }
+        }
+        return evento;
+    }
+
+    private void guardar(EventDto evento) {
+        eventos.put(evento.getId(), evento);
+        sharedTier.ifPresent(tier -> tier.putEvento(evento));
+    }
+}
@@ -1,7 +1,9 @@
 package com.example.eventservice.service;
 
 import com.example.eventservice.dto.CreateEventRequest;
+import com.example.eventservice.dto.EventCursor;
 import com.example.eventservice.dto.EventDto;
+import com.example.eventservice.dto.EventPageResponse;
 import com.example.eventservice.dto.UpdateEventRequest;
 import com.example.eventservice.exception.BadRequestException;
 import com.example.eventservice.exception.ResourceNotFoundException;
@@ -10,6 +12,7 @@ import com.example.eventservice.model.TipoEntrada;
 import com.example.eventservice.repository.EventRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -23,6 +26,10 @@ import java.util.stream.Collectors;
 public class EventService {
 
     private final EventRepository eventRepository;
+    private final EventCatalogCache catalogCache;
+    private final EventStockView stockView;
+
+    private static final int MAX_PAGE_SIZE = 100;
 
     @Transactional
     public EventDto createEvent(CreateEventRequest request) {
@@ -74,6 +81,7 @@ public class EventService {
         });
 
         Event savedEvent = eventRepository.save(event);
+        catalogCache.invalidarEvento(savedEvent.getId());
         log.info("Evento creado con ID: {} y {} tipos de entrada", savedEvent.getId(), savedEvent.getTiposEntrada().size());
 
         return EventDto.fromEntity(savedEvent);
@@ -82,46 +90,94 @@ public class EventService {
     @Transactional(readOnly = true)
     public List<EventDto> getAllEvents() {
         log.info("Obteniendo todos los eventos");
-        return eventRepository.findAll()
-                .stream()
-                .map(EventDto::fromEntity)
-                .collect(Collectors.toList());
+        return stockView.conStockActual(
+                catalogCache.listado(EventCatalogCache.LISTADO_TODOS, eventRepository::findAllConTiposEntrada));
     }
 
     @Transactional(readOnly = true)
     public List<EventDto> getActiveEvents() {
         log.info("Obteniendo eventos activos");
-        return eventRepository.findAll()
-                .stream()
-                .filter(e -> e.getEstado() == Event.EstadoEvento.ACTIVO)
-                .map(EventDto::fromEntity)
-                .collect(Collectors.toList());
+        return stockView.conStockActual(
+                catalogCache.listado(EventCatalogCache.LISTADO_ACTIVOS,
+                        () -> eventRepository.findByEstado(Event.EstadoEvento.ACTIVO)));
     }
 
     @Transactional(readOnly = true)
     public List<EventDto> getUpcomingEvents() {
         log.info("Obteniendo eventos próximos");
-        return eventRepository.findEventosProximos(LocalDateTime.now())
+        // La BD filtra por fecha al cargar; sobre la lista cacheada se descartan los que ya pasaron
+        LocalDateTime ahora = LocalDateTime.now();
+        List<EventDto> proximos = catalogCache.listado(EventCatalogCache.LISTADO_PROXIMOS,
+                        () -> eventRepository.findEventosProximos(ahora))
                 .stream()
-                .map(EventDto::fromEntity)
+                .filter(e -> e.getFechaEvento() != null && !e.getFechaEvento().isBefore(ahora))
                 .collect(Collectors.toList());
+        return stockView.conStockActual(proximos);
     }
 
     @Transactional(readOnly = true)
     public List<EventDto> getEventsWithAvailability() {
         log.info("Obteniendo eventos con disponibilidad");
-        return eventRepository.findEventosConDisponibilidad()
+        // La BD filtra por stock al cargar (idx_eventos_activo_disponibles); el stock actual se vuelve
+        // a comprobar al leer. Un evento que recupera entradas aparece al expirar o invalidarse el listado
+        return stockView.conStockActual(
+                        catalogCache.listado(EventCatalogCache.LISTADO_DISPONIBLES, eventRepository::findEventosConDisponibilidad))
                 .stream()
-                .map(EventDto::fromEntity)
+                .filter(e -> e.getEntradasDisponibles() != null && e.getEntradasDisponibles() > 0)
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Listado paginado por keyset (fechaEvento, id) con filtros resueltos en la BD.
+     * El costo de cada página no depende de cuántas páginas se hayan recorrido antes.
+     *
+     * @param cursor token devuelto en la página anterior (null = primera página)
+     */
+    @Transactional(readOnly = true)
+    public EventPageResponse getEventsPage(String estado, String categoria, LocalDateTime desde,
+                                           LocalDateTime hasta, boolean conDisponibilidad,
+                                           String cursor, int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new BadRequestException("El tamaño de página debe estar entre 1 y " + MAX_PAGE_SIZE);
+        }
+        Event.EstadoEvento estadoFiltro = null;
+        if (estado != null) {
+            try {
+                estadoFiltro = Event.EstadoEvento.valueOf(estado.toUpperCase());
+            } catch (IllegalArgumentException e) {
+                throw new BadRequestException("Estado inválido: " + estado);
+            }
+        }
+        EventCursor posicion = cursor != null ? EventCursor.decode(cursor) : null;
+        log.info("Obteniendo página de eventos (estado={}, categoria={}, cursor={}, size={})",
+                estadoFiltro, categoria, posicion, size);
+
+        // Se pide un elemento extra para saber si hay página siguiente sin hacer COUNT
+        List<Event> filas = eventRepository.findPaginaPorKeyset(estadoFiltro, categoria, desde, hasta,
+                conDisponibilidad,
+                posicion != null ? posicion.fechaEvento() : null,
+                posicion != null ? posicion.id() : null,
+                PageRequest.of(0, size + 1));
+        boolean hasMore = filas.size() > size;
+        List<EventDto> eventos = stockView.conStockActual(filas.stream()
+                .limit(size)
+                .map(EventDto::fromEntity)
+                .collect(Collectors.toList()));
+
+        return EventPageResponse.builder()
+                .eventos(eventos)
+                .nextCursor(hasMore ? EventCursor.of(eventos.get(eventos.size() - 1)).encode() : null)
+                .hasMore(hasMore)
+                .size(eventos.size())
+                .build();
+    }
+
     @Transactional(readOnly = true)
     public EventDto getEventById(Long id) {
         log.info("Obteniendo evento con ID: {}", id);
-        Event event = eventRepository.findById(id)
+        EventDto event = catalogCache.evento(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Evento no encontrado con ID: " + id));
-        return EventDto.fromEntity(event);
+        return stockView.conStockActual(event);
     }
 
     @Transactional
@@ -176,6 +232,7 @@ public class EventService {
         event.setFechaActualizacion(LocalDateTime.now());
 
         Event updatedEvent = eventRepository.save(event);
+        catalogCache.invalidarEvento(id);
         log.info("Evento actualizado: {}", updatedEvent.getId());
 
         return EventDto.fromEntity(updatedEvent);
@@ -195,6 +252,7 @@ public class EventService {
             event.setActivo(false);
             event.setFechaActualizacion(LocalDateTime.now());
             eventRepository.save(event);
+            catalogCache.invalidarEvento(id);
             log.info("Evento cancelado por ADMIN: {}", id);
         } else {
             // Usuarios normales solo pueden cancelar sus propios eventos
@@ -206,6 +264,7 @@ public class EventService {
             event.setActivo(false);
             event.setFechaActualizacion(LocalDateTime.now());
             eventRepository.save(event);
+            catalogCache.invalidarEvento(id);
             log.info("Evento cancelado por organizador: {}", id);
         }
     }
@@ -220,6 +279,7 @@ public class EventService {
         event.setActivo(false);
         event.setFechaActualizacion(LocalDateTime.now());
         eventRepository.save(event);
+        catalogCache.invalidarEvento(id);
         log.info("Evento finalizado: {}", id);
     }
 }
@@ -0,0 +1,73 @@
+package com.example.eventservice.service;
+
+import com.example.eventservice.dto.EventDto;
+import com.example.eventservice.dto.TipoEntradaDto;
+import com.example.eventservice.repository.EventRepository;
+import com.example.eventservice.repository.TipoEntradaRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Vista de stock: superpone las cantidades disponibles actuales sobre la metadata
+ * cacheada por {@link EventCatalogCache}.
+ *
+ * Lee solo columnas de stock (dos consultas por listado, sin cargar entidades) y, con
+ * inventory.ledger.enabled=true, los contadores en memoria del ledger. Devuelve copias:
+ * los DTOs cacheados nunca se modifican.
+ */
+@Component
+@RequiredArgsConstructor
+public class EventStockView {
+
+    private final EventRepository eventRepository;
+    private final TipoEntradaRepository tipoEntradaRepository;
+    private final Optional<InventoryLedgerService> inventoryLedger;
+
+    public EventDto conStockActual(EventDto evento) {
+        return conStockActual(List.of(evento)).get(0);
+    }
+
+    public List<EventDto> conStockActual(List<EventDto> eventos) {
+        if (eventos.isEmpty()) {
+            return eventos;
+        }
+        List<Long> ids = eventos.stream().map(EventDto::getId).toList();
+        Map<Long, Integer> porEvento = aMapa(eventRepository.findEntradasDisponiblesByIds(ids));
+        Map<Long, Integer> porTipo = aMapa(tipoEntradaRepository.findCantidadesDisponiblesByEventoIds(ids));
+        return eventos.stream().map(evento -> superponer(evento, porEvento, porTipo)).toList();
+    }
+
+    private EventDto superponer(EventDto evento, Map<Long, Integer> porEvento, Map<Long, Integer> porTipo) {
+        List<TipoEntradaDto> tipos = evento.getTiposEntrada() == null ? List.of() : evento.getTiposEntrada().stream()
+                .map(tipo -> tipo.toBuilder().cantidadDisponible(cantidadActual(tipo, porTipo)).build())
+                .toList();
+
+        Integer entradasDisponibles = porEvento.getOrDefault(evento.getId(), evento.getEntradasDisponibles());
+        if (inventoryLedger.isPresent() && !tipos.isEmpty()) {
+            // El ledger vuelca a MySQL con retraso: el total del evento se recalcula desde sus tipos
+            entradasDisponibles = tipos.stream().mapToInt(TipoEntradaDto::getCantidadDisponible).sum();
+        }
+        return evento.toBuilder()
+                .entradasDisponibles(entradasDisponibles)
+                .tiposEntrada(tipos)
+                .build();
+    }
+
+    private Integer cantidadActual(TipoEntradaDto tipo, Map<Long, Integer> porTipo) {
+        return inventoryLedger.flatMap(ledger -> ledger.disponible(tipo.getId()))
+                .orElse(porTipo.getOrDefault(tipo.getId(), tipo.getCantidadDisponible()));
+    }
+
+    private static Map<Long, Integer> aMapa(List<Object[]> filas) {
+        Map<Long, Integer> mapa = new HashMap<>();
+        for (Object[] fila : filas) {
+            mapa.put((Long) fila[0], (Integer) fila[1]);
+        }
+        return mapa;
+    }
+}
@@ -0,0 +1,177 @@
+package com.example.eventservice.service;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Journal append-only de deltas de stock usado por {@link InventoryLedgerService}.
+ *
+ * Se organiza en segmentos numerados (journal-&lt;n&gt;.log). Cada línea es "tipoEntradaId;delta".
+ * Al hacer flush se rota el segmento actual; un segmento solo se borra cuando sus
+ * deltas ya fueron persistidos en MySQL junto con el checkpoint correspondiente.
+ */
+@Slf4j
+class InventoryJournal {
+
+    private static final String PREFIJO = "journal-";
+    private static final String EXTENSION = ".log";
+
+    private final Path directorio;
+    private final boolean fsync;
+
+    private long segmentoActual;
+    private BufferedWriter writer;
+
+    InventoryJournal(Path directorio, boolean fsync) {
+        this.directorio = directorio;
+        this.fsync = fsync;
+    }
+
+    /**
+     * Lee los segmentos pendientes (mayores al checkpoint) y devuelve los deltas agregados
+     * por tipo de entrada. No modifica el journal.
+     */
+    synchronized Map<Long, Integer> leerPendientes(long checkpoint) {
+        Map<Long, Integer> deltas = new HashMap<>();
+        for (long segmento : listarSegmentos()) {
+            if (segmento <= checkpoint) {
+                continue;
+            }
+            List<String> lineas;
+            try {
+                lineas = Files.readAllLines(rutaSegmento(segmento), StandardCharsets.UTF_8);
+            } catch (IOException e) {
+                throw new IllegalStateException("No se pudo leer el segmento " + segmento + " del journal", e);
+            }
+            for (int i = 0; i < lineas.size(); i++) {
+                String linea = lineas.get(i);
+                try {
+                    int separador = linea.indexOf(';');
+                    Long tipoEntradaId = Long.parseLong(linea.substring(0, separador));
+                    int delta = Integer.parseInt(linea.substring(separador + 1));
+                    deltas.merge(tipoEntradaId, delta, Integer::sum);
+                } catch (RuntimeException e) {
+                    if (i < lineas.size() - 1) {
+                        throw new IllegalStateException("Línea " + (i + 1) + " inválida en el segmento " + segmento + " del journal", e);
+                    }
+                    // Última línea truncada por una caída a mitad de escritura
+                    log.warn("Ignorando línea truncada al final del segmento {}: '{}'", segmento, linea);
+                }
+            }
+        }
+        return deltas;
+    }
+
+    /**
+     * Abre un segmento nuevo posterior a todos los existentes y al checkpoint.
+     */
+    synchronized void abrir(long checkpoint) {
+        try {
+            Files.createDirectories(directorio);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo crear el directorio del journal: " + directorio, e);
+        }
+        long ultimo = listarSegmentos().stream().mapToLong(Long::longValue).max().orElse(0L);
+        segmentoActual = Math.max(ultimo, checkpoint) + 1;
+        writer = abrirWriter(segmentoActual);
+        log.info("Journal de inventario abierto en {} (segmento {})", directorio, segmentoActual);
+    }
+
+    synchronized void append(Long tipoEntradaId, int delta) {
+        try {
+            writer.write(tipoEntradaId + ";" + delta);
+            writer.newLine();
+            // Con fsync=true el segmento se abre con DSYNC y este flush llega a disco
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo escribir en el journal de inventario", e);
+        }
+    }
+
+    /**
+     * Cierra el segmento actual y abre el siguiente.
+     *
+     * @return número del segmento cerrado
+     */
+    synchronized long rotar() {
+        long cerrado = segmentoActual;
+        cerrarWriter();
+        segmentoActual++;
+        writer = abrirWriter(segmentoActual);
+        return cerrado;
+    }
+
+    /**
+     * Elimina los segmentos ya persistidos (hasta el checkpoint inclusive).
+     */
+    synchronized void eliminarHasta(long checkpoint) {
+        for (long segmento : listarSegmentos()) {
+            if (segmento <= checkpoint && segmento != segmentoActual) {
+                try {
+                    Files.deleteIfExists(rutaSegmento(segmento));
+                } catch (IOException e) {
+                    log.warn("No se pudo eliminar el segmento {} del journal: {}", segmento, e.getMessage());
+                }
+            }
+        }
+    }
+
+    synchronized void cerrar() {
+        cerrarWriter();
+    }
+
+    private BufferedWriter abrirWriter(long segmento) {
+        try {
+            return Files.newBufferedWriter(rutaSegmento(segmento), StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND,
+                    fsync ? StandardOpenOption.DSYNC : StandardOpenOption.WRITE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo abrir el segmento " + segmento + " del journal", e);
+        }
+    }
+
+    private void cerrarWriter() {
+        if (writer == null) {
+            return;
+        }
+        try {
+            writer.close();
+        } catch (IOException e) {
+            log.warn("Error cerrando el segmento {} del journal: {}", segmentoActual, e.getMessage());
+        }
+        writer = null;
+    }
+
+    private List<Long> listarSegmentos() {
+        List<Long> segmentos = new ArrayList<>();
+        if (!Files.isDirectory(directorio)) {
+            return segmentos;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directorio, PREFIJO + "*" + EXTENSION)) {
+            for (Path archivo : stream) {
+                String nombre = archivo.getFileName().toString();
+                segmentos.add(Long.parseLong(nombre.substring(PREFIJO.length(), nombre.length() - EXTENSION.length())));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo listar el journal de inventario", e);
+        }
+        segmentos.sort(Long::compare);
+        return segmentos;
+    }
+
+    private Path rutaSegmento(long segmento) {
+        return directorio.resolve(PREFIJO + segmento + EXTENSION);
+    }
+}
@@ -0,0 +1,367 @@
+package com.example.eventservice.service;
+
+import com.example.eventservice.exception.BadRequestException;
+import com.example.eventservice.exception.ResourceNotFoundException;
+import com.example.eventservice.model.TipoEntrada;
+import com.example.eventservice.repository.TipoEntradaRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * LEDGER DE INVENTARIO EN MEMORIA (modo opcional: inventory.ledger.enabled=true).
+ *
+ * Mantiene cantidadDisponible de cada TipoEntrada en contadores en memoria
+ * protegidos por locks "striped" (un lock por franja de IDs), de modo que
+ * /api/tipos-entrada/{id}/disminuir se resuelve sin ir a MySQL.
+ *
+ * DURABILIDAD:
+ * - Cada delta se escribe primero en un journal local append-only
+ * - Cada inventory.ledger.flush-interval-ms los deltas acumulados se agregan por
+ *   tipo de entrada y se aplican en MySQL en un único batch, junto con el checkpoint
+ * - Al arrancar se reaplican los segmentos del journal posteriores al checkpoint
+ *
+ * EDICIONES ADMINISTRATIVAS: {@link #iniciarEdicion(Long)} persiste los deltas del tipo de
+ * entrada y lo deja "en edición" hasta que termina la transacción que lo editó; mientras tanto
+ * las operaciones sobre ese tipo esperan, y después el contador se recarga con el valor confirmado.
+ */
+@Service
+@Slf4j
+@ConditionalOnProperty(name = "inventory.ledger.enabled", havingValue = "true")
+public class InventoryLedgerService {
+
+    private static final int MAX_INTENTOS_INVALIDAR = 5;
+    private static final long ESPERA_EDICION_MS = 30_000;
+
+    private final TipoEntradaRepository tipoEntradaRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final InventoryJournal journal;
+    private final Franja[] franjas;
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    public InventoryLedgerService(TipoEntradaRepository tipoEntradaRepository,
+                                  JdbcTemplate jdbcTemplate,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${inventory.ledger.journal-dir:./data/inventory-journal}") String journalDir,
+                                  @Value("${inventory.ledger.journal-fsync:false}") boolean journalFsync,
+                                  @Value("${inventory.ledger.stripes:64}") int stripes) {
+        this.tipoEntradaRepository = tipoEntradaRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // El flush puede dispararse desde una transacción de negocio (iniciarEdicion): debe confirmarse por separado
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.journal = new InventoryJournal(Path.of(journalDir), journalFsync);
+        this.franjas = new Franja[stripes];
+        for (int i = 0; i < stripes; i++) {
+            franjas[i] = new Franja();
+        }
+    }
+
+    /**
+     * Recuperación: aplica en MySQL los deltas del journal que no alcanzaron a persistirse.
+     */
+    @PostConstruct
+    public void recuperar() {
+        long checkpoint = leerCheckpoint();
+        Map<Long, Integer> pendientes = journal.leerPendientes(checkpoint);
+        journal.abrir(checkpoint);
+
+        // El segmento recién abierto es posterior a todo lo leído: el checkpoint cubre todo lo anterior
+        long recuperadoHasta = journal.rotar();
+        if (!pendientes.isEmpty()) {
+            log.warn("Recuperando {} deltas de inventario desde el journal (checkpoint {})", pendientes.size(), checkpoint);
+        }
+        persistir(pendientes, recuperadoHasta);
+        journal.eliminarHasta(recuperadoHasta);
+    }
+
+    /**
+     * Disminuye el stock en memoria.
+     *
+     * @return cantidad disponible tras la operación
+     */
+    public int disminuir(Long tipoEntradaId, int cantidad) {
+        Franja franja = franja(tipoEntradaId);
+        franja.lock.lock();
+        try {
+            esperarEdicion(franja, tipoEntradaId);
+            Contador contador = cargar(franja, tipoEntradaId);
+            if (!contador.activo) {
+                throw new BadRequestException("El tipo de entrada no está activo");
+            }
+            if (contador.disponible < cantidad) {
+                throw new BadRequestException("No hay suficientes entradas disponibles. Disponibles: " + contador.disponible);
+            }
+            journal.append(tipoEntradaId, -cantidad);
+            contador.disponible -= cantidad;
+            contador.pendiente -= cantidad;
+            return contador.disponible;
+        } finally {
+            franja.lock.unlock();
+        }
+    }
+
+    /**
+     * Incrementa el stock en memoria (compensación).
+     *
+     * @return cantidad disponible tras la operación
+     */
+    public int incrementar(Long tipoEntradaId, int cantidad) {
+        Franja franja = franja(tipoEntradaId);
+        franja.lock.lock();
+        try {
+            esperarEdicion(franja, tipoEntradaId);
+            Contador contador = cargar(franja, tipoEntradaId);
+            journal.append(tipoEntradaId, cantidad);
+            contador.disponible += cantidad;
+            contador.pendiente += cantidad;
+            return contador.disponible;
+        } finally {
+            franja.lock.unlock();
+        }
+    }
+
+    /**
+     * Cantidad disponible en memoria, si el tipo de entrada está cargado en el ledger.
+     */
+    public Optional<Integer> disponible(Long tipoEntradaId) {
+        Franja franja = franja(tipoEntradaId);
+        franja.lock.lock();
+        try {
+            Contador contador = franja.contadores.get(tipoEntradaId);
+            return contador != null ? Optional.of(contador.disponible) : Optional.empty();
+        } finally {
+            franja.lock.unlock();
+        }
+    }
+
+    /**
+     * Prepara una edición administrativa (update/delete) de un tipo de entrada: persiste sus
+     * deltas pendientes, descarta el contador y bloquea el tipo hasta que termine la transacción
+     * actual (commit o rollback). Así la edición lee de MySQL el valor real y ninguna venta
+     * concurrente recarga el contador antes de que la edición se confirme.
+     *
+     * Debe llamarse dentro de una transacción, antes de leer la fila.
+     */
+    public void iniciarEdicion(Long tipoEntradaId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("iniciarEdicion requiere una transacción activa");
+        }
+        Franja franja = franja(tipoEntradaId);
+        franja.lock.lock();
+        try {
+            esperarEdicion(franja, tipoEntradaId);
+            franja.enEdicion.add(tipoEntradaId);
+        } finally {
+            franja.lock.unlock();
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                terminarEdicion(tipoEntradaId);
+            }
+        });
+
+        // Con el tipo bloqueado no entran deltas nuevos: basta con que un flush completo drene los que hay
+        for (int intento = 0; intento < MAX_INTENTOS_INVALIDAR; intento++) {
+            flush();
+            franja.lock.lock();
+            try {
+                Contador contador = franja.contadores.get(tipoEntradaId);
+                if (contador == null || contador.pendiente == 0) {
+                    franja.contadores.remove(tipoEntradaId);
+                    return;
+                }
+            } finally {
+                franja.lock.unlock();
+            }
+        }
+        throw new IllegalStateException("No se pudieron persistir los deltas del tipo de entrada " + tipoEntradaId);
+    }
+
+    private void terminarEdicion(Long tipoEntradaId) {
+        Franja franja = franja(tipoEntradaId);
+        franja.lock.lock();
+        try {
+            franja.enEdicion.remove(tipoEntradaId);
+            // Por si una operación recargó el contador entre medio: que la próxima lea lo confirmado
+            franja.contadores.remove(tipoEntradaId);
+            franja.edicionTerminada.signalAll();
+        } finally {
+            franja.lock.unlock();
+        }
+    }
+
+    /**
+     * Espera (con el lock de la franja tomado) a que termine la edición del tipo de entrada.
+     */
+    private void esperarEdicion(Franja franja, Long tipoEntradaId) {
+        long restanteNanos = TimeUnit.MILLISECONDS.toNanos(ESPERA_EDICION_MS);
+        while (franja.enEdicion.contains(tipoEntradaId)) {
+            if (restanteNanos <= 0) {
+                throw new IllegalStateException("El tipo de entrada " + tipoEntradaId + " está siendo editado");
+            }
+            try {
+                restanteNanos = franja.edicionTerminada.awaitNanos(restanteNanos);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrumpido esperando la edición del tipo de entrada " + tipoEntradaId, e);
+            }
+        }
+    }
+
+    /**
+     * WRITE-BEHIND: aplica en MySQL los deltas acumulados desde el último flush.
+     */
+    @Scheduled(fixedDelayString = "${inventory.ledger.flush-interval-ms:200}")
+    public void flush() {
+        flushLock.lock();
+        try {
+            Map<Long, Integer> deltas = new HashMap<>();
+            long segmentoCerrado;
+
+            // Corte consistente: con todas las franjas tomadas, el segmento cerrado
+            // contiene exactamente los deltas drenados aquí
+            bloquearTodas();
+            try {
+                for (Franja franja : franjas) {
+                    franja.contadores.forEach((id, contador) -> {
+                        if (contador.pendiente != 0) {
+                            deltas.put(id, contador.pendiente);
+                            contador.pendiente = 0;
+                        }
+                    });
+                }
+                if (deltas.isEmpty()) {
+                    return;
+                }
+                segmentoCerrado = journal.rotar();
+            } finally {
+                desbloquearTodas();
+            }
+
+            try {
+                persistir(deltas, segmentoCerrado);
+                journal.eliminarHasta(segmentoCerrado);
+                log.debug("Flush de inventario: {} tipos de entrada, segmento {}", deltas.size(), segmentoCerrado);
+            } catch (RuntimeException e) {
+                // El segmento se conserva en disco; los deltas vuelven a quedar pendientes para el próximo flush
+                log.error("Error persistiendo deltas de inventario, se reintentará: {}", e.getMessage());
+                deltas.forEach((id, delta) -> {
+                    Franja franja = franja(id);
+                    franja.lock.lock();
+                    try {
+                        Contador contador = franja.contadores.get(id);
+                        if (contador != null) {
+                            contador.pendiente += delta;
+                        }
+                    } finally {
+                        franja.lock.unlock();
+                    }
+                });
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void cerrar() {
+        flush();
+        journal.cerrar();
+    }
+
+    private void persistir(Map<Long, Integer> deltas, long checkpoint) {
+        List<Object[]> filas = new ArrayList<>(deltas.size());
+        deltas.forEach((id, delta) -> {
+            if (delta != 0) {
+                filas.add(new Object[]{delta, id});
+            }
+        });
+
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!filas.isEmpty()) {
+                jdbcTemplate.batchUpdate(
+                        "UPDATE tipos_entrada SET cantidad_disponible = cantidad_disponible + ? WHERE id = ?", filas);
+                jdbcTemplate.batchUpdate(
+                        "UPDATE eventos SET entradas_disponibles = entradas_disponibles + ? " +
+                        "WHERE id = (SELECT evento_id FROM tipos_entrada WHERE id = ?)", filas);
+            }
+            jdbcTemplate.update("UPDATE inventario_checkpoint SET ultimo_segmento = ? WHERE id = 1", checkpoint);
+        });
+    }
+
+    private long leerCheckpoint() {
+        Long checkpoint = jdbcTemplate.queryForObject(
+                "SELECT ultimo_segmento FROM inventario_checkpoint WHERE id = 1", Long.class);
+        return checkpoint != null ? checkpoint : 0L;
+    }
+
+    private Contador cargar(Franja franja, Long tipoEntradaId) {
+        Contador contador = franja.contadores.get(tipoEntradaId);
+        if (contador == null) {
+            TipoEntrada tipoEntrada = tipoEntradaRepository.findById(tipoEntradaId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Tipo de entrada no encontrado con id: " + tipoEntradaId));
+            contador = new Contador(tipoEntrada.getCantidadDisponible(), tipoEntrada.getActivo());
+            franja.contadores.put(tipoEntradaId, contador);
+        }
+        return contador;
+    }
+
+    private Franja franja(Long tipoEntradaId) {
+        return franjas[(int) Math.floorMod(tipoEntradaId, (long) franjas.length)];
+    }
+
+    private void bloquearTodas() {
+        for (Franja franja : franjas) {
+            franja.lock.lock();
+        }
+    }
+
+    private void desbloquearTodas() {
+        for (int i = franjas.length - 1; i >= 0; i--) {
+            franjas[i].lock.unlock();
+        }
+    }
+
+    private static final class Franja {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition edicionTerminada = lock.newCondition();
+        private final Map<Long, Contador> contadores = new HashMap<>();
+        private final Set<Long> enEdicion = new HashSet<>();
+    }
+
+    private static final class Contador {
+        private int disponible;
+        private int pendiente;
+        private final boolean activo;
+
+        private Contador(int disponible, boolean activo) {
+            this.disponible = disponible;
+            this.activo = activo;
+        }
+    }
+}
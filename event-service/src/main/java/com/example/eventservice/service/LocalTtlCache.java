@@ -0,0 +1,51 @@
+package com.example.eventservice.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Cache en memoria acotada por tamaño (LRU) y con TTL por entrada.
+ * Usada como tier local de {@link EventCatalogCache}.
+ */
+class LocalTtlCache<K, V> {
+
+    private final long ttlMs;
+    private final LinkedHashMap<K, Entrada<V>> entradas;
+
+    LocalTtlCache(int maxSize, long ttlMs) {
+        this.ttlMs = ttlMs;
+        this.entradas = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entrada<V>> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    synchronized V get(K clave) {
+        Entrada<V> entrada = entradas.get(clave);
+        if (entrada == null) {
+            return null;
+        }
+        if (entrada.venceMs <= System.currentTimeMillis()) {
+            entradas.remove(clave);
+            return null;
+        }
+        return entrada.valor;
+    }
+
+    synchronized void put(K clave, V valor) {
+        entradas.put(clave, new Entrada<>(valor, System.currentTimeMillis() + ttlMs));
+    }
+
+    synchronized void remove(K clave) {
+        entradas.remove(clave);
+    }
+
+    synchronized void clear() {
+        entradas.clear();
+    }
+
+    private record Entrada<V>(V valor, long venceMs) {
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.eventservice.service;
+
+import com.example.eventservice.exception.BadRequestException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Registro de operaciones de stock con clave de idempotencia (tabla operaciones_stock).
+ *
+ * Permite a ticket-service reintentar o compensar una reserva en lote cuando no sabe si
+ * se aplicó (timeout de lectura, 5xx): la misma clave descuenta y restaura como mucho una vez.
+ * Debe usarse dentro de la transacción que modifica el stock.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+class OperacionStockRegistro {
+
+    private static final String RESERVADA = "RESERVADA";
+    private static final String LIBERADA = "LIBERADA";
+    private static final String ANULADA = "ANULADA";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Registra la reserva de una línea.
+     *
+     * @return true si hay que descontar el stock; false si la operación ya estaba reservada
+     * @throws BadRequestException si la operación ya fue liberada o anulada
+     */
+    boolean registrarReserva(String operacionId, Long tipoEntradaId, int cantidad) {
+        try {
+            jdbcTemplate.update(
+                    "INSERT INTO operaciones_stock (id, tipo_entrada_id, cantidad, estado) VALUES (?, ?, ?, ?)",
+                    operacionId, tipoEntradaId, cantidad, RESERVADA);
+            return true;
+        } catch (DuplicateKeyException e) {
+            String estado = estado(operacionId);
+            if (RESERVADA.equals(estado)) {
+                log.info("Operación de stock {} ya reservada, se ignora el reintento", operacionId);
+                return false;
+            }
+            throw new BadRequestException("La operación de stock " + operacionId + " ya fue " + estado.toLowerCase());
+        }
+    }
+
+    /**
+     * Registra la liberación de una línea.
+     *
+     * Si la reserva no existe (nunca llegó a aplicarse o aún no ha hecho commit) se deja una
+     * marca ANULADA para que una reserva tardía con la misma clave sea rechazada.
+     *
+     * @return true si hay que restaurar el stock; false si no hay nada que restaurar
+     */
+    boolean registrarLiberacion(String operacionId, Long tipoEntradaId, int cantidad) {
+        if (marcarLiberada(operacionId)) {
+            return true;
+        }
+        try {
+            jdbcTemplate.update(
+                    "INSERT INTO operaciones_stock (id, tipo_entrada_id, cantidad, estado) VALUES (?, ?, ?, ?)",
+                    operacionId, tipoEntradaId, cantidad, ANULADA);
+            log.warn("Operación de stock {} liberada sin reserva previa: queda anulada", operacionId);
+            return false;
+        } catch (DuplicateKeyException e) {
+            // La reserva hizo commit entre el UPDATE y el INSERT, o ya estaba liberada/anulada
+            return marcarLiberada(operacionId);
+        }
+    }
+
+    private boolean marcarLiberada(String operacionId) {
+        return jdbcTemplate.update(
+                "UPDATE operaciones_stock SET estado = ? WHERE id = ? AND estado = ?",
+                LIBERADA, operacionId, RESERVADA) == 1;
+    }
+
+    private String estado(String operacionId) {
+        List<String> estados = jdbcTemplate.queryForList(
+                "SELECT estado FROM operaciones_stock WHERE id = ?", String.class, operacionId);
+        return estados.isEmpty() ? ANULADA : estados.get(0);
+    }
+}
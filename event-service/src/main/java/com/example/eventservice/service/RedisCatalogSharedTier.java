@@ -0,0 +1,115 @@
+package com.example.eventservice.service;
+
+import com.example.eventservice.dto.EventDto;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Tier compartido del catálogo en Redis (catalog.cache.shared.enabled=true).
+ *
+ * Claves: catalog:event:&lt;id&gt; (EventDto en JSON) y catalog:list:&lt;nombre&gt; (IDs).
+ * Las invalidaciones se publican en el canal catalog:invalidate para que cada instancia
+ * limpie su tier local. La conexión es la de Spring Boot (spring.data.redis.*) y los mensajes
+ * llegan por el contenedor de {@link com.example.eventservice.config.CatalogRedisConfig}.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "catalog.cache.shared.enabled", havingValue = "true")
+public class RedisCatalogSharedTier implements CatalogSharedTier {
+
+    private static final String PREFIJO_EVENTO = "catalog:event:";
+    private static final String PREFIJO_LISTADO = "catalog:list:";
+    private static final String CANAL_INVALIDACION = "catalog:invalidate";
+
+    private final ObjectMapper objectMapper;
+    private final StringRedisTemplate redis;
+    private final Duration ttl;
+    private final List<Consumer<Long>> listeners = new CopyOnWriteArrayList<>();
+
+    public RedisCatalogSharedTier(ObjectMapper objectMapper,
+                                  StringRedisTemplate redis,
+                                  RedisMessageListenerContainer catalogListenerContainer,
+                                  @Value("${catalog.cache.shared.ttl-ms:300000}") long ttlMs) {
+        this.objectMapper = objectMapper;
+        this.redis = redis;
+        this.ttl = Duration.ofMillis(ttlMs);
+
+        catalogListenerContainer.addMessageListener((message, pattern) -> {
+            Long eventoId = Long.valueOf(new String(message.getBody(), StandardCharsets.UTF_8));
+            listeners.forEach(listener -> listener.accept(eventoId));
+        }, new ChannelTopic(CANAL_INVALIDACION));
+        log.info("Tier compartido del catálogo en Redis (TTL {} ms)", ttlMs);
+    }
+
+    @Override
+    public Optional<EventDto> getEvento(Long eventoId) {
+        return leer(PREFIJO_EVENTO + eventoId, new TypeReference<>() {});
+    }
+
+    @Override
+    public void putEvento(EventDto evento) {
+        escribir(PREFIJO_EVENTO + evento.getId(), evento);
+    }
+
+    @Override
+    public Optional<List<Long>> getListado(String nombre) {
+        return leer(PREFIJO_LISTADO + nombre, new TypeReference<>() {});
+    }
+
+    @Override
+    public void putListado(String nombre, List<Long> eventoIds) {
+        escribir(PREFIJO_LISTADO + nombre, eventoIds);
+    }
+
+    @Override
+    public void invalidar(Long eventoId) {
+        try {
+            List<String> claves = new ArrayList<>();
+            claves.add(PREFIJO_EVENTO + eventoId);
+            EventCatalogCache.LISTADOS.forEach(nombre -> claves.add(PREFIJO_LISTADO + nombre));
+            redis.delete(claves);
+            redis.convertAndSend(CANAL_INVALIDACION, eventoId.toString());
+        } catch (RuntimeException e) {
+            log.warn("No se pudo invalidar el evento {} en Redis: {}", eventoId, e.getMessage());
+        }
+    }
+
+    @Override
+    public void alInvalidar(Consumer<Long> listener) {
+        listeners.add(listener);
+    }
+
+    private <T> Optional<T> leer(String clave, TypeReference<T> tipo) {
+        try {
+            String json = redis.opsForValue().get(clave);
+            return json != null ? Optional.of(objectMapper.readValue(json, tipo)) : Optional.empty();
+        } catch (JsonProcessingException | RuntimeException e) {
+            log.warn("Error leyendo {} desde Redis: {}", clave, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private void escribir(String clave, Object valor) {
+        try {
+            redis.opsForValue().set(clave, objectMapper.writeValueAsString(valor), ttl);
+        } catch (JsonProcessingException | RuntimeException e) {
+            log.warn("Error escribiendo {} en Redis: {}", clave, e.getMessage());
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package com.example.eventservice.service;
 
 import com.example.eventservice.dto.CreateTipoEntradaRequest;
+import com.example.eventservice.dto.StockLoteRequest;
+import com.example.eventservice.dto.StockReservaResponse;
 import com.example.eventservice.dto.TipoEntradaDto;
 import com.example.eventservice.dto.UpdateTipoEntradaRequest;
 import com.example.eventservice.exception.BadRequestException;
@@ -14,7 +16,11 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
 
 @Service
@@ -24,6 +30,9 @@ public class TipoEntradaService {
 
     private final TipoEntradaRepository tipoEntradaRepository;
     private final EventRepository eventRepository;
+    private final Optional<InventoryLedgerService> inventoryLedger;
+    private final EventCatalogCache catalogCache;
+    private final OperacionStockRegistro operacionStock;
 
     @Transactional
     public TipoEntradaDto createTipoEntrada(Long eventoId, CreateTipoEntradaRequest request) {
@@ -51,6 +60,8 @@ public class TipoEntradaService {
                 .build();
 
         tipoEntrada = tipoEntradaRepository.save(tipoEntrada);
+        eventRepository.ajustarAgregados(eventoId, request.getCantidad(), request.getCantidad());
+        catalogCache.invalidarEvento(eventoId);
         log.info("Tipo de entrada creado exitosamente con id: {}", tipoEntrada.getId());
 
         return TipoEntradaDto.fromEntity(tipoEntrada);
@@ -74,6 +85,7 @@ public class TipoEntradaService {
 
         return tiposEntrada.stream()
                 .map(TipoEntradaDto::fromEntity)
+                .map(this::conStockDelLedger)
                 .collect(Collectors.toList());
     }
 
@@ -84,16 +96,22 @@ public class TipoEntradaService {
         TipoEntrada tipoEntrada = tipoEntradaRepository.findById(tipoEntradaId)
                 .orElseThrow(() -> new ResourceNotFoundException("Tipo de entrada no encontrado con id: " + tipoEntradaId));
 
-        return TipoEntradaDto.fromEntity(tipoEntrada);
+        return conStockDelLedger(TipoEntradaDto.fromEntity(tipoEntrada));
     }
 
     @Transactional
     public TipoEntradaDto updateTipoEntrada(Long tipoEntradaId, UpdateTipoEntradaRequest request) {
         log.info("Actualizando tipo de entrada con id: {}", tipoEntradaId);
 
+        // Con el ledger activo, volcar los deltas en memoria y bloquear el tipo hasta el commit
+        inventoryLedger.ifPresent(ledger -> ledger.iniciarEdicion(tipoEntradaId));
+
         TipoEntrada tipoEntrada = tipoEntradaRepository.findById(tipoEntradaId)
                 .orElseThrow(() -> new ResourceNotFoundException("Tipo de entrada no encontrado con id: " + tipoEntradaId));
 
+        int totalAnterior = tipoEntrada.getCantidadTotal();
+        int disponibleAnterior = tipoEntrada.getCantidadDisponible();
+
         // Verificar nombre duplicado si se está cambiando el nombre
         if (request.getNombre() != null && !request.getNombre().equals(tipoEntrada.getNombre())) {
             if (tipoEntradaRepository.existsByEventoIdAndNombre(tipoEntrada.getEvento().getId(), request.getNombre())) {
@@ -140,7 +158,15 @@ public class TipoEntradaService {
             tipoEntrada.setActivo(request.getActivo());
         }
 
-        tipoEntrada = tipoEntradaRepository.save(tipoEntrada);
+        // Flush antes del ajuste del evento: mismo orden de bloqueo (tipo -> evento) que reservarCantidad
+        tipoEntrada = tipoEntradaRepository.saveAndFlush(tipoEntrada);
+        Long eventoId = tipoEntrada.getEvento().getId();
+        int deltaTotal = tipoEntrada.getCantidadTotal() - totalAnterior;
+        int deltaDisponible = tipoEntrada.getCantidadDisponible() - disponibleAnterior;
+        if (deltaTotal != 0 || deltaDisponible != 0) {
+            eventRepository.ajustarAgregados(eventoId, deltaTotal, deltaDisponible);
+        }
+        catalogCache.invalidarEvento(eventoId);
         log.info("Tipo de entrada actualizado exitosamente");
 
         return TipoEntradaDto.fromEntity(tipoEntrada);
@@ -150,6 +176,8 @@ public class TipoEntradaService {
     public void deleteTipoEntrada(Long tipoEntradaId) {
         log.info("Eliminando tipo de entrada con id: {}", tipoEntradaId);
 
+        inventoryLedger.ifPresent(ledger -> ledger.iniciarEdicion(tipoEntradaId));
+
         TipoEntrada tipoEntrada = tipoEntradaRepository.findById(tipoEntradaId)
                 .orElseThrow(() -> new ResourceNotFoundException("Tipo de entrada no encontrado con id: " + tipoEntradaId));
 
@@ -160,6 +188,10 @@ public class TipoEntradaService {
         }
 
         tipoEntradaRepository.delete(tipoEntrada);
+        tipoEntradaRepository.flush();
+        Long eventoId = tipoEntrada.getEvento().getId();
+        eventRepository.ajustarAgregados(eventoId, -tipoEntrada.getCantidadTotal(), -tipoEntrada.getCantidadDisponible());
+        catalogCache.invalidarEvento(eventoId);
         log.info("Tipo de entrada eliminado exitosamente");
     }
 
@@ -172,11 +204,18 @@ public class TipoEntradaService {
      * - Puede ser REVERTIDA si el pago falla (ver increaseCantidad)
      * 
      * Es transaccional para garantizar consistencia en la BD.
+     * Con inventory.ledger.enabled=true se resuelve en memoria (ver InventoryLedgerService).
      */
     @Transactional
     public void decreaseCantidad(Long tipoEntradaId, int cantidad) {
         log.info("Disminuyendo {} entradas del tipo de entrada con id: {}", cantidad, tipoEntradaId);
 
+        if (inventoryLedger.isPresent()) {
+            int disponibles = inventoryLedger.get().disminuir(tipoEntradaId, cantidad);
+            log.info("Cantidad disminuida en ledger. Disponibles ahora: {}", disponibles);
+            return;
+        }
+
         TipoEntrada tipoEntrada = tipoEntradaRepository.findById(tipoEntradaId)
                 .orElseThrow(() -> new ResourceNotFoundException("Tipo de entrada no encontrado con id: " + tipoEntradaId));
 
@@ -189,11 +228,119 @@ public class TipoEntradaService {
         }
 
         tipoEntrada.setCantidadDisponible(tipoEntrada.getCantidadDisponible() - cantidad);
-        tipoEntradaRepository.save(tipoEntrada);
+        // Flush antes del ajuste del evento: mismo orden de bloqueo (tipo -> evento) que reservarCantidad
+        tipoEntradaRepository.saveAndFlush(tipoEntrada);
+        eventRepository.ajustarEntradasDisponiblesPorTipo(tipoEntradaId, -cantidad);
 
         log.info("Cantidad disminuida exitosamente. Disponibles ahora: {}", tipoEntrada.getCantidadDisponible());
     }
 
+    /**
+     * RESERVA ATÓMICA de stock (alternativa a decreaseCantidad).
+     *
+     * En lugar de leer la entidad, validar en Java y guardarla, ejecuta un único
+     * UPDATE condicional (cantidad_disponible >= cantidad AND activo). Así dos compras
+     * concurrentes del mismo tipo nunca sobrevenden y el bloqueo de fila dura solo
+     * lo que tarda la sentencia. También ajusta Event.entradasDisponibles con otro
+     * UPDATE, sin cargar la colección tiposEntrada.
+     *
+     * @return cantidad disponible tras la reserva
+     */
+    @Transactional
+    public StockReservaResponse reservarCantidad(Long tipoEntradaId, int cantidad) {
+        log.info("Reservando {} entradas del tipo de entrada con id: {}", cantidad, tipoEntradaId);
+
+        if (cantidad <= 0) {
+            throw new BadRequestException("La cantidad a reservar debe ser mayor a 0");
+        }
+
+        if (inventoryLedger.isPresent()) {
+            int disponibles = inventoryLedger.get().disminuir(tipoEntradaId, cantidad);
+            return StockReservaResponse.builder()
+                    .tipoEntradaId(tipoEntradaId)
+                    .cantidadReservada(cantidad)
+                    .cantidadDisponible(disponibles)
+                    .build();
+        }
+
+        if (tipoEntradaRepository.decrementarSiDisponible(tipoEntradaId, cantidad) == 0) {
+            // El UPDATE no afectó filas: determinar el motivo para devolver el mismo error que decreaseCantidad
+            TipoEntrada tipoEntrada = tipoEntradaRepository.findById(tipoEntradaId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Tipo de entrada no encontrado con id: " + tipoEntradaId));
+            if (!tipoEntrada.getActivo()) {
+                throw new BadRequestException("El tipo de entrada no está activo");
+            }
+            throw new BadRequestException("No hay suficientes entradas disponibles. Disponibles: " + tipoEntrada.getCantidadDisponible());
+        }
+
+        eventRepository.ajustarEntradasDisponiblesPorTipo(tipoEntradaId, -cantidad);
+        Integer disponibles = tipoEntradaRepository.findCantidadDisponibleById(tipoEntradaId);
+
+        log.info("Reserva atómica completada. Disponibles ahora: {}", disponibles);
+
+        return StockReservaResponse.builder()
+                .tipoEntradaId(tipoEntradaId)
+                .cantidadReservada(cantidad)
+                .cantidadDisponible(disponibles)
+                .build();
+    }
+
+    /**
+     * RESERVA EN LOTE: reserva varios tipos de entrada (carrito VIP + General) en una
+     * sola transacción. Si alguna línea falla no queda ninguna reservada.
+     *
+     * Las líneas se agrupan por tipo de entrada y se procesan en orden de ID para que
+     * dos lotes concurrentes tomen los bloqueos de fila en el mismo orden.
+     *
+     * Las líneas con operacionId son idempotentes: una línea ya reservada no se vuelve a
+     * descontar y una ya liberada o anulada hace fallar el lote.
+     */
+    @Transactional
+    public List<StockReservaResponse> reservarLote(StockLoteRequest request) {
+        Map<Long, Integer> cantidades = agruparPorTipo(request, operacionStock::registrarReserva);
+        log.info("Reservando lote de {} tipos de entrada", cantidades.size());
+
+        List<StockReservaResponse> reservadas = new ArrayList<>(cantidades.size());
+        try {
+            for (Map.Entry<Long, Integer> linea : cantidades.entrySet()) {
+                reservadas.add(reservarCantidad(linea.getKey(), linea.getValue()));
+            }
+        } catch (RuntimeException e) {
+            // En BD el rollback de la transacción deshace el lote; el ledger en memoria se compensa a mano
+            inventoryLedger.ifPresent(ledger -> reservadas.forEach(r ->
+                    ledger.incrementar(r.getTipoEntradaId(), r.getCantidadReservada())));
+            throw e;
+        }
+
+        log.info("Lote reservado exitosamente");
+        return reservadas;
+    }
+
+    /**
+     * COMPENSACIÓN EN LOTE: restaura el stock de un lote reservado con reservarLote.
+     *
+     * Las líneas con operacionId solo restauran si su reserva se aplicó y no se liberó antes,
+     * así que la llamada se puede repetir ante un fallo ambiguo sin inflar el stock.
+     */
+    @Transactional
+    public void liberarLote(StockLoteRequest request) {
+        Map<Long, Integer> cantidades = agruparPorTipo(request, operacionStock::registrarLiberacion);
+        log.warn("⚠️ COMPENSACIÓN: Restaurando lote de {} tipos de entrada (ROLLBACK)", cantidades.size());
+
+        cantidades.forEach((tipoEntradaId, cantidad) -> {
+            if (inventoryLedger.isPresent()) {
+                inventoryLedger.get().incrementar(tipoEntradaId, cantidad);
+                return;
+            }
+            if (tipoEntradaRepository.incrementar(tipoEntradaId, cantidad) == 0) {
+                throw new ResourceNotFoundException("Tipo de entrada no encontrado con id: " + tipoEntradaId);
+            }
+            eventRepository.ajustarEntradasDisponiblesPorTipo(tipoEntradaId, cantidad);
+        });
+
+        log.warn("✓ Compensación de lote completada");
+    }
+
     /**
      * OPERACIÓN DE COMPENSACIÓN (SAGA Pattern).
      * 
@@ -213,12 +360,45 @@ public class TipoEntradaService {
     public void increaseCantidad(Long tipoEntradaId, int cantidad) {
         log.warn("⚠️ COMPENSACIÓN: Incrementando {} entradas al tipo de entrada con id: {} (ROLLBACK)", cantidad, tipoEntradaId);
 
+        if (inventoryLedger.isPresent()) {
+            int disponibles = inventoryLedger.get().incrementar(tipoEntradaId, cantidad);
+            log.warn("✓ Compensación completada en ledger. Disponibles restaurados a: {}", disponibles);
+            return;
+        }
+
         TipoEntrada tipoEntrada = tipoEntradaRepository.findById(tipoEntradaId)
                 .orElseThrow(() -> new ResourceNotFoundException("Tipo de entrada no encontrado con id: " + tipoEntradaId));
 
         tipoEntrada.setCantidadDisponible(tipoEntrada.getCantidadDisponible() + cantidad);
-        tipoEntradaRepository.save(tipoEntrada);
+        tipoEntradaRepository.saveAndFlush(tipoEntrada);
+        eventRepository.ajustarEntradasDisponiblesPorTipo(tipoEntradaId, cantidad);
 
         log.warn("✓ Compensación completada. Disponibles restaurados a: {}", tipoEntrada.getCantidadDisponible());
     }
+
+    /**
+     * Agrupa las líneas por tipo de entrada. Las líneas con operacionId pasan antes por el
+     * registro de operaciones y solo cuentan si éste indica que hay que aplicarlas.
+     */
+    private Map<Long, Integer> agruparPorTipo(StockLoteRequest request, OperacionIdempotente registro) {
+        Map<Long, Integer> cantidades = new TreeMap<>();
+        request.getLineas().forEach(linea -> {
+            if (linea.getOperacionId() == null
+                    || registro.aplicar(linea.getOperacionId(), linea.getTipoEntradaId(), linea.getCantidad())) {
+                cantidades.merge(linea.getTipoEntradaId(), linea.getCantidad(), Integer::sum);
+            }
+        });
+        return cantidades;
+    }
+
+    @FunctionalInterface
+    private interface OperacionIdempotente {
+        boolean aplicar(String operacionId, Long tipoEntradaId, int cantidad);
+    }
+
+    private TipoEntradaDto conStockDelLedger(TipoEntradaDto dto) {
+        inventoryLedger.flatMap(ledger -> ledger.disponible(dto.getId()))
+                .ifPresent(dto::setCantidadDisponible);
+        return dto;
+    }
 }
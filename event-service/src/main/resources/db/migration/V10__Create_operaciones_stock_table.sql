@@ -0,0 +1,11 @@
+-- Operaciones de stock con clave de idempotencia (reservar-lote / liberar-lote).
+-- RESERVADA: stock descontado; LIBERADA: stock restaurado; ANULADA: la liberación llegó
+-- antes que la reserva (o la reserva nunca se aplicó) y la reserva ya no debe aplicarse.
+CREATE TABLE IF NOT EXISTS operaciones_stock (
+    id VARCHAR(64) PRIMARY KEY,
+    tipo_entrada_id BIGINT NOT NULL,
+    cantidad INT NOT NULL,
+    estado VARCHAR(16) NOT NULL,
+    fecha_creacion DATETIME DEFAULT CURRENT_TIMESTAMP,
+    fecha_actualizacion DATETIME DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
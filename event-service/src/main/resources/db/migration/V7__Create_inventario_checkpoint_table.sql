@@ -0,0 +1,8 @@
+-- Checkpoint del ledger de inventario en memoria: último segmento del journal ya aplicado
+CREATE TABLE IF NOT EXISTS inventario_checkpoint (
+    id TINYINT PRIMARY KEY,
+    ultimo_segmento BIGINT NOT NULL,
+    fecha_actualizacion DATETIME DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+INSERT IGNORE INTO inventario_checkpoint (id, ultimo_segmento) VALUES (1, 0);
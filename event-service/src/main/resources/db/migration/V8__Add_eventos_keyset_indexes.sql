@@ -0,0 +1,5 @@
+-- Índices para el listado paginado por keyset (ORDER BY fecha_evento, id).
+-- InnoDB agrega el id (PK) a cada índice secundario, pero se declara explícito para documentar el orden.
+CREATE INDEX idx_eventos_estado_fecha ON eventos (estado, fecha_evento, id);
+CREATE INDEX idx_eventos_categoria_estado_fecha ON eventos (categoria, estado, fecha_evento, id);
+CREATE INDEX idx_eventos_fecha_id ON eventos (fecha_evento, id);
@@ -0,0 +1,2 @@
+-- findEventosConDisponibilidad: entradas_disponibles se mantiene por deltas y es consultable por índice
+CREATE INDEX idx_eventos_activo_disponibles ON eventos (activo, entradas_disponibles);
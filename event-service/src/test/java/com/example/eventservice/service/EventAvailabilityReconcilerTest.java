@@ -0,0 +1,71 @@
+package com.example.eventservice.service;
+
+import com.example.eventservice.model.Event;
+import com.example.eventservice.model.TipoEntrada;
+import com.example.eventservice.repository.EventRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Reconciliación de capacidad_total / entradas_disponibles, incluidos los eventos que ya
+ * no tienen ningún tipo de entrada.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "spring.datasource.url=jdbc:h2:mem:event_db_reconciliacion;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "inventory.reconcile.enabled=true",
+        "inventory.reconcile.interval-ms=3600000"
+})
+@ActiveProfiles("test")
+class EventAvailabilityReconcilerTest {
+
+    @Autowired
+    private EventAvailabilityReconciler reconciler;
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void corrigeEventosDescuadradosConYSinTiposDeEntrada() {
+        Event sinTipos = eventRepository.save(evento().capacidadTotal(50).entradasDisponibles(50).build());
+        Event conTipo = evento().build();
+        conTipo.addTipoEntrada(TipoEntrada.builder()
+                .nombre("General")
+                .precio(new BigDecimal("30.00"))
+                .cantidadTotal(100)
+                .cantidadDisponible(80)
+                .orden(0)
+                .activo(true)
+                .build());
+        conTipo = eventRepository.save(conTipo);
+        jdbcTemplate.update("UPDATE eventos SET entradas_disponibles = 95 WHERE id = ?", conTipo.getId());
+
+        reconciler.reconciliar();
+
+        assertThat(agregados(sinTipos)).containsEntry("CAPACIDAD_TOTAL", 0).containsEntry("ENTRADAS_DISPONIBLES", 0);
+        assertThat(agregados(conTipo)).containsEntry("CAPACIDAD_TOTAL", 100).containsEntry("ENTRADAS_DISPONIBLES", 80);
+    }
+
+    private Map<String, Object> agregados(Event evento) {
+        return jdbcTemplate.queryForMap(
+                "SELECT capacidad_total, entradas_disponibles FROM eventos WHERE id = ?", evento.getId());
+    }
+
+    private static Event.EventBuilder evento() {
+        return Event.builder()
+                .nombre("Festival")
+                .ubicacion("Parque")
+                .fechaEvento(LocalDateTime.now().plusDays(20));
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.eventservice.service;
+
+import com.example.eventservice.dto.EventDto;
+import com.example.eventservice.model.Event;
+import com.example.eventservice.repository.EventRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Invalidaciones recibidas de otra instancia (pub/sub del tier compartido): además de limpiar
+ * el tier local, impiden que una lectura ya en curso guarde el listado viejo.
+ */
+class EventCatalogCacheTest {
+
+    private final TierCompartidoEnMemoria tier = new TierCompartidoEnMemoria();
+    private final EventCatalogCache cache = new EventCatalogCache(
+            Mockito.mock(EventRepository.class), Optional.of(tier), true, 100, 60_000);
+
+    @Test
+    void listadoLeidoSeSirveDesdeLaCache() {
+        AtomicInteger consultas = new AtomicInteger();
+
+        cache.listado(EventCatalogCache.LISTADO_TODOS, () -> consultar(consultas));
+        cache.listado(EventCatalogCache.LISTADO_TODOS, () -> consultar(consultas));
+
+        assertThat(consultas).hasValue(1);
+    }
+
+    @Test
+    void invalidacionRemotaDuranteLaLecturaNoDejaElListadoViejoEnCache() {
+        AtomicInteger consultas = new AtomicInteger();
+
+        cache.listado(EventCatalogCache.LISTADO_TODOS, () -> {
+            List<Event> leidos = consultar(consultas);
+            // Otra instancia modifica el evento mientras esta lectura está en curso
+            tier.publicarInvalidacion(1L);
+            return leidos;
+        });
+        cache.listado(EventCatalogCache.LISTADO_TODOS, () -> consultar(consultas));
+
+        assertThat(consultas).hasValue(2);
+    }
+
+    private static List<Event> consultar(AtomicInteger consultas) {
+        consultas.incrementAndGet();
+        return List.of(Event.builder().id(1L).nombre("Concierto").build());
+    }
+
+    /**
+     * Tier compartido que no guarda nada y solo reenvía las invalidaciones.
+     */
+    private static final class TierCompartidoEnMemoria implements CatalogSharedTier {
+
+        private Consumer<Long> listener;
+
+        void publicarInvalidacion(Long eventoId) {
+            listener.accept(eventoId);
+        }
+
+        @Override
+        public Optional<EventDto> getEvento(Long eventoId) {
+            return Optional.empty();
+        }
+
+        @Override
+        public void putEvento(EventDto evento) {
+        }
+
+        @Override
+        public Optional<List<Long>> getListado(String nombre) {
+            return Optional.empty();
+        }
+
+        @Override
+        public void putListado(String nombre, List<Long> eventoIds) {
+        }
+
+        @Override
+        public void invalidar(Long eventoId) {
+        }
+
+        @Override
+        public void alInvalidar(Consumer<Long> listener) {
+            this.listener = listener;
+        }
+    }
+}
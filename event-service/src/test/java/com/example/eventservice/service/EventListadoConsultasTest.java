@@ -0,0 +1,243 @@
+package com.example.eventservice.service;
+
+import com.example.eventservice.controller.EventController;
+import com.example.eventservice.dto.EventCursor;
+import com.example.eventservice.dto.EventDto;
+import com.example.eventservice.dto.EventPageResponse;
+import com.example.eventservice.exception.GlobalExceptionHandler;
+import com.example.eventservice.model.Event;
+import com.example.eventservice.model.TipoEntrada;
+import com.example.eventservice.repository.EventRepository;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Sentencias SQL y filas cargadas por los listados (Hibernate Statistics), con la cache de
+ * catálogo desactivada para que cada llamada vaya a la BD: las sentencias no deben crecer con el
+ * número de eventos (sin un SELECT de tiposEntrada por evento) y los filtros de disponibilidad y
+ * fecha se resuelven en la consulta. También el listado paginado por keyset: recorrido completo
+ * con fechas repetidas, filtros y cursor inválido (400 vía GlobalExceptionHandler).
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "spring.datasource.url=jdbc:h2:mem:event_db_consultas;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "catalog.cache.enabled=false"
+})
+@ActiveProfiles("test")
+@Slf4j
+class EventListadoConsultasTest {
+
+    private static final int TIPOS_POR_EVENTO = 2;
+
+    @Autowired
+    private EventService eventService;
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @BeforeEach
+    void limpiar() {
+        eventRepository.deleteAll();
+    }
+
+    @Test
+    void sentenciasPorListadoNoDependenDelNumeroDeEventos() {
+        crearEventos(3);
+        Map<String, Long> con3 = medirListados(3);
+
+        crearEventos(27);
+        Map<String, Long> con30 = medirListados(30);
+
+        log.info("Sentencias por listado con 3 eventos: {}", con3);
+        log.info("Sentencias por listado con 30 eventos: {}", con30);
+        assertThat(con30).isEqualTo(con3);
+    }
+
+    @Test
+    void disponibilidadYProximosSoloCarganLosEventosQueCumplenElFiltro() {
+        Event conEntradas = crearEvento("Con entradas", LocalDateTime.now().plusDays(10), 100, true);
+        Event agotado = crearEvento("Agotado", LocalDateTime.now().plusDays(11), 0, true);
+        crearEvento("Inactivo", LocalDateTime.now().plusDays(12), 100, false);
+        Event pasado = crearEvento("Pasado", LocalDateTime.now().minusDays(1), 100, true);
+
+        Statistics estadisticas = estadisticas();
+        estadisticas.clear();
+        assertThat(eventService.getEventsWithAvailability()).extracting(EventDto::getId)
+                .containsExactlyInAnyOrder(conEntradas.getId(), pasado.getId());
+        assertThat(eventosCargados(estadisticas)).isEqualTo(2);
+
+        estadisticas.clear();
+        assertThat(eventService.getUpcomingEvents()).extracting(EventDto::getId)
+                .containsExactlyInAnyOrder(conEntradas.getId(), agotado.getId());
+        assertThat(eventosCargados(estadisticas)).isEqualTo(2);
+    }
+
+    @Test
+    void recorrerLasPaginasConFechasEmpatadasNoRepiteNiSaltaEventos() {
+        LocalDateTime[] fechas = {
+                LocalDateTime.of(2030, 3, 1, 20, 0), LocalDateTime.of(2030, 3, 1, 20, 0),
+                LocalDateTime.of(2030, 3, 1, 20, 0), LocalDateTime.of(2030, 2, 1, 20, 0),
+                LocalDateTime.of(2030, 4, 1, 20, 0), LocalDateTime.of(2030, 4, 1, 20, 0),
+                LocalDateTime.of(2030, 3, 1, 20, 0)};
+        List<Event> creados = new ArrayList<>();
+        for (int i = 0; i < fechas.length; i++) {
+            creados.add(crearEvento("Evento " + i, fechas[i], 100, true));
+        }
+        List<Long> esperados = creados.stream()
+                .sorted(Comparator.comparing(Event::getFechaEvento).thenComparing(Event::getId))
+                .map(Event::getId)
+                .toList();
+
+        // Tamaño 2: varios cortes de página caen dentro de un grupo con la misma fecha
+        List<Long> recorridos = new ArrayList<>();
+        String cursor = null;
+        int paginas = 0;
+        do {
+            EventPageResponse pagina = eventService.getEventsPage(null, null, null, null, false, cursor, 2);
+            pagina.getEventos().forEach(evento -> recorridos.add(evento.getId()));
+            assertThat(pagina.isHasMore()).isEqualTo(pagina.getNextCursor() != null);
+            cursor = pagina.getNextCursor();
+            paginas++;
+        } while (cursor != null);
+
+        assertThat(recorridos).containsExactlyElementsOf(esperados);
+        assertThat(paginas).isEqualTo(4);
+    }
+
+    @Test
+    void losFiltrosDeLaPaginaSeAplicanPorSeparadoYCombinados() {
+        LocalDateTime desde = LocalDateTime.of(2030, 3, 1, 0, 0);
+        LocalDateTime hasta = LocalDateTime.of(2030, 5, 1, 0, 0);
+        Long buscado = guardar(evento("Buscado", "Rock", LocalDateTime.of(2030, 3, 1, 0, 0)), 100).getId();
+        Long cancelado = guardar(evento("Cancelado", "Rock", LocalDateTime.of(2030, 3, 2, 20, 0))
+                .estado(Event.EstadoEvento.CANCELADO), 100).getId();
+        Long jazz = guardar(evento("Jazz", "Jazz", LocalDateTime.of(2030, 3, 3, 20, 0)), 100).getId();
+        Long agotado = guardar(evento("Agotado", "Rock", LocalDateTime.of(2030, 3, 4, 20, 0)), 0).getId();
+        Long enHasta = guardar(evento("En el límite", "Rock", hasta), 100).getId();
+        Long anterior = guardar(evento("Anterior", "Rock", LocalDateTime.of(2030, 2, 1, 20, 0)), 100).getId();
+
+        // desde es inclusivo y hasta exclusivo; el estado no distingue mayúsculas
+        assertThat(pagina("activo", "Rock", desde, hasta, true)).containsExactly(buscado);
+        assertThat(pagina(null, "Rock", desde, hasta, true)).containsExactly(buscado, cancelado);
+        assertThat(pagina("activo", null, desde, hasta, true)).containsExactly(buscado, jazz);
+        assertThat(pagina("activo", "Rock", null, hasta, true)).containsExactly(anterior, buscado);
+        assertThat(pagina("activo", "Rock", desde, null, true)).containsExactly(buscado, enHasta);
+        assertThat(pagina("activo", "Rock", desde, hasta, false)).containsExactly(buscado, agotado);
+    }
+
+    @Test
+    void cursorOEstadoInvalidosResponden400() throws Exception {
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(new EventController(eventService))
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+
+        mockMvc.perform(get("/api/eventos/pagina").param("cursor", "no-es-un-cursor"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Cursor de paginación inválido"));
+        mockMvc.perform(get("/api/eventos/pagina").param("estado", "PENDIENTE"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/eventos/pagina").param("cursor", new EventCursor(LocalDateTime.of(2030, 1, 1, 0, 0), 1L).encode()))
+                .andExpect(status().isOk());
+    }
+
+    private List<Long> pagina(String estado, String categoria, LocalDateTime desde, LocalDateTime hasta,
+                              boolean conDisponibilidad) {
+        return eventService.getEventsPage(estado, categoria, desde, hasta, conDisponibilidad, null, 100)
+                .getEventos().stream().map(EventDto::getId).toList();
+    }
+
+    private Map<String, Long> medirListados(int eventos) {
+        Map<String, Long> sentencias = new LinkedHashMap<>();
+        sentencias.put("todos", contarSentencias(eventService::getAllEvents, eventos));
+        sentencias.put("activos", contarSentencias(eventService::getActiveEvents, eventos));
+        sentencias.put("proximos", contarSentencias(eventService::getUpcomingEvents, eventos));
+        sentencias.put("disponibilidad", contarSentencias(eventService::getEventsWithAvailability, eventos));
+        sentencias.put("pagina", contarSentencias(() -> {
+            EventPageResponse pagina = eventService.getEventsPage(null, null, null, null, false, null, 50);
+            return pagina.getEventos();
+        }, eventos));
+        return sentencias;
+    }
+
+    private long contarSentencias(Supplier<List<EventDto>> listado, int eventosEsperados) {
+        Statistics estadisticas = estadisticas();
+        estadisticas.clear();
+        List<EventDto> resultado = listado.get();
+        long sentencias = estadisticas.getPrepareStatementCount();
+
+        assertThat(resultado).hasSize(eventosEsperados)
+                .allSatisfy(evento -> assertThat(evento.getTiposEntrada()).hasSize(TIPOS_POR_EVENTO));
+        return sentencias;
+    }
+
+    private Statistics estadisticas() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    private static long eventosCargados(Statistics estadisticas) {
+        return estadisticas.getEntityStatistics(Event.class.getName()).getLoadCount();
+    }
+
+    private void crearEventos(int cantidad) {
+        for (int i = 0; i < cantidad; i++) {
+            crearEvento("Evento " + i, LocalDateTime.now().plusDays(10 + i), 100, true);
+        }
+    }
+
+    private Event crearEvento(String nombre, LocalDateTime fecha, int disponiblesPorTipo, boolean activo) {
+        return guardar(Event.builder()
+                .nombre(nombre)
+                .ubicacion("Estadio")
+                .fechaEvento(fecha)
+                .activo(activo), disponiblesPorTipo);
+    }
+
+    private static Event.EventBuilder evento(String nombre, String categoria, LocalDateTime fecha) {
+        return Event.builder()
+                .nombre(nombre)
+                .ubicacion("Estadio")
+                .categoria(categoria)
+                .fechaEvento(fecha);
+    }
+
+    private Event guardar(Event.EventBuilder builder, int disponiblesPorTipo) {
+        Event evento = builder.build();
+        for (int t = 0; t < TIPOS_POR_EVENTO; t++) {
+            evento.addTipoEntrada(TipoEntrada.builder()
+                    .nombre("Tipo " + t)
+                    .precio(new BigDecimal("25.00"))
+                    .cantidadTotal(100)
+                    .cantidadDisponible(disponiblesPorTipo)
+                    .orden(t)
+                    .activo(true)
+                    .build());
+        }
+        return eventRepository.save(evento);
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.eventservice.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class InventoryJournalTest {
+
+    @TempDir
+    Path directorio;
+
+    @Test
+    void leePendientesPosterioresAlCheckpointAgregadosPorTipo() {
+        InventoryJournal journal = new InventoryJournal(directorio, false);
+        journal.abrir(0);
+        journal.append(1L, -2);
+        journal.append(2L, -1);
+        long primero = journal.rotar();
+        journal.append(1L, -3);
+        journal.append(1L, 1);
+        journal.cerrar();
+
+        assertThat(journal.leerPendientes(0)).containsExactlyInAnyOrderEntriesOf(Map.of(1L, -4, 2L, -1));
+        // El primer segmento ya está aplicado: solo cuenta el segundo
+        assertThat(journal.leerPendientes(primero)).containsExactlyInAnyOrderEntriesOf(Map.of(1L, -2));
+    }
+
+    @Test
+    void ignoraLineaTruncadaPorUnaCaida() throws Exception {
+        Files.writeString(directorio.resolve("journal-3.log"), "7;-5\n7;-1\n7;");
+        InventoryJournal journal = new InventoryJournal(directorio, false);
+
+        assertThat(journal.leerPendientes(0)).containsExactlyEntriesOf(Map.of(7L, -6));
+    }
+
+    @Test
+    void rechazaUnaLineaInvalidaQueNoEsLaUltima() throws Exception {
+        Files.writeString(directorio.resolve("journal-1.log"), "7;-5\n7;\n7;-1\n");
+        InventoryJournal journal = new InventoryJournal(directorio, false);
+
+        assertThatThrownBy(() -> journal.leerPendientes(0)).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void abreUnSegmentoPosteriorAlosExistentesYBorraLosPersistidos() {
+        InventoryJournal journal = new InventoryJournal(directorio, false);
+        journal.abrir(5);
+        journal.append(1L, -1);
+        long cerrado = journal.rotar();
+        assertThat(cerrado).isEqualTo(6);
+
+        journal.eliminarHasta(cerrado);
+        journal.cerrar();
+
+        assertThat(directorio.resolve("journal-6.log")).doesNotExist();
+        assertThat(directorio.resolve("journal-7.log")).exists();
+        assertThat(journal.leerPendientes(cerrado)).isEmpty();
+    }
+}
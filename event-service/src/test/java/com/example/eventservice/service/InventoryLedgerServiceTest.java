@@ -0,0 +1,224 @@
+package com.example.eventservice.service;
+
+import com.example.eventservice.dto.UpdateTipoEntradaRequest;
+import com.example.eventservice.exception.BadRequestException;
+import com.example.eventservice.model.Event;
+import com.example.eventservice.model.TipoEntrada;
+import com.example.eventservice.repository.EventRepository;
+import com.example.eventservice.repository.TipoEntradaRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Ledger en memoria (inventory.ledger.enabled=true) contra H2: ventas concurrentes por franjas,
+ * write-behind, recuperación desde el journal y ediciones administrativas concurrentes con ventas.
+ * El flush programado queda prácticamente desactivado; los tests lo invocan a mano.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "spring.datasource.url=jdbc:h2:mem:ledger_db;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "inventory.ledger.enabled=true",
+        "inventory.ledger.stripes=4",
+        "inventory.ledger.flush-interval-ms=3600000"
+})
+@ActiveProfiles("test")
+class InventoryLedgerServiceTest {
+
+    private static final Path JOURNAL = crearDirectorio("ledger-journal");
+
+    @DynamicPropertySource
+    static void propiedades(DynamicPropertyRegistry registry) {
+        registry.add("inventory.ledger.journal-dir", JOURNAL::toString);
+    }
+
+    @Autowired
+    private InventoryLedgerService ledger;
+
+    @Autowired
+    private TipoEntradaService tipoEntradaService;
+
+    @Autowired
+    private TipoEntradaRepository tipoEntradaRepository;
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void ventasConcurrentesNoSobrevendenYSePersistenEnElFlush() throws Exception {
+        TipoEntrada tipo = crearEventoConTipo(100);
+        AtomicInteger aceptadas = new AtomicInteger();
+        CountDownLatch salida = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        for (int h = 0; h < 16; h++) {
+            pool.submit(() -> {
+                salida.await();
+                for (int i = 0; i < 30; i++) {
+                    try {
+                        ledger.disminuir(tipo.getId(), 1);
+                        aceptadas.incrementAndGet();
+                    } catch (BadRequestException e) {
+                        // Sin stock
+                    }
+                }
+                return null;
+            });
+        }
+        salida.countDown();
+        pool.shutdown();
+        assertThat(pool.awaitTermination(60, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(aceptadas.get()).isEqualTo(100);
+        assertThat(ledger.disponible(tipo.getId())).contains(0);
+        // Write-behind: hasta el flush, MySQL no ve las ventas
+        assertThat(tipoEntradaRepository.findCantidadDisponibleById(tipo.getId())).isEqualTo(100);
+
+        ledger.flush();
+
+        assertThat(tipoEntradaRepository.findCantidadDisponibleById(tipo.getId())).isZero();
+        assertThat(entradasDisponiblesDelEvento(tipo)).isZero();
+        // Solo queda abierto el segmento en curso; los ya aplicados se borran
+        try (Stream<Path> segmentos = Files.list(JOURNAL)) {
+            assertThat(segmentos.count()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    void recuperaDesdeElJournalLosDeltasNoPersistidos() throws Exception {
+        TipoEntrada tipo = crearEventoConTipo(50);
+        long checkpoint = checkpoint();
+
+        // Simula una caída: un segmento posterior al checkpoint que nunca llegó a MySQL
+        Path directorio = Files.createTempDirectory("ledger-recuperacion");
+        Files.writeString(directorio.resolve("journal-" + (checkpoint + 1) + ".log"),
+                tipo.getId() + ";-3\n" + tipo.getId() + ";-2\n" + tipo.getId() + ";");
+
+        InventoryLedgerService reiniciado = new InventoryLedgerService(tipoEntradaRepository, jdbcTemplate,
+                transactionManager, directorio.toString(), false, 4);
+        reiniciado.recuperar();
+        reiniciado.cerrar();
+
+        assertThat(tipoEntradaRepository.findCantidadDisponibleById(tipo.getId())).isEqualTo(45);
+        assertThat(entradasDisponiblesDelEvento(tipo)).isEqualTo(45);
+        assertThat(checkpoint()).isGreaterThan(checkpoint);
+        assertThat(directorio.resolve("journal-" + (checkpoint + 1) + ".log")).doesNotExist();
+    }
+
+    /**
+     * Caso de la revisión: una venta concurrente con la edición no debe recargar el contador
+     * antes del commit (leería un valor que la edición está a punto de pisar).
+     */
+    @Test
+    void ventaDuranteUnaEdicionEsperaAlCommitYNoPierdeDeltas() throws Exception {
+        TipoEntrada tipo = crearEventoConTipo(50);
+        ledger.disminuir(tipo.getId(), 10);
+
+        TransactionTemplate transaccion = new TransactionTemplate(transactionManager);
+        CompletableFuture<Integer> venta = transaccion.execute(status -> {
+            tipoEntradaService.updateTipoEntrada(tipo.getId(),
+                    UpdateTipoEntradaRequest.builder().cantidadTotal(60).build());
+
+            CompletableFuture<Integer> enCurso = CompletableFuture.supplyAsync(() -> ledger.disminuir(tipo.getId(), 1));
+            esperar(300);
+            assertThat(enCurso).isNotDone();
+            return enCurso;
+        });
+
+        // 50 - 10 vendidas + 10 de capacidad nueva - 1 vendida durante la edición
+        assertThat(venta.get(10, TimeUnit.SECONDS)).isEqualTo(49);
+        ledger.flush();
+        assertThat(tipoEntradaRepository.findCantidadDisponibleById(tipo.getId())).isEqualTo(49);
+        assertThat(entradasDisponiblesDelEvento(tipo)).isEqualTo(49);
+    }
+
+    @Test
+    void edicionRechazadaLiberaElTipoDeEntrada() {
+        TipoEntrada tipo = crearEventoConTipo(20);
+        ledger.disminuir(tipo.getId(), 5);
+
+        assertThatThrownBy(() -> tipoEntradaService.updateTipoEntrada(tipo.getId(),
+                UpdateTipoEntradaRequest.builder().cantidadTotal(2).build()))
+                .isInstanceOf(BadRequestException.class);
+
+        assertThat(ledger.disminuir(tipo.getId(), 1)).isEqualTo(14);
+    }
+
+    @Test
+    void iniciarEdicionExigeTransaccion() {
+        TipoEntrada tipo = crearEventoConTipo(5);
+
+        assertThatThrownBy(() -> ledger.iniciarEdicion(tipo.getId()))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    private int entradasDisponiblesDelEvento(TipoEntrada tipo) {
+        return eventRepository.findById(tipo.getEvento().getId()).orElseThrow().getEntradasDisponibles();
+    }
+
+    private long checkpoint() {
+        return jdbcTemplate.queryForObject("SELECT ultimo_segmento FROM inventario_checkpoint WHERE id = 1", Long.class);
+    }
+
+    private TipoEntrada crearEventoConTipo(int stock) {
+        Event evento = Event.builder()
+                .nombre("Festival")
+                .ubicacion("Parque")
+                .fechaEvento(LocalDateTime.now().plusDays(10))
+                .build();
+        TipoEntrada tipo = TipoEntrada.builder()
+                .nombre("General")
+                .precio(new BigDecimal("30.00"))
+                .cantidadTotal(stock)
+                .cantidadDisponible(stock)
+                .orden(0)
+                .activo(true)
+                .build();
+        evento.addTipoEntrada(tipo);
+        eventRepository.save(evento);
+        return tipo;
+    }
+
+    private static void esperar(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static Path crearDirectorio(String prefijo) {
+        try {
+            return Files.createTempDirectory(prefijo);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
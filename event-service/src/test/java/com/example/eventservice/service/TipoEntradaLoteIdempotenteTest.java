@@ -0,0 +1,125 @@
+package com.example.eventservice.service;
+
+import com.example.eventservice.dto.StockLoteRequest;
+import com.example.eventservice.exception.BadRequestException;
+import com.example.eventservice.model.Event;
+import com.example.eventservice.model.TipoEntrada;
+import com.example.eventservice.repository.EventRepository;
+import com.example.eventservice.repository.TipoEntradaRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * reservar-lote / liberar-lote con operacionId: ticket-service las repite o compensa cuando
+ * no sabe si la primera llamada se aplicó, y el stock solo debe moverse una vez.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+class TipoEntradaLoteIdempotenteTest {
+
+    @Autowired
+    private TipoEntradaService tipoEntradaService;
+
+    @Autowired
+    private TipoEntradaRepository tipoEntradaRepository;
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Test
+    void reservaRepetidaSoloDescuentaUnaVez() {
+        TipoEntrada tipo = crearEventoConTipo(10);
+        StockLoteRequest lote = lote(tipo, 3, UUID.randomUUID().toString());
+
+        tipoEntradaService.reservarLote(lote);
+        tipoEntradaService.reservarLote(lote);
+
+        assertThat(tipoEntradaRepository.findCantidadDisponibleById(tipo.getId())).isEqualTo(7);
+    }
+
+    @Test
+    void liberacionRepetidaSoloRestauraUnaVez() {
+        TipoEntrada tipo = crearEventoConTipo(10);
+        StockLoteRequest lote = lote(tipo, 4, UUID.randomUUID().toString());
+        tipoEntradaService.reservarLote(lote);
+
+        tipoEntradaService.liberarLote(lote);
+        tipoEntradaService.liberarLote(lote);
+
+        assertThat(tipoEntradaRepository.findCantidadDisponibleById(tipo.getId())).isEqualTo(10);
+        assertThat(entradasDisponiblesDelEvento(tipo)).isEqualTo(10);
+    }
+
+    /**
+     * La compensación de un timeout puede llegar cuando la reserva no se aplicó: no debe
+     * inflar el stock y la reserva que llegue después con la misma clave queda anulada.
+     */
+    @Test
+    void liberacionSinReservaPreviaAnulaLaOperacion() {
+        TipoEntrada tipo = crearEventoConTipo(10);
+        StockLoteRequest lote = lote(tipo, 2, UUID.randomUUID().toString());
+
+        tipoEntradaService.liberarLote(lote);
+        assertThat(tipoEntradaRepository.findCantidadDisponibleById(tipo.getId())).isEqualTo(10);
+
+        assertThatThrownBy(() -> tipoEntradaService.reservarLote(lote))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("anulada");
+        assertThat(tipoEntradaRepository.findCantidadDisponibleById(tipo.getId())).isEqualTo(10);
+    }
+
+    @Test
+    void lineasSinOperacionIdConservanElComportamientoAnterior() {
+        TipoEntrada tipo = crearEventoConTipo(10);
+        StockLoteRequest lote = lote(tipo, 1, null);
+
+        tipoEntradaService.reservarLote(lote);
+        tipoEntradaService.reservarLote(lote);
+        tipoEntradaService.liberarLote(lote);
+
+        assertThat(tipoEntradaRepository.findCantidadDisponibleById(tipo.getId())).isEqualTo(9);
+    }
+
+    private StockLoteRequest lote(TipoEntrada tipo, int cantidad, String operacionId) {
+        return StockLoteRequest.builder()
+                .lineas(List.of(StockLoteRequest.Linea.builder()
+                        .tipoEntradaId(tipo.getId())
+                        .cantidad(cantidad)
+                        .operacionId(operacionId)
+                        .build()))
+                .build();
+    }
+
+    private int entradasDisponiblesDelEvento(TipoEntrada tipo) {
+        return eventRepository.findById(tipo.getEvento().getId()).orElseThrow().getEntradasDisponibles();
+    }
+
+    private TipoEntrada crearEventoConTipo(int stock) {
+        Event evento = Event.builder()
+                .nombre("Teatro")
+                .ubicacion("Sala principal")
+                .fechaEvento(LocalDateTime.now().plusDays(15))
+                .build();
+        TipoEntrada tipo = TipoEntrada.builder()
+                .nombre("Platea")
+                .precio(new BigDecimal("40.00"))
+                .cantidadTotal(stock)
+                .cantidadDisponible(stock)
+                .orden(0)
+                .activo(true)
+                .build();
+        evento.addTipoEntrada(tipo);
+        eventRepository.save(evento);
+        return tipo;
+    }
+}
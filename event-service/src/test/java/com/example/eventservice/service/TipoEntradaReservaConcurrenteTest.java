@@ -0,0 +1,157 @@
+package com.example.eventservice.service;
+
+import com.example.eventservice.exception.BadRequestException;
+import com.example.eventservice.model.Event;
+import com.example.eventservice.model.TipoEntrada;
+import com.example.eventservice.repository.EventRepository;
+import com.example.eventservice.repository.TipoEntradaRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Contención sobre un mismo tipo de entrada: muchos hilos compran a la vez más entradas de
+ * las que hay. La reserva atómica (UPDATE condicional) nunca debe sobrevender; se mide también
+ * el throughput frente a decreaseCantidad (leer, validar en Java y guardar).
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+@Slf4j
+class TipoEntradaReservaConcurrenteTest {
+
+    private static final int STOCK = 200;
+    private static final int HILOS = 16;
+    private static final int INTENTOS_POR_HILO = 40;
+
+    @Autowired
+    private TipoEntradaService tipoEntradaService;
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private TipoEntradaRepository tipoEntradaRepository;
+
+    @Test
+    void reservaAtomicaNoSobrevendeBajoContencion() throws Exception {
+        TipoEntrada tipo = crearEventoConTipo(STOCK);
+
+        Resultado resultado = competir(id -> tipoEntradaService.reservarCantidad(id, 1), tipo.getId());
+
+        int disponibles = tipoEntradaRepository.findCantidadDisponibleById(tipo.getId());
+        Event evento = eventRepository.findById(tipo.getEvento().getId()).orElseThrow();
+
+        assertThat(resultado.aceptadas()).isEqualTo(STOCK);
+        assertThat(resultado.rechazadas()).isEqualTo(HILOS * INTENTOS_POR_HILO - STOCK);
+        assertThat(resultado.errores()).isZero();
+        assertThat(disponibles).isZero();
+        assertThat(evento.getEntradasDisponibles()).isZero();
+        log.info("reservarCantidad: {} aceptadas, {} rechazadas, {} ops/s",
+                resultado.aceptadas(), resultado.rechazadas(), resultado.opsPorSegundo());
+    }
+
+    @Test
+    void reservaAtomicaRechazaTipoInactivo() {
+        TipoEntrada tipo = crearEventoConTipo(10);
+        tipo.setActivo(false);
+        tipoEntradaRepository.save(tipo);
+
+        assertThatThrownBy(() -> tipoEntradaService.reservarCantidad(tipo.getId(), 1))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("no está activo");
+        assertThat(tipoEntradaRepository.findCantidadDisponibleById(tipo.getId())).isEqualTo(10);
+    }
+
+    /**
+     * Comparación con el camino anterior. decreaseCantidad puede perder actualizaciones bajo
+     * contención (lectura obsoleta), así que aquí solo se reportan las cifras, sin afirmar nada
+     * sobre su resultado.
+     */
+    @Test
+    void comparaThroughputConDecreaseCantidad() throws Exception {
+        TipoEntrada atomico = crearEventoConTipo(STOCK);
+        TipoEntrada clasico = crearEventoConTipo(STOCK);
+
+        Resultado nuevo = competir(id -> tipoEntradaService.reservarCantidad(id, 1), atomico.getId());
+        Resultado anterior = competir(id -> tipoEntradaService.decreaseCantidad(id, 1), clasico.getId());
+
+        int vendidasAnterior = STOCK - tipoEntradaRepository.findCantidadDisponibleById(clasico.getId());
+        log.info("reservarCantidad: {} ops/s | decreaseCantidad: {} ops/s ({} aceptadas, {} descontadas, {} errores)",
+                nuevo.opsPorSegundo(), anterior.opsPorSegundo(),
+                anterior.aceptadas(), vendidasAnterior, anterior.errores());
+
+        assertThat(nuevo.aceptadas()).isEqualTo(STOCK);
+    }
+
+    private Resultado competir(Consumer<Long> compra, Long tipoEntradaId) throws Exception {
+        AtomicInteger aceptadas = new AtomicInteger();
+        AtomicInteger rechazadas = new AtomicInteger();
+        AtomicInteger errores = new AtomicInteger();
+        CountDownLatch salida = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(HILOS);
+        try {
+            for (int h = 0; h < HILOS; h++) {
+                pool.submit(() -> {
+                    salida.await();
+                    for (int i = 0; i < INTENTOS_POR_HILO; i++) {
+                        try {
+                            compra.accept(tipoEntradaId);
+                            aceptadas.incrementAndGet();
+                        } catch (BadRequestException e) {
+                            rechazadas.incrementAndGet();
+                        } catch (RuntimeException e) {
+                            errores.incrementAndGet();
+                        }
+                    }
+                    return null;
+                });
+            }
+            long inicio = System.nanoTime();
+            salida.countDown();
+            pool.shutdown();
+            assertThat(pool.awaitTermination(60, TimeUnit.SECONDS)).isTrue();
+            double segundos = (System.nanoTime() - inicio) / 1e9;
+            return new Resultado(aceptadas.get(), rechazadas.get(), errores.get(),
+                    Math.round(HILOS * INTENTOS_POR_HILO / segundos));
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private TipoEntrada crearEventoConTipo(int stock) {
+        Event evento = Event.builder()
+                .nombre("Concierto")
+                .ubicacion("Estadio")
+                .fechaEvento(LocalDateTime.now().plusDays(30))
+                .categoria("Música")
+                .build();
+        TipoEntrada tipo = TipoEntrada.builder()
+                .nombre("General")
+                .precio(new BigDecimal("50.00"))
+                .cantidadTotal(stock)
+                .cantidadDisponible(stock)
+                .orden(0)
+                .activo(true)
+                .build();
+        evento.addTipoEntrada(tipo);
+        eventRepository.save(evento);
+        return tipo;
+    }
+
+    private record Resultado(int aceptadas, int rechazadas, int errores, long opsPorSegundo) {
+    }
+}
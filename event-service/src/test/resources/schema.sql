@@ -0,0 +1,15 @@
+-- Tablas que en MySQL crea Flyway y no salen de las entidades (ver db/migration)
+CREATE TABLE IF NOT EXISTS inventario_checkpoint (
+    id TINYINT PRIMARY KEY,
+    ultimo_segmento BIGINT NOT NULL
+);
+MERGE INTO inventario_checkpoint (id, ultimo_segmento) KEY (id) VALUES (1, 0);
+
+CREATE TABLE IF NOT EXISTS operaciones_stock (
+    id VARCHAR(64) PRIMARY KEY,
+    tipo_entrada_id BIGINT NOT NULL,
+    cantidad INT NOT NULL,
+    estado VARCHAR(16) NOT NULL,
+    fecha_creacion TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    fecha_actualizacion TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
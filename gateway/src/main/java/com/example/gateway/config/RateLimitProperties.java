@@ -0,0 +1,160 @@
+package com.example.gateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Rate limiting del gateway (gateway.rate-limit.*).
+ *
+ * Cada ruta listada en {@code routes} (por id) puede tener un bucket por usuario (X-User-ID del
+ * JWT ya validado) y otro por IP del cliente. Las rutas sin entrada usan {@code default-limits};
+ * si tampoco está definido, no se limitan.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "gateway.rate-limit")
+public class RateLimitProperties {
+
+    public enum Store {
+        LOCAL,  // En memoria de esta instancia
+        REDIS   // Compartido entre instancias del gateway
+    }
+
+    private boolean enabled = true;
+
+    private Store store = Store.LOCAL;
+
+    /** Máximo de claves (ruta + usuario/IP) en el store local */
+    private int maxKeys = 100_000;
+
+    /** Usar el primer X-Forwarded-For como IP del cliente (solo detrás de un proxy confiable) */
+    private boolean trustForwardedFor = false;
+
+    private String redisHost = "localhost";
+
+    private int redisPort = 6379;
+
+    private Limits defaultLimits;
+
+    private Map<String, Limits> routes = new HashMap<>();
+
+    /** Buckets de una ruta; cualquiera de los dos puede omitirse. */
+    public static class Limits {
+        private Bucket user;
+        private Bucket ip;
+
+        public Bucket getUser() {
+            return user;
+        }
+
+        public void setUser(Bucket user) {
+            this.user = user;
+        }
+
+        public Bucket getIp() {
+            return ip;
+        }
+
+        public void setIp(Bucket ip) {
+            this.ip = ip;
+        }
+    }
+
+    /** Token bucket: hasta {@code capacity} peticiones seguidas, recargando {@code refillPerSecond}. */
+    public static class Bucket {
+        private int capacity = 10;
+        private double refillPerSecond = 1.0;
+
+        public int getCapacity() {
+            return capacity;
+        }
+
+        public void setCapacity(int capacity) {
+            this.capacity = capacity;
+        }
+
+        public double getRefillPerSecond() {
+            return refillPerSecond;
+        }
+
+        public void setRefillPerSecond(double refillPerSecond) {
+            this.refillPerSecond = refillPerSecond;
+        }
+
+        /** Nanosegundos entre tokens */
+        public long intervaloNanos() {
+            return (long) (1_000_000_000L / refillPerSecond);
+        }
+
+        @Override
+        public String toString() {
+            return capacity + "@" + refillPerSecond + "/s";
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Store getStore() {
+        return store;
+    }
+
+    public void setStore(Store store) {
+        this.store = store;
+    }
+
+    public int getMaxKeys() {
+        return maxKeys;
+    }
+
+    public void setMaxKeys(int maxKeys) {
+        this.maxKeys = maxKeys;
+    }
+
+    public boolean isTrustForwardedFor() {
+        return trustForwardedFor;
+    }
+
+    public void setTrustForwardedFor(boolean trustForwardedFor) {
+        this.trustForwardedFor = trustForwardedFor;
+    }
+
+    public String getRedisHost() {
+        return redisHost;
+    }
+
+    public void setRedisHost(String redisHost) {
+        this.redisHost = redisHost;
+    }
+
+    public int getRedisPort() {
+        return redisPort;
+    }
+
+    public void setRedisPort(int redisPort) {
+        this.redisPort = redisPort;
+    }
+
+    public Limits getDefaultLimits() {
+        return defaultLimits;
+    }
+
+    public void setDefaultLimits(Limits defaultLimits) {
+        this.defaultLimits = defaultLimits;
+    }
+
+    public Map<String, Limits> getRoutes() {
+        return routes;
+    }
+
+    public void setRoutes(Map<String, Limits> routes) {
+        this.routes = routes;
+    }
+}
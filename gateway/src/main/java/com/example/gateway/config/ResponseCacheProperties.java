@@ -0,0 +1,85 @@
+package com.example.gateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Cache de respuestas del gateway (gateway.response-cache.*).
+ *
+ * Solo se cachean los GET de las rutas listadas en {@code routes} (id de ruta → TTL). Deben ser
+ * rutas públicas cuya respuesta no dependa del usuario: el gateway sirve la misma copia a todos.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "gateway.response-cache")
+public class ResponseCacheProperties {
+
+    private boolean enabled = true;
+
+    /** Máximo de respuestas guardadas */
+    private int maxEntries = 2000;
+
+    /** Máximo de memoria para los cuerpos guardados */
+    private DataSize maxSize = DataSize.ofMegabytes(32);
+
+    /** Respuestas más grandes no se guardan */
+    private DataSize maxBodySize = DataSize.ofKilobytes(512);
+
+    /** Cuánto espera una petición a la que ya está consultando al servicio para la misma URL */
+    private Duration coalesceTimeout = Duration.ofSeconds(5);
+
+    /** TTL por id de ruta; Cache-Control max-age/s-maxage del servicio puede acortarlo */
+    private Map<String, Duration> routes = new HashMap<>();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public void setMaxEntries(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    public DataSize getMaxSize() {
+        return maxSize;
+    }
+
+    public void setMaxSize(DataSize maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public DataSize getMaxBodySize() {
+        return maxBodySize;
+    }
+
+    public void setMaxBodySize(DataSize maxBodySize) {
+        this.maxBodySize = maxBodySize;
+    }
+
+    public Duration getCoalesceTimeout() {
+        return coalesceTimeout;
+    }
+
+    public void setCoalesceTimeout(Duration coalesceTimeout) {
+        this.coalesceTimeout = coalesceTimeout;
+    }
+
+    public Map<String, Duration> getRoutes() {
+        return routes;
+    }
+
+    public void setRoutes(Map<String, Duration> routes) {
+        this.routes = routes;
+    }
+}
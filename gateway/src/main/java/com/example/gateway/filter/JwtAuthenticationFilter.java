@@ -1,6 +1,7 @@
 package com.example.gateway.filter;
 
 import com.example.gateway.service.JwtService;
+import io.jsonwebtoken.Claims;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cloud.gateway.filter.GatewayFilter;
 import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
@@ -54,16 +55,19 @@ public class JwtAuthenticationFilter extends AbstractGatewayFilterFactory<JwtAut
 
             String token = authHeader.substring(7); // Remover "Bearer "
 
-            // PASO 2: Validar integridad y expiración del token JWT
-            if (!jwtService.isTokenValid(token)) {
+            // PASO 2: Validar integridad y expiración del token JWT (una sola verificación de firma;
+            // los claims verificados quedan en cache y como atributo del exchange)
+            Claims claims = jwtService.validateToken(token);
+            if (claims == null) {
                 return onError(exchange, "Token inválido o expirado", HttpStatus.UNAUTHORIZED);
             }
+            exchange.getAttributes().put(JwtService.CLAIMS_ATTRIBUTE, claims);
 
             // PASO 3: Extraer datos del token (REQUEST ENRICHMENT PATTERN)
             // Los servicios internos recibirán estos headers y NO necesitan validar JWT
-            String email = jwtService.extractEmail(token);
-            String userId = jwtService.extractUserId(token);
-            String role = jwtService.extractRole(token);
+            String email = jwtService.extractEmail(claims);
+            String userId = jwtService.extractUserId(claims);
+            String role = jwtService.extractRole(claims);
 
             // PASO 4: Añadir headers enriquecidos para los servicios internos
             // Los servicios pueden confiar en estos headers porque Gateway ya validó el JWT
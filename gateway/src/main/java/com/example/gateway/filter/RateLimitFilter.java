@@ -0,0 +1,163 @@
+package com.example.gateway.filter;
+
+import com.example.gateway.config.RateLimitProperties;
+import com.example.gateway.service.JwtService;
+import com.example.gateway.service.RateLimitStore;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Rate limiting por ruta con token buckets: uno por usuario y otro por IP del cliente.
+ *
+ * Los límites se configuran por id de ruta en gateway.rate-limit.routes (ver
+ * {@link RateLimitProperties}). El usuario sale de los claims que dejó JwtAuthenticationFilter
+ * (no del header X-User-ID, que el cliente podría enviar en rutas sin JWT), por eso este filtro
+ * corre después de los filtros de la ruta. Se evalúa primero el bucket por IP y, si pasa, el
+ * del usuario. Al rechazar responde 429 con Retry-After.
+ *
+ * Las respuestas que sirve ResponseCacheFilter no llegan hasta aquí: no consumen tokens.
+ *
+ * MÉTRICAS: gateway.ratelimit.requests (tags dimension: ip, user; result: allowed, rejected).
+ */
+@Component
+public class RateLimitFilter implements GlobalFilter, Ordered {
+
+    private static final Logger log = LoggerFactory.getLogger(RateLimitFilter.class);
+
+    private static final String REMAINING = "X-RateLimit-Remaining";
+
+    private final RateLimitProperties properties;
+    private final RateLimitStore store;
+    private final JwtService jwtService;
+
+    private final Counter ipPermitidas;
+    private final Counter ipRechazadas;
+    private final Counter usuarioPermitidas;
+    private final Counter usuarioRechazadas;
+
+    public RateLimitFilter(RateLimitProperties properties, RateLimitStore store, JwtService jwtService,
+                           MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.store = store;
+        this.jwtService = jwtService;
+
+        this.ipPermitidas = contador(meterRegistry, "ip", "allowed");
+        this.ipRechazadas = contador(meterRegistry, "ip", "rejected");
+        this.usuarioPermitidas = contador(meterRegistry, "user", "allowed");
+        this.usuarioRechazadas = contador(meterRegistry, "user", "rejected");
+
+        log.info("Rate limiting {} (store {}): rutas {}, por defecto {}",
+                properties.isEnabled() ? "activo" : "desactivado", properties.getStore(),
+                properties.getRoutes().keySet(), properties.getDefaultLimits() != null ? "sí" : "no");
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        if (!properties.isEnabled()) {
+            return chain.filter(exchange);
+        }
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        if (route == null) {
+            return chain.filter(exchange);
+        }
+        RateLimitProperties.Limits limites = properties.getRoutes().getOrDefault(route.getId(), properties.getDefaultLimits());
+        if (limites == null) {
+            return chain.filter(exchange);
+        }
+
+        String usuario = usuario(exchange);
+        return verificar(limites.getIp(), route.getId() + ":ip:" + ip(exchange.getRequest()), ipPermitidas, ipRechazadas)
+                .flatMap(porIp -> {
+                    if (!porIp.permitida() || usuario == null) {
+                        return Mono.just(porIp);
+                    }
+                    return verificar(limites.getUser(), route.getId() + ":user:" + usuario, usuarioPermitidas, usuarioRechazadas)
+                            .map(porUsuario -> porUsuario.permitida() && porIp.restantes() < porUsuario.restantes()
+                                    ? porIp
+                                    : porUsuario);
+                })
+                .flatMap(decision -> {
+                    if (decision.restantes() != Long.MAX_VALUE) {
+                        exchange.getResponse().getHeaders().set(REMAINING, Long.toString(decision.restantes()));
+                    }
+                    return decision.permitida() ? chain.filter(exchange) : rechazar(exchange, decision, route.getId());
+                });
+    }
+
+    /** Sin bucket configurado para la dimensión: se permite sin límite. */
+    private Mono<RateLimitStore.Decision> verificar(RateLimitProperties.Bucket bucket, String clave,
+                                                    Counter permitidas, Counter rechazadas) {
+        if (bucket == null) {
+            return Mono.just(new RateLimitStore.Decision(true, Long.MAX_VALUE, 0));
+        }
+        return store.consumir(clave, bucket)
+                .doOnNext(decision -> (decision.permitida() ? permitidas : rechazadas).increment());
+    }
+
+    private String usuario(ServerWebExchange exchange) {
+        Claims claims = exchange.getAttribute(JwtService.CLAIMS_ATTRIBUTE);
+        return claims != null ? jwtService.extractUserId(claims) : null;
+    }
+
+    private String ip(ServerHttpRequest request) {
+        if (properties.isTrustForwardedFor()) {
+            String forwardedFor = request.getHeaders().getFirst("X-Forwarded-For");
+            if (forwardedFor != null && !forwardedFor.isBlank()) {
+                int coma = forwardedFor.indexOf(',');
+                return (coma > 0 ? forwardedFor.substring(0, coma) : forwardedFor).trim();
+            }
+        }
+        InetSocketAddress remota = request.getRemoteAddress();
+        if (remota == null) {
+            return "desconocida";
+        }
+        return remota.getAddress() != null ? remota.getAddress().getHostAddress() : remota.getHostString();
+    }
+
+    private Mono<Void> rechazar(ServerWebExchange exchange, RateLimitStore.Decision decision, String routeId) {
+        long segundos = Math.max(1, (decision.reintentarEnMs() + 999) / 1000);
+        log.debug("Rate limit excedido en {} para {}", routeId, ip(exchange.getRequest()));
+
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+        response.getHeaders().set(HttpHeaders.RETRY_AFTER, Long.toString(segundos));
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        String cuerpo = String.format("{\"error\":\"Demasiadas peticiones, reintente en %d segundos\",\"status\":%d}",
+                segundos, HttpStatus.TOO_MANY_REQUESTS.value());
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(cuerpo.getBytes(StandardCharsets.UTF_8))));
+    }
+
+    private static Counter contador(MeterRegistry meterRegistry, String dimension, String resultado) {
+        return Counter.builder("gateway.ratelimit.requests")
+                .description("Peticiones evaluadas por el rate limiting")
+                .tag("dimension", dimension)
+                .tag("result", resultado)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public int getOrder() {
+        // Los filtros de cada ruta (AddRequestHeader, JwtAuthenticationFilter...) tienen orden 1..n
+        // según su posición; este corre después, con los claims ya validados, y antes del ruteo
+        return 1000;
+    }
+}
@@ -0,0 +1,344 @@
+package com.example.gateway.filter;
+
+import com.example.gateway.config.ResponseCacheProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.reactivestreams.Publisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache de respuestas para los GET públicos del catálogo (eventos, tipos de entrada).
+ *
+ * 1. HIT: la URL (path + query) está guardada y vigente → se responde sin llamar al servicio.
+ *    Si el cliente envía If-None-Match con el ETag guardado se responde 304 sin cuerpo.
+ * 2. MISS: la primera petición va al servicio y su respuesta se copia mientras se envía.
+ * 3. COALESCED: las que llegan mientras esa petición está en curso esperan su resultado en lugar
+ *    de ir también al servicio (gateway.response-cache.coalesce-timeout); si no resultó cacheable
+ *    o no llegó a tiempo, siguen al servicio normalmente.
+ *
+ * CACHE-CONTROL: se respeta no-store/no-cache de la petición (va directo al servicio) y de la
+ * respuesta (no se guarda), igual que private, Set-Cookie y Vary: *. max-age/s-maxage de la
+ * respuesta acortan el TTL de la ruta. Si el servicio no envía ETag se genera uno débil.
+ *
+ * MÉTRICAS: gateway.response.cache (tag result: hit, miss, coalesced, bypass),
+ * gateway.response.cache.not_modified, gateway.response.cache.size y .bytes.
+ */
+@Component
+public class ResponseCacheFilter implements GlobalFilter, Ordered {
+
+    private static final Logger log = LoggerFactory.getLogger(ResponseCacheFilter.class);
+
+    private static final String X_CACHE = "X-Cache";
+
+    /** Headers que no se guardan: de conexión, o que el gateway calcula en cada respuesta (CORS) */
+    private static final Set<String> HEADERS_NO_GUARDADOS = Set.of(
+            HttpHeaders.CONNECTION.toLowerCase(Locale.ROOT),
+            HttpHeaders.TRANSFER_ENCODING.toLowerCase(Locale.ROOT),
+            HttpHeaders.CONTENT_LENGTH.toLowerCase(Locale.ROOT),
+            HttpHeaders.DATE.toLowerCase(Locale.ROOT),
+            "keep-alive",
+            X_CACHE.toLowerCase(Locale.ROOT));
+
+    private final ResponseCacheProperties properties;
+    private final ResponseCacheStore store;
+    private final Map<String, CompletableFuture<ResponseCacheStore.Entrada>> enCurso = new ConcurrentHashMap<>();
+
+    private final Counter aciertos;
+    private final Counter fallos;
+    private final Counter agrupadas;
+    private final Counter directas;
+    private final Counter noModificadas;
+
+    public ResponseCacheFilter(ResponseCacheProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.store = new ResponseCacheStore(properties.getMaxEntries(), properties.getMaxSize().toBytes());
+
+        this.aciertos = resultado(meterRegistry, "hit");
+        this.fallos = resultado(meterRegistry, "miss");
+        this.agrupadas = resultado(meterRegistry, "coalesced");
+        this.directas = resultado(meterRegistry, "bypass");
+        this.noModificadas = Counter.builder("gateway.response.cache.not_modified")
+                .description("Respuestas 304 servidas desde la cache por If-None-Match")
+                .register(meterRegistry);
+        Gauge.builder("gateway.response.cache.size", store, ResponseCacheStore::size)
+                .description("Respuestas guardadas")
+                .register(meterRegistry);
+        Gauge.builder("gateway.response.cache.bytes", store, ResponseCacheStore::bytes)
+                .description("Bytes de cuerpo guardados")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+
+        log.info("Cache de respuestas {}: rutas {}", properties.isEnabled() ? "activa" : "desactivada",
+                properties.getRoutes());
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        Duration ttlRuta = ttlRuta(exchange);
+        if (ttlRuta == null || request.getMethod() != HttpMethod.GET) {
+            return chain.filter(exchange);
+        }
+        if (sinCache(request.getHeaders())) {
+            directas.increment();
+            return chain.filter(exchange);
+        }
+
+        String clave = request.getURI().getRawQuery() != null
+                ? request.getURI().getRawPath() + "?" + request.getURI().getRawQuery()
+                : request.getURI().getRawPath();
+
+        ResponseCacheStore.Entrada guardada = store.get(clave, System.currentTimeMillis());
+        if (guardada != null) {
+            aciertos.increment();
+            return servir(exchange, guardada, "HIT");
+        }
+
+        CompletableFuture<ResponseCacheStore.Entrada> propia = new CompletableFuture<>();
+        CompletableFuture<ResponseCacheStore.Entrada> existente = enCurso.putIfAbsent(clave, propia);
+        if (existente != null) {
+            agrupadas.increment();
+            // suppressCancel: si este cliente se desconecta no se cancela la espera de los demás
+            return Mono.fromFuture(existente, true)
+                    .timeout(properties.getCoalesceTimeout())
+                    .map(Optional::of)
+                    .onErrorResume(e -> Mono.just(Optional.empty()))
+                    .defaultIfEmpty(Optional.empty())
+                    .flatMap(entrada -> entrada.isPresent()
+                            ? servir(exchange, entrada.get(), "COALESCED")
+                            : chain.filter(exchange));
+        }
+
+        fallos.increment();
+        ServerHttpResponse captura = new Captura(exchange.getResponse(), clave, ttlRuta, propia);
+        return chain.filter(exchange.mutate().response(captura).build())
+                .doFinally(senal -> {
+                    // Error, cancelación o respuesta no cacheable: los que esperan van al servicio
+                    propia.complete(null);
+                    enCurso.remove(clave, propia);
+                });
+    }
+
+    private Duration ttlRuta(ServerWebExchange exchange) {
+        if (!properties.isEnabled()) {
+            return null;
+        }
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        return route != null ? properties.getRoutes().get(route.getId()) : null;
+    }
+
+    private Mono<Void> servir(ServerWebExchange exchange, ResponseCacheStore.Entrada entrada, String resultado) {
+        ServerHttpResponse response = exchange.getResponse();
+        HttpHeaders headers = response.getHeaders();
+        entrada.headers().forEach((nombre, valores) -> {
+            if (!headers.containsKey(nombre)) {
+                headers.put(nombre, valores);
+            }
+        });
+        headers.setETag(entrada.etag());
+        headers.set(HttpHeaders.AGE, Long.toString(Math.max(0, (System.currentTimeMillis() - entrada.creadaMs()) / 1000)));
+        headers.set(X_CACHE, resultado);
+
+        if (coincideEtag(exchange.getRequest().getHeaders().getIfNoneMatch(), entrada.etag())) {
+            noModificadas.increment();
+            response.setStatusCode(HttpStatus.NOT_MODIFIED);
+            headers.remove(HttpHeaders.CONTENT_TYPE);
+            return response.setComplete();
+        }
+        response.setStatusCode(HttpStatus.OK);
+        headers.setContentLength(entrada.cuerpo().length);
+        return response.writeWith(Mono.fromSupplier(() -> response.bufferFactory().wrap(entrada.cuerpo())));
+    }
+
+    /** Copia el cuerpo de la respuesta del servicio mientras se envía al cliente y lo guarda al terminar. */
+    private final class Captura extends ServerHttpResponseDecorator {
+
+        private final String clave;
+        private final Duration ttlRuta;
+        private final CompletableFuture<ResponseCacheStore.Entrada> resultado;
+
+        Captura(ServerHttpResponse delegate, String clave, Duration ttlRuta,
+                CompletableFuture<ResponseCacheStore.Entrada> resultado) {
+            super(delegate);
+            this.clave = clave;
+            this.ttlRuta = ttlRuta;
+            this.resultado = resultado;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            long ttlMs = ttlCacheable(getStatusCode(), getHeaders(), ttlRuta);
+            if (ttlMs <= 0) {
+                resultado.complete(null);
+                return super.writeWith(body);
+            }
+            getHeaders().set(X_CACHE, "MISS");
+
+            int maxCuerpo = (int) properties.getMaxBodySize().toBytes();
+            ByteArrayOutputStream copia = new ByteArrayOutputStream();
+            boolean[] excedido = {false};
+            Flux<DataBuffer> conCopia = Flux.<DataBuffer>from(body)
+                    .doOnNext(buffer -> {
+                        if (excedido[0]) {
+                            return;
+                        }
+                        int legibles = buffer.readableByteCount();
+                        if (copia.size() + legibles > maxCuerpo) {
+                            excedido[0] = true;
+                            return;
+                        }
+                        byte[] bytes = new byte[legibles];
+                        int posicion = buffer.readPosition();
+                        buffer.read(bytes);
+                        buffer.readPosition(posicion);
+                        copia.writeBytes(bytes);
+                    })
+                    .doOnComplete(() -> {
+                        if (!excedido[0]) {
+                            resultado.complete(guardar(copia.toByteArray(), ttlMs));
+                        }
+                    });
+            return super.writeWith(conCopia);
+        }
+
+        private ResponseCacheStore.Entrada guardar(byte[] cuerpo, long ttlMs) {
+            HttpHeaders headers = new HttpHeaders();
+            getHeaders().forEach((nombre, valores) -> {
+                String minuscula = nombre.toLowerCase(Locale.ROOT);
+                if (!HEADERS_NO_GUARDADOS.contains(minuscula) && !minuscula.startsWith("access-control-")) {
+                    headers.put(nombre, List.copyOf(valores));
+                }
+            });
+            String etag = getHeaders().getETag() != null ? getHeaders().getETag() : etagDebil(cuerpo);
+            long ahora = System.currentTimeMillis();
+            ResponseCacheStore.Entrada entrada = new ResponseCacheStore.Entrada(
+                    HttpHeaders.readOnlyHttpHeaders(headers), cuerpo, etag, ahora, ahora + ttlMs);
+            store.put(clave, entrada);
+            return entrada;
+        }
+    }
+
+    /**
+     * TTL con el que se puede guardar la respuesta, o 0 si no es cacheable.
+     */
+    private static long ttlCacheable(HttpStatusCode status, HttpHeaders headers, Duration ttlRuta) {
+        if (status == null || status.value() != HttpStatus.OK.value()
+                || headers.containsKey(HttpHeaders.SET_COOKIE)
+                || headers.containsKey(HttpHeaders.CONTENT_ENCODING)
+                || headers.getVary().contains("*")) {
+            return 0;
+        }
+        long ttlMs = ttlRuta.toMillis();
+        Long maxAge = null;
+        Long sMaxAge = null;
+        for (String directiva : directivas(headers)) {
+            if (directiva.equals("no-store") || directiva.equals("no-cache") || directiva.equals("private")) {
+                return 0;
+            }
+            if (directiva.startsWith("s-maxage=")) {
+                sMaxAge = segundos(directiva.substring("s-maxage=".length()));
+            } else if (directiva.startsWith("max-age=")) {
+                maxAge = segundos(directiva.substring("max-age=".length()));
+            }
+        }
+        // s-maxage aplica a caches compartidas como esta y tiene prioridad sobre max-age
+        Long limite = sMaxAge != null ? sMaxAge : maxAge;
+        return limite != null ? Math.min(ttlMs, limite * 1000) : ttlMs;
+    }
+
+    private static boolean sinCache(HttpHeaders headers) {
+        for (String directiva : directivas(headers)) {
+            if (directiva.equals("no-cache") || directiva.equals("no-store")) {
+                return true;
+            }
+        }
+        return "no-cache".equalsIgnoreCase(headers.getPragma());
+    }
+
+    private static List<String> directivas(HttpHeaders headers) {
+        List<String> valores = headers.getOrEmpty(HttpHeaders.CACHE_CONTROL);
+        if (valores.isEmpty()) {
+            return List.of();
+        }
+        return valores.stream()
+                .flatMap(valor -> Arrays.stream(valor.split(",")))
+                .map(directiva -> directiva.trim().toLowerCase(Locale.ROOT))
+                .toList();
+    }
+
+    private static long segundos(String valor) {
+        try {
+            return Math.max(0, Long.parseLong(valor.replace("\"", "").trim()));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static boolean coincideEtag(List<String> ifNoneMatch, String etag) {
+        String buscado = sinPrefijoDebil(etag);
+        for (String candidato : ifNoneMatch) {
+            if (candidato.equals("*") || sinPrefijoDebil(candidato).equals(buscado)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String sinPrefijoDebil(String etag) {
+        return etag.startsWith("W/") ? etag.substring(2) : etag;
+    }
+
+    private static String etagDebil(byte[] cuerpo) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(cuerpo);
+            return "W/\"" + HexFormat.of().formatHex(hash, 0, 12) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+
+    private static Counter resultado(MeterRegistry meterRegistry, String resultado) {
+        return Counter.builder("gateway.response.cache")
+                .description("Peticiones GET a rutas cacheables")
+                .tag("result", resultado)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public int getOrder() {
+        return -40; // Después de ErrorStandardizationFilter; antes de NettyWriteResponseFilter (-1)
+    }
+}
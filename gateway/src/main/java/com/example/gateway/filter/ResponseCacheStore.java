@@ -0,0 +1,64 @@
+package com.example.gateway.filter;
+
+import org.springframework.http.HttpHeaders;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Respuestas guardadas por URL, acotadas por cantidad y por bytes totales de cuerpo.
+ *
+ * LRU por acceso: al superar cualquiera de los dos límites se descartan primero las menos
+ * usadas. Las entradas vencidas se eliminan al encontrarlas.
+ */
+class ResponseCacheStore {
+
+    private final int maxEntradas;
+    private final long maxBytes;
+    private final LinkedHashMap<String, Entrada> entradas = new LinkedHashMap<>(256, 0.75f, true);
+    private long bytes;
+
+    record Entrada(HttpHeaders headers, byte[] cuerpo, String etag, long creadaMs, long venceMs) {
+    }
+
+    ResponseCacheStore(int maxEntradas, long maxBytes) {
+        this.maxEntradas = maxEntradas;
+        this.maxBytes = maxBytes;
+    }
+
+    synchronized Entrada get(String clave, long ahora) {
+        Entrada entrada = entradas.get(clave);
+        if (entrada == null) {
+            return null;
+        }
+        if (entrada.venceMs() <= ahora) {
+            entradas.remove(clave);
+            bytes -= entrada.cuerpo().length;
+            return null;
+        }
+        return entrada;
+    }
+
+    synchronized void put(String clave, Entrada entrada) {
+        Entrada anterior = entradas.put(clave, entrada);
+        if (anterior != null) {
+            bytes -= anterior.cuerpo().length;
+        }
+        bytes += entrada.cuerpo().length;
+
+        Iterator<Map.Entry<String, Entrada>> menosUsadas = entradas.entrySet().iterator();
+        while ((entradas.size() > maxEntradas || bytes > maxBytes) && menosUsadas.hasNext()) {
+            bytes -= menosUsadas.next().getValue().cuerpo().length;
+            menosUsadas.remove();
+        }
+    }
+
+    synchronized int size() {
+        return entradas.size();
+    }
+
+    synchronized long bytes() {
+        return bytes;
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.gateway.filter;
 
 import com.example.gateway.service.JwtService;
+import io.jsonwebtoken.Claims;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cloud.gateway.filter.GatewayFilter;
 import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
@@ -40,17 +41,25 @@ public class RoleAuthorizationFilter extends AbstractGatewayFilterFactory<RoleAu
     @Override
     public GatewayFilter apply(Config config) {
         return (exchange, chain) -> {
-            // PASO 1: Extraer token del header (ya validado por JwtAuthenticationFilter)
-            String authHeader = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
-            
-            if (authHeader == null || !authHeader.startsWith("Bearer ")) {
-                return onError(exchange, "No autenticado", HttpStatus.UNAUTHORIZED);
-            }
+            // PASO 1: Claims ya validados por JwtAuthenticationFilter (atributo del exchange)
+            Claims claims = exchange.getAttribute(JwtService.CLAIMS_ATTRIBUTE);
+
+            if (claims == null) {
+                // Ruta sin JwtAuthenticationFilter previo: validar el token aquí
+                String authHeader = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
 
-            String token = authHeader.substring(7);
+                if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+                    return onError(exchange, "No autenticado", HttpStatus.UNAUTHORIZED);
+                }
+
+                claims = jwtService.validateToken(authHeader.substring(7));
+                if (claims == null) {
+                    return onError(exchange, "Token inválido o expirado", HttpStatus.UNAUTHORIZED);
+                }
+            }
 
             // PASO 2: Extraer rol del JWT
-            String userRole = jwtService.extractRole(token);
+            String userRole = jwtService.extractRole(claims);
 
             // PASO 3: Validar que el rol del usuario esté en la lista de roles permitidos
             if (!config.getRoles().contains(userRole)) {
@@ -0,0 +1,85 @@
+package com.example.gateway.service;
+
+import io.jsonwebtoken.Claims;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache acotada de claims ya verificados, indexada por el hash SHA-256 del token.
+ *
+ * Cada entrada vence en el exp del propio token (o antes, según el TTL configurado),
+ * así que un token expirado nunca se sirve desde la cache. Al superar el tamaño máximo
+ * se descartan primero las entradas vencidas y luego entradas arbitrarias.
+ */
+class JwtClaimsCache {
+
+    private final int maxSize;
+    private final long ttlMs;
+    private final Map<String, Entrada> entradas = new ConcurrentHashMap<>();
+
+    JwtClaimsCache(int maxSize, long ttlMs) {
+        this.maxSize = maxSize;
+        this.ttlMs = ttlMs;
+    }
+
+    Claims get(String token) {
+        String clave = hash(token);
+        Entrada entrada = entradas.get(clave);
+        if (entrada == null) {
+            return null;
+        }
+        if (entrada.venceMs <= System.currentTimeMillis()) {
+            entradas.remove(clave, entrada);
+            return null;
+        }
+        return entrada.claims;
+    }
+
+    void put(String token, Claims claims) {
+        long ahora = System.currentTimeMillis();
+        long vence = ahora + ttlMs;
+        if (claims.getExpiration() != null) {
+            vence = Math.min(vence, claims.getExpiration().getTime());
+        }
+        if (vence <= ahora) {
+            return;
+        }
+        if (entradas.size() >= maxSize) {
+            liberarEspacio(ahora);
+        }
+        entradas.put(hash(token), new Entrada(claims, vence));
+    }
+
+    int size() {
+        return entradas.size();
+    }
+
+    private void liberarEspacio(long ahora) {
+        entradas.values().removeIf(entrada -> entrada.venceMs <= ahora);
+        Iterator<String> claves = entradas.keySet().iterator();
+        // Sin entradas vencidas suficientes: se descarta ~10% para no purgar en cada inserción
+        int aDescartar = entradas.size() - maxSize + Math.max(1, maxSize / 10);
+        while (aDescartar-- > 0 && claves.hasNext()) {
+            claves.next();
+            claves.remove();
+        }
+    }
+
+    private static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+
+    private record Entrada(Claims claims, long venceMs) {
+    }
+}
@@ -1,9 +1,11 @@
 package com.example.gateway.service;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
@@ -13,50 +15,95 @@ import java.util.Date;
 @Service
 public class JwtService {
 
+    /**
+     * Atributo del exchange con los Claims ya validados por JwtAuthenticationFilter.
+     */
+    public static final String CLAIMS_ATTRIBUTE = "gateway.jwt.claims";
+
     @Value("${jwt.secret}")
     private String secret;
 
     @Value("${jwt.expiration}")
     private Long expiration;
 
+    @Value("${jwt.claims-cache.max-size:10000}")
+    private int claimsCacheMaxSize;
+
+    @Value("${jwt.claims-cache.ttl-ms:300000}")
+    private long claimsCacheTtlMs;
+
+    // La clave se decodifica una sola vez; el parser es inmutable y thread-safe
+    private JwtParser parser;
+    private JwtClaimsCache claimsCache;
+
+    @PostConstruct
+    void init() {
+        parser = Jwts.parserBuilder()
+                .setSigningKey(getSigningKey())
+                .build();
+        claimsCache = new JwtClaimsCache(claimsCacheMaxSize, claimsCacheTtlMs);
+    }
+
     private Key getSigningKey() {
         byte[] keyBytes = Decoders.BASE64.decode(secret);
         return Keys.hmacShaKeyFor(keyBytes);
     }
 
     public String extractEmail(String token) {
-        return extractAllClaims(token).getSubject();
+        return extractEmail(extractAllClaims(token));
     }
 
     public String extractUserId(String token) {
-        Claims claims = extractAllClaims(token);
+        return extractUserId(extractAllClaims(token));
+    }
+
+    public String extractRole(String token) {
+        return extractRole(extractAllClaims(token));
+    }
+
+    public String extractEmail(Claims claims) {
+        return claims.getSubject();
+    }
+
+    public String extractUserId(Claims claims) {
         Object userId = claims.get("userId");
         return userId != null ? userId.toString() : null;
     }
 
-    public String extractRole(String token) {
-        Claims claims = extractAllClaims(token);
+    public String extractRole(Claims claims) {
         Object role = claims.get("rol");
         return role != null ? role.toString() : "USUARIO";
     }
 
+    /**
+     * Claims del token: desde la cache si ya se verificó la firma, o parseando y verificando.
+     * Lanza JwtException si el token es inválido o está expirado.
+     */
     public Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        Claims claims = claimsCache.get(token);
+        if (claims == null) {
+            claims = parser.parseClaimsJws(token).getBody();
+            claimsCache.put(token, claims);
+        }
+        return claims;
     }
 
-    public boolean isTokenValid(String token) {
+    /**
+     * Valida el token y devuelve sus claims, o null si es inválido o está expirado.
+     */
+    public Claims validateToken(String token) {
         try {
             Claims claims = extractAllClaims(token);
-            return !isTokenExpired(claims);
+            return isTokenExpired(claims) ? null : claims;
         } catch (Exception e) {
-            return false;
+            return null;
         }
     }
 
+    public boolean isTokenValid(String token) {
+        return validateToken(token) != null;
+    }
+
     private boolean isTokenExpired(Claims claims) {
         return claims.getExpiration().before(new Date());
     }
@@ -0,0 +1,102 @@
+package com.example.gateway.service;
+
+import com.example.gateway.config.RateLimitProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token buckets en memoria, sin locks.
+ *
+ * Cada clave guarda un único long: el instante teórico en que el bucket vuelve a estar lleno
+ * (GCRA, equivalente a un token bucket de capacidad C que recarga un token cada T). Consumir un
+ * token es un compareAndSet sobre ese long: sin locks ni objetos nuevos por petición una vez
+ * creada la clave.
+ *
+ * Una clave cuyo instante ya pasó tiene el bucket lleno, así que se puede eliminar sin cambiar
+ * el comportamiento; al superar gateway.rate-limit.max-keys se eliminan esas primero.
+ */
+@Component
+@ConditionalOnProperty(name = "gateway.rate-limit.store", havingValue = "local", matchIfMissing = true)
+public class LocalRateLimitStore implements RateLimitStore {
+
+    private static final Logger log = LoggerFactory.getLogger(LocalRateLimitStore.class);
+
+    private final int maxClaves;
+    private final Map<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final AtomicBoolean liberando = new AtomicBoolean();
+
+    public LocalRateLimitStore(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        this.maxClaves = properties.getMaxKeys();
+        Gauge.builder("gateway.ratelimit.keys", buckets, Map::size)
+                .description("Claves con bucket en memoria")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Mono<Decision> consumir(String clave, RateLimitProperties.Bucket bucket) {
+        return Mono.just(consumirAhora(clave, bucket, System.nanoTime()));
+    }
+
+    Decision consumirAhora(String clave, RateLimitProperties.Bucket bucket, long ahora) {
+        AtomicLong lleno = buckets.get(clave);
+        if (lleno == null) {
+            if (buckets.size() >= maxClaves) {
+                liberarEspacio(ahora);
+            }
+            lleno = buckets.computeIfAbsent(clave, k -> new AtomicLong(ahora));
+        }
+
+        long intervalo = bucket.intervaloNanos();
+        long rafaga = intervalo * bucket.getCapacity();
+        while (true) {
+            long actual = lleno.get();
+            long siguiente = Math.max(actual, ahora) + intervalo;
+            long ocupado = siguiente - ahora;
+            if (ocupado > rafaga) {
+                return new Decision(false, 0, TimeUnit.NANOSECONDS.toMillis(ocupado - rafaga) + 1);
+            }
+            if (lleno.compareAndSet(actual, siguiente)) {
+                return new Decision(true, (rafaga - ocupado) / intervalo, 0);
+            }
+        }
+    }
+
+    int size() {
+        return buckets.size();
+    }
+
+    private void liberarEspacio(long ahora) {
+        // Una sola limpieza a la vez; las demás peticiones siguen sin esperar
+        if (!liberando.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            buckets.values().removeIf(lleno -> lleno.get() <= ahora);
+            int aDescartar = buckets.size() - maxClaves + Math.max(1, maxClaves / 10);
+            if (aDescartar > 0) {
+                // Sin suficientes buckets llenos: se descartan claves activas (quedan con bucket lleno)
+                log.warn("Rate limit: {} claves activas superan el máximo {}, descartando {}",
+                        buckets.size(), maxClaves, aDescartar);
+                Iterator<String> claves = buckets.keySet().iterator();
+                while (aDescartar-- > 0 && claves.hasNext()) {
+                    claves.next();
+                    claves.remove();
+                }
+            }
+        } finally {
+            liberando.set(false);
+        }
+    }
+}
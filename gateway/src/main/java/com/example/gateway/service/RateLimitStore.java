@@ -0,0 +1,27 @@
+package com.example.gateway.service;
+
+import com.example.gateway.config.RateLimitProperties;
+import reactor.core.publisher.Mono;
+
+/**
+ * Estado de los token buckets del rate limiting del gateway.
+ *
+ * Implementaciones: {@link LocalRateLimitStore} (por defecto, en memoria de la instancia) y
+ * {@link RedisRateLimitStore} (gateway.rate-limit.store=redis, compartido entre instancias).
+ */
+public interface RateLimitStore {
+
+    /**
+     * Resultado de consumir un token.
+     *
+     * @param restantes      tokens que quedan en el bucket tras esta petición
+     * @param reintentarEnMs si fue rechazada, cuándo habrá un token disponible
+     */
+    record Decision(boolean permitida, long restantes, long reintentarEnMs) {
+    }
+
+    /**
+     * Consume un token del bucket de la clave (se crea lleno si no existe).
+     */
+    Mono<Decision> consumir(String clave, RateLimitProperties.Bucket bucket);
+}
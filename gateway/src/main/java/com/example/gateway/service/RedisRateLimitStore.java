@@ -0,0 +1,87 @@
+package com.example.gateway.service;
+
+import com.example.gateway.config.RateLimitProperties;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Token buckets compartidos en Redis (gateway.rate-limit.store=redis).
+ *
+ * Mismo algoritmo que {@link LocalRateLimitStore} (GCRA, un valor por clave) ejecutado como
+ * script Lua, así que leer y actualizar el bucket es atómico aunque varias instancias del
+ * gateway compartan la clave. El reloj es el de Redis (TIME), no el de cada instancia. La clave
+ * expira cuando el bucket vuelve a estar lleno.
+ *
+ * Si Redis no responde la petición se deja pasar (fail-open): el rate limiting protege a los
+ * servicios, no debe tirarlos abajo.
+ */
+@Component
+@ConditionalOnProperty(name = "gateway.rate-limit.store", havingValue = "redis")
+public class RedisRateLimitStore implements RateLimitStore {
+
+    private static final Logger log = LoggerFactory.getLogger(RedisRateLimitStore.class);
+
+    private static final String PREFIJO = "ratelimit:";
+    private static final Duration TIMEOUT = Duration.ofMillis(200);
+
+    // KEYS[1] = clave; ARGV[1] = intervalo entre tokens (µs); ARGV[2] = ráfaga = capacidad * intervalo (µs)
+    // Retorna {permitida (1/0), restantes, reintentar en µs}
+    @SuppressWarnings("unchecked")
+    private static final RedisScript<List<Long>> SCRIPT = RedisScript.of("""
+            local intervalo = tonumber(ARGV[1])
+            local rafaga = tonumber(ARGV[2])
+            local t = redis.call('TIME')
+            local ahora = tonumber(t[1]) * 1000000 + tonumber(t[2])
+            local lleno = tonumber(redis.call('GET', KEYS[1]) or ahora)
+            if lleno < ahora then lleno = ahora end
+            local siguiente = lleno + intervalo
+            local ocupado = siguiente - ahora
+            if ocupado > rafaga then
+              return {0, 0, ocupado - rafaga}
+            end
+            redis.call('SET', KEYS[1], string.format('%.0f', siguiente), 'PX', math.ceil(ocupado / 1000) + 1)
+            return {1, math.floor((rafaga - ocupado) / intervalo), 0}
+            """, (Class<List<Long>>) (Class<?>) List.class);
+
+    private final LettuceConnectionFactory connectionFactory;
+    private final ReactiveStringRedisTemplate redis;
+
+    public RedisRateLimitStore(RateLimitProperties properties) {
+        this.connectionFactory = new LettuceConnectionFactory(
+                new RedisStandaloneConfiguration(properties.getRedisHost(), properties.getRedisPort()));
+        this.connectionFactory.afterPropertiesSet();
+        this.redis = new ReactiveStringRedisTemplate(connectionFactory);
+        log.info("Rate limiting con store compartido en Redis {}:{}", properties.getRedisHost(), properties.getRedisPort());
+    }
+
+    @Override
+    public Mono<Decision> consumir(String clave, RateLimitProperties.Bucket bucket) {
+        long intervaloMicros = Math.max(1, bucket.intervaloNanos() / 1000);
+        long rafagaMicros = intervaloMicros * bucket.getCapacity();
+        return redis.execute(SCRIPT, List.of(PREFIJO + clave),
+                        List.of(Long.toString(intervaloMicros), Long.toString(rafagaMicros)))
+                .next()
+                .timeout(TIMEOUT)
+                .map(r -> new Decision(r.get(0) == 1L, r.get(1), r.get(2) / 1000 + (r.get(2) > 0 ? 1 : 0)))
+                .onErrorResume(e -> {
+                    log.warn("Rate limit en Redis no disponible ({}), se permite la petición", e.getMessage());
+                    return Mono.just(new Decision(true, bucket.getCapacity(), 0));
+                });
+    }
+
+    @PreDestroy
+    public void cerrar() {
+        connectionFactory.destroy();
+    }
+}
@@ -0,0 +1,215 @@
+package com.example.gateway.filter;
+
+import com.example.gateway.service.JwtService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.security.Key;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coste por petición de la cadena JwtAuthentication + RoleAuthorization, antes y después de
+ * cachear los claims verificados.
+ *
+ * - antes: la cadena original; cada petición construye el parser y verifica la firma HMAC cinco
+ *   veces (isTokenValid, email, userId y rol en la autenticación, y el rol otra vez en la autorización).
+ * - despues: los filtros actuales; una verificación por token nuevo y, para un token ya visto,
+ *   solo el hash SHA-256 de la clave de la cache.
+ *
+ * Ejecución (desde gateway/):
+ *   mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ *   java -cp target/test-classes:target/classes:$(cat target/cp.txt) com.example.gateway.filter.JwtFilterChainBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtFilterChainBenchmark {
+
+    private static final String SECRET =
+            "c29hLXRpY2tldGluZy1zZWNyZXQta2V5LW1pbmltdW0tMjU2LWJpdHMtZm9yLWhtYWMyNTYtYWxnb3JpdGhtLXBsZWFzZS1jaGFuZ2UtaW4tcHJvZHVjdGlvbg==";
+
+    private static final GatewayFilterChain DESTINO = exchange -> Mono.empty();
+
+    private String authorization;
+    private List<GatewayFilter> cadenaAnterior;
+    private List<GatewayFilter> cadenaActual;
+
+    @Setup
+    public void preparar() {
+        Key clave = Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET));
+        authorization = "Bearer " + Jwts.builder()
+                .setSubject("cliente@test.com")
+                .claim("userId", 42L)
+                .claim("rol", "USUARIO")
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + 86_400_000L))
+                .signWith(clave)
+                .compact();
+
+        JwtService jwtService = new JwtService();
+        ReflectionTestUtils.setField(jwtService, "secret", SECRET);
+        ReflectionTestUtils.setField(jwtService, "expiration", 86_400_000L);
+        ReflectionTestUtils.setField(jwtService, "claimsCacheMaxSize", 10_000);
+        ReflectionTestUtils.setField(jwtService, "claimsCacheTtlMs", 300_000L);
+        ReflectionTestUtils.invokeMethod(jwtService, "init");
+
+        JwtAuthenticationFilter autenticacion = new JwtAuthenticationFilter();
+        ReflectionTestUtils.setField(autenticacion, "jwtService", jwtService);
+        RoleAuthorizationFilter autorizacion = new RoleAuthorizationFilter();
+        ReflectionTestUtils.setField(autorizacion, "jwtService", jwtService);
+        cadenaActual = List.of(
+                autenticacion.apply(new JwtAuthenticationFilter.Config()),
+                autorizacion.apply(new RoleAuthorizationFilter.Config()));
+
+        JwtServiceAnterior anterior = new JwtServiceAnterior(SECRET);
+        cadenaAnterior = List.of(autenticacionAnterior(anterior), autorizacionAnterior(anterior));
+    }
+
+    @Benchmark
+    public ServerWebExchange antes() {
+        return ejecutar(cadenaAnterior);
+    }
+
+    @Benchmark
+    public ServerWebExchange despues() {
+        return ejecutar(cadenaActual);
+    }
+
+    private ServerWebExchange ejecutar(List<GatewayFilter> filtros) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/tickets")
+                .header(HttpHeaders.AUTHORIZATION, authorization));
+        cadena(filtros, 0).filter(exchange).block();
+        if (exchange.getResponse().getStatusCode() != null) {
+            throw new IllegalStateException("Petición rechazada por la cadena: " + exchange.getResponse().getStatusCode());
+        }
+        return exchange;
+    }
+
+    private static GatewayFilterChain cadena(List<GatewayFilter> filtros, int indice) {
+        if (indice == filtros.size()) {
+            return DESTINO;
+        }
+        return exchange -> filtros.get(indice).filter(exchange, cadena(filtros, indice + 1));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JwtFilterChainBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+
+    // Cadena original, previa a la cache de claims
+
+    private static GatewayFilter autenticacionAnterior(JwtServiceAnterior jwtService) {
+        return (exchange, chain) -> {
+            ServerHttpRequest request = exchange.getRequest();
+            String authHeader = request.getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+            if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+                return rechazar(exchange, HttpStatus.UNAUTHORIZED);
+            }
+            String token = authHeader.substring(7);
+            if (!jwtService.isTokenValid(token)) {
+                return rechazar(exchange, HttpStatus.UNAUTHORIZED);
+            }
+            String userId = jwtService.extractUserId(token);
+            ServerHttpRequest modifiedRequest = request.mutate()
+                    .header("X-User-Email", jwtService.extractEmail(token))
+                    .header("X-User-ID", userId != null ? userId : "unknown")
+                    .header("X-User-Role", jwtService.extractRole(token))
+                    .build();
+            return chain.filter(exchange.mutate().request(modifiedRequest).build());
+        };
+    }
+
+    private static GatewayFilter autorizacionAnterior(JwtServiceAnterior jwtService) {
+        List<String> roles = new RoleAuthorizationFilter.Config().getRoles();
+        return (exchange, chain) -> {
+            String authHeader = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+            if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+                return rechazar(exchange, HttpStatus.UNAUTHORIZED);
+            }
+            if (!roles.contains(jwtService.extractRole(authHeader.substring(7)))) {
+                return rechazar(exchange, HttpStatus.FORBIDDEN);
+            }
+            return chain.filter(exchange);
+        };
+    }
+
+    private static Mono<Void> rechazar(ServerWebExchange exchange, HttpStatus status) {
+        exchange.getResponse().setStatusCode(status);
+        return exchange.getResponse().setComplete();
+    }
+
+    private static final class JwtServiceAnterior {
+
+        private final String secret;
+
+        JwtServiceAnterior(String secret) {
+            this.secret = secret;
+        }
+
+        private Key getSigningKey() {
+            return Keys.hmacShaKeyFor(Decoders.BASE64.decode(secret));
+        }
+
+        String extractEmail(String token) {
+            return extractAllClaims(token).getSubject();
+        }
+
+        String extractUserId(String token) {
+            Object userId = extractAllClaims(token).get("userId");
+            return userId != null ? userId.toString() : null;
+        }
+
+        String extractRole(String token) {
+            Object role = extractAllClaims(token).get("rol");
+            return role != null ? role.toString() : "USUARIO";
+        }
+
+        Claims extractAllClaims(String token) {
+            return Jwts.parserBuilder()
+                    .setSigningKey(getSigningKey())
+                    .build()
+                    .parseClaimsJws(token)
+                    .getBody();
+        }
+
+        boolean isTokenValid(String token) {
+            try {
+                return !extractAllClaims(token).getExpiration().before(new Date());
+            } catch (Exception e) {
+                return false;
+            }
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package com.example.gateway.filter;
+
+import com.example.gateway.config.ResponseCacheProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.http.server.reactive.MockServerHttpResponse;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * {@link ResponseCacheFilter} sobre intercambios simulados de la ruta event-list, con un servicio
+ * de prueba que cuenta las llamadas: HIT tras MISS, 304 por If-None-Match, Cache-Control no-store
+ * en petición y respuesta, límite de tamaño de cuerpo y agrupación de MISS concurrentes.
+ */
+class ResponseCacheFilterTest {
+
+    private static final String CUERPO = "[{\"id\":1,\"nombre\":\"Concierto\"}]";
+
+    private final ResponseCacheProperties properties = new ResponseCacheProperties();
+    private final Servicio servicio = new Servicio();
+    private ResponseCacheFilter filtro;
+
+    @BeforeEach
+    void preparar() {
+        properties.setRoutes(Map.of("event-list", Duration.ofSeconds(30)));
+        properties.setMaxBodySize(DataSize.ofBytes(256));
+        filtro = new ResponseCacheFilter(properties, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void laSegundaPeticionSeSirveDesdeLaCache() {
+        MockServerWebExchange miss = ejecutar(get());
+        MockServerWebExchange hit = ejecutar(get());
+
+        assertThat(servicio.llamadas).hasValue(1);
+        assertThat(miss.getResponse().getHeaders().getFirst("X-Cache")).isEqualTo("MISS");
+        assertThat(hit.getResponse().getHeaders().getFirst("X-Cache")).isEqualTo("HIT");
+        assertThat(hit.getResponse().getHeaders().getFirst(HttpHeaders.AGE)).isNotNull();
+        assertThat(hit.getResponse().getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_JSON);
+        assertThat(cuerpo(hit)).isEqualTo(cuerpo(miss)).isEqualTo(CUERPO);
+
+        // Otra query string es otra entrada
+        ejecutar(MockServerHttpRequest.get("/api/eventos?categoria=Rock"));
+        assertThat(servicio.llamadas).hasValue(2);
+    }
+
+    @Test
+    void ifNoneMatchConElEtagGuardadoResponde304SinCuerpo() {
+        // Sin ETag del servicio el filtro genera uno débil al guardar: el cliente lo ve desde el HIT
+        ejecutar(get());
+        String etag = ejecutar(get()).getResponse().getHeaders().getETag();
+        assertThat(etag).startsWith("W/\"");
+
+        MockServerWebExchange revalidacion = ejecutar(get().header(HttpHeaders.IF_NONE_MATCH, etag));
+
+        assertThat(revalidacion.getResponse().getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(revalidacion.getResponse().getHeaders().getETag()).isEqualTo(etag);
+        assertThat(cuerpo(revalidacion)).isEmpty();
+        assertThat(servicio.llamadas).hasValue(1);
+
+        MockServerWebExchange otroEtag = ejecutar(get().header(HttpHeaders.IF_NONE_MATCH, "\"otro\""));
+        assertThat(otroEtag.getResponse().getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(cuerpo(otroEtag)).isEqualTo(CUERPO);
+    }
+
+    @Test
+    void noStoreEnLaPeticionVaAlServicio() {
+        ejecutar(get());
+
+        MockServerWebExchange directa = ejecutar(get().header(HttpHeaders.CACHE_CONTROL, "no-store"));
+
+        assertThat(servicio.llamadas).hasValue(2);
+        assertThat(directa.getResponse().getHeaders().getFirst("X-Cache")).isNull();
+        assertThat(cuerpo(directa)).isEqualTo(CUERPO);
+    }
+
+    @Test
+    void noStoreEnLaRespuestaNoSeGuarda() {
+        servicio.cacheControl = "public, no-store";
+
+        ejecutar(get());
+        MockServerWebExchange segunda = ejecutar(get());
+
+        assertThat(servicio.llamadas).hasValue(2);
+        assertThat(segunda.getResponse().getHeaders().getFirst("X-Cache")).isNull();
+    }
+
+    @Test
+    void unCuerpoMayorQueMaxBodySizeNoSeGuardaPeroLlegaCompleto() {
+        String grande = "x".repeat(300);
+        servicio.cuerpo = grande;
+
+        MockServerWebExchange primera = ejecutar(get());
+        ejecutar(get());
+
+        assertThat(cuerpo(primera)).isEqualTo(grande);
+        assertThat(servicio.llamadas).hasValue(2);
+    }
+
+    @Test
+    void missConcurrentesHacenUnaSolaLlamadaAlServicio() throws Exception {
+        Sinks.Empty<Void> responder = Sinks.empty();
+        servicio.espera = responder.asMono();
+
+        MockServerWebExchange primera = intercambio(get());
+        MockServerWebExchange segunda = intercambio(get());
+        CompletableFuture<Void> enCurso = filtro.filter(primera, servicio).toFuture();
+        CompletableFuture<Void> agrupada = filtro.filter(segunda, servicio).toFuture();
+        assertThat(agrupada).isNotDone();
+
+        responder.tryEmitEmpty();
+        CompletableFuture.allOf(enCurso, agrupada).get(5, TimeUnit.SECONDS);
+
+        assertThat(servicio.llamadas).hasValue(1);
+        assertThat(primera.getResponse().getHeaders().getFirst("X-Cache")).isEqualTo("MISS");
+        assertThat(segunda.getResponse().getHeaders().getFirst("X-Cache")).isEqualTo("COALESCED");
+        assertThat(cuerpo(segunda)).isEqualTo(CUERPO);
+    }
+
+    private static MockServerHttpRequest.BaseBuilder<?> get() {
+        return MockServerHttpRequest.get("/api/eventos");
+    }
+
+    private MockServerWebExchange ejecutar(MockServerHttpRequest.BaseBuilder<?> request) {
+        MockServerWebExchange exchange = intercambio(request);
+        filtro.filter(exchange, servicio).block(Duration.ofSeconds(5));
+        return exchange;
+    }
+
+    private static MockServerWebExchange intercambio(MockServerHttpRequest.BaseBuilder<?> request) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(request);
+        Route ruta = Route.async()
+                .id("event-list")
+                .uri("http://localhost:8082")
+                .predicate(ignorado -> true)
+                .build();
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR, ruta);
+        return exchange;
+    }
+
+    private static String cuerpo(MockServerWebExchange exchange) {
+        MockServerHttpResponse response = exchange.getResponse();
+        return response.getBodyAsString().defaultIfEmpty("").block(Duration.ofSeconds(5));
+    }
+
+    /**
+     * Servicio detrás de la ruta: responde 200 con JSON y cuenta cuántas peticiones le llegan.
+     */
+    private static final class Servicio implements GatewayFilterChain {
+
+        private final AtomicInteger llamadas = new AtomicInteger();
+        private String cuerpo = CUERPO;
+        private String cacheControl;
+        private Mono<Void> espera = Mono.empty();
+
+        @Override
+        public Mono<Void> filter(ServerWebExchange exchange) {
+            llamadas.incrementAndGet();
+            return espera.then(Mono.defer(() -> {
+                var response = exchange.getResponse();
+                response.setStatusCode(HttpStatus.OK);
+                response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+                if (cacheControl != null) {
+                    response.getHeaders().setCacheControl(cacheControl);
+                }
+                byte[] bytes = cuerpo.getBytes(StandardCharsets.UTF_8);
+                return response.writeWith(Mono.just(response.bufferFactory().wrap(bytes)));
+            }));
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.gateway.service;
+
+import com.example.gateway.config.RateLimitProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Carga sobre {@link LocalRateLimitStore}: 8 hilos consumiendo tokens de claves al azar, con
+ * 1 clave (todos compiten por el mismo AtomicLong) hasta 1M (el costo pasa a ser el mapa y los
+ * fallos de cache). Se mide a través de {@link RateLimitStore#consumir}, el Mono incluido, como
+ * lo llama RateLimitFilter.
+ *
+ * Ejecución (desde gateway/):
+ *   mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ *   java -cp target/test-classes:target/classes:$(cat target/cp.txt) com.example.gateway.service.RateLimitStoreBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class RateLimitStoreBenchmark {
+
+    @Param({"1", "1000", "100000", "1000000"})
+    public int claves;
+
+    private LocalRateLimitStore store;
+    private RateLimitProperties.Bucket bucket;
+    private String[] ips;
+
+    @Setup
+    public void preparar() {
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setMaxKeys(2_000_000);
+        store = new LocalRateLimitStore(properties, new SimpleMeterRegistry());
+
+        bucket = new RateLimitProperties.Bucket();
+        bucket.setCapacity(50);
+        bucket.setRefillPerSecond(10);
+
+        ips = new String[claves];
+        for (int i = 0; i < claves; i++) {
+            ips[i] = "event-list:ip:10.0." + (i >> 8) + "." + (i & 255);
+            store.consumir(ips[i], bucket).block();
+        }
+    }
+
+    @Benchmark
+    public RateLimitStore.Decision consumir() {
+        return store.consumir(ips[ThreadLocalRandom.current().nextInt(ips.length)], bucket).block();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(RateLimitStoreBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
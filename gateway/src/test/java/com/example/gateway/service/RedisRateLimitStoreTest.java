@@ -0,0 +1,179 @@
+package com.example.gateway.service;
+
+import com.example.gateway.config.RateLimitProperties;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Script Lua de {@link RedisRateLimitStore} contra un redis-server real (embebido): ráfaga,
+ * recarga, atomicidad entre instancias del gateway, expiración de la clave y fail-open.
+ */
+class RedisRateLimitStoreTest {
+
+    private static RedisServer redisServer;
+    private static int puerto;
+
+    private final List<RedisRateLimitStore> stores = new ArrayList<>();
+    private LettuceConnectionFactory conexion;
+    private StringRedisTemplate redis;
+
+    @BeforeAll
+    static void iniciarRedis() throws IOException {
+        puerto = puertoLibre();
+        redisServer = new RedisServer(puerto);
+        redisServer.start();
+    }
+
+    @AfterAll
+    static void detenerRedis() throws IOException {
+        redisServer.stop();
+    }
+
+    @BeforeEach
+    void preparar() {
+        conexion = new LettuceConnectionFactory(new RedisStandaloneConfiguration("localhost", puerto));
+        conexion.afterPropertiesSet();
+        redis = new StringRedisTemplate(conexion);
+    }
+
+    @AfterEach
+    void cerrar() {
+        stores.forEach(RedisRateLimitStore::cerrar);
+        conexion.destroy();
+    }
+
+    @Test
+    void permiteLaRafagaYLuegoRechazaConReintento() {
+        RedisRateLimitStore store = store(puerto);
+        RateLimitProperties.Bucket bucket = bucket(5, 1);
+
+        for (int restantes = 4; restantes >= 0; restantes--) {
+            RateLimitStore.Decision decision = store.consumir("compra:user:1", bucket).block();
+            assertThat(decision.permitida()).isTrue();
+            assertThat(decision.restantes()).isEqualTo(restantes);
+        }
+
+        RateLimitStore.Decision rechazada = store.consumir("compra:user:1", bucket).block();
+        assertThat(rechazada.permitida()).isFalse();
+        assertThat(rechazada.restantes()).isZero();
+        // Un token por segundo: el próximo llega en menos de 1 s
+        assertThat(rechazada.reintentarEnMs()).isBetween(1L, 1001L);
+
+        assertThat(store.consumir("compra:user:2", bucket).block().permitida()).isTrue();
+    }
+
+    @Test
+    void recargaUnTokenPorIntervalo() throws InterruptedException {
+        RedisRateLimitStore store = store(puerto);
+        RateLimitProperties.Bucket bucket = bucket(2, 20);
+
+        assertThat(store.consumir("catalogo:ip:1", bucket).block().permitida()).isTrue();
+        assertThat(store.consumir("catalogo:ip:1", bucket).block().permitida()).isTrue();
+        RateLimitStore.Decision rechazada = store.consumir("catalogo:ip:1", bucket).block();
+        assertThat(rechazada.permitida()).isFalse();
+
+        Thread.sleep(rechazada.reintentarEnMs() + 20);
+
+        assertThat(store.consumir("catalogo:ip:1", bucket).block().permitida()).isTrue();
+    }
+
+    @Test
+    void dosInstanciasConcurrentesNoSuperanLaCapacidad() throws Exception {
+        // Dos gateways con su propia conexión compartiendo el bucket
+        RedisRateLimitStore[] instancias = {store(puerto), store(puerto)};
+        RateLimitProperties.Bucket bucket = bucket(10, 0.01);
+
+        CountDownLatch salida = new CountDownLatch(1);
+        List<Callable<Boolean>> llamadas = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            RedisRateLimitStore instancia = instancias[i % 2];
+            llamadas.add(() -> {
+                salida.await();
+                return instancia.consumir("compra:user:3", bucket).block().permitida();
+            });
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(llamadas.size());
+        int permitidas = 0;
+        try {
+            List<Future<Boolean>> resultados = new ArrayList<>();
+            llamadas.forEach(llamada -> resultados.add(pool.submit(llamada)));
+            salida.countDown();
+            for (Future<Boolean> resultado : resultados) {
+                if (resultado.get()) {
+                    permitidas++;
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        assertThat(permitidas).isEqualTo(10);
+    }
+
+    @Test
+    void laClaveExpiraCuandoElBucketVuelveAEstarLleno() {
+        RedisRateLimitStore store = store(puerto);
+
+        store.consumir("catalogo:ip:2", bucket(10, 2)).block();
+
+        // Tras un token, el bucket está lleno de nuevo en un intervalo (500 ms)
+        Long pttl = redis.getExpire("ratelimit:catalogo:ip:2", TimeUnit.MILLISECONDS);
+        assertThat(pttl).isBetween(1L, 501L);
+        assertThat(redis.opsForValue().get("ratelimit:catalogo:ip:2")).matches("\\d+");
+    }
+
+    @Test
+    void sinRedisSePermiteLaPeticion() throws IOException {
+        RedisRateLimitStore store = store(puertoLibre());
+
+        RateLimitStore.Decision decision = store.consumir("compra:user:4", bucket(5, 1)).block();
+
+        assertThat(decision.permitida()).isTrue();
+        assertThat(decision.restantes()).isEqualTo(5);
+    }
+
+    private RedisRateLimitStore store(int puertoRedis) {
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setRedisHost("localhost");
+        properties.setRedisPort(puertoRedis);
+        RedisRateLimitStore store = new RedisRateLimitStore(properties);
+        stores.add(store);
+        // La primera llamada abre la conexión y carga el script; con el timeout de 200 ms del
+        // store podría caer en fail-open y falsear los conteos de cada test
+        store.consumir("calentamiento", bucket(1000, 1000)).block();
+        return store;
+    }
+
+    private static RateLimitProperties.Bucket bucket(int capacidad, double recargaPorSegundo) {
+        RateLimitProperties.Bucket bucket = new RateLimitProperties.Bucket();
+        bucket.setCapacity(capacidad);
+        bucket.setRefillPerSecond(recargaPorSegundo);
+        return bucket;
+    }
+
+    private static int puertoLibre() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -2,11 +2,17 @@ package com.example.notificationservice.controller;
 
 import com.example.notificationservice.dto.NotificationRequest;
 import com.example.notificationservice.dto.NotificationResponse;
+import com.example.notificationservice.dto.NotificationStatusResponse;
+import com.example.notificationservice.exception.NotificationQueueFullException;
 import com.example.notificationservice.service.NotificationService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.Instant;
+import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -19,7 +25,29 @@ public class NotificationController {
     @PostMapping("/send")
     public ResponseEntity<NotificationResponse> enviarNotificacion(@RequestBody NotificationRequest request) {
         NotificationResponse response = notificationService.enviarNotificacion(request);
-        return ResponseEntity.ok(response);
+        // 202: la notificación quedó encolada de forma durable, el envío ocurre después
+        HttpStatus status = "FAILED".equals(response.getStatus()) ? HttpStatus.OK : HttpStatus.ACCEPTED;
+        return ResponseEntity.status(status).body(response);
+    }
+
+    /**
+     * Encola varias notificaciones en una sola petición (relay del outbox de ticket-service).
+     */
+    @PostMapping("/send-batch")
+    public ResponseEntity<List<NotificationResponse>> enviarLote(@RequestBody List<NotificationRequest> requests) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(notificationService.enviarLote(requests));
+    }
+
+    @GetMapping("/queue/stats")
+    public ResponseEntity<Map<String, Object>> estadisticasCola() {
+        return ResponseEntity.ok(notificationService.estadisticasCola());
+    }
+
+    @GetMapping("/{notificationId}")
+    public ResponseEntity<NotificationStatusResponse> obtenerEstado(@PathVariable String notificationId) {
+        return notificationService.obtenerEstado(notificationId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
     }
 
     @GetMapping("/health")
@@ -31,4 +59,11 @@ public class NotificationController {
             "description", "Servicio de notificaciones simuladas"
         ));
     }
+
+    @ExceptionHandler(NotificationQueueFullException.class)
+    public ResponseEntity<NotificationResponse> colaLlena(NotificationQueueFullException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "5")
+                .body(new NotificationResponse(null, "REJECTED", Instant.now(), e.getMessage()));
+    }
 }
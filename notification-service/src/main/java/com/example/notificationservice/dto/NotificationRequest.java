@@ -6,6 +6,7 @@ public class NotificationRequest {
     private String tipo; // BIENVENIDA, EVENTO_CREADO, TICKET_COMPRADO, PAGO_RECHAZADO
     private String destinatario; // email
     private Map<String, Object> datos;
+    private String claveIdempotencia; // opcional: reenvíos con la misma clave no generan otro email
 
     public NotificationRequest() {
     }
@@ -39,4 +40,12 @@ public class NotificationRequest {
     public void setDatos(Map<String, Object> datos) {
         this.datos = datos;
     }
+
+    public String getClaveIdempotencia() {
+        return claveIdempotencia;
+    }
+
+    public void setClaveIdempotencia(String claveIdempotencia) {
+        this.claveIdempotencia = claveIdempotencia;
+    }
 }
@@ -0,0 +1,83 @@
+package com.example.notificationservice.dto;
+
+import java.time.Instant;
+
+public class NotificationStatusResponse {
+    private String notificationId;
+    private String tipo;
+    private String status; // QUEUED, RETRYING, SENT, DEAD_LETTER
+    private int intentos;
+    private Instant creadaEn;
+    private Instant actualizadaEn;
+    private String ultimoError;
+
+    public NotificationStatusResponse() {
+    }
+
+    public NotificationStatusResponse(String notificationId, String tipo, String status, int intentos,
+                                      Instant creadaEn, Instant actualizadaEn, String ultimoError) {
+        this.notificationId = notificationId;
+        this.tipo = tipo;
+        this.status = status;
+        this.intentos = intentos;
+        this.creadaEn = creadaEn;
+        this.actualizadaEn = actualizadaEn;
+        this.ultimoError = ultimoError;
+    }
+
+    public String getNotificationId() {
+        return notificationId;
+    }
+
+    public void setNotificationId(String notificationId) {
+        this.notificationId = notificationId;
+    }
+
+    public String getTipo() {
+        return tipo;
+    }
+
+    public void setTipo(String tipo) {
+        this.tipo = tipo;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public int getIntentos() {
+        return intentos;
+    }
+
+    public void setIntentos(int intentos) {
+        this.intentos = intentos;
+    }
+
+    public Instant getCreadaEn() {
+        return creadaEn;
+    }
+
+    public void setCreadaEn(Instant creadaEn) {
+        this.creadaEn = creadaEn;
+    }
+
+    public Instant getActualizadaEn() {
+        return actualizadaEn;
+    }
+
+    public void setActualizadaEn(Instant actualizadaEn) {
+        this.actualizadaEn = actualizadaEn;
+    }
+
+    public String getUltimoError() {
+        return ultimoError;
+    }
+
+    public void setUltimoError(String ultimoError) {
+        this.ultimoError = ultimoError;
+    }
+}
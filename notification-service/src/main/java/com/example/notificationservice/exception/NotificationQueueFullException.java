@@ -0,0 +1,10 @@
+package com.example.notificationservice.exception;
+
+/**
+ * La cola de notificaciones alcanzó su capacidad máxima (notification.queue.capacity).
+ */
+public class NotificationQueueFullException extends RuntimeException {
+    public NotificationQueueFullException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.notificationservice.model;
+
+import java.util.Map;
+
+/**
+ * Notificación encolada para envío. Se persiste como JSON en el spool
+ * (ver NotificationSpool) hasta que se entrega o pasa a dead-letter.
+ */
+public class NotificationTask {
+
+    private String notificationId;
+    private String tipo;
+    private String destinatario;
+    private Map<String, Object> datos;
+    private int intentos;
+    private long creadaEn;
+    private long proximoIntentoEn;
+    private String ultimoError;
+
+    public NotificationTask() {
+    }
+
+    public NotificationTask(String notificationId, String tipo, String destinatario, Map<String, Object> datos, long creadaEn) {
+        this.notificationId = notificationId;
+        this.tipo = tipo;
+        this.destinatario = destinatario;
+        this.datos = datos;
+        this.creadaEn = creadaEn;
+        this.proximoIntentoEn = creadaEn;
+    }
+
+    public String getNotificationId() {
+        return notificationId;
+    }
+
+    public void setNotificationId(String notificationId) {
+        this.notificationId = notificationId;
+    }
+
+    public String getTipo() {
+        return tipo;
+    }
+
+    public void setTipo(String tipo) {
+        this.tipo = tipo;
+    }
+
+    public String getDestinatario() {
+        return destinatario;
+    }
+
+    public void setDestinatario(String destinatario) {
+        this.destinatario = destinatario;
+    }
+
+    public Map<String, Object> getDatos() {
+        return datos;
+    }
+
+    public void setDatos(Map<String, Object> datos) {
+        this.datos = datos;
+    }
+
+    public int getIntentos() {
+        return intentos;
+    }
+
+    public void setIntentos(int intentos) {
+        this.intentos = intentos;
+    }
+
+    public long getCreadaEn() {
+        return creadaEn;
+    }
+
+    public void setCreadaEn(long creadaEn) {
+        this.creadaEn = creadaEn;
+    }
+
+    public long getProximoIntentoEn() {
+        return proximoIntentoEn;
+    }
+
+    public void setProximoIntentoEn(long proximoIntentoEn) {
+        this.proximoIntentoEn = proximoIntentoEn;
+    }
+
+    public String getUltimoError() {
+        return ultimoError;
+    }
+
+    public void setUltimoError(String ultimoError) {
+        this.ultimoError = ultimoError;
+    }
+}
@@ -0,0 +1,437 @@
+package com.example.notificationservice.service;
+
+import com.example.notificationservice.dto.NotificationStatusResponse;
+import com.example.notificationservice.exception.NotificationQueueFullException;
+import com.example.notificationservice.model.NotificationTask;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * PIPELINE DE ENVÍO de notificaciones.
+ *
+ * FLUJO:
+ * 1. encolar(): persiste la notificación en el spool en disco y responde de inmediato.
+ * 2. Un pool acotado de workers toma de la cola las notificaciones listas, en lotes de hasta
+ *    notification.dispatcher.batch-size, y las entrega con {@link NotificationSender}.
+ * 3. Si el envío falla se reprograma con backoff exponencial (con jitter); al agotar
+ *    notification.dispatcher.max-attempts pasa a dead-letter (spool/dead).
+ *
+ * La entrega es al-menos-una-vez: lo que sigue en el spool al reiniciar se vuelve a encolar.
+ * Las entregadas quedan en spool/sent durante notification.queue.sent-retention, de modo que la
+ * deduplicación por clave de idempotencia (encolarSiNueva) sobrevive a reinicios y no depende de
+ * los estados en memoria.
+ *
+ * MÉTRICAS: notification.queue.depth, notification.queue.inflight, notification.queue.dead,
+ * notification.send.latency (tag result, por mensaje), notification.send.batch.latency,
+ * notification.send.batch.size, notification.send.throughput, notification.delivery.delay,
+ * notification.retries, notification.dead_letters.
+ */
+@Service
+public class NotificationDispatcher {
+
+    public static final String QUEUED = "QUEUED";
+    public static final String RETRYING = "RETRYING";
+    public static final String SENT = "SENT";
+    public static final String DEAD_LETTER = "DEAD_LETTER";
+
+    private static final Logger log = LoggerFactory.getLogger(NotificationDispatcher.class);
+    private static final int MAX_ESTADOS = 10_000;
+
+    private final NotificationSender sender;
+    private final NotificationSpool spool;
+    private final int workers;
+    private final int tamanoLote;
+    private final int capacidad;
+    private final int maxIntentos;
+    private final long backoffInicialMs;
+    private final long backoffMaxMs;
+    private final Duration retencionEnviadas;
+
+    private final DelayQueue<Programada> cola = new DelayQueue<>();
+    private final AtomicInteger pendientes = new AtomicInteger();
+    private final AtomicInteger enCurso = new AtomicInteger();
+    /** notificationIds que se están admitiendo ahora mismo, con su admisión en curso (ver encolarSiNueva) */
+    private final Map<String, CompletableFuture<Void>> admitiendo = new ConcurrentHashMap<>();
+    private final Map<String, NotificationStatusResponse> estados = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, NotificationStatusResponse> eldest) {
+            return size() > MAX_ESTADOS;
+        }
+    };
+
+    private final Timer latenciaOk;
+    private final Timer latenciaError;
+    private final Timer latenciaLotes;
+    private final Timer demoraEntrega;
+    private final DistributionSummary tamanoLotes;
+    private final Counter reintentos;
+    private final ThroughputWindow throughput = new ThroughputWindow(60);
+    private final Counter deadLetters;
+
+    private ExecutorService pool;
+
+    public NotificationDispatcher(NotificationSender sender,
+                                  ObjectMapper objectMapper,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${notification.queue.dir:./data/notification-spool}") String directorio,
+                                  @Value("${notification.queue.fsync:true}") boolean fsync,
+                                  @Value("${notification.queue.capacity:10000}") int capacidad,
+                                  @Value("${notification.dispatcher.workers:4}") int workers,
+                                  @Value("${notification.dispatcher.batch-size:50}") int tamanoLote,
+                                  @Value("${notification.dispatcher.max-attempts:5}") int maxIntentos,
+                                  @Value("${notification.dispatcher.initial-backoff-ms:2000}") long backoffInicialMs,
+                                  @Value("${notification.dispatcher.max-backoff-ms:300000}") long backoffMaxMs,
+                                  @Value("${notification.queue.sent-retention:72h}") Duration retencionEnviadas) {
+        this.sender = sender;
+        this.spool = new NotificationSpool(Path.of(directorio), fsync, objectMapper);
+        this.capacidad = capacidad;
+        this.workers = workers;
+        this.tamanoLote = Math.max(1, tamanoLote);
+        this.maxIntentos = maxIntentos;
+        this.backoffInicialMs = backoffInicialMs;
+        this.backoffMaxMs = backoffMaxMs;
+        this.retencionEnviadas = retencionEnviadas;
+
+        Gauge.builder("notification.queue.depth", pendientes, AtomicInteger::get)
+                .description("Notificaciones pendientes de entrega (en cola o enviándose)")
+                .register(meterRegistry);
+        Gauge.builder("notification.queue.inflight", enCurso, AtomicInteger::get)
+                .description("Notificaciones enviándose en este momento")
+                .register(meterRegistry);
+        Gauge.builder("notification.queue.dead", spool, NotificationSpool::contarDeadLetters)
+                .description("Notificaciones en dead-letter")
+                .register(meterRegistry);
+        this.latenciaOk = latencia(meterRegistry, "ok");
+        this.latenciaError = latencia(meterRegistry, "error");
+        this.latenciaLotes = Timer.builder("notification.send.batch.latency")
+                .description("Duración de cada lote de envío (misma sesión SMTP)")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        this.demoraEntrega = Timer.builder("notification.delivery.delay")
+                .description("Tiempo desde que se encola hasta que se entrega")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        this.tamanoLotes = DistributionSummary.builder("notification.send.batch.size")
+                .description("Notificaciones enviadas por lote (misma sesión SMTP)")
+                .register(meterRegistry);
+        Gauge.builder("notification.send.throughput", throughput, ThroughputWindow::porSegundo)
+                .description("Emails entregados por segundo (promedio del último minuto)")
+                .baseUnit("messages/s")
+                .register(meterRegistry);
+        this.reintentos = Counter.builder("notification.retries")
+                .description("Reintentos de envío programados")
+                .register(meterRegistry);
+        this.deadLetters = Counter.builder("notification.dead_letters")
+                .description("Notificaciones que agotaron los reintentos")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Recupera lo que quedó en el spool y arranca los workers.
+     */
+    @PostConstruct
+    public void iniciar() {
+        List<NotificationTask> recuperadas = spool.cargarPendientes();
+        recuperadas.forEach(task -> {
+            pendientes.incrementAndGet();
+            registrarEstado(task, task.getIntentos() > 0 ? RETRYING : QUEUED);
+            cola.add(new Programada(task));
+        });
+        if (!recuperadas.isEmpty()) {
+            log.warn("Recuperadas {} notificaciones pendientes del spool", recuperadas.size());
+        }
+
+        AtomicInteger numero = new AtomicInteger();
+        pool = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "notification-worker-" + numero.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < workers; i++) {
+            pool.execute(this::trabajar);
+        }
+        log.info("Dispatcher de notificaciones iniciado: {} workers, capacidad {}, {} intentos máximos",
+                workers, capacidad, maxIntentos);
+    }
+
+    @PreDestroy
+    public void detener() throws InterruptedException {
+        // Lo no entregado sigue en el spool y se reencola al arrancar
+        pool.shutdownNow();
+        pool.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Persiste la notificación y la deja en cola. Retorna cuando ya es durable.
+     *
+     * @throws NotificationQueueFullException si se alcanzó notification.queue.capacity
+     */
+    public NotificationTask encolar(String notificationId, String tipo, String destinatario, Map<String, Object> datos) {
+        if (pendientes.incrementAndGet() > capacidad) {
+            pendientes.decrementAndGet();
+            throw new NotificationQueueFullException(
+                    "Cola de notificaciones llena (" + capacidad + "), intente nuevamente más tarde");
+        }
+        NotificationTask task = new NotificationTask(notificationId, tipo, destinatario, datos, System.currentTimeMillis());
+        try {
+            spool.guardar(task);
+        } catch (RuntimeException e) {
+            pendientes.decrementAndGet();
+            throw e;
+        }
+        registrarEstado(task, QUEUED);
+        cola.add(new Programada(task));
+        return task;
+    }
+
+    /**
+     * Variante idempotente de {@link #encolar}: si el notificationId ya se conoce (en cola, en
+     * dead-letter o entregado dentro de notification.queue.sent-retention) no se encola otra vez.
+     *
+     * Un duplicado concurrente espera a que termine la admisión en curso: solo recibe el estado
+     * existente cuando la primera ya es durable, y si esa admisión falla intenta encolar él mismo.
+     *
+     * @return el estado existente si es un duplicado; vacío si se encoló
+     */
+    public Optional<NotificationStatusResponse> encolarSiNueva(String notificationId, String tipo,
+                                                               String destinatario, Map<String, Object> datos) {
+        while (true) {
+            CompletableFuture<Void> propia = new CompletableFuture<>();
+            CompletableFuture<Void> enCurso = admitiendo.putIfAbsent(notificationId, propia);
+            if (enCurso != null) {
+                // Otra petición con la misma clave la está encolando en este momento
+                enCurso.join();
+                continue;
+            }
+            try {
+                Optional<NotificationStatusResponse> existente = estado(notificationId);
+                if (existente.isPresent()) {
+                    return existente;
+                }
+                encolar(notificationId, tipo, destinatario, datos);
+                return Optional.empty();
+            } finally {
+                admitiendo.remove(notificationId, propia);
+                propia.complete(null);
+            }
+        }
+    }
+
+    public Optional<NotificationStatusResponse> estado(String notificationId) {
+        synchronized (estados) {
+            NotificationStatusResponse estado = estados.get(notificationId);
+            if (estado != null) {
+                return Optional.of(estado);
+            }
+        }
+        try {
+            return spool.buscar(notificationId).map(task -> aEstado(task, estadoEnSpool(task)));
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Purga de spool/sent las notificaciones entregadas hace más de notification.queue.sent-retention.
+     */
+    @Scheduled(fixedDelayString = "${notification.queue.sent-cleanup-ms:3600000}",
+            initialDelayString = "${notification.queue.sent-cleanup-ms:3600000}")
+    public void limpiarEnviadas() {
+        int eliminadas = spool.eliminarEnviadasAntesDe(System.currentTimeMillis() - retencionEnviadas.toMillis());
+        if (eliminadas > 0) {
+            log.info("Spool de notificaciones: {} entregadas eliminadas de sent/", eliminadas);
+        }
+    }
+
+    /**
+     * Profundidad de la cola y latencias de envío, para el endpoint de estado.
+     */
+    public Map<String, Object> estadisticas() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("pendientes", pendientes.get());
+        stats.put("enCurso", enCurso.get());
+        stats.put("listasParaEnviar", cola.stream().filter(p -> p.getDelay(TimeUnit.MILLISECONDS) <= 0).count());
+        stats.put("deadLetters", spool.contarDeadLetters());
+        stats.put("capacidad", capacidad);
+        stats.put("workers", workers);
+        stats.put("enviadas", latenciaOk.count());
+        stats.put("erroresEnvio", latenciaError.count());
+        stats.put("reintentos", (long) reintentos.count());
+        stats.put("tamanoLote", tamanoLote);
+        stats.put("promedioPorLote", Math.round(tamanoLotes.mean() * 10) / 10.0);
+        stats.put("mensajesPorSegundo", Math.round(throughput.porSegundo() * 10) / 10.0);
+        stats.put("latenciaEnvioMs", percentiles(latenciaOk.takeSnapshot()));
+        stats.put("latenciaLoteMs", percentiles(latenciaLotes.takeSnapshot()));
+        stats.put("demoraEntregaMs", percentiles(demoraEntrega.takeSnapshot()));
+        return stats;
+    }
+
+    private void trabajar() {
+        List<Programada> lote = new ArrayList<>(tamanoLote);
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                lote.add(cola.take());
+                // Junta las demás notificaciones ya vencidas para enviarlas por la misma sesión SMTP
+                cola.drainTo(lote, tamanoLote - 1);
+                procesar(lote.stream().map(programada -> programada.task).toList());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                log.error("Error inesperado en el worker de notificaciones: {}", e.getMessage(), e);
+            } finally {
+                lote.clear();
+            }
+        }
+    }
+
+    private void procesar(List<NotificationTask> tasks) {
+        enCurso.addAndGet(tasks.size());
+        long inicio = System.nanoTime();
+        try {
+            Map<String, RuntimeException> fallos = sender.entregarLote(tasks);
+            long duracion = System.nanoTime() - inicio;
+            latenciaLotes.record(duracion, TimeUnit.NANOSECONDS);
+            tamanoLotes.record(tasks.size());
+            // Los mensajes del lote comparten la sesión: a cada uno le corresponde su parte del lote
+            long duracionPorMensaje = duracion / tasks.size();
+            for (NotificationTask task : tasks) {
+                RuntimeException error = fallos.get(task.getNotificationId());
+                if (error == null) {
+                    latenciaOk.record(duracionPorMensaje, TimeUnit.NANOSECONDS);
+                    demoraEntrega.record(System.currentTimeMillis() - task.getCreadaEn(), TimeUnit.MILLISECONDS);
+                    throughput.registrar();
+                    spool.marcarEnviada(task.getNotificationId());
+                    pendientes.decrementAndGet();
+                    registrarEstado(task, SENT);
+                } else {
+                    latenciaError.record(duracionPorMensaje, TimeUnit.NANOSECONDS);
+                    reprogramar(task, error);
+                }
+            }
+        } finally {
+            enCurso.addAndGet(-tasks.size());
+        }
+    }
+
+    private void reprogramar(NotificationTask task, RuntimeException error) {
+        task.setIntentos(task.getIntentos() + 1);
+        task.setUltimoError(error.getMessage());
+
+        if (task.getIntentos() >= maxIntentos) {
+            try {
+                spool.moverADeadLetter(task);
+            } catch (RuntimeException e) {
+                log.error("No se pudo mover {} a dead-letter: {}", task.getNotificationId(), e.getMessage());
+            }
+            pendientes.decrementAndGet();
+            deadLetters.increment();
+            registrarEstado(task, DEAD_LETTER);
+            log.error("[{}] Notificación {} a {} enviada a dead-letter tras {} intentos: {}",
+                    task.getNotificationId(), task.getTipo(), task.getDestinatario(), task.getIntentos(), error.getMessage());
+            return;
+        }
+
+        long backoff = Math.min(backoffMaxMs, backoffInicialMs << Math.min(task.getIntentos() - 1, 30));
+        backoff = (long) (backoff * ThreadLocalRandom.current().nextDouble(0.8, 1.2));
+        task.setProximoIntentoEn(System.currentTimeMillis() + backoff);
+        try {
+            spool.guardar(task);
+        } catch (RuntimeException e) {
+            // Se reintenta igual desde memoria; el spool conserva la versión anterior
+            log.error("No se pudo actualizar {} en el spool: {}", task.getNotificationId(), e.getMessage());
+        }
+        reintentos.increment();
+        registrarEstado(task, RETRYING);
+        log.warn("[{}] Error enviando {} (intento {}/{}), reintento en {} ms: {}",
+                task.getNotificationId(), task.getTipo(), task.getIntentos(), maxIntentos, backoff, error.getMessage());
+        cola.add(new Programada(task));
+    }
+
+    private void registrarEstado(NotificationTask task, String status) {
+        synchronized (estados) {
+            estados.put(task.getNotificationId(), aEstado(task, status));
+        }
+    }
+
+    private String estadoEnSpool(NotificationTask task) {
+        if (spool.esDeadLetter(task.getNotificationId())) {
+            return DEAD_LETTER;
+        }
+        if (spool.esEnviada(task.getNotificationId())) {
+            return SENT;
+        }
+        return task.getIntentos() > 0 ? RETRYING : QUEUED;
+    }
+
+    private static NotificationStatusResponse aEstado(NotificationTask task, String status) {
+        return new NotificationStatusResponse(task.getNotificationId(), task.getTipo(), status, task.getIntentos(),
+                Instant.ofEpochMilli(task.getCreadaEn()), Instant.now(), task.getUltimoError());
+    }
+
+    private static Timer latencia(MeterRegistry meterRegistry, String resultado) {
+        return Timer.builder("notification.send.latency")
+                .description("Duración de cada intento de envío (duración del lote / mensajes del lote)")
+                .tag("result", resultado)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+    }
+
+    private static Map<String, Object> percentiles(HistogramSnapshot snapshot) {
+        Map<String, Object> valores = new LinkedHashMap<>();
+        valores.put("promedio", Math.round(snapshot.mean(TimeUnit.MILLISECONDS)));
+        for (ValueAtPercentile percentil : snapshot.percentileValues()) {
+            valores.put("p" + Math.round(percentil.percentile() * 100), Math.round(percentil.value(TimeUnit.MILLISECONDS)));
+        }
+        valores.put("max", Math.round(snapshot.max(TimeUnit.MILLISECONDS)));
+        return valores;
+    }
+
+    private static final class Programada implements Delayed {
+        private final NotificationTask task;
+
+        private Programada(NotificationTask task) {
+            this.task = task;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(task.getProximoIntentoEn() - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed otra) {
+            return Long.compare(task.getProximoIntentoEn(), ((Programada) otra).task.getProximoIntentoEn());
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package com.example.notificationservice.service;
+
+import com.example.notificationservice.model.NotificationTask;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.internet.MimeMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Entrega de notificaciones: arma el email de cada tipo y lo envía por SMTP.
+ *
+ * El contenido sale de las plantillas precompiladas de {@link NotificationTemplateRegistry}
+ * (asunto, texto plano y HTML en un único mensaje multipart/alternative).
+ *
+ * Lo invocan los workers de {@link NotificationDispatcher}, nunca el hilo de la petición.
+ * Los mensajes llegan en lotes y se envían por una conexión del {@link SmtpTransportPool}
+ * (una sesión SMTP autenticada reutilizada entre lotes, que se renueva si el lote alcanza
+ * notification.smtp.max-messages-per-connection). Los envíos fallidos se devuelven al
+ * dispatcher para que los reintente.
+ *
+ * MODOS DE OPERACIÓN:
+ * 1. MODO PRODUCCIÓN: Si mailSender está configurado → Envía emails reales via Gmail SMTP
+ * 2. MODO DESARROLLO: Si mailSender es null → Simula emails en logs (fallback automático)
+ */
+@Component
+public class NotificationSender {
+
+    private static final Logger log = LoggerFactory.getLogger(NotificationSender.class);
+
+    @Autowired
+    private NotificationTemplateRegistry plantillas;
+
+    @Autowired(required = false) // required=false permite fallback si no está configurado
+    private JavaMailSender mailSender;
+
+    @Value("${notification.smtp.pool-size:2}")
+    private int poolSize;
+
+    @Value("${notification.smtp.max-idle-ms:30000}")
+    private long maxIdleMs;
+
+    @Value("${notification.smtp.max-messages-per-connection:500}")
+    private int maxMensajesPorConexion;
+
+    private SmtpTransportPool transportPool;
+
+    @PostConstruct
+    public void iniciar() {
+        if (mailSender instanceof JavaMailSenderImpl impl) {
+            transportPool = new SmtpTransportPool(impl, poolSize, maxIdleMs, maxMensajesPorConexion);
+            log.info("Pool SMTP: {} conexiones hacia {}:{}", poolSize, impl.getHost(), impl.getPort());
+        }
+    }
+
+    @PreDestroy
+    public void cerrar() {
+        if (transportPool != null) {
+            transportPool.cerrarTodas();
+        }
+    }
+
+    /**
+     * Envía un lote de notificaciones.
+     *
+     * @return errores por notificationId; las ausentes se entregaron
+     */
+    public Map<String, RuntimeException> entregarLote(List<NotificationTask> tasks) {
+        Map<String, RuntimeException> fallos = new HashMap<>();
+        List<NotificationTask> aEnviar = new ArrayList<>(tasks.size());
+        List<MimeMessage> mensajes = new ArrayList<>(tasks.size());
+        for (NotificationTask task : tasks) {
+            try {
+                MimeMessage mensaje = construir(task);
+                if (mensaje != null) {
+                    aEnviar.add(task);
+                    mensajes.add(mensaje);
+                }
+            } catch (RuntimeException e) {
+                fallos.put(task.getNotificationId(), e);
+            }
+        }
+        if (mensajes.isEmpty()) {
+            return fallos;
+        }
+
+        if (transportPool != null) {
+            enviarPorPool(aEnviar, mensajes, fallos);
+        } else {
+            enviarConMailSender(aEnviar, mensajes, fallos);
+        }
+        return fallos;
+    }
+
+    private void enviarPorPool(List<NotificationTask> tasks, List<MimeMessage> mensajes,
+                               Map<String, RuntimeException> fallos) {
+        SmtpTransportPool.Conexion conexion = null;
+        try {
+            for (int i = 0; i < tasks.size(); i++) {
+                NotificationTask task = tasks.get(i);
+                if (conexion == null) {
+                    try {
+                        conexion = transportPool.tomar();
+                    } catch (MessagingException e) {
+                        RuntimeException error = new RuntimeException("Error conectando al servidor SMTP: " + e.getMessage(), e);
+                        tasks.subList(i, tasks.size()).forEach(pendiente -> fallos.put(pendiente.getNotificationId(), error));
+                        log.error("No se pudo abrir conexión SMTP para {} emails del lote: {}", tasks.size() - i, e.getMessage());
+                        return;
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        RuntimeException error = new RuntimeException("Envío interrumpido", e);
+                        tasks.subList(i, tasks.size()).forEach(pendiente -> fallos.put(pendiente.getNotificationId(), error));
+                        return;
+                    }
+                }
+                boolean sana = true;
+                try {
+                    MimeMessage mime = mensajes.get(i);
+                    conexion.transport().sendMessage(mime, mime.getAllRecipients());
+                    conexion.registrarEnvio();
+                    log.info("Email {} enviado a: {} [{}]", task.getTipo(), task.getDestinatario(), task.getNotificationId());
+                } catch (SendFailedException e) {
+                    // Destinatario rechazado: falla solo este mensaje, la sesión sigue siendo válida
+                    fallos.put(task.getNotificationId(), error(task, e));
+                } catch (MessagingException e) {
+                    // Falla este mensaje; el resto del lote sigue por otra conexión del pool, sin
+                    // cargarles un intento que no se hizo
+                    sana = false;
+                    fallos.put(task.getNotificationId(), error(task, e));
+                }
+                if (!sana || conexion.agotada()) {
+                    // Conexión caída, o límite de mensajes por conexión alcanzado a mitad del lote
+                    transportPool.devolver(conexion, sana);
+                    conexion = null;
+                }
+            }
+        } finally {
+            if (conexion != null) {
+                transportPool.devolver(conexion, true);
+            }
+        }
+    }
+
+    private void enviarConMailSender(List<NotificationTask> tasks, List<MimeMessage> mensajes,
+                                     Map<String, RuntimeException> fallos) {
+        try {
+            mailSender.send(mensajes.toArray(new MimeMessage[0]));
+        } catch (MailSendException e) {
+            Map<Object, Exception> fallidos = e.getFailedMessages();
+            for (int i = 0; i < tasks.size(); i++) {
+                Exception causa = fallidos.get(mensajes.get(i));
+                if (causa != null || fallidos.isEmpty()) {
+                    fallos.put(tasks.get(i).getNotificationId(), error(tasks.get(i), causa != null ? causa : e));
+                }
+            }
+        } catch (RuntimeException e) {
+            tasks.forEach(task -> fallos.put(task.getNotificationId(), error(task, e)));
+        }
+    }
+
+    private static RuntimeException error(NotificationTask task, Exception e) {
+        log.error("Error enviando email {} a {}: {}", task.getTipo(), task.getDestinatario(), e.getMessage());
+        return new RuntimeException("Error enviando email: " + e.getMessage(), e);
+    }
+
+    /**
+     * @return el mensaje a enviar, o null en modo simulación (solo logs)
+     */
+    private MimeMessage construir(NotificationTask task) {
+        NotificationTemplateRegistry.Email email = plantillas.render(task);
+
+        if (mailSender == null) {
+            // Modo simulación - solo logs
+            log.info("📧 SIMULACIÓN EMAIL {} [{}] para {} - {}\n{}",
+                    task.getTipo(), task.getNotificationId(), task.getDestinatario(), email.asunto(), email.texto());
+            return null;
+        }
+
+        try {
+            MimeMessage mime = mailSender.createMimeMessage();
+            MimeMessageHelper helper = new MimeMessageHelper(mime, true, StandardCharsets.UTF_8.name());
+            helper.setTo(task.getDestinatario());
+            helper.setSubject(email.asunto());
+            helper.setText(email.texto(), email.html());
+            mime.saveChanges();
+            return mime;
+        } catch (MessagingException e) {
+            throw new IllegalArgumentException("No se pudo armar el email: " + e.getMessage(), e);
+        }
+    }
+}
@@ -2,305 +2,120 @@ package com.example.notificationservice.service;
 
 import com.example.notificationservice.dto.NotificationRequest;
 import com.example.notificationservice.dto.NotificationResponse;
+import com.example.notificationservice.dto.NotificationStatusResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
 
 /**
- * Servicio de Notificaciones con Soporte para Email Real y Fallback a Logs.
- * 
- * MODOS DE OPERACIÓN:
- * 1. MODO PRODUCCIÓN: Si mailSender está configurado → Envía emails reales via Gmail SMTP
- * 2. MODO DESARROLLO: Si mailSender es null → Simula emails en logs (fallback automático)
- * 
+ * Servicio de Notificaciones: recibe las solicitudes y las encola para envío.
+ *
  * TIPOS DE NOTIFICACIONES:
  * - BIENVENIDA: Al registrar usuario
  * - EVENTO_CREADO: Al publicar evento
  * - TICKET_COMPRADO: Al confirmar compra
  * - PAGO_RECHAZADO: Al fallar pago
  * - PASSWORD_RESET: Al solicitar restablecimiento de contraseña
- * 
+ *
  * CARACTERÍSTICAS:
- * - @Async: Procesamiento asíncrono (no bloquea la operación principal)
- * - Graceful degradation: Si falla SMTP, cae a logs (no rompe el flujo)
- * - Notification ID único para tracking
- * 
+ * - Respuesta inmediata: la solicitud se persiste en una cola durable y el envío SMTP
+ *   ocurre en los workers de {@link NotificationDispatcher} (no bloquea la compra)
+ * - Reintentos con backoff exponencial y dead-letter
+ * - Notification ID único para tracking (ver GET /api/notifications/{id})
+ * - Clave de idempotencia opcional: el notificationId se deriva de la clave, y un reenvío
+ *   (p. ej. del outbox de ticket-service tras un fallo) no genera un segundo email mientras
+ *   la notificación siga en el spool: en cola, en dead-letter o entregada dentro de
+ *   notification.queue.sent-retention (también tras un reinicio)
  */
 @Service
 public class NotificationService {
 
     private static final Logger log = LoggerFactory.getLogger(NotificationService.class);
 
-    @Autowired(required = false) // required=false permite fallback si no está configurado
-    private JavaMailSender mailSender;
+    @Autowired
+    private NotificationDispatcher dispatcher;
+
+    @Autowired
+    private NotificationTemplateRegistry plantillas;
 
     public NotificationResponse enviarNotificacion(NotificationRequest request) {
-        String notificationId = "NOT-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
-        
-        // Simular envío de email/SMS basado en el tipo
-        switch (request.getTipo()) {
-            case "BIENVENIDA":
-                enviarBienvenida(request, notificationId);
-                break;
-            case "EVENTO_CREADO":
-                enviarEventoCreado(request, notificationId);
-                break;
-            case "TICKET_COMPRADO":
-                enviarTicketComprado(request, notificationId);
-                break;
-            case "PAGO_RECHAZADO":
-                enviarPagoRechazado(request, notificationId);
-                break;
-            case "PASSWORD_RESET":
-                enviarPasswordReset(request, notificationId);
-                break;
-            default:
-                log.warn("[{}] Tipo de notificación desconocido: {}", notificationId, request.getTipo());
-                return new NotificationResponse(notificationId, "FAILED", Instant.now(), "Tipo de notificación no soportado");
+        boolean conClave = request.getClaveIdempotencia() != null && !request.getClaveIdempotencia().isBlank();
+        String notificationId = conClave
+                ? idDesdeClave(request.getClaveIdempotencia())
+                : "NOT-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
+
+        if (request.getTipo() == null || !plantillas.soporta(request.getTipo())) {
+            log.warn("[{}] Tipo de notificación desconocido: {}", notificationId, request.getTipo());
+            return new NotificationResponse(notificationId, "FAILED", Instant.now(), "Tipo de notificación no soportado");
         }
 
+        Map<String, Object> datos = request.getDatos() != null ? request.getDatos() : Map.of();
+        if (conClave) {
+            Optional<NotificationStatusResponse> existente =
+                    dispatcher.encolarSiNueva(notificationId, request.getTipo(), request.getDestinatario(), datos);
+            if (existente.isPresent()) {
+                log.info("[{}] Notificación duplicada (clave {}), estado actual: {}",
+                        notificationId, request.getClaveIdempotencia(), existente.get().getStatus());
+                return new NotificationResponse(notificationId, existente.get().getStatus(), Instant.now(),
+                        "Notificación ya recibida con la misma clave de idempotencia");
+            }
+        } else {
+            dispatcher.encolar(notificationId, request.getTipo(), request.getDestinatario(), datos);
+        }
+        log.info("[{}] Notificación {} encolada para {}", notificationId, request.getTipo(), request.getDestinatario());
+
         return new NotificationResponse(
             notificationId,
-            "SENT",
+            NotificationDispatcher.QUEUED,
             Instant.now(),
-            "Notificación enviada exitosamente"
+            "Notificación encolada para envío"
         );
     }
 
-    @Async
-    private void enviarBienvenida(NotificationRequest request, String notificationId) {
-        String nombre = (String) request.getDatos().get("nombre");
-        
-        if (mailSender == null) {
-            // Modo simulación - solo logs
-            log.info("╔═══════════════════════════════════════════════════════════╗");
-            log.info("║           📧 SIMULACIÓN EMAIL - BIENVENIDA               ║");
-            log.info("╠═══════════════════════════════════════════════════════════╣");
-            log.info("║ ID: {}", String.format("%-52s", notificationId) + "║");
-            log.info("║ Para: {}", String.format("%-50s", request.getDestinatario()) + "║");
-            log.info("║ Asunto: Bienvenido a SOA Ticketing                       ║");
-            log.info("║ Mensaje: Hola {}, tu cuenta ha sido creada", String.format("%-29s", nombre) + "║");
-            log.info("╚═══════════════════════════════════════════════════════════╝");
-            return;
-        }
-        
-        try {
-            SimpleMailMessage message = new SimpleMailMessage();
-            message.setTo(request.getDestinatario());
-            message.setSubject("🎉 Bienvenido a SOA Ticketing");
-            message.setText(
-                "Hola " + nombre + ",\n\n" +
-                "¡Bienvenido a nuestro sistema de venta de entradas!\n" +
-                "Tu cuenta ha sido creada exitosamente.\n\n" +
-                "Ahora puedes comprar entradas para tus eventos favoritos.\n\n" +
-                "Saludos,\n" +
-                "Equipo SOA Ticketing\n\n" +
-                "Notification ID: " + notificationId
-            );
-            
-            mailSender.send(message);
-            log.info("Email BIENVENIDA enviado a: {} [{}]", request.getDestinatario(), notificationId);
-            
-        } catch (Exception e) {
-            log.error("Error enviando email BIENVENIDA a {}: {}", request.getDestinatario(), e.getMessage());
-            throw new RuntimeException("Error enviando email", e);
-        }
-    }
-
-    @Async
-    private void enviarEventoCreado(NotificationRequest request, String notificationId) {
-        String eventoNombre = (String) request.getDatos().get("eventoNombre");
-        Object eventoId = request.getDatos().get("eventoId");
-        String fechaEvento = (String) request.getDatos().get("fechaEvento");
-        
-        if (mailSender == null) {
-            // Modo simulación - solo logs
-            log.info("╔═══════════════════════════════════════════════════════════╗");
-            log.info("║         📧 SIMULACIÓN EMAIL - EVENTO CREADO              ║");
-            log.info("╠═══════════════════════════════════════════════════════════╣");
-            log.info("║ ID: {}", String.format("%-52s", notificationId) + "║");
-            log.info("║ Para: {}", String.format("%-50s", request.getDestinatario()) + "║");
-            log.info("║ Evento: {}", String.format("%-48s", eventoNombre) + "║");
-            log.info("║ Fecha: {}", String.format("%-49s", fechaEvento) + "║");
-            log.info("╚═══════════════════════════════════════════════════════════╝");
-            return;
-        }
-        
-        try {
-            SimpleMailMessage message = new SimpleMailMessage();
-            message.setTo(request.getDestinatario());
-            message.setSubject("📅 Tu evento ha sido publicado");
-            message.setText(
-                "Tu evento '" + eventoNombre + "' ha sido creado exitosamente.\n\n" +
-                "Detalles del evento:\n" +
-                "━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━\n" +
-                "ID del Evento:  " + eventoId + "\n" +
-                "Fecha:          " + fechaEvento + "\n\n" +
-                "Los usuarios ya pueden comprar entradas para tu evento.\n\n" +
-                "Saludos,\n" +
-                "Equipo SOA Ticketing\n\n" +
-                "Notification ID: " + notificationId
-            );
-            
-            mailSender.send(message);
-            log.info("Email EVENTO_CREADO enviado a: {} [{}]", request.getDestinatario(), notificationId);
-            
-        } catch (Exception e) {
-            log.error("Error enviando email EVENTO_CREADO a {}: {}", request.getDestinatario(), e.getMessage());
-            throw new RuntimeException("Error enviando email", e);
+    /**
+     * Encola un lote de notificaciones (p. ej. el relay del outbox de ticket-service).
+     * Las respuestas conservan el orden de las solicitudes.
+     *
+     * @throws com.example.notificationservice.exception.NotificationQueueFullException si la cola
+     *         se llena a mitad del lote; las ya encoladas se reconocen por su clave al reintentar
+     */
+    public List<NotificationResponse> enviarLote(List<NotificationRequest> requests) {
+        List<NotificationResponse> respuestas = new ArrayList<>(requests.size());
+        for (NotificationRequest request : requests) {
+            respuestas.add(enviarNotificacion(request));
         }
+        return respuestas;
     }
 
-    @Async
-    private void enviarTicketComprado(NotificationRequest request, String notificationId) {
-        String eventoNombre = (String) request.getDatos().get("eventoNombre");
-        String tipoEntrada = (String) request.getDatos().get("tipoEntrada");
-        Object cantidad = request.getDatos().get("cantidad");
-        Object total = request.getDatos().get("total");
-        String ticketId = (String) request.getDatos().get("ticketId");
-        String fechaEvento = (String) request.getDatos().get("fechaEvento");
-        
-        if (mailSender == null) {
-            // Modo simulación - solo logs
-            log.info("╔═══════════════════════════════════════════════════════════╗");
-            log.info("║         🎫 SIMULACIÓN EMAIL - TICKET COMPRADO            ║");
-            log.info("╠═══════════════════════════════════════════════════════════╣");
-            log.info("║ ID: {}", String.format("%-52s", notificationId) + "║");
-            log.info("║ Para: {}", String.format("%-50s", request.getDestinatario()) + "║");
-            log.info("║ Evento: {}", String.format("%-48s", eventoNombre) + "║");
-            log.info("║ Tipo: {}", String.format("%-50s", tipoEntrada) + "║");
-            log.info("║ Cantidad: {}", String.format("%-46s", cantidad) + "║");
-            log.info("║ Total: ${}", String.format("%-49s", total) + "║");
-            log.info("║ Ticket ID: {}", String.format("%-45s", ticketId) + "║");
-            log.info("╚═══════════════════════════════════════════════════════════╝");
-            return;
-        }
-        
-        try {
-            SimpleMailMessage message = new SimpleMailMessage();
-            message.setTo(request.getDestinatario());
-            message.setSubject("🎫 Confirmación de compra de entradas");
-            message.setText(
-                "¡Gracias por tu compra!\n\n" +
-                "Tu ticket ha sido generado exitosamente.\n\n" +
-                "Detalles de tu compra:\n" +
-                "━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━\n" +
-                "Código de ticket: " + ticketId + "\n" +
-                "Evento:           " + eventoNombre + "\n" +
-                "Tipo de entrada:  " + tipoEntrada + "\n" +
-                "Cantidad:         " + cantidad + "\n" +
-                "Total pagado:     $" + total + "\n" +
-                "Fecha del evento: " + fechaEvento + "\n\n" +
-                "⚠️ IMPORTANTE: Presenta este código en la entrada del evento.\n\n" +
-                "Saludos,\n" +
-                "Equipo SOA Ticketing\n\n" +
-                "Notification ID: " + notificationId
-            );
-            
-            mailSender.send(message);
-            log.info("Email TICKET_COMPRADO enviado a: {} [{}]", request.getDestinatario(), notificationId);
-            
-        } catch (Exception e) {
-            log.error("Error enviando email TICKET_COMPRADO a {}: {}", request.getDestinatario(), e.getMessage());
-            throw new RuntimeException("Error enviando email", e);
-        }
+    public Optional<NotificationStatusResponse> obtenerEstado(String notificationId) {
+        return dispatcher.estado(notificationId);
     }
 
-    @Async
-    private void enviarPagoRechazado(NotificationRequest request, String notificationId) {
-        String eventoNombre = (String) request.getDatos().get("eventoNombre");
-        Object monto = request.getDatos().get("monto");
-        String razon = (String) request.getDatos().get("razon");
-        
-        if (mailSender == null) {
-            // Modo simulación - solo logs
-            log.info("╔═══════════════════════════════════════════════════════════╗");
-            log.info("║         ❌ SIMULACIÓN EMAIL - PAGO RECHAZADO             ║");
-            log.info("╠═══════════════════════════════════════════════════════════╣");
-            log.info("║ ID: {}", String.format("%-52s", notificationId) + "║");
-            log.info("║ Para: {}", String.format("%-50s", request.getDestinatario()) + "║");
-            log.info("║ Evento: {}", String.format("%-48s", eventoNombre) + "║");
-            log.info("║ Monto: ${}", String.format("%-48s", monto) + "║");
-            log.info("║ Razón: {}", String.format("%-49s", razon) + "║");
-            log.info("╚═══════════════════════════════════════════════════════════╝");
-            return;
-        }
-        
-        try {
-            SimpleMailMessage message = new SimpleMailMessage();
-            message.setTo(request.getDestinatario());
-            message.setSubject("❌ Pago rechazado");
-            message.setText(
-                "Lo sentimos, no pudimos procesar tu pago.\n\n" +
-                "Detalles del intento:\n" +
-                "━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━\n" +
-                "Evento:  " + eventoNombre + "\n" +
-                "Monto:   $" + monto + "\n" +
-                "Razón:   " + razon + "\n\n" +
-                "Por favor, verifica tu método de pago e intenta nuevamente.\n\n" +
-                "Si el problema persiste, contacta con tu banco.\n\n" +
-                "Saludos,\n" +
-                "Equipo SOA Ticketing\n\n" +
-                "Notification ID: " + notificationId
-            );
-            
-            mailSender.send(message);
-            log.info("Email PAGO_RECHAZADO enviado a: {} [{}]", request.getDestinatario(), notificationId);
-            
-        } catch (Exception e) {
-            log.error("Error enviando email PAGO_RECHAZADO a {}: {}", request.getDestinatario(), e.getMessage());
-            throw new RuntimeException("Error enviando email", e);
-        }
+    public Map<String, Object> estadisticasCola() {
+        return dispatcher.estadisticas();
     }
 
-    @Async
-    private void enviarPasswordReset(NotificationRequest request, String notificationId) {
-        String nombre = (String) request.getDatos().get("nombre");
-        String resetLink = (String) request.getDatos().get("resetLink");
-        
-        if (mailSender == null) {
-            // Modo simulación - solo logs
-            log.info("╔═══════════════════════════════════════════════════════════╗");
-            log.info("║      🔑 SIMULACIÓN EMAIL - RESTABLECER CONTRASEÑA        ║");
-            log.info("╠═══════════════════════════════════════════════════════════╣");
-            log.info("║ ID: {}", String.format("%-52s", notificationId) + "║");
-            log.info("║ Para: {}", String.format("%-50s", request.getDestinatario()) + "║");
-            log.info("║ Nombre: {}", String.format("%-48s", nombre) + "║");
-            log.info("║ Link: {}", String.format("%-49s", resetLink.length() > 49 ? resetLink.substring(0, 46) + "..." : resetLink) + "║");
-            log.info("╚═══════════════════════════════════════════════════════════╝");
-            return;
-        }
-        
+    /**
+     * La misma clave de idempotencia siempre produce el mismo notificationId.
+     */
+    private static String idDesdeClave(String clave) {
         try {
-            SimpleMailMessage message = new SimpleMailMessage();
-            message.setTo(request.getDestinatario());
-            message.setSubject("🔑 Restablecimiento de Contraseña - SOA Ticketing");
-            message.setText(
-                "Hola " + nombre + ",\n\n" +
-                "Hemos recibido una solicitud para restablecer la contraseña de tu cuenta.\n\n" +
-                "Haz clic en el siguiente enlace para crear una nueva contraseña:\n" +
-                resetLink + "\n\n" +
-                "Este enlace expirará en 1 hora por seguridad.\n\n" +
-                "Si no solicitaste restablecer tu contraseña, ignora este mensaje.\n" +
-                "Tu contraseña actual seguirá siendo válida.\n\n" +
-                "Saludos,\n" +
-                "Equipo SOA Ticketing\n\n" +
-                "Notification ID: " + notificationId
-            );
-            
-            mailSender.send(message);
-            log.info("Email PASSWORD_RESET enviado a: {} [{}]", request.getDestinatario(), notificationId);
-            
-        } catch (Exception e) {
-            log.error("Error enviando email PASSWORD_RESET a {}: {}", request.getDestinatario(), e.getMessage());
-            throw new RuntimeException("Error enviando email", e);
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(clave.getBytes(StandardCharsets.UTF_8));
+            return "NOT-" + HexFormat.of().withUpperCase().formatHex(hash, 0, 8);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
         }
     }
 }
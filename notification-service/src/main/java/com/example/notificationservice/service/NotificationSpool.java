@@ -0,0 +1,190 @@
+package com.example.notificationservice.service;
+
+import com.example.notificationservice.model.NotificationTask;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Cola durable en disco de {@link NotificationDispatcher}.
+ *
+ * Cada notificación es un archivo &lt;id&gt;.json en pending/ que se escribe antes de responder
+ * al cliente y se renombra a sent/ al entregarse. Las que agotan los reintentos se mueven a dead/.
+ * Las escrituras van a un .tmp y se renombran de forma atómica: tras una caída, un archivo
+ * en pending/ siempre está completo.
+ *
+ * Los tres directorios son el registro de IDs conocidos para la deduplicación por clave de
+ * idempotencia; sent/ se purga pasado notification.queue.sent-retention.
+ */
+class NotificationSpool {
+
+    private static final Logger log = LoggerFactory.getLogger(NotificationSpool.class);
+    private static final String EXTENSION = ".json";
+
+    private final Path pendientes;
+    private final Path muertas;
+    private final Path enviadas;
+    private final boolean fsync;
+    private final ObjectMapper objectMapper;
+
+    NotificationSpool(Path directorio, boolean fsync, ObjectMapper objectMapper) {
+        this.pendientes = directorio.resolve("pending");
+        this.muertas = directorio.resolve("dead");
+        this.enviadas = directorio.resolve("sent");
+        this.fsync = fsync;
+        this.objectMapper = objectMapper;
+        try {
+            Files.createDirectories(pendientes);
+            Files.createDirectories(muertas);
+            Files.createDirectories(enviadas);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo crear el spool de notificaciones: " + directorio, e);
+        }
+    }
+
+    void guardar(NotificationTask task) {
+        escribir(pendientes, task);
+    }
+
+    void eliminar(String notificationId) {
+        try {
+            Files.deleteIfExists(ruta(pendientes, notificationId));
+        } catch (IOException e) {
+            // Si el archivo queda, se reenviará tras un reinicio (entrega al-menos-una-vez)
+            log.error("No se pudo eliminar la notificación {} del spool: {}", notificationId, e.getMessage());
+        }
+    }
+
+    /**
+     * Pasa la notificación entregada a sent/ (un rename), donde queda para la deduplicación.
+     */
+    void marcarEnviada(String notificationId) {
+        Path destino = ruta(enviadas, notificationId);
+        try {
+            Files.move(ruta(pendientes, notificationId), destino,
+                    StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            // La retención de sent/ se cuenta desde la entrega, no desde que se encoló
+            Files.setLastModifiedTime(destino, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException e) {
+            // Si el archivo queda en pending/, se reenviará tras un reinicio (entrega al-menos-una-vez)
+            log.error("No se pudo mover la notificación {} a sent/: {}", notificationId, e.getMessage());
+        }
+    }
+
+    /**
+     * Elimina de sent/ las notificaciones entregadas antes de limiteMs.
+     *
+     * @return cantidad eliminada
+     */
+    int eliminarEnviadasAntesDe(long limiteMs) {
+        int eliminadas = 0;
+        try (DirectoryStream<Path> archivos = Files.newDirectoryStream(enviadas, "*" + EXTENSION)) {
+            for (Path archivo : archivos) {
+                try {
+                    if (Files.getLastModifiedTime(archivo).toMillis() < limiteMs && Files.deleteIfExists(archivo)) {
+                        eliminadas++;
+                    }
+                } catch (IOException e) {
+                    log.warn("No se pudo eliminar {} de sent/: {}", archivo.getFileName(), e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            log.error("No se pudo recorrer sent/ del spool: {}", e.getMessage());
+        }
+        return eliminadas;
+    }
+
+    void moverADeadLetter(NotificationTask task) {
+        escribir(muertas, task);
+        eliminar(task.getNotificationId());
+    }
+
+    /**
+     * Notificaciones pendientes de un arranque anterior. Los archivos ilegibles se renombran
+     * a .corrupt para no bloquear la recuperación.
+     */
+    List<NotificationTask> cargarPendientes() {
+        List<NotificationTask> tasks = new ArrayList<>();
+        try (DirectoryStream<Path> archivos = Files.newDirectoryStream(pendientes, "*" + EXTENSION)) {
+            for (Path archivo : archivos) {
+                try {
+                    tasks.add(objectMapper.readValue(archivo.toFile(), NotificationTask.class));
+                } catch (IOException e) {
+                    log.error("Notificación ilegible en el spool {}: {}", archivo.getFileName(), e.getMessage());
+                    Files.move(archivo, archivo.resolveSibling(archivo.getFileName() + ".corrupt"),
+                            StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo leer el spool de notificaciones", e);
+        }
+        return tasks;
+    }
+
+    Optional<NotificationTask> buscar(String notificationId) {
+        for (Path directorio : List.of(pendientes, muertas, enviadas)) {
+            Path archivo = ruta(directorio, notificationId);
+            if (Files.exists(archivo)) {
+                try {
+                    return Optional.of(objectMapper.readValue(archivo.toFile(), NotificationTask.class));
+                } catch (IOException e) {
+                    log.warn("No se pudo leer la notificación {}: {}", notificationId, e.getMessage());
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    boolean esDeadLetter(String notificationId) {
+        return Files.exists(ruta(muertas, notificationId));
+    }
+
+    boolean esEnviada(String notificationId) {
+        return Files.exists(ruta(enviadas, notificationId));
+    }
+
+    long contarDeadLetters() {
+        try (var archivos = Files.list(muertas)) {
+            return archivos.filter(archivo -> archivo.toString().endsWith(EXTENSION)).count();
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    private void escribir(Path directorio, NotificationTask task) {
+        Path destino = ruta(directorio, task.getNotificationId());
+        Path temporal = destino.resolveSibling(destino.getFileName() + ".tmp");
+        try {
+            Files.write(temporal, objectMapper.writeValueAsBytes(task));
+            if (fsync) {
+                try (FileChannel canal = FileChannel.open(temporal, StandardOpenOption.WRITE)) {
+                    canal.force(true);
+                }
+            }
+            Files.move(temporal, destino, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo persistir la notificación " + task.getNotificationId(), e);
+        }
+    }
+
+    private static Path ruta(Path directorio, String notificationId) {
+        // Los IDs los genera el servicio (NOT-XXXXXXXX), pero se valida para no salir del directorio
+        if (!notificationId.matches("[A-Za-z0-9-]+")) {
+            throw new IllegalArgumentException("ID de notificación inválido: " + notificationId);
+        }
+        return directorio.resolve(notificationId + EXTENSION);
+    }
+}
@@ -0,0 +1,238 @@
+package com.example.notificationservice.service;
+
+import com.example.notificationservice.model.NotificationTask;
+import com.samskivert.mustache.Mustache;
+import com.samskivert.mustache.Template;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Plantillas de email precompiladas, por tipo de notificación e idioma.
+ *
+ * Al arrancar busca templates/notifications/{idioma}/{TIPO}.subject|txt|html.mustache en el
+ * classpath y las compila una sola vez; los partials (_firma.txt, _inicio.html, _fin.html) se
+ * resuelven en el mismo directorio del idioma. En cada envío solo se ejecuta la plantilla ya
+ * compilada sobre los datos de la notificación, escribiendo en un buffer reutilizado por hilo.
+ *
+ * El idioma se toma de datos.idioma ("en", "en-US"...); si falta o no hay plantilla para ese
+ * idioma se usa notification.templates.default-locale. Las plantillas HTML escapan los valores;
+ * las de texto plano y asunto no.
+ */
+@Component
+public class NotificationTemplateRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(NotificationTemplateRegistry.class);
+
+    private static final String PATRON = "classpath*:templates/notifications/*/*.subject.mustache";
+    private static final String SUFIJO_ASUNTO = ".subject.mustache";
+    private static final String EXTENSION = ".mustache";
+    private static final String DATO_IDIOMA = "idioma";
+    private static final int BUFFER_INICIAL = 4 * 1024;
+    private static final int BUFFER_MAXIMO = 64 * 1024;
+
+    /** Buffer de render por hilo: los workers del dispatcher lo reutilizan entre mensajes. */
+    private static final ThreadLocal<BufferWriter> BUFFER = ThreadLocal.withInitial(BufferWriter::new);
+
+    @Value("${notification.templates.default-locale:es}")
+    private String idiomaPorDefecto;
+
+    /** idioma -> tipo -> plantillas compiladas; inmutable tras el arranque */
+    private Map<String, Map<String, Plantillas>> plantillas = Map.of();
+
+    /** Email ya renderizado, listo para armar el MimeMessage. */
+    public record Email(String asunto, String texto, String html) {
+    }
+
+    private record Plantillas(Template asunto, Template texto, Template html) {
+    }
+
+    @PostConstruct
+    public void cargar() throws IOException {
+        PathMatchingResourcePatternResolver resolver = new PathMatchingResourcePatternResolver();
+        Map<String, Map<String, Plantillas>> cargadas = new HashMap<>();
+
+        for (Resource asunto : resolver.getResources(PATRON)) {
+            String archivo = asunto.getFilename();
+            String tipo = archivo.substring(0, archivo.length() - SUFIJO_ASUNTO.length());
+            String idioma = idiomaDe(asunto);
+
+            Mustache.Compiler texto = Mustache.compiler()
+                    .defaultValue("")
+                    .escapeHTML(false)
+                    .withLoader(nombre -> new StringReader(leer(asunto.createRelative(nombre + EXTENSION))));
+            Mustache.Compiler html = texto.escapeHTML(true);
+
+            Plantillas compiladas = new Plantillas(
+                    texto.compile(leer(asunto)),
+                    texto.compile(leer(asunto.createRelative(tipo + ".txt" + EXTENSION))),
+                    html.compile(leer(asunto.createRelative(tipo + ".html" + EXTENSION))));
+            // Render de prueba: resuelve y compila los partials ahora y no en el primer envío
+            ejecutar(compiladas.asunto(), Map.of(), Map.of());
+            ejecutar(compiladas.texto(), Map.of(), Map.of());
+            ejecutar(compiladas.html(), Map.of(), Map.of());
+
+            cargadas.computeIfAbsent(idioma, k -> new HashMap<>()).put(tipo, compiladas);
+        }
+
+        Map<String, Plantillas> base = cargadas.get(idiomaPorDefecto);
+        if (base == null || base.isEmpty()) {
+            throw new IllegalStateException("No hay plantillas de notificación para el idioma por defecto: " + idiomaPorDefecto);
+        }
+        cargadas.forEach((idioma, porTipo) -> {
+            Set<String> faltantes = new TreeSet<>(base.keySet());
+            faltantes.removeAll(porTipo.keySet());
+            if (!faltantes.isEmpty()) {
+                log.warn("Idioma '{}' sin plantillas para {}: se usará '{}'", idioma, faltantes, idiomaPorDefecto);
+            }
+        });
+
+        Map<String, Map<String, Plantillas>> inmutables = new HashMap<>();
+        cargadas.forEach((idioma, porTipo) -> inmutables.put(idioma, Map.copyOf(porTipo)));
+        plantillas = Map.copyOf(inmutables);
+        log.info("Plantillas de notificación compiladas: tipos {} en idiomas {} (por defecto '{}')",
+                new TreeSet<>(base.keySet()), new TreeSet<>(plantillas.keySet()), idiomaPorDefecto);
+    }
+
+    public boolean soporta(String tipo) {
+        return tipo != null && plantillas.getOrDefault(idiomaPorDefecto, Map.of()).containsKey(tipo);
+    }
+
+    public Set<String> tiposSoportados() {
+        return plantillas.getOrDefault(idiomaPorDefecto, Map.of()).keySet();
+    }
+
+    /**
+     * Renderiza asunto, texto plano y HTML de la notificación.
+     *
+     * @throws IllegalArgumentException si el tipo no tiene plantilla
+     */
+    public Email render(NotificationTask task) {
+        Map<String, Object> datos = task.getDatos() != null ? task.getDatos() : Map.of();
+        Plantillas p = buscar(task.getTipo(), datos.get(DATO_IDIOMA));
+
+        // El asunto también queda disponible para las plantillas (p. ej. <title> del HTML)
+        String asunto = ejecutar(p.asunto(), datos, Map.of("notificationId", task.getNotificationId()));
+        Map<String, Object> comunes = Map.of("notificationId", task.getNotificationId(), "asunto", asunto);
+        return new Email(asunto, ejecutar(p.texto(), datos, comunes), ejecutar(p.html(), datos, comunes));
+    }
+
+    private Plantillas buscar(String tipo, Object idioma) {
+        if (idioma instanceof String valor && !valor.isBlank()) {
+            Map<String, Plantillas> porTipo = plantillas.get(normalizar(valor));
+            if (porTipo != null && porTipo.containsKey(tipo)) {
+                return porTipo.get(tipo);
+            }
+        }
+        Plantillas porDefecto = plantillas.get(idiomaPorDefecto).get(tipo);
+        if (porDefecto == null) {
+            throw new IllegalArgumentException("Tipo de notificación no soportado: " + tipo);
+        }
+        return porDefecto;
+    }
+
+    /**
+     * Los datos de la notificación tienen prioridad; los valores comunes (notificationId, asunto)
+     * se resuelven como contexto padre, sin copiar el mapa de datos.
+     */
+    private static String ejecutar(Template template, Map<String, Object> datos, Map<String, Object> comunes) {
+        BufferWriter buffer = BUFFER.get();
+        if (buffer.capacidad() > BUFFER_MAXIMO) {
+            // Un email excepcionalmente grande no debe dejar retenido su buffer en el hilo
+            buffer = new BufferWriter();
+            BUFFER.set(buffer);
+        }
+        buffer.reiniciar();
+        template.execute(datos, comunes, buffer);
+        return buffer.contenido();
+    }
+
+    private static String normalizar(String idioma) {
+        String valor = idioma.trim().toLowerCase(Locale.ROOT);
+        int separador = valor.indexOf('-') >= 0 ? valor.indexOf('-') : valor.indexOf('_');
+        return separador > 0 ? valor.substring(0, separador) : valor;
+    }
+
+    private static String idiomaDe(Resource recurso) throws IOException {
+        String ruta = recurso.getURL().getPath();
+        String directorio = ruta.substring(0, ruta.lastIndexOf('/'));
+        return directorio.substring(directorio.lastIndexOf('/') + 1).toLowerCase(Locale.ROOT);
+    }
+
+    /** Lee la plantilla sin el salto de línea final del archivo. */
+    private static String leer(Resource recurso) {
+        try (InputStream in = recurso.getInputStream()) {
+            String contenido = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            int fin = contenido.length();
+            while (fin > 0 && (contenido.charAt(fin - 1) == '\n' || contenido.charAt(fin - 1) == '\r')) {
+                fin--;
+            }
+            return contenido.substring(0, fin);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo leer la plantilla " + recurso.getDescription(), e);
+        }
+    }
+
+    /** Writer sobre un StringBuilder reutilizable (sin sincronización, uno por hilo). */
+    private static final class BufferWriter extends Writer {
+
+        private final StringBuilder sb = new StringBuilder(BUFFER_INICIAL);
+
+        void reiniciar() {
+            sb.setLength(0);
+        }
+
+        int capacidad() {
+            return sb.capacity();
+        }
+
+        String contenido() {
+            return sb.toString();
+        }
+
+        @Override
+        public void write(char[] cbuf, int off, int len) {
+            sb.append(cbuf, off, len);
+        }
+
+        @Override
+        public void write(String str, int off, int len) {
+            sb.append(str, off, off + len);
+        }
+
+        @Override
+        public void write(int c) {
+            sb.append((char) c);
+        }
+
+        @Override
+        public Writer append(CharSequence csq) {
+            sb.append(csq);
+            return this;
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.notificationservice.service;
+
+import jakarta.mail.MessagingException;
+import jakarta.mail.Transport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Pool de conexiones SMTP autenticadas reutilizables.
+ *
+ * JavaMailSenderImpl abre y autentica una sesión SMTP (TCP + STARTTLS + AUTH) en cada
+ * send(). Aquí las conexiones se mantienen abiertas entre lotes y se descartan al superar
+ * el tiempo ocioso o la cantidad de mensajes por conexión (los servidores suelen cortar
+ * sesiones largas), o cuando un envío falla a nivel de conexión. El límite de mensajes se
+ * respeta también dentro de un lote: quien envía consulta {@link Conexion#agotada()} tras
+ * cada mensaje y cambia de conexión.
+ */
+class SmtpTransportPool {
+
+    private static final Logger log = LoggerFactory.getLogger(SmtpTransportPool.class);
+
+    private final JavaMailSenderImpl mailSender;
+    private final long maxIdleMs;
+    private final int maxMensajesPorConexion;
+    private final Semaphore permisos;
+    private final BlockingQueue<Conexion> libres;
+
+    SmtpTransportPool(JavaMailSenderImpl mailSender, int tamano, long maxIdleMs, int maxMensajesPorConexion) {
+        this.mailSender = mailSender;
+        this.maxIdleMs = maxIdleMs;
+        this.maxMensajesPorConexion = maxMensajesPorConexion;
+        this.permisos = new Semaphore(tamano);
+        this.libres = new ArrayBlockingQueue<>(tamano);
+    }
+
+    /**
+     * Toma una conexión abierta (o abre una nueva). Bloquea si todas están en uso.
+     */
+    Conexion tomar() throws MessagingException, InterruptedException {
+        permisos.acquire();
+        try {
+            Conexion conexion;
+            while ((conexion = libres.poll()) != null) {
+                if (conexion.reutilizable()) {
+                    return conexion;
+                }
+                cerrar(conexion);
+            }
+            return abrir();
+        } catch (MessagingException | RuntimeException e) {
+            permisos.release();
+            throw e;
+        }
+    }
+
+    /**
+     * @param sana false si la conexión falló y debe descartarse
+     */
+    void devolver(Conexion conexion, boolean sana) {
+        try {
+            if (sana && conexion.reutilizable()) {
+                conexion.ultimoUso = System.currentTimeMillis();
+                libres.offer(conexion);
+            } else {
+                cerrar(conexion);
+            }
+        } finally {
+            permisos.release();
+        }
+    }
+
+    void cerrarTodas() {
+        Conexion conexion;
+        while ((conexion = libres.poll()) != null) {
+            cerrar(conexion);
+        }
+    }
+
+    private Conexion abrir() throws MessagingException {
+        Transport transport = mailSender.getSession().getTransport(mailSender.getProtocol());
+        transport.connect(mailSender.getHost(), mailSender.getPort(), mailSender.getUsername(), mailSender.getPassword());
+        log.debug("Conexión SMTP abierta con {}:{}", mailSender.getHost(), mailSender.getPort());
+        return new Conexion(transport);
+    }
+
+    private void cerrar(Conexion conexion) {
+        try {
+            conexion.transport.close();
+        } catch (MessagingException e) {
+            log.debug("Error cerrando conexión SMTP: {}", e.getMessage());
+        }
+    }
+
+    final class Conexion {
+        private final Transport transport;
+        private long ultimoUso = System.currentTimeMillis();
+        private int enviados;
+
+        private Conexion(Transport transport) {
+            this.transport = transport;
+        }
+
+        Transport transport() {
+            return transport;
+        }
+
+        void registrarEnvio() {
+            enviados++;
+        }
+
+        /**
+         * true si ya envió notification.smtp.max-messages-per-connection mensajes.
+         */
+        boolean agotada() {
+            return enviados >= maxMensajesPorConexion;
+        }
+
+        private boolean reutilizable() {
+            return !agotada()
+                    && System.currentTimeMillis() - ultimoUso < maxIdleMs;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.notificationservice.service;
+
+/**
+ * Contador de eventos por segundo sobre una ventana deslizante de N segundos
+ * (un bucket por segundo, reutilizados en forma circular).
+ */
+class ThroughputWindow {
+
+    private final long[] buckets;
+    private final long[] segundos;
+
+    ThroughputWindow(int ventanaSegundos) {
+        this.buckets = new long[ventanaSegundos];
+        this.segundos = new long[ventanaSegundos];
+    }
+
+    synchronized void registrar() {
+        long ahora = System.currentTimeMillis() / 1000;
+        int indice = (int) (ahora % buckets.length);
+        if (segundos[indice] != ahora) {
+            segundos[indice] = ahora;
+            buckets[indice] = 0;
+        }
+        buckets[indice]++;
+    }
+
+    /**
+     * Promedio de eventos por segundo en la ventana (los segundos sin eventos cuentan como 0).
+     */
+    synchronized double porSegundo() {
+        long ahora = System.currentTimeMillis() / 1000;
+        long total = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            if (ahora - segundos[i] < buckets.length) {
+                total += buckets[i];
+            }
+        }
+        return (double) total / buckets.length;
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.notificationservice.service;
+
+import com.example.notificationservice.dto.NotificationStatusResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Deduplicación por clave de idempotencia: persiste en el spool (sobrevive a un reinicio una vez
+ * entregada) y un duplicado concurrente no se reconoce antes de que la primera admisión sea durable.
+ */
+class NotificationDispatcherIdempotenciaTest {
+
+    private static final Map<String, Object> DATOS = Map.of("nombre", "Ana");
+
+    @TempDir
+    Path spool;
+
+    private final NotificationSender sender = Mockito.mock(NotificationSender.class);
+
+    @Test
+    void notificacionEntregadaSeReconoceTrasReiniciar() throws Exception {
+        when(sender.entregarLote(anyList())).thenReturn(Map.of());
+        NotificationDispatcher antes = dispatcher();
+        antes.iniciar();
+        assertThat(antes.encolarSiNueva("NOT-CLAVE1", "BIENVENIDA", "ana@test.com", DATOS)).isEmpty();
+        esperarEstado(antes, "NOT-CLAVE1", NotificationDispatcher.SENT);
+        antes.detener();
+
+        NotificationDispatcher despues = dispatcher();
+        despues.iniciar();
+        Optional<NotificationStatusResponse> duplicado =
+                despues.encolarSiNueva("NOT-CLAVE1", "BIENVENIDA", "ana@test.com", DATOS);
+        despues.detener();
+
+        assertThat(duplicado).map(NotificationStatusResponse::getStatus).contains(NotificationDispatcher.SENT);
+        verify(sender, times(1)).entregarLote(anyList());
+    }
+
+    @Test
+    void duplicadosConcurrentesSeEncolanUnaSolaVez() throws Exception {
+        // Sin iniciar los workers: todo queda en cola y se puede contar
+        NotificationDispatcher dispatcher = dispatcher();
+        int hilos = 16;
+        CountDownLatch salida = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(hilos);
+        List<Future<Optional<NotificationStatusResponse>>> resultados = new ArrayList<>();
+        for (int i = 0; i < hilos; i++) {
+            resultados.add(pool.submit(() -> {
+                salida.await();
+                return dispatcher.encolarSiNueva("NOT-CLAVE2", "BIENVENIDA", "ana@test.com", DATOS);
+            }));
+        }
+        salida.countDown();
+
+        int encoladas = 0;
+        for (Future<Optional<NotificationStatusResponse>> resultado : resultados) {
+            Optional<NotificationStatusResponse> estado = resultado.get();
+            if (estado.isEmpty()) {
+                encoladas++;
+            } else {
+                assertThat(estado.get().getStatus()).isEqualTo(NotificationDispatcher.QUEUED);
+            }
+        }
+        pool.shutdown();
+
+        assertThat(encoladas).isEqualTo(1);
+        assertThat(dispatcher.estadisticas()).containsEntry("pendientes", 1);
+    }
+
+    @Test
+    void duplicadoConcurrenteNoSeDaPorEncoladoSiLaAdmisionFalla() throws Exception {
+        NotificationDispatcher dispatcher = dispatcher();
+        // pending/ deja de ser un directorio: ninguna admisión puede persistirse
+        Files.delete(spool.resolve("pending"));
+        Files.createFile(spool.resolve("pending"));
+
+        List<Callable<Optional<NotificationStatusResponse>>> llamadas = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            llamadas.add(() -> dispatcher.encolarSiNueva("NOT-CLAVE3", "BIENVENIDA", "ana@test.com", DATOS));
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(llamadas.size());
+        List<Future<Optional<NotificationStatusResponse>>> resultados = pool.invokeAll(llamadas);
+        pool.shutdown();
+
+        for (Future<Optional<NotificationStatusResponse>> resultado : resultados) {
+            assertThatThrownBy(resultado::get).hasCauseInstanceOf(UncheckedIOException.class);
+        }
+        assertThat(dispatcher.estado("NOT-CLAVE3")).isEmpty();
+    }
+
+    private NotificationDispatcher dispatcher() {
+        return new NotificationDispatcher(sender, new ObjectMapper(), new SimpleMeterRegistry(),
+                spool.toString(), false, 100, 1, 10, 3, 10, 100, Duration.ofHours(72));
+    }
+
+    private static void esperarEstado(NotificationDispatcher dispatcher, String notificationId, String esperado)
+            throws InterruptedException {
+        for (int i = 0; i < 500; i++) {
+            if (dispatcher.estado(notificationId).map(NotificationStatusResponse::getStatus)
+                    .filter(esperado::equals).isPresent()) {
+                return;
+            }
+            Thread.sleep(10);
+        }
+        throw new AssertionError(notificationId + " no llegó a " + esperado);
+    }
+}
@@ -0,0 +1,181 @@
+package com.example.notificationservice.service;
+
+import com.example.notificationservice.model.NotificationTask;
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import com.sun.mail.smtp.SMTPTransport;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.mail.Address;
+import jakarta.mail.Message;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Provider;
+import jakarta.mail.Session;
+import jakarta.mail.URLName;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Envío real por SMTP contra GreenMail: workers del dispatcher, lotes y pool de conexiones.
+ * Informa los mensajes por segundo entregados y comprueba que ninguna conexión supere
+ * notification.smtp.max-messages-per-connection, aunque el lote sea más grande, y que una conexión
+ * caída a mitad de lote solo haga fallar el mensaje que se estaba enviando.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "notification.queue.dir=target/notification-spool-${random.uuid}",
+        "notification.dispatcher.workers=2",
+        "notification.dispatcher.batch-size=50",
+        "notification.smtp.pool-size=2",
+        "notification.smtp.max-messages-per-connection=" + NotificationDispatcherSmtpTest.MENSAJES_POR_CONEXION
+})
+class NotificationDispatcherSmtpTest {
+
+    static final int MENSAJES_POR_CONEXION = 20;
+
+    private static final Logger log = LoggerFactory.getLogger(NotificationDispatcherSmtpTest.class);
+    private static final String PROTOCOLO = "smtp-contado";
+
+    @RegisterExtension
+    static final GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP)
+            .withPerMethodLifecycle(false);
+
+    @Autowired
+    private NotificationDispatcher dispatcher;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private NotificationSender sender;
+
+    @BeforeEach
+    void limpiar() throws Exception {
+        greenMail.purgeEmailFromAllMailboxes();
+        TransporteContado.CONEXIONES.set(0);
+        TransporteContado.MAXIMO_POR_CONEXION.set(0);
+    }
+
+    @Test
+    void entregaLasNotificacionesYReportaMensajesPorSegundo() {
+        int total = 300;
+
+        long inicio = System.nanoTime();
+        encolar("THR", total);
+        assertThat(greenMail.waitForIncomingEmail(60_000, total)).as("emails recibidos").isTrue();
+        long duracionMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio);
+
+        log.info("GreenMail: {} emails en {} ms = {} mensajes/s ({} conexiones SMTP, lote promedio {})",
+                total, duracionMs, Math.round(total * 1000.0 / Math.max(1, duracionMs)),
+                TransporteContado.CONEXIONES.get(), dispatcher.estadisticas().get("promedioPorLote"));
+        assertThat(greenMail.getReceivedMessages()).hasSize(total);
+
+        // La latencia por mensaje reparte la duración del lote: su suma no puede superar la de los lotes
+        Timer porMensaje = meterRegistry.get("notification.send.latency").tag("result", "ok").timer();
+        Timer porLote = meterRegistry.get("notification.send.batch.latency").timer();
+        assertThat(porMensaje.totalTime(TimeUnit.NANOSECONDS)).isLessThanOrEqualTo(porLote.totalTime(TimeUnit.NANOSECONDS));
+    }
+
+    @Test
+    void ningunaConexionSuperaElLimiteDeMensajesDentroDeUnLote() {
+        int total = 150;
+
+        encolar("LIM", total);
+        assertThat(greenMail.waitForIncomingEmail(60_000, total)).as("emails recibidos").isTrue();
+
+        assertThat(TransporteContado.MAXIMO_POR_CONEXION.get()).isLessThanOrEqualTo(MENSAJES_POR_CONEXION);
+        assertThat(TransporteContado.CONEXIONES.get()).isGreaterThanOrEqualTo(total / MENSAJES_POR_CONEXION);
+    }
+
+    @Test
+    void trasUnaConexionCaidaElRestoDelLoteSeEnviaPorOtra() {
+        List<NotificationTask> lote = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            String destinatario = i == 3 ? "corta-conexion@test.com" : "cliente" + i + "@test.com";
+            lote.add(new NotificationTask("NOT-CAIDA" + i, "BIENVENIDA", destinatario,
+                    Map.of("nombre", "Cliente " + i), System.currentTimeMillis()));
+        }
+
+        Map<String, RuntimeException> fallos = sender.entregarLote(lote);
+
+        assertThat(fallos).containsOnlyKeys("NOT-CAIDA3");
+        assertThat(greenMail.getReceivedMessages()).hasSize(9);
+    }
+
+    private void encolar(String prefijo, int cantidad) {
+        for (int i = 0; i < cantidad; i++) {
+            dispatcher.encolar("NOT-" + prefijo + i, "BIENVENIDA", "cliente" + i + "@test.com",
+                    Map.of("nombre", "Cliente " + i));
+        }
+    }
+
+    @TestConfiguration
+    static class SmtpDePrueba {
+
+        /**
+         * Igual que el de Spring Boot pero con un transporte que cuenta conexiones y mensajes.
+         */
+        @Bean
+        JavaMailSenderImpl mailSender() {
+            Session session = Session.getInstance(new Properties());
+            session.addProvider(new Provider(Provider.Type.TRANSPORT, PROTOCOLO,
+                    TransporteContado.class.getName(), "test", "1"));
+            JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+            mailSender.setSession(session);
+            mailSender.setProtocol(PROTOCOLO);
+            mailSender.setHost("localhost");
+            mailSender.setPort(ServerSetupTest.SMTP.getPort());
+            return mailSender;
+        }
+    }
+
+    /**
+     * Transporte SMTP que registra cuántas conexiones se abren y cuántos mensajes envía cada una.
+     * Simula que el servidor corta la sesión al enviar a corta-conexion@test.com.
+     */
+    public static class TransporteContado extends SMTPTransport {
+
+        static final AtomicInteger CONEXIONES = new AtomicInteger();
+        static final AtomicInteger MAXIMO_POR_CONEXION = new AtomicInteger();
+
+        private int enviados;
+
+        public TransporteContado(Session session, URLName urlname) {
+            super(session, urlname);
+        }
+
+        @Override
+        protected synchronized boolean protocolConnect(String host, int port, String user, String password)
+                throws MessagingException {
+            boolean conectado = super.protocolConnect(host, port, user, password);
+            CONEXIONES.incrementAndGet();
+            return conectado;
+        }
+
+        @Override
+        public synchronized void sendMessage(Message message, Address[] addresses) throws MessagingException {
+            if (addresses[0].toString().startsWith("corta-conexion@")) {
+                close();
+                throw new MessagingException("Conexión cerrada por el servidor");
+            }
+            super.sendMessage(message, addresses);
+            MAXIMO_POR_CONEXION.accumulateAndGet(++enviados, Math::max);
+        }
+    }
+}
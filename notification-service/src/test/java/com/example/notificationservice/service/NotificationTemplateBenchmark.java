@@ -0,0 +1,175 @@
+package com.example.notificationservice.service;
+
+import com.example.notificationservice.model.NotificationTask;
+import com.samskivert.mustache.Mustache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coste de armar el contenido de un email, por tipo de notificación.
+ *
+ * - concatenacion: el código anterior a las plantillas; asunto y texto plano por concatenación
+ *   de strings (sin HTML).
+ * - compilarEnCadaEnvio: las mismas plantillas Mustache, pero parseadas y compiladas en cada
+ *   envío (asunto, texto y HTML con sus partials).
+ * - precompiladas: {@link NotificationTemplateRegistry#render}; plantillas compiladas al arrancar
+ *   y render sobre el buffer reutilizado del hilo.
+ *
+ * Ejecución (desde notification-service/):
+ *   mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ *   java -cp target/test-classes:target/classes:$(cat target/cp.txt) com.example.notificationservice.service.NotificationTemplateBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NotificationTemplateBenchmark {
+
+    private static final String DIRECTORIO = "templates/notifications/es/";
+
+    @Param({"BIENVENIDA", "TICKET_COMPRADO"})
+    public String tipo;
+
+    private NotificationTask task;
+    private NotificationTemplateRegistry registry;
+    private Map<String, String> fuentes;
+
+    @Setup
+    public void preparar() throws IOException {
+        Map<String, Object> datos = new HashMap<>();
+        datos.put("nombre", "María <Pérez>");
+        datos.put("eventoNombre", "Festival de Verano");
+        datos.put("tipoEntrada", "VIP");
+        datos.put("cantidad", 2);
+        datos.put("total", "180.00");
+        datos.put("ticketId", "TKT-7F3A9C21");
+        datos.put("fechaEvento", "2026-12-05T21:00");
+        task = new NotificationTask("NOT-5E1B2C3D", tipo, "cliente@test.com", datos, System.currentTimeMillis());
+
+        registry = new NotificationTemplateRegistry();
+        ReflectionTestUtils.setField(registry, "idiomaPorDefecto", "es");
+        registry.cargar();
+
+        fuentes = new HashMap<>();
+        for (String nombre : new String[]{tipo + ".subject", tipo + ".txt", tipo + ".html",
+                "_firma.txt", "_inicio.html", "_fin.html"}) {
+            fuentes.put(nombre, leer(nombre));
+        }
+    }
+
+    @Benchmark
+    public NotificationTemplateRegistry.Email concatenacion() {
+        return ContenidoAnterior.construir(task);
+    }
+
+    @Benchmark
+    public NotificationTemplateRegistry.Email compilarEnCadaEnvio() {
+        Mustache.Compiler texto = Mustache.compiler()
+                .defaultValue("")
+                .escapeHTML(false)
+                .withLoader(nombre -> new StringReader(fuentes.get(nombre)));
+        Mustache.Compiler html = texto.escapeHTML(true);
+        Map<String, Object> comunes = new HashMap<>(task.getDatos());
+        comunes.put("notificationId", task.getNotificationId());
+        String asunto = texto.compile(fuentes.get(tipo + ".subject")).execute(comunes);
+        comunes.put("asunto", asunto);
+        return new NotificationTemplateRegistry.Email(asunto,
+                texto.compile(fuentes.get(tipo + ".txt")).execute(comunes),
+                html.compile(fuentes.get(tipo + ".html")).execute(comunes));
+    }
+
+    @Benchmark
+    public NotificationTemplateRegistry.Email precompiladas() {
+        return registry.render(task);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(NotificationTemplateBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+
+    private static String leer(String nombre) {
+        try {
+            return new ClassPathResource(DIRECTORIO + nombre + ".mustache")
+                    .getContentAsString(StandardCharsets.UTF_8).stripTrailing();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Contenido de BIENVENIDA y TICKET_COMPRADO tal como lo armaba NotificationSender antes
+     * de las plantillas.
+     */
+    private static final class ContenidoAnterior {
+
+        static NotificationTemplateRegistry.Email construir(NotificationTask task) {
+            String notificationId = task.getNotificationId();
+            switch (task.getTipo()) {
+                case "BIENVENIDA": {
+                    String nombre = (String) task.getDatos().get("nombre");
+                    return new NotificationTemplateRegistry.Email("🎉 Bienvenido a SOA Ticketing",
+                        "Hola " + nombre + ",\n\n" +
+                        "¡Bienvenido a nuestro sistema de venta de entradas!\n" +
+                        "Tu cuenta ha sido creada exitosamente.\n\n" +
+                        "Ahora puedes comprar entradas para tus eventos favoritos.\n\n" +
+                        "Saludos,\n" +
+                        "Equipo SOA Ticketing\n\n" +
+                        "Notification ID: " + notificationId,
+                        null);
+                }
+                case "TICKET_COMPRADO": {
+                    String eventoNombre = (String) task.getDatos().get("eventoNombre");
+                    String tipoEntrada = (String) task.getDatos().get("tipoEntrada");
+                    Object cantidad = task.getDatos().get("cantidad");
+                    Object total = task.getDatos().get("total");
+                    String ticketId = (String) task.getDatos().get("ticketId");
+                    String fechaEvento = (String) task.getDatos().get("fechaEvento");
+                    return new NotificationTemplateRegistry.Email("🎫 Confirmación de compra de entradas",
+                        "¡Gracias por tu compra!\n\n" +
+                        "Tu ticket ha sido generado exitosamente.\n\n" +
+                        "Detalles de tu compra:\n" +
+                        "━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━\n" +
+                        "Código de ticket: " + ticketId + "\n" +
+                        "Evento:           " + eventoNombre + "\n" +
+                        "Tipo de entrada:  " + tipoEntrada + "\n" +
+                        "Cantidad:         " + cantidad + "\n" +
+                        "Total pagado:     $" + total + "\n" +
+                        "Fecha del evento: " + fechaEvento + "\n\n" +
+                        "⚠️ IMPORTANTE: Presenta este código en la entrada del evento.\n\n" +
+                        "Saludos,\n" +
+                        "Equipo SOA Ticketing\n\n" +
+                        "Notification ID: " + notificationId,
+                        null);
+                }
+                default:
+                    throw new IllegalArgumentException("Tipo de notificación no soportado: " + task.getTipo());
+            }
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.ticketservice.client;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Límite de concurrencia adaptativo (AIMD) hacia un servicio destino.
+ *
+ * - Incremento aditivo: cada llamada exitosa y rápida hecha con el límite en uso
+ *   (al menos la mitad ocupado) suma 1/límite, es decir ~+1 por "ventana" de llamadas
+ * - Decremento multiplicativo: un timeout, error de conexión/5xx o una latencia mayor a
+ *   latencyThreshold multiplica el límite por backoffRatio
+ *
+ * El límite se mueve entre minLimit y maxLimit; maxLimit actúa como bulkhead fijo del destino.
+ * Cuando las llamadas en curso alcanzan el límite, tryAcquire() falla sin esperar.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private final String name;
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyThresholdNanos;
+    private final double backoffRatio;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile double limit;
+
+    public AdaptiveConcurrencyLimiter(String name, int initialLimit, int minLimit, int maxLimit,
+                                      Duration latencyThreshold, double backoffRatio) {
+        this.name = name;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyThresholdNanos = latencyThreshold.toNanos();
+        this.backoffRatio = backoffRatio;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+    }
+
+    /**
+     * Reserva un lugar para una llamada.
+     *
+     * @return false si el destino ya tiene tantas llamadas en curso como su límite actual
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int actual = inFlight.get();
+            if (actual >= getLimit()) {
+                return false;
+            }
+            if (inFlight.compareAndSet(actual, actual + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Reserva un lugar aunque el destino esté en su límite, para llamadas que no pueden
+     * descartarse (compensaciones). Cuenta como llamada en curso y se libera con release().
+     */
+    public void acquireReserved() {
+        inFlight.incrementAndGet();
+    }
+
+    /**
+     * Libera el lugar y ajusta el límite según el resultado de la llamada.
+     *
+     * @param latencyNanos duración de la llamada
+     * @param dropped      true si la llamada indica sobrecarga del destino (timeout, conexión, 5xx)
+     */
+    public void release(long latencyNanos, boolean dropped) {
+        int enCurso = inFlight.getAndDecrement();
+        synchronized (this) {
+            if (dropped || latencyNanos > latencyThresholdNanos) {
+                limit = Math.max(minLimit, limit * backoffRatio);
+            } else if (enCurso * 2 >= limit) {
+                limit = Math.min(maxLimit, limit + 1.0 / limit);
+            }
+        }
+    }
+
+    /**
+     * Indica si hay margen para una llamada más (sin reservarla).
+     */
+    public boolean hasCapacity() {
+        return inFlight.get() < getLimit();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+}
@@ -0,0 +1,194 @@
+package com.example.ticketservice.client;
+
+import com.example.ticketservice.config.DownstreamLimitsConfig;
+import com.example.ticketservice.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * BULKHEAD + LÍMITE ADAPTATIVO por servicio destino.
+ *
+ * Cada servicio (event, ticket, payment, notification, user) tiene su propio
+ * {@link AdaptiveConcurrencyLimiter}: si payment-service se vuelve lento su límite baja
+ * y las compras se rechazan pronto con 503, en lugar de acumular hilos esperando el pago
+ * mientras las consultas a event-service siguen respondiendo.
+ *
+ * MÉTRICAS (tag dependency): orchestration.downstream.limit, orchestration.downstream.inflight
+ * y orchestration.downstream.rejected.
+ */
+@Component
+public class DownstreamLimiters {
+
+    public static final String USER_SERVICE = "user-service";
+    public static final String EVENT_SERVICE = "event-service";
+    public static final String PAYMENT_SERVICE = "payment-service";
+    public static final String NOTIFICATION_SERVICE = "notification-service";
+    public static final String TICKET_SERVICE = "ticket-service";
+
+    private static final Logger log = LoggerFactory.getLogger(DownstreamLimiters.class);
+
+    private final DownstreamLimitsConfig limitsConfig;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, AdaptiveConcurrencyLimiter> limiters = new ConcurrentHashMap<>();
+    private final Map<String, Counter> rechazos = new ConcurrentHashMap<>();
+
+    public DownstreamLimiters(DownstreamLimitsConfig limitsConfig, MeterRegistry meterRegistry) {
+        this.limitsConfig = limitsConfig;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Ejecuta una llamada bloqueante dentro del límite del servicio destino.
+     *
+     * @throws ServiceOverloadedException si el destino no admite más llamadas concurrentes
+     */
+    public <T> T ejecutar(String servicio, Supplier<T> llamada) {
+        return medir(adquirir(servicio), llamada);
+    }
+
+    /**
+     * Compensaciones (p. ej. liberar una reserva ya creada): nunca se rechazan por el límite.
+     * Ocupan lugar y ajustan el límite como cualquier llamada, pero descartarlas bajo sobrecarga
+     * dejaría el stock retenido hasta que la reserva expire.
+     */
+    public <T> T ejecutarCompensacion(String servicio, Supplier<T> llamada) {
+        return medir(adquirirReservado(servicio), llamada);
+    }
+
+    /**
+     * Pasos de la saga posteriores a un pago aprobado (confirmar la reserva, crear el ticket):
+     * tampoco se rechazan. Descartarlos dejaría al cliente cobrado y sin entrada, y la saga
+     * terminaría liberando la reserva; la admisión se decide al empezar la compra.
+     */
+    public <T> T ejecutarTrasPago(String servicio, Supplier<T> llamada) {
+        return medir(adquirirReservado(servicio), llamada);
+    }
+
+    /**
+     * Variante reactiva: el lugar se reserva al suscribirse y se libera al terminar o cancelar.
+     */
+    public <T> Mono<T> ejecutar(String servicio, Mono<T> llamada) {
+        return Mono.defer(() -> medir(adquirir(servicio), llamada));
+    }
+
+    /**
+     * Variante reactiva de {@link #ejecutarCompensacion(String, Supplier)}.
+     */
+    public <T> Mono<T> ejecutarCompensacion(String servicio, Mono<T> llamada) {
+        return Mono.defer(() -> medir(adquirirReservado(servicio), llamada));
+    }
+
+    /**
+     * Variante reactiva de {@link #ejecutarTrasPago(String, Supplier)}.
+     */
+    public <T> Mono<T> ejecutarTrasPago(String servicio, Mono<T> llamada) {
+        return Mono.defer(() -> medir(adquirirReservado(servicio), llamada));
+    }
+
+    private <T> T medir(AdaptiveConcurrencyLimiter limiter, Supplier<T> llamada) {
+        long inicio = System.nanoTime();
+        boolean sobrecarga = false;
+        try {
+            return llamada.get();
+        } catch (RuntimeException e) {
+            sobrecarga = indicaSobrecarga(e);
+            throw e;
+        } finally {
+            limiter.release(System.nanoTime() - inicio, sobrecarga);
+        }
+    }
+
+    private <T> Mono<T> medir(AdaptiveConcurrencyLimiter limiter, Mono<T> llamada) {
+        long inicio = System.nanoTime();
+        boolean[] sobrecarga = {false};
+        return llamada
+                .doOnError(e -> sobrecarga[0] = indicaSobrecarga(e))
+                .doFinally(signal -> limiter.release(System.nanoTime() - inicio, sobrecarga[0]));
+    }
+
+    /**
+     * Rechazo temprano: verifica que todos los destinos de una operación tengan margen
+     * antes de empezarla (p. ej. antes de reservar stock en la saga de compra).
+     *
+     * @throws ServiceOverloadedException con el primer destino saturado
+     */
+    public void verificarCapacidad(String... servicios) {
+        for (String servicio : servicios) {
+            if (!limiter(servicio).hasCapacity()) {
+                throw rechazar(servicio);
+            }
+        }
+    }
+
+    private AdaptiveConcurrencyLimiter adquirir(String servicio) {
+        AdaptiveConcurrencyLimiter limiter = limiter(servicio);
+        if (!limiter.tryAcquire()) {
+            throw rechazar(servicio);
+        }
+        return limiter;
+    }
+
+    private AdaptiveConcurrencyLimiter adquirirReservado(String servicio) {
+        AdaptiveConcurrencyLimiter limiter = limiter(servicio);
+        limiter.acquireReserved();
+        return limiter;
+    }
+
+    private ServiceOverloadedException rechazar(String servicio) {
+        AdaptiveConcurrencyLimiter limiter = limiter(servicio);
+        rechazos.get(servicio).increment();
+        log.warn("Límite de concurrencia alcanzado para {}: {} llamadas en curso (límite {})",
+                servicio, limiter.getInFlight(), limiter.getLimit());
+        return new ServiceOverloadedException(
+                "Servicio " + servicio + " saturado, intente nuevamente en unos segundos");
+    }
+
+    private AdaptiveConcurrencyLimiter limiter(String servicio) {
+        return limiters.computeIfAbsent(servicio, this::crear);
+    }
+
+    private AdaptiveConcurrencyLimiter crear(String servicio) {
+        DownstreamLimitsConfig.Limit config = limitsConfig.getLimit(servicio);
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(servicio,
+                config.getInitialLimit(), config.getMinLimit(), config.getMaxLimit(),
+                config.getLatencyThreshold(), config.getBackoffRatio());
+
+        Gauge.builder("orchestration.downstream.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+                .description("Límite de concurrencia adaptativo")
+                .tag("dependency", servicio)
+                .register(meterRegistry);
+        Gauge.builder("orchestration.downstream.inflight", limiter, AdaptiveConcurrencyLimiter::getInFlight)
+                .description("Llamadas en curso")
+                .tag("dependency", servicio)
+                .register(meterRegistry);
+        rechazos.put(servicio, Counter.builder("orchestration.downstream.rejected")
+                .description("Llamadas rechazadas por límite de concurrencia")
+                .tag("dependency", servicio)
+                .register(meterRegistry));
+        return limiter;
+    }
+
+    private static boolean indicaSobrecarga(Throwable e) {
+        if (e instanceof WebClientResponseException respuesta) {
+            return respuesta.getStatusCode().is5xxServerError();
+        }
+        return e instanceof ResourceAccessException
+                || e instanceof HttpServerErrorException
+                || e instanceof WebClientRequestException
+                || e instanceof TimeoutException;
+    }
+}
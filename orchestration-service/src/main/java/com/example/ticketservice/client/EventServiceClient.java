@@ -11,6 +11,8 @@ import org.springframework.web.client.RestTemplate;
 
 import java.util.Map;
 
+import static com.example.ticketservice.client.DownstreamLimiters.EVENT_SERVICE;
+
 @Component
 public class EventServiceClient {
 
@@ -20,32 +22,41 @@ public class EventServiceClient {
     @Autowired
     private ServiceUrlsConfig serviceUrls;
 
+    @Autowired
+    private DownstreamLimiters limiters;
+
     public Map<String, Object> getTipoEntrada(Long tipoEntradaId) {
         String url = serviceUrls.getEventService().getUrl() + "/api/tipos-entrada/" + tipoEntradaId;
-        ResponseEntity<Map> response = restTemplate.getForEntity(url, Map.class);
+        ResponseEntity<Map> response = limiters.ejecutar(EVENT_SERVICE, () -> restTemplate.getForEntity(url, Map.class));
         return response.getBody();
     }
 
     public Map<String, Object> getEvento(Long eventoId) {
         String url = serviceUrls.getEventService().getUrl() + "/api/eventos/" + eventoId;
-        ResponseEntity<Map> response = restTemplate.getForEntity(url, Map.class);
+        ResponseEntity<Map> response = limiters.ejecutar(EVENT_SERVICE, () -> restTemplate.getForEntity(url, Map.class));
         return response.getBody();
     }
 
     public void decreaseCantidad(Long tipoEntradaId, Integer cantidad) {
         String url = serviceUrls.getEventService().getUrl() + "/api/tipos-entrada/" + tipoEntradaId + "/disminuir?cantidad=" + cantidad;
-        restTemplate.put(url, null);
+        limiters.ejecutar(EVENT_SERVICE, () -> {
+            restTemplate.put(url, null);
+            return null;
+        });
     }
 
     public void increaseCantidad(Long tipoEntradaId, Integer cantidad) {
         String url = serviceUrls.getEventService().getUrl() + "/api/tipos-entrada/" + tipoEntradaId + "/incrementar?cantidad=" + cantidad;
-        restTemplate.put(url, null);
+        limiters.ejecutar(EVENT_SERVICE, () -> {
+            restTemplate.put(url, null);
+            return null;
+        });
     }
 
     @SuppressWarnings("unchecked")
     public Map<String, Object> createEvento(Map<String, Object> eventoData) {
         String url = serviceUrls.getEventService().getUrl() + "/api/eventos";
-        ResponseEntity<Map> response = restTemplate.postForEntity(url, eventoData, Map.class);
+        ResponseEntity<Map> response = limiters.ejecutar(EVENT_SERVICE, () -> restTemplate.postForEntity(url, eventoData, Map.class));
         return response.getBody();
     }
 }
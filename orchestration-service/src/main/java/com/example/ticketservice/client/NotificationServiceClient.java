@@ -10,6 +10,8 @@ import org.springframework.web.client.RestTemplate;
 
 import java.util.Map;
 
+import static com.example.ticketservice.client.DownstreamLimiters.NOTIFICATION_SERVICE;
+
 @Component
 public class NotificationServiceClient {
 
@@ -19,6 +21,9 @@ public class NotificationServiceClient {
     @Autowired
     private ServiceUrlsConfig serviceUrls;
 
+    @Autowired
+    private DownstreamLimiters limiters;
+
     public void sendNotification(Map<String, Object> notificationRequest) {
         String url = serviceUrls.getNotificationService().getUrl() + "/api/notifications/send";
         
@@ -26,6 +31,6 @@ public class NotificationServiceClient {
         headers.set("Content-Type", "application/json");
         
         HttpEntity<Map<String, Object>> request = new HttpEntity<>(notificationRequest, headers);
-        restTemplate.postForEntity(url, request, Map.class);
+        limiters.ejecutar(NOTIFICATION_SERVICE, () -> restTemplate.postForEntity(url, request, Map.class));
     }
 }
@@ -18,6 +18,8 @@ import org.springframework.web.client.RestTemplate;
 import java.util.HashMap;
 import java.util.Map;
 
+import static com.example.ticketservice.client.DownstreamLimiters.PAYMENT_SERVICE;
+
 @Component
 public class PaymentServiceClient {
 
@@ -29,6 +31,9 @@ public class PaymentServiceClient {
     @Autowired
     private ServiceUrlsConfig serviceUrls;
 
+    @Autowired
+    private DownstreamLimiters limiters;
+
     @SuppressWarnings("unchecked")
     @Retryable(
         retryFor = {RestClientException.class},
@@ -46,7 +51,7 @@ public class PaymentServiceClient {
         HttpEntity<Map<String, Object>> request = new HttpEntity<>(paymentRequest, headers);
         
         try {
-            ResponseEntity<Map> response = restTemplate.postForEntity(url, request, Map.class);
+            ResponseEntity<Map> response = limiters.ejecutar(PAYMENT_SERVICE, () -> restTemplate.postForEntity(url, request, Map.class));
             return response.getBody();
         } catch (HttpClientErrorException e) {
             // El payment-service retorna 402 para pagos rechazados
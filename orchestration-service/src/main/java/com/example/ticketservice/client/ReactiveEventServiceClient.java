@@ -0,0 +1,56 @@
+package com.example.ticketservice.client;
+
+import com.example.ticketservice.config.ServiceUrlsConfig;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static com.example.ticketservice.client.DownstreamLimiters.EVENT_SERVICE;
+
+/**
+ * Cliente no bloqueante (WebClient) de Event-Service para la saga de compra reactiva.
+ */
+@Component
+public class ReactiveEventServiceClient {
+
+    private static final ParameterizedTypeReference<Map<String, Object>> MAP =
+            new ParameterizedTypeReference<>() {};
+
+    @Autowired
+    private WebClient sagaWebClient;
+
+    @Autowired
+    private ServiceUrlsConfig serviceUrls;
+
+    @Autowired
+    private DownstreamLimiters limiters;
+
+    @Value("${soa.http-client.read-timeout:5s}")
+    private Duration defaultReadTimeout;
+
+    public Mono<Map<String, Object>> getTipoEntrada(Long tipoEntradaId) {
+        return limiters.ejecutar(EVENT_SERVICE, sagaWebClient.get()
+                .uri(serviceUrls.getEventService().getUrl() + "/api/tipos-entrada/{id}", tipoEntradaId)
+                .retrieve()
+                .bodyToMono(MAP)
+                .timeout(readTimeout()));
+    }
+
+    public Mono<Map<String, Object>> getEvento(Long eventoId) {
+        return limiters.ejecutar(EVENT_SERVICE, sagaWebClient.get()
+                .uri(serviceUrls.getEventService().getUrl() + "/api/eventos/{id}", eventoId)
+                .retrieve()
+                .bodyToMono(MAP)
+                .timeout(readTimeout()));
+    }
+
+    private Duration readTimeout() {
+        return serviceUrls.getEventService().getReadTimeoutOrDefault(defaultReadTimeout);
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.ticketservice.client;
+
+import com.example.ticketservice.config.ServiceUrlsConfig;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static com.example.ticketservice.client.DownstreamLimiters.NOTIFICATION_SERVICE;
+
+/**
+ * Cliente no bloqueante (WebClient) de Notification-Service para la saga de compra reactiva.
+ */
+@Component
+public class ReactiveNotificationServiceClient {
+
+    @Autowired
+    private WebClient sagaWebClient;
+
+    @Autowired
+    private ServiceUrlsConfig serviceUrls;
+
+    @Autowired
+    private DownstreamLimiters limiters;
+
+    @Value("${soa.http-client.read-timeout:5s}")
+    private Duration defaultReadTimeout;
+
+    public Mono<Void> sendNotification(Map<String, Object> notificationRequest) {
+        return limiters.ejecutar(NOTIFICATION_SERVICE, sagaWebClient.post()
+                .uri(serviceUrls.getNotificationService().getUrl() + "/api/notifications/send")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(notificationRequest)
+                .retrieve()
+                .toBodilessEntity()
+                .timeout(serviceUrls.getNotificationService().getReadTimeoutOrDefault(defaultReadTimeout)))
+                .then();
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.ticketservice.client;
+
+import com.example.ticketservice.config.ServiceUrlsConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientException;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+import static com.example.ticketservice.client.DownstreamLimiters.PAYMENT_SERVICE;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Cliente no bloqueante (WebClient) de Payment-Service para la saga de compra reactiva.
+ *
+ * Misma política que {@link PaymentServiceClient}: hasta 3 intentos con backoff exponencial
+ * (1s, 2s), el mismo circuit breaker "paymentService" y el mismo fallback SERVICE_UNAVAILABLE.
+ * Un 4xx (402 = pago rechazado) no es un error: se devuelve su body con el detalle del rechazo.
+ */
+@Component
+public class ReactivePaymentServiceClient {
+
+    private static final Logger log = LoggerFactory.getLogger(ReactivePaymentServiceClient.class);
+    private static final ParameterizedTypeReference<Map<String, Object>> MAP =
+            new ParameterizedTypeReference<>() {};
+
+    @Autowired
+    private WebClient sagaWebClient;
+
+    @Autowired
+    private ServiceUrlsConfig serviceUrls;
+
+    @Autowired
+    private DownstreamLimiters limiters;
+
+    @Autowired
+    private CircuitBreakerRegistry circuitBreakerRegistry;
+
+    @Value("${soa.http-client.read-timeout:5s}")
+    private Duration defaultReadTimeout;
+
+    public Mono<Map<String, Object>> authorize(Map<String, Object> paymentRequest) {
+        return limiters.ejecutar(PAYMENT_SERVICE, sagaWebClient.post()
+                .uri(serviceUrls.getPaymentService().getUrl() + "/api/payments/authorize")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(paymentRequest)
+                .exchangeToMono(response -> {
+                    if (response.statusCode().is4xxClientError()) {
+                        // El payment-service retorna 402 para pagos rechazados
+                        return response.bodyToMono(MAP)
+                                .onErrorResume(parseError -> Mono.empty())
+                                .defaultIfEmpty(rechazo(response.statusCode()));
+                    }
+                    if (response.statusCode().isError()) {
+                        return response.createException().flatMap(Mono::error);
+                    }
+                    return response.bodyToMono(MAP);
+                })
+                .timeout(serviceUrls.getPaymentService().getReadTimeoutOrDefault(defaultReadTimeout)))
+                .transformDeferred(CircuitBreakerOperator.of(circuitBreakerRegistry.circuitBreaker("paymentService")))
+                .retryWhen(Retry.backoff(2, Duration.ofSeconds(1))
+                        .filter(e -> e instanceof WebClientException || e instanceof TimeoutException)
+                        .onRetryExhaustedThrow((spec, signal) -> signal.failure()))
+                .onErrorResume(this::authorizeFallback);
+    }
+
+    private Mono<Map<String, Object>> authorizeFallback(Throwable ex) {
+        log.error("Payment service unavailable, using fallback. Error: {}", ex.getMessage());
+        Map<String, Object> fallbackResponse = new HashMap<>();
+        fallbackResponse.put("status", "SERVICE_UNAVAILABLE");
+        fallbackResponse.put("mensaje", "Servicio de pagos no disponible, intente más tarde");
+        return Mono.just(fallbackResponse);
+    }
+
+    private Map<String, Object> rechazo(HttpStatusCode status) {
+        Map<String, Object> rejectedResponse = new HashMap<>();
+        rejectedResponse.put("status", "REJECTED");
+        rejectedResponse.put("mensaje", "Pago rechazado: " + status);
+        return rejectedResponse;
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.ticketservice.client;
+
+import com.example.ticketservice.config.ServiceUrlsConfig;
+import com.example.ticketservice.exception.ServiceOverloadedException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+import static com.example.ticketservice.client.DownstreamLimiters.TICKET_SERVICE;
+
+/**
+ * Cliente no bloqueante (WebClient) de Ticket-Service para la saga de compra reactiva.
+ *
+ * Mismos endpoints y mismos mensajes de error que {@link TicketServiceClient}; el header
+ * X-Gateway-Secret lo agrega el WebClient por defecto.
+ */
+@Slf4j
+@Component
+public class ReactiveTicketServiceClient {
+
+    private static final ParameterizedTypeReference<Map<String, Object>> MAP =
+            new ParameterizedTypeReference<>() {};
+
+    @Autowired
+    private WebClient sagaWebClient;
+
+    @Autowired
+    private ServiceUrlsConfig serviceUrls;
+
+    @Autowired
+    private DownstreamLimiters limiters;
+
+    @Value("${soa.http-client.read-timeout:5s}")
+    private Duration defaultReadTimeout;
+
+    /**
+     * Se llama con el pago ya aprobado: no se rechaza por el límite de concurrencia de ticket-service.
+     */
+    public Mono<Map<String, Object>> crearTicket(Long usuarioId, Long tipoEntradaId, String eventoNombre,
+                                                 String tipoEntradaNombre, Integer cantidad,
+                                                 Double precioUnitario, String paymentId,
+                                                 String destinatario, String fechaEvento) {
+        Map<String, Object> request = new HashMap<>();
+        request.put("usuarioId", usuarioId);
+        request.put("tipoEntradaId", tipoEntradaId);
+        request.put("eventoNombre", eventoNombre);
+        request.put("tipoEntradaNombre", tipoEntradaNombre);
+        request.put("cantidad", cantidad);
+        request.put("precioUnitario", precioUnitario);
+        request.put("paymentId", paymentId);
+        request.put("destinatario", destinatario);
+        request.put("fechaEvento", fechaEvento);
+
+        return limiters.ejecutarTrasPago(TICKET_SERVICE, llamadaPost("/api/tickets", request))
+                .doOnNext(ticket -> log.info("Ticket creado exitosamente"))
+                .onErrorMap(ReactiveTicketServiceClient::envolver, e -> new RuntimeException("Error al crear ticket: " + e.getMessage(), e));
+    }
+
+    public Mono<Map<String, Object>> crearReserva(Long tipoEntradaId, Long usuarioId, Integer cantidad) {
+        Map<String, Object> request = new HashMap<>();
+        request.put("tipoEntradaId", tipoEntradaId);
+        request.put("usuarioId", usuarioId);
+        request.put("cantidad", cantidad);
+
+        return post("/api/reservas/crear", request)
+                .doOnNext(reserva -> log.info("Reserva creada exitosamente: {}", reserva))
+                .onErrorMap(ReactiveTicketServiceClient::envolver, e -> new RuntimeException("Error al crear reserva: " + e.getMessage(), e));
+    }
+
+    /**
+     * Paso posterior al pago, igual que {@link #crearTicket}: no se rechaza por el límite de
+     * concurrencia de ticket-service.
+     */
+    public Mono<Map<String, Object>> confirmarReserva(Long reservaId) {
+        return limiters.ejecutarTrasPago(TICKET_SERVICE, llamadaPut("/api/reservas/" + reservaId + "/confirmar"))
+                .doOnNext(reserva -> log.info("Reserva confirmada exitosamente"))
+                .onErrorMap(ReactiveTicketServiceClient::envolver, e -> new RuntimeException("Error al confirmar reserva: " + e.getMessage(), e));
+    }
+
+    /**
+     * Compensación de la saga: no se rechaza por el límite de concurrencia de ticket-service.
+     */
+    public Mono<Map<String, Object>> liberarReserva(Long reservaId) {
+        return limiters.ejecutarCompensacion(TICKET_SERVICE, llamadaPut("/api/reservas/" + reservaId + "/liberar"))
+                .doOnNext(reserva -> log.info("Reserva liberada exitosamente"))
+                .onErrorMap(ReactiveTicketServiceClient::envolver, e -> new RuntimeException("Error al liberar reserva: " + e.getMessage(), e));
+    }
+
+    private Mono<Map<String, Object>> post(String path, Map<String, Object> body) {
+        return limiters.ejecutar(TICKET_SERVICE, llamadaPost(path, body));
+    }
+
+    private Mono<Map<String, Object>> llamadaPost(String path, Map<String, Object> body) {
+        return sagaWebClient.post()
+                .uri(serviceUrls.getTicketService().getUrl() + path)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(body)
+                .retrieve()
+                .bodyToMono(MAP)
+                .timeout(readTimeout());
+    }
+
+    private Mono<Map<String, Object>> llamadaPut(String path) {
+        return sagaWebClient.put()
+                .uri(serviceUrls.getTicketService().getUrl() + path)
+                .retrieve()
+                .bodyToMono(MAP)
+                .defaultIfEmpty(Map.of())
+                .timeout(readTimeout());
+    }
+
+    /**
+     * ServiceOverloadedException se propaga sin envolver para que llegue al cliente como 503.
+     */
+    private static boolean envolver(Throwable e) {
+        return !(e instanceof ServiceOverloadedException);
+    }
+
+    private Duration readTimeout() {
+        return serviceUrls.getTicketService().getReadTimeoutOrDefault(defaultReadTimeout);
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.ticketservice.client;
 
 import com.example.ticketservice.config.ServiceUrlsConfig;
+import com.example.ticketservice.exception.ServiceOverloadedException;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
@@ -12,6 +13,8 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import static com.example.ticketservice.client.DownstreamLimiters.TICKET_SERVICE;
+
 /**
  * Cliente REST para comunicación con Ticket-Service.
  * 
@@ -41,6 +44,9 @@ public class TicketServiceClient {
     @Autowired
     private ServiceUrlsConfig serviceUrls;
 
+    @Autowired
+    private DownstreamLimiters limiters;
+
     @Value("${gateway.secret}")
     private String gatewaySecret;
 
@@ -49,12 +55,15 @@ public class TicketServiceClient {
      * 
      * Este método NO guarda el ticket localmente, lo envía al servicio responsable.
      * El ticket-service es el dueño del dominio "Ticket" y su base de datos.
+     * Con el email del comprador, ticket-service registra la notificación TICKET_COMPRADO
+     * en su outbox en la misma transacción que el ticket y la publica él mismo.
      * 
      * @return Map con los datos del ticket creado (ticketId, total, etc.)
      */
     public Map<String, Object> crearTicket(Long usuarioId, Long tipoEntradaId, String eventoNombre,
                                           String tipoEntradaNombre, Integer cantidad, 
-                                          Double precioUnitario, String paymentId) {
+                                          Double precioUnitario, String paymentId,
+                                          String destinatario, String fechaEvento) {
         String url = serviceUrls.getTicketService().getUrl() + "/api/tickets";
         
         // Construir request body con todos los datos del ticket
@@ -66,6 +75,8 @@ public class TicketServiceClient {
         request.put("cantidad", cantidad);
         request.put("precioUnitario", precioUnitario);
         request.put("paymentId", paymentId);
+        request.put("destinatario", destinatario);
+        request.put("fechaEvento", fechaEvento);
         
         // Añadir header de autenticación entre servicios (X-Gateway-Secret)
         HttpHeaders headers = new HttpHeaders();
@@ -75,10 +86,12 @@ public class TicketServiceClient {
         HttpEntity<Map<String, Object>> entity = new HttpEntity<>(request, headers);
         
         try {
-            // Llamada HTTP POST al ticket-service
-            ResponseEntity<Map> response = restTemplate.postForEntity(url, entity, Map.class);
+            // Llamada HTTP POST al ticket-service; va tras el pago, no se descarta por el límite
+            ResponseEntity<Map> response = limiters.ejecutarTrasPago(TICKET_SERVICE, () -> restTemplate.postForEntity(url, entity, Map.class));
             log.info("Ticket creado exitosamente");
             return response.getBody();
+        } catch (ServiceOverloadedException e) {
+            throw e; // 503 + Retry-After vía GlobalExceptionHandler
         } catch (Exception e) {
             log.error("Error al crear ticket: {}", e.getMessage());
             throw new RuntimeException("Error al crear ticket: " + e.getMessage(), e);
@@ -101,8 +114,10 @@ public class TicketServiceClient {
         HttpEntity<Void> entity = new HttpEntity<>(headers);
         
         try {
-            ResponseEntity<List> response = restTemplate.exchange(url, HttpMethod.GET, entity, List.class);
+            ResponseEntity<List> response = limiters.ejecutar(TICKET_SERVICE, () -> restTemplate.exchange(url, HttpMethod.GET, entity, List.class));
             return response.getBody();
+        } catch (ServiceOverloadedException e) {
+            throw e; // 503 + Retry-After vía GlobalExceptionHandler
         } catch (Exception e) {
             log.error("Error al obtener tickets del usuario {}: {}", usuarioId, e.getMessage());
             throw new RuntimeException("Error al obtener tickets: " + e.getMessage(), e);
@@ -127,9 +142,11 @@ public class TicketServiceClient {
         HttpEntity<Map<String, Object>> entity = new HttpEntity<>(request, headers);
         
         try {
-            ResponseEntity<Map> response = restTemplate.postForEntity(url, entity, Map.class);
+            ResponseEntity<Map> response = limiters.ejecutar(TICKET_SERVICE, () -> restTemplate.postForEntity(url, entity, Map.class));
             log.info("Reserva creada exitosamente: {}", response.getBody());
             return response.getBody();
+        } catch (ServiceOverloadedException e) {
+            throw e; // 503 + Retry-After vía GlobalExceptionHandler
         } catch (Exception e) {
             log.error("Error al crear reserva: {}", e.getMessage());
             throw new RuntimeException("Error al crear reserva: " + e.getMessage(), e);
@@ -137,7 +154,7 @@ public class TicketServiceClient {
     }
 
     /**
-     * Confirma una reserva después de un pago exitoso
+     * Confirma una reserva después de un pago exitoso (no se rechaza por sobrecarga)
      */
     public Map<String, Object> confirmarReserva(Long reservaId) {
         String url = serviceUrls.getTicketService().getUrl() + "/api/reservas/" + reservaId + "/confirmar";
@@ -148,9 +165,12 @@ public class TicketServiceClient {
         HttpEntity<Void> entity = new HttpEntity<>(headers);
         
         try {
-            ResponseEntity<Map> response = restTemplate.exchange(url, HttpMethod.PUT, entity, Map.class);
+            // Paso posterior al pago: no se descarta por el límite de concurrencia de ticket-service
+            ResponseEntity<Map> response = limiters.ejecutarTrasPago(TICKET_SERVICE, () -> restTemplate.exchange(url, HttpMethod.PUT, entity, Map.class));
             log.info("Reserva confirmada exitosamente");
             return response.getBody();
+        } catch (ServiceOverloadedException e) {
+            throw e; // 503 + Retry-After vía GlobalExceptionHandler
         } catch (Exception e) {
             log.error("Error al confirmar reserva {}: {}", reservaId, e.getMessage());
             throw new RuntimeException("Error al confirmar reserva: " + e.getMessage(), e);
@@ -158,7 +178,7 @@ public class TicketServiceClient {
     }
 
     /**
-     * Libera una reserva y restaura el stock
+     * Libera una reserva y restaura el stock (compensación de la saga: no se rechaza por sobrecarga)
      */
     public Map<String, Object> liberarReserva(Long reservaId) {
         String url = serviceUrls.getTicketService().getUrl() + "/api/reservas/" + reservaId + "/liberar";
@@ -169,9 +189,12 @@ public class TicketServiceClient {
         HttpEntity<Void> entity = new HttpEntity<>(headers);
         
         try {
-            ResponseEntity<Map> response = restTemplate.exchange(url, HttpMethod.PUT, entity, Map.class);
+            // Compensación: no se descarta por el límite de concurrencia de ticket-service
+            ResponseEntity<Map> response = limiters.ejecutarCompensacion(TICKET_SERVICE, () -> restTemplate.exchange(url, HttpMethod.PUT, entity, Map.class));
             log.info("Reserva liberada exitosamente");
             return response.getBody();
+        } catch (ServiceOverloadedException e) {
+            throw e; // 503 + Retry-After vía GlobalExceptionHandler
         } catch (Exception e) {
             log.error("Error al liberar reserva {}: {}", reservaId, e.getMessage());
             throw new RuntimeException("Error al liberar reserva: " + e.getMessage(), e);
@@ -8,6 +8,8 @@ import org.springframework.web.client.RestTemplate;
 
 import java.util.Map;
 
+import static com.example.ticketservice.client.DownstreamLimiters.USER_SERVICE;
+
 @Component
 public class UserServiceClient {
 
@@ -17,17 +19,20 @@ public class UserServiceClient {
     @Autowired
     private ServiceUrlsConfig serviceUrls;
 
+    @Autowired
+    private DownstreamLimiters limiters;
+
     @SuppressWarnings("unchecked")
     public Map<String, Object> registerUser(Map<String, Object> userData) {
         String url = serviceUrls.getUserService().getUrl() + "/api/users/register";
-        ResponseEntity<Map> response = restTemplate.postForEntity(url, userData, Map.class);
+        ResponseEntity<Map> response = limiters.ejecutar(USER_SERVICE, () -> restTemplate.postForEntity(url, userData, Map.class));
         return response.getBody();
     }
 
     @SuppressWarnings("unchecked")
     public Map<String, Object> getUserByEmail(String email) {
         String url = serviceUrls.getUserService().getUrl() + "/api/users/email/" + email;
-        ResponseEntity<Map> response = restTemplate.getForEntity(url, Map.class);
+        ResponseEntity<Map> response = limiters.ejecutar(USER_SERVICE, () -> restTemplate.getForEntity(url, Map.class));
         return response.getBody();
     }
 }
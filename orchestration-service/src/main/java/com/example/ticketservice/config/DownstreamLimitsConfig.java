@@ -0,0 +1,79 @@
+package com.example.ticketservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Límites de concurrencia por servicio destino (orchestration.limits.&lt;servicio&gt;.*).
+ * Los servicios sin entrada usan los valores por defecto de {@link Limit}.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "orchestration.limits")
+public class DownstreamLimitsConfig {
+
+    private Map<String, Limit> services = new HashMap<>();
+
+    public static class Limit {
+        private int initialLimit = 20;
+        private int minLimit = 2;
+        private int maxLimit = 200;
+        private Duration latencyThreshold = Duration.ofSeconds(2);
+        private double backoffRatio = 0.9;
+
+        public int getInitialLimit() {
+            return initialLimit;
+        }
+
+        public void setInitialLimit(int initialLimit) {
+            this.initialLimit = initialLimit;
+        }
+
+        public int getMinLimit() {
+            return minLimit;
+        }
+
+        public void setMinLimit(int minLimit) {
+            this.minLimit = minLimit;
+        }
+
+        public int getMaxLimit() {
+            return maxLimit;
+        }
+
+        public void setMaxLimit(int maxLimit) {
+            this.maxLimit = maxLimit;
+        }
+
+        public Duration getLatencyThreshold() {
+            return latencyThreshold;
+        }
+
+        public void setLatencyThreshold(Duration latencyThreshold) {
+            this.latencyThreshold = latencyThreshold;
+        }
+
+        public double getBackoffRatio() {
+            return backoffRatio;
+        }
+
+        public void setBackoffRatio(double backoffRatio) {
+            this.backoffRatio = backoffRatio;
+        }
+    }
+
+    public Map<String, Limit> getServices() {
+        return services;
+    }
+
+    public void setServices(Map<String, Limit> services) {
+        this.services = services;
+    }
+
+    public Limit getLimit(String servicio) {
+        return services.getOrDefault(servicio, new Limit());
+    }
+}
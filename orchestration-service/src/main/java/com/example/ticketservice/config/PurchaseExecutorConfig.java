@@ -0,0 +1,42 @@
+package com.example.ticketservice.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Pool de hilos para el modo concurrente de la saga de compra
+ * (orchestration.purchase.concurrent=true): lookups en paralelo con la reserva
+ * y notificaciones fuera del camino crítico.
+ * Con soa.virtual-threads.enabled=true cada paso corre en un hilo virtual.
+ */
+@Configuration
+public class PurchaseExecutorConfig {
+
+    @Bean(name = "purchaseExecutor")
+    public Executor purchaseExecutor(
+            @Value("${soa.virtual-threads.enabled:false}") boolean virtualThreads,
+            @Value("${orchestration.purchase.executor.core-size:16}") int coreSize,
+            @Value("${orchestration.purchase.executor.max-size:64}") int maxSize,
+            @Value("${orchestration.purchase.executor.queue-capacity:500}") int queueCapacity) {
+        if (virtualThreads) {
+            return new TaskExecutorAdapter(Executors.newVirtualThreadPerTaskExecutor());
+        }
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(coreSize);
+        executor.setMaxPoolSize(maxSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("purchase-");
+        // Si el pool se satura, el propio hilo de la petición ejecuta el paso (degrada a secuencial)
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.initialize();
+        return executor;
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.ticketservice.config;
 
+import com.example.ticketservice.exception.ServiceOverloadedException;
 import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
 import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
 import org.springframework.context.annotation.Bean;
@@ -18,6 +19,8 @@ public class ResilienceConfig {
             .slidingWindowSize(10) // Last 10 calls to calculate failure rate
             .minimumNumberOfCalls(5) // Minimum 5 calls before calculating failure rate
             .permittedNumberOfCallsInHalfOpenState(3) // 3 test calls in half-open
+            // Rechazo por límite de concurrencia propio: no es un fallo del servicio destino
+            .ignoreExceptions(ServiceOverloadedException.class)
             .build();
         
         return CircuitBreakerRegistry.of(config);
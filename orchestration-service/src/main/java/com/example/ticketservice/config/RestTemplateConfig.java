@@ -1,5 +1,7 @@
 package com.example.ticketservice.config;
 
+import com.example.common.http.HttpDestination;
+import com.example.common.http.PooledHttpClientFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.context.annotation.Bean;
@@ -7,7 +9,6 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.http.client.ClientHttpRequestInterceptor;
 import org.springframework.web.client.RestTemplate;
 
-import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -18,10 +19,20 @@ public class RestTemplateConfig {
     private GatewaySecretInterceptor gatewaySecretInterceptor;
 
     @Bean
-    public RestTemplate restTemplate(RestTemplateBuilder builder) {
+    public RestTemplate restTemplate(RestTemplateBuilder builder,
+                                     PooledHttpClientFactory pooledHttpClientFactory,
+                                     ServiceUrlsConfig serviceUrls) {
+        // Conexiones keep-alive reutilizadas entre pasos de la saga; timeouts por servicio destino
+        // (services.<servicio>.read-timeout): solo payment-service necesita esperar el procesamiento del pago
+        List<HttpDestination> destinos = List.of(
+                destino("user-service", serviceUrls.getUserService()),
+                destino("event-service", serviceUrls.getEventService()),
+                destino("payment-service", serviceUrls.getPaymentService()),
+                destino("notification-service", serviceUrls.getNotificationService()),
+                destino("ticket-service", serviceUrls.getTicketService()));
+
         RestTemplate restTemplate = builder
-                .setConnectTimeout(Duration.ofSeconds(10))  // 10 segundos para conectar
-                .setReadTimeout(Duration.ofSeconds(30))     // 30 segundos para el procesamiento del pago
+                .requestFactory(() -> pooledHttpClientFactory.create("orchestration", destinos))
                 .build();
         
         // Add interceptor to include X-Gateway-Secret header
@@ -31,4 +42,9 @@ public class RestTemplateConfig {
         
         return restTemplate;
     }
+
+    private HttpDestination destino(String nombre, ServiceUrlsConfig.ServiceEndpoint endpoint) {
+        return new HttpDestination(nombre, endpoint.getUrl(), endpoint.getMaxConnections(),
+                endpoint.getConnectTimeout(), endpoint.getReadTimeout());
+    }
 }
@@ -3,6 +3,8 @@ package com.example.ticketservice.config;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
+import java.time.Duration;
+
 @Configuration
 @ConfigurationProperties(prefix = "services")
 public class ServiceUrlsConfig {
@@ -13,8 +15,15 @@ public class ServiceUrlsConfig {
     private NotificationService notificationService = new NotificationService();
     private TicketService ticketService = new TicketService();
 
-    public static class UserService {
+    /**
+     * URL y límites de conexión de un servicio destino (services.&lt;servicio&gt;.*).
+     * Los timeouts y max-connections no informados usan los defaults de soa.http-client.*.
+     */
+    public static class ServiceEndpoint {
         private String url;
+        private Duration connectTimeout;
+        private Duration readTimeout;
+        private int maxConnections;
 
         public String getUrl() {
             return url;
@@ -23,54 +32,49 @@ public class ServiceUrlsConfig {
         public void setUrl(String url) {
             this.url = url;
         }
-    }
 
-    public static class EventService {
-        private String url;
-
-        public String getUrl() {
-            return url;
+        public Duration getConnectTimeout() {
+            return connectTimeout;
         }
 
-        public void setUrl(String url) {
-            this.url = url;
+        public void setConnectTimeout(Duration connectTimeout) {
+            this.connectTimeout = connectTimeout;
         }
-    }
 
-    public static class PaymentService {
-        private String url;
-
-        public String getUrl() {
-            return url;
+        public Duration getReadTimeout() {
+            return readTimeout;
         }
 
-        public void setUrl(String url) {
-            this.url = url;
+        public void setReadTimeout(Duration readTimeout) {
+            this.readTimeout = readTimeout;
         }
-    }
 
-    public static class NotificationService {
-        private String url;
+        public Duration getReadTimeoutOrDefault(Duration porDefecto) {
+            return readTimeout != null ? readTimeout : porDefecto;
+        }
 
-        public String getUrl() {
-            return url;
+        public int getMaxConnections() {
+            return maxConnections;
         }
 
-        public void setUrl(String url) {
-            this.url = url;
+        public void setMaxConnections(int maxConnections) {
+            this.maxConnections = maxConnections;
         }
     }
 
-    public static class TicketService {
-        private String url;
+    public static class UserService extends ServiceEndpoint {
+    }
 
-        public String getUrl() {
-            return url;
-        }
+    public static class EventService extends ServiceEndpoint {
+    }
 
-        public void setUrl(String url) {
-            this.url = url;
-        }
+    public static class PaymentService extends ServiceEndpoint {
+    }
+
+    public static class NotificationService extends ServiceEndpoint {
+    }
+
+    public static class TicketService extends ServiceEndpoint {
     }
 
     public UserService getUserService() {
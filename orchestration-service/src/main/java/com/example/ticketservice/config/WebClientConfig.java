@@ -0,0 +1,45 @@
+package com.example.ticketservice.config;
+
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+
+/**
+ * WebClient no bloqueante para la saga de compra reactiva (ReactiveTicketPurchaseOrchestrator).
+ *
+ * Las conexiones salen de un pool Reactor Netty acotado: cuando todas están en uso las
+ * adquisiciones esperan en una cola también acotada (pending-acquire-max) en lugar de
+ * crear conexiones sin límite; al desbordarse la cola la llamada falla de inmediato.
+ */
+@Configuration
+public class WebClientConfig {
+
+    @Bean
+    public WebClient sagaWebClient(WebClient.Builder builder,
+                                   @Value("${gateway.secret}") String gatewaySecret,
+                                   @Value("${orchestration.purchase.reactive.max-connections:500}") int maxConnections,
+                                   @Value("${orchestration.purchase.reactive.pending-acquire-max:5000}") int pendingAcquireMax,
+                                   @Value("${soa.http-client.connect-timeout:2s}") Duration connectTimeout) {
+        ConnectionProvider connectionProvider = ConnectionProvider.builder("saga-reactiva")
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(pendingAcquireMax)
+                .pendingAcquireTimeout(Duration.ofSeconds(10))
+                .maxIdleTime(Duration.ofSeconds(30))
+                .build();
+
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) connectTimeout.toMillis());
+
+        return builder
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .defaultHeader("X-Gateway-Secret", gatewaySecret)
+                .build();
+    }
+}
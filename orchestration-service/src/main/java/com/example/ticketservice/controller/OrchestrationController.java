@@ -2,7 +2,9 @@ package com.example.ticketservice.controller;
 
 import com.example.ticketservice.client.TicketServiceClient;
 import com.example.ticketservice.dto.PurchaseTicketRequest;
+import com.example.ticketservice.exception.ServiceOverloadedException;
 import com.example.ticketservice.orchestrator.EventCreationOrchestrator;
+import com.example.ticketservice.orchestrator.ReactiveTicketPurchaseOrchestrator;
 import com.example.ticketservice.orchestrator.TicketPurchaseOrchestrator;
 import com.example.ticketservice.orchestrator.UserRegistrationOrchestrator;
 import jakarta.validation.Valid;
@@ -10,6 +12,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
 
 import java.util.HashMap;
 import java.util.List;
@@ -23,6 +26,9 @@ public class OrchestrationController {
     @Autowired
     private TicketPurchaseOrchestrator purchaseOrchestrator;
 
+    @Autowired
+    private ReactiveTicketPurchaseOrchestrator reactivePurchaseOrchestrator;
+
     @Autowired
     private UserRegistrationOrchestrator userRegistrationOrchestrator;
 
@@ -79,11 +85,37 @@ public class OrchestrationController {
         try {
             Map<String, Object> response = purchaseOrchestrator.orchestratePurchase(userId, userEmail, request);
             return ResponseEntity.ok(response);
+        } catch (ServiceOverloadedException e) {
+            throw e; // 503 vía GlobalExceptionHandler
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
     }
 
+    /**
+     * Misma compra que /purchase-ticket sobre la saga reactiva (WebClient): la petición no
+     * retiene un hilo del servlet mientras espera a los servicios.
+     */
+    @PostMapping("/purchase-ticket-reactive")
+    public Mono<ResponseEntity<?>> purchaseTicketReactive(
+            @RequestHeader(value = "X-User-ID", required = false) Long userId,
+            @RequestHeader(value = "X-User-Email", required = false) String userEmail,
+            @Valid @RequestBody PurchaseTicketRequest request) {
+
+        if (userId == null) {
+            return Mono.just(ResponseEntity.badRequest().body("Header X-User-ID es requerido"));
+        }
+
+        if (userEmail == null || userEmail.isEmpty()) {
+            return Mono.just(ResponseEntity.badRequest().body("Header X-User-Email es requerido"));
+        }
+
+        return reactivePurchaseOrchestrator.orchestratePurchase(userId, userEmail, request)
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .onErrorResume(e -> !(e instanceof ServiceOverloadedException),
+                        e -> Mono.just(ResponseEntity.badRequest().body(e.getMessage())));
+    }
+
     @GetMapping("/my-tickets")
     public ResponseEntity<?> getMyTickets(
             @RequestHeader(value = "X-User-ID", required = false) Long userId) {
@@ -0,0 +1,258 @@
+package com.example.ticketservice.orchestrator;
+
+import com.example.ticketservice.client.DownstreamLimiters;
+import com.example.ticketservice.client.ReactiveEventServiceClient;
+import com.example.ticketservice.client.ReactiveNotificationServiceClient;
+import com.example.ticketservice.client.ReactivePaymentServiceClient;
+import com.example.ticketservice.client.ReactiveTicketServiceClient;
+import com.example.ticketservice.dto.PurchaseTicketRequest;
+import com.example.ticketservice.exception.ServiceOverloadedException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.example.ticketservice.client.DownstreamLimiters.EVENT_SERVICE;
+import static com.example.ticketservice.client.DownstreamLimiters.PAYMENT_SERVICE;
+import static com.example.ticketservice.client.DownstreamLimiters.TICKET_SERVICE;
+
+/**
+ * Orquestador de Compra de Tickets REACTIVO - misma SAGA con reservas temporales que
+ * {@link TicketPurchaseOrchestrator}, implementada sobre WebClient/Reactor.
+ *
+ * MISMOS 6 PASOS Y MISMAS COMPENSACIONES que el modo secuencial:
+ * - Pago rechazado → liberar reserva, notificar el rechazo y fallar con "Pago rechazado: ..."
+ * - Fallo al confirmar reserva / crear ticket → liberar reserva y fallar con
+ *   "Error crítico: pago procesado pero ticket no creado"
+ * - Notificación de confirmación: la registra ticket-service en su outbox junto con el ticket
+ *
+ * DIFERENCIAS:
+ * - Ningún hilo queda bloqueado esperando a los servicios: una compra en curso solo ocupa
+ *   memoria y, mientras espera una respuesta, una conexión del pool de WebClient
+ * - BACKPRESSURE: como máximo orchestration.purchase.reactive.max-in-flight compras en curso;
+ *   las que exceden el límite se rechazan de inmediato (ServiceOverloadedException → 503)
+ * - Una saga iniciada se completa aunque el cliente HTTP se desconecte, igual que en el
+ *   modo bloqueante: cancelar a mitad de camino dejaría una reserva o un pago sin compensar
+ */
+@Service
+public class ReactiveTicketPurchaseOrchestrator {
+
+    private static final Logger log = LoggerFactory.getLogger(ReactiveTicketPurchaseOrchestrator.class);
+
+    @Autowired
+    private ReactiveEventServiceClient eventClient;
+
+    @Autowired
+    private ReactivePaymentServiceClient paymentClient;
+
+    @Autowired
+    private ReactiveNotificationServiceClient notificationClient;
+
+    @Autowired
+    private ReactiveTicketServiceClient ticketClient;
+
+    @Autowired
+    private DownstreamLimiters limiters;
+
+    @Value("${orchestration.purchase.reactive.max-in-flight:5000}")
+    private int maxInFlight;
+
+    private final AtomicInteger enCurso = new AtomicInteger();
+
+    public Mono<Map<String, Object>> orchestratePurchase(Long userId, String userEmail, PurchaseTicketRequest request) {
+        return Mono.defer(() -> {
+            if (enCurso.incrementAndGet() > maxInFlight) {
+                enCurso.decrementAndGet();
+                log.warn("Compra reactiva rechazada: límite de {} compras en curso alcanzado", maxInFlight);
+                return Mono.error(new ServiceOverloadedException(
+                        "Demasiadas compras en curso, intente nuevamente en unos segundos"));
+            }
+            try {
+                limiters.verificarCapacidad(EVENT_SERVICE, TICKET_SERVICE, PAYMENT_SERVICE);
+            } catch (ServiceOverloadedException e) {
+                enCurso.decrementAndGet();
+                return Mono.error(e);
+            }
+            // La saga se suscribe por separado: la cancelación del suscriptor no la interrumpe
+            return Mono.fromFuture(saga(new Compra(userId, userEmail, request))
+                    .doFinally(signal -> enCurso.decrementAndGet())
+                    .toFuture(), true);
+        });
+    }
+
+    private Mono<Map<String, Object>> saga(Compra compra) {
+        log.info("═══════════════════════════════════════════════════════════");
+        log.info("INICIANDO ORQUESTACIÓN REACTIVA DE COMPRA CON RESERVA TEMPORAL");
+        log.info("Usuario ID: {}, Email: {}", compra.userId, compra.userEmail);
+        log.info("═══════════════════════════════════════════════════════════");
+
+        // PASO 1: Obtener información del tipo de entrada
+        return eventClient.getTipoEntrada(compra.tipoEntradaId)
+                .doOnNext(compra::setTipoEntrada)
+                // PASO 2: Obtener información del evento
+                .flatMap(tipoEntrada -> eventClient.getEvento(compra.eventoId))
+                .doOnNext(compra::setEvento)
+                // PASO 3: CREAR RESERVA TEMPORAL
+                .flatMap(evento -> crearReserva(compra))
+                // PASO 4: Procesar pago (con compensación si se rechaza)
+                .flatMap(reserva -> procesarPago(compra))
+                // PASO 5: CONFIRMAR RESERVA y crear ticket
+                .flatMap(paymentId -> confirmarYCrearTicket(compra, paymentId))
+                // PASO 6: la notificación de confirmación la publica ticket-service desde su outbox
+                .doOnNext(ticket -> {
+                    log.info("═══════════════════════════════════════════════════════════");
+                    log.info("✓ ORQUESTACIÓN REACTIVA COMPLETADA - Reserva ID: {} (CONFIRMADA), Ticket ID: {}",
+                            compra.reservaId, ticket.get("ticketId"));
+                    log.info("═══════════════════════════════════════════════════════════");
+                })
+                .doOnError(e -> {
+                    log.error("═══════════════════════════════════════════════════════════");
+                    log.error("✗ ORQUESTACIÓN REACTIVA FALLIDA: {}", e.getMessage());
+                    if (compra.reservaId != null) {
+                        log.error("  Reserva ID={} fue liberada (stock restaurado)", compra.reservaId);
+                    }
+                    log.error("═══════════════════════════════════════════════════════════");
+                });
+    }
+
+    private Mono<Map<String, Object>> crearReserva(Compra compra) {
+        log.info("PASO 3: CREANDO RESERVA TEMPORAL de {} entradas (expira en 10 min)", compra.cantidad);
+        return ticketClient.crearReserva(compra.tipoEntradaId, compra.userId, compra.cantidad)
+                .doOnNext(reserva -> {
+                    compra.reservaId = ((Number) reserva.get("id")).longValue();
+                    log.info("  ✓ Reserva ID={} creada exitosamente (expira en {} segundos)",
+                            compra.reservaId, reserva.get("segundosRestantes"));
+                })
+                // ServiceOverloadedException se propaga sin envolver (503 + Retry-After)
+                .onErrorMap(e -> !(e instanceof ServiceOverloadedException), e -> {
+                    log.error("  ✗ Error al crear reserva: {}", e.getMessage());
+                    return new RuntimeException("No se pudo crear la reserva: " + e.getMessage());
+                });
+    }
+
+    /**
+     * @return paymentId del pago aprobado
+     */
+    private Mono<String> procesarPago(Compra compra) {
+        Double montoTotal = compra.precio * compra.cantidad;
+        log.info("PASO 4: Procesando pago por ${} (CRÍTICO - puede fallar)", montoTotal);
+
+        PurchaseTicketRequest request = compra.request;
+        Map<String, Object> paymentRequest = new HashMap<>();
+        paymentRequest.put("idempotencyKey", request.getIdempotencyKey());
+        paymentRequest.put("monto", montoTotal);
+        paymentRequest.put("cardNumber", request.getPaymentMethod().getCardNumber());
+        paymentRequest.put("cvv", request.getPaymentMethod().getCvv());
+        paymentRequest.put("expiryDate", request.getPaymentMethod().getExpiryDate());
+        paymentRequest.put("cardHolder", request.getPaymentMethod().getCardHolder());
+
+        return paymentClient.authorize(paymentRequest).flatMap(paymentResponse -> {
+            String paymentId = (String) paymentResponse.get("paymentId");
+            if ("APPROVED".equals(paymentResponse.get("status"))) {
+                log.info("  ✓ Pago aprobado. Payment ID: {}", paymentId);
+                return Mono.just(paymentId);
+            }
+
+            String mensaje = (String) paymentResponse.get("mensaje");
+            log.error("  ✗ Pago rechazado: {}", mensaje);
+
+            // COMPENSACIÓN: Liberar reserva y notificar el rechazo
+            log.warn("⚠️ Iniciando COMPENSACIÓN - Liberando reserva ID={}", compra.reservaId);
+            return ticketClient.liberarReserva(compra.reservaId)
+                    .doOnNext(liberada -> log.info("  ✓ Reserva liberada - Stock restaurado automáticamente"))
+                    .then(sendPaymentRejectedNotification(compra, montoTotal, mensaje))
+                    .then(Mono.error(new RuntimeException("Pago rechazado: " + mensaje)));
+        });
+    }
+
+    private Mono<Map<String, Object>> confirmarYCrearTicket(Compra compra, String paymentId) {
+        log.info("PASO 5: CONFIRMANDO RESERVA ID={} y creando ticket", compra.reservaId);
+        return ticketClient.confirmarReserva(compra.reservaId)
+                .doOnNext(confirmada -> log.info("  ✓ Reserva confirmada - Stock definitivamente vendido"))
+                .then(ticketClient.crearTicket(compra.userId, compra.tipoEntradaId, compra.eventoNombre,
+                        compra.tipoNombre, compra.cantidad, compra.precio, paymentId,
+                        compra.userEmail, compra.fechaEvento))
+                .doOnNext(ticket -> log.info("  ✓ Ticket creado: {}", ticket.get("ticketId")))
+                .onErrorResume(e -> {
+                    log.error("  ✗ Error crítico confirmando reserva/creando ticket: {}", e.getMessage());
+
+                    // COMPENSACIÓN COMPLEJA: Reversar pago Y liberar reserva
+                    log.error("⚠️⚠️ COMPENSACIÓN CRÍTICA REQUERIDA");
+                    log.error("  1. Payment ID {} aprobado pero ticket no creado", paymentId);
+                    log.error("  2. Intentando liberar reserva ID={}", compra.reservaId);
+
+                    return ticketClient.liberarReserva(compra.reservaId)
+                            .doOnNext(liberada -> log.info("  ✓ Reserva liberada - Stock restaurado"))
+                            .onErrorResume(compError -> {
+                                log.error("  ✗✗ ERROR liberando reserva: {}", compError.getMessage());
+                                return Mono.empty();
+                            })
+                            .then(Mono.error(new RuntimeException(
+                                    "Error crítico: pago procesado pero ticket no creado. Payment ID: " + paymentId)));
+                });
+    }
+
+    private Mono<Void> sendPaymentRejectedNotification(Compra compra, Double monto, String razon) {
+        Map<String, Object> notification = new HashMap<>();
+        notification.put("tipo", "PAGO_RECHAZADO");
+        notification.put("destinatario", compra.userEmail);
+
+        Map<String, Object> datos = new HashMap<>();
+        datos.put("eventoNombre", compra.eventoNombre);
+        datos.put("monto", monto);
+        datos.put("razon", razon);
+
+        notification.put("datos", datos);
+
+        return notificationClient.sendNotification(notification)
+                .onErrorResume(e -> {
+                    log.warn("No se pudo enviar notificación de pago rechazado: {}", e.getMessage());
+                    return Mono.empty();
+                });
+    }
+
+    /**
+     * Estado de una compra en curso; cada paso completa los datos que usan los siguientes.
+     */
+    private static final class Compra {
+        private final Long userId;
+        private final String userEmail;
+        private final PurchaseTicketRequest request;
+        private final Long tipoEntradaId;
+        private final Integer cantidad;
+
+        private Double precio;
+        private String tipoNombre;
+        private Long eventoId;
+        private String eventoNombre;
+        private String fechaEvento;
+        private Long reservaId;
+
+        private Compra(Long userId, String userEmail, PurchaseTicketRequest request) {
+            this.userId = userId;
+            this.userEmail = userEmail;
+            this.request = request;
+            this.tipoEntradaId = request.getTipoEntradaId();
+            this.cantidad = request.getCantidad();
+        }
+
+        private void setTipoEntrada(Map<String, Object> tipoEntrada) {
+            precio = ((Number) tipoEntrada.get("precio")).doubleValue();
+            tipoNombre = (String) tipoEntrada.get("nombre");
+            eventoId = ((Number) tipoEntrada.get("eventoId")).longValue();
+            log.info("  ✓ Tipo: {}, Precio: ${}, Disponibles: {}", tipoNombre, precio, tipoEntrada.get("cantidadDisponible"));
+        }
+
+        private void setEvento(Map<String, Object> evento) {
+            eventoNombre = (String) evento.get("nombre");
+            fechaEvento = (String) evento.get("fechaEvento");
+            log.info("  ✓ Evento: {}, Fecha: {}", eventoNombre, fechaEvento);
+        }
+    }
+}
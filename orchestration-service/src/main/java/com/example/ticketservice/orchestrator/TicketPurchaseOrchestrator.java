@@ -1,17 +1,28 @@
 package com.example.ticketservice.orchestrator;
 
+import com.example.ticketservice.client.DownstreamLimiters;
 import com.example.ticketservice.client.EventServiceClient;
 import com.example.ticketservice.client.NotificationServiceClient;
 import com.example.ticketservice.client.PaymentServiceClient;
 import com.example.ticketservice.client.TicketServiceClient;
 import com.example.ticketservice.dto.PurchaseTicketRequest;
+import com.example.ticketservice.exception.ServiceOverloadedException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+import static com.example.ticketservice.client.DownstreamLimiters.EVENT_SERVICE;
+import static com.example.ticketservice.client.DownstreamLimiters.PAYMENT_SERVICE;
+import static com.example.ticketservice.client.DownstreamLimiters.TICKET_SERVICE;
 
 /**
  * Orquestador de Compra de Tickets - Implementa el Patrón SAGA con RESERVAS TEMPORALES.
@@ -28,7 +39,7 @@ import java.util.Map;
  * 3. CREAR RESERVA temporal (decrementa stock por 10 minutos) ← PUNTO DE BLOQUEO
  * 4. Procesar pago ← PUNTO CRÍTICO (puede fallar)
  * 5. CONFIRMAR RESERVA y crear ticket (pago exitoso)
- * 6. Enviar notificación de confirmación
+ * 6. Notificación de confirmación: ticket-service la registra en su outbox al crear el ticket
  * 
  * COMPENSACIÓN:
  * Si el pago falla después de crear la reserva:
@@ -37,6 +48,10 @@ import java.util.Map;
  * 
  * Si el timer de 10 minutos expira, un @Scheduled job libera automáticamente la reserva.
  * 
+ * MODO CONCURRENTE (orchestration.purchase.concurrent=true):
+ * Mismos pasos y compensaciones, pero solapando los pasos independientes
+ * (ver orchestratePurchaseConcurrent).
+ * 
  * IMPORTANTE:
  * Este servicio NO tiene lógica de negocio, solo COORDINA llamadas a otros servicios
  * via REST clients. Es un orquestador puro siguiendo principios de microservicios.
@@ -58,7 +73,24 @@ public class TicketPurchaseOrchestrator {
     @Autowired
     private TicketServiceClient ticketClient;
 
+    @Autowired
+    private DownstreamLimiters limiters;
+
+    @Autowired
+    @Qualifier("purchaseExecutor")
+    private Executor purchaseExecutor;
+
+    @Value("${orchestration.purchase.concurrent:false}")
+    private boolean concurrentMode;
+
     public Map<String, Object> orchestratePurchase(Long userId, String userEmail, PurchaseTicketRequest request) {
+        // Rechazo temprano (503) si algún servicio de la saga está saturado, antes de reservar stock
+        limiters.verificarCapacidad(EVENT_SERVICE, TICKET_SERVICE, PAYMENT_SERVICE);
+
+        if (concurrentMode) {
+            return orchestratePurchaseConcurrent(userId, userEmail, request);
+        }
+
         log.info("═══════════════════════════════════════════════════════════");
         log.info("INICIANDO ORQUESTACIÓN DE COMPRA CON RESERVA TEMPORAL");
         log.info("Usuario ID: {}, Email: {}", userId, userEmail);
@@ -96,6 +128,9 @@ public class TicketPurchaseOrchestrator {
                 Long segundosRestantes = ((Number) reserva.get("segundosRestantes")).longValue();
                 log.info("  ✓ Reserva ID={} creada exitosamente (expira en {} segundos)", reservaId, segundosRestantes);
                 log.info("  ✓ Stock DECREMENTADO temporalmente - Usuario tiene tiempo limitado para pagar");
+            } catch (ServiceOverloadedException e) {
+                log.warn("  ✗ Reserva rechazada por sobrecarga: {}", e.getMessage());
+                throw e; // 503 + Retry-After, sin envolver
             } catch (Exception e) {
                 log.error("  ✗ Error al crear reserva: {}", e.getMessage());
                 throw new RuntimeException("No se pudo crear la reserva: " + e.getMessage());
@@ -174,7 +209,9 @@ public class TicketPurchaseOrchestrator {
                     tipoNombre,
                     request.getCantidad(),
                     precio,
-                    paymentId
+                    paymentId,
+                    userEmail,
+                    fechaEvento
                 );
                 log.info("  ✓ Ticket creado: {}", ticket.get("ticketId"));
             } catch (Exception e) {
@@ -195,15 +232,8 @@ public class TicketPurchaseOrchestrator {
                 throw new RuntimeException("Error crítico: pago procesado pero ticket no creado. Payment ID: " + paymentId);
             }
 
-            // PASO 6: Enviar notificación de confirmación (no crítico)
-            log.info("PASO 6: Enviando notificación de confirmación");
-            try {
-                sendTicketPurchasedNotification(userEmail, ticket, eventoNombre, tipoNombre, fechaEvento);
-                log.info("  ✓ Notificación enviada");
-            } catch (Exception e) {
-                log.warn("  ⚠ Notificación falló (no crítico): {}", e.getMessage());
-                // No afecta la transacción principal
-            }
+            // PASO 6: la notificación de confirmación quedó en el outbox de ticket-service junto
+            // con el ticket; su relay la publica (sin sumar latencia ni perderse si falla)
 
             log.info("═══════════════════════════════════════════════════════════");
             log.info("✓ ORQUESTACIÓN COMPLETADA EXITOSAMENTE");
@@ -243,26 +273,146 @@ public class TicketPurchaseOrchestrator {
         }
     }
 
-    private void sendTicketPurchasedNotification(String email, Map<String, Object> ticket, String eventoNombre, 
-                                                 String tipoNombre, String fechaEvento) {
-        Map<String, Object> notification = new HashMap<>();
-        notification.put("tipo", "TICKET_COMPRADO");
-        notification.put("destinatario", email);
-        
-        Map<String, Object> datos = new HashMap<>();
-        datos.put("ticketId", ticket.get("ticketId"));
-        datos.put("eventoNombre", eventoNombre);
-        datos.put("tipoEntrada", tipoNombre);
-        datos.put("cantidad", ticket.get("cantidad"));
-        datos.put("total", ticket.get("total"));
-        datos.put("fechaEvento", fechaEvento);
-        
-        notification.put("datos", datos);
-        
+    /**
+     * Variante concurrente de la saga de compra.
+     * 
+     * DIFERENCIAS CON EL MODO SECUENCIAL:
+     * - PASOS 1-3: la reserva se crea en paralelo con la consulta de tipo de entrada → evento
+     *   (la reserva solo necesita tipoEntradaId, usuario y cantidad)
+     * - PASO 5: igual que en modo secuencial (confirmar y después crear el ticket): si se
+     *   solaparan podría quedar un ticket válido de una reserva que no llegó a confirmarse
+     *
+     * COMPENSACIÓN: idéntica al modo secuencial. Cualquier fallo con la reserva ya creada
+     * la libera; un fallo en el PASO 5 con el pago aprobado se registra como inconsistencia
+     * crítica ("pago procesado pero ticket no creado").
+     */
+    public Map<String, Object> orchestratePurchaseConcurrent(Long userId, String userEmail, PurchaseTicketRequest request) {
+        log.info("═══════════════════════════════════════════════════════════");
+        log.info("INICIANDO ORQUESTACIÓN CONCURRENTE DE COMPRA CON RESERVA TEMPORAL");
+        log.info("Usuario ID: {}, Email: {}", userId, userEmail);
+        log.info("═══════════════════════════════════════════════════════════");
+
+        Long tipoEntradaId = request.getTipoEntradaId();
+        Integer cantidad = request.getCantidad();
+        Long reservaId = null;
+        boolean compensada = false;
+
+        // PASOS 1-3 en paralelo: tipo de entrada → evento, y la reserva temporal
+        CompletableFuture<Map<String, Object>> tipoEntradaFuture = CompletableFuture.supplyAsync(
+                () -> eventClient.getTipoEntrada(tipoEntradaId), purchaseExecutor);
+        CompletableFuture<Map<String, Object>> eventoFuture = tipoEntradaFuture.thenApplyAsync(
+                tipo -> eventClient.getEvento(((Number) tipo.get("eventoId")).longValue()), purchaseExecutor);
+        CompletableFuture<Map<String, Object>> reservaFuture = CompletableFuture.supplyAsync(
+                () -> ticketClient.crearReserva(tipoEntradaId, userId, cantidad), purchaseExecutor);
+
         try {
-            notificationClient.sendNotification(notification);
-        } catch (Exception e) {
-            log.warn("No se pudo enviar notificación: {}", e.getMessage());
+            try {
+                Map<String, Object> reserva = esperar(reservaFuture);
+                reservaId = ((Number) reserva.get("id")).longValue();
+                log.info("  ✓ Reserva ID={} creada (expira en {} segundos)", reservaId, reserva.get("segundosRestantes"));
+            } catch (ServiceOverloadedException e) {
+                log.warn("  ✗ Reserva rechazada por sobrecarga: {}", e.getMessage());
+                throw e; // 503 + Retry-After, sin envolver
+            } catch (RuntimeException e) {
+                log.error("  ✗ Error al crear reserva: {}", e.getMessage());
+                throw new RuntimeException("No se pudo crear la reserva: " + e.getMessage());
+            }
+
+            Map<String, Object> tipoEntrada = esperar(tipoEntradaFuture);
+            Map<String, Object> evento = esperar(eventoFuture);
+            Double precio = ((Number) tipoEntrada.get("precio")).doubleValue();
+            String tipoNombre = (String) tipoEntrada.get("nombre");
+            String eventoNombre = (String) evento.get("nombre");
+            String fechaEvento = (String) evento.get("fechaEvento");
+            log.info("  ✓ Tipo: {}, Precio: ${} | Evento: {}, Fecha: {}", tipoNombre, precio, eventoNombre, fechaEvento);
+
+            // PASO 4: Procesar pago (depende del precio y de la reserva)
+            Double montoTotal = precio * cantidad;
+            log.info("PASO 4: Procesando pago por ${} (CRÍTICO - puede fallar)", montoTotal);
+
+            Map<String, Object> paymentRequest = new HashMap<>();
+            paymentRequest.put("idempotencyKey", request.getIdempotencyKey());
+            paymentRequest.put("monto", montoTotal);
+            paymentRequest.put("cardNumber", request.getPaymentMethod().getCardNumber());
+            paymentRequest.put("cvv", request.getPaymentMethod().getCvv());
+            paymentRequest.put("expiryDate", request.getPaymentMethod().getExpiryDate());
+            paymentRequest.put("cardHolder", request.getPaymentMethod().getCardHolder());
+
+            Map<String, Object> paymentResponse = paymentClient.authorize(paymentRequest);
+            String paymentId = (String) paymentResponse.get("paymentId");
+
+            if (!"APPROVED".equals(paymentResponse.get("status"))) {
+                String mensaje = (String) paymentResponse.get("mensaje");
+                log.error("  ✗ Pago rechazado: {}", mensaje);
+
+                // COMPENSACIÓN: Liberar reserva
+                log.warn("⚠️ Iniciando COMPENSACIÓN - Liberando reserva ID={}", reservaId);
+                compensada = true;
+                ticketClient.liberarReserva(reservaId);
+                log.info("  ✓ Reserva liberada - Stock restaurado automáticamente");
+
+                CompletableFuture.runAsync(
+                        () -> sendPaymentRejectedNotification(userEmail, eventoNombre, montoTotal, mensaje), purchaseExecutor);
+                throw new RuntimeException("Pago rechazado: " + mensaje);
+            }
+            log.info("  ✓ Pago aprobado. Payment ID: {}", paymentId);
+
+            // PASO 5: confirmar la reserva y solo entonces crear el ticket
+            log.info("PASO 5: CONFIRMANDO RESERVA ID={} y creando ticket", reservaId);
+            Map<String, Object> ticket;
+            try {
+                ticketClient.confirmarReserva(reservaId);
+                log.info("  ✓ Reserva confirmada - Stock definitivamente vendido");
+                ticket = ticketClient.crearTicket(userId, tipoEntradaId, eventoNombre, tipoNombre, cantidad, precio,
+                        paymentId, userEmail, fechaEvento);
+                log.info("  ✓ Ticket creado: {}", ticket.get("ticketId"));
+            } catch (RuntimeException e) {
+                log.error("  ✗ Error crítico confirmando reserva/creando ticket: {}", e.getMessage());
+                log.error("⚠️⚠️ COMPENSACIÓN CRÍTICA REQUERIDA");
+                log.error("  1. Payment ID {} aprobado pero ticket no creado", paymentId);
+                log.error("  2. Intentando liberar reserva ID={}", reservaId);
+                compensada = true;
+                liberarSinPropagar(reservaId);
+                throw new RuntimeException("Error crítico: pago procesado pero ticket no creado. Payment ID: " + paymentId);
+            }
+
+            // PASO 6: la notificación la publica ticket-service desde su outbox
+
+            log.info("═══════════════════════════════════════════════════════════");
+            log.info("✓ ORQUESTACIÓN CONCURRENTE COMPLETADA - Reserva ID: {}, Ticket ID: {}", reservaId, ticket.get("ticketId"));
+            log.info("═══════════════════════════════════════════════════════════");
+
+            return ticket;
+
+        } catch (RuntimeException e) {
+            log.error("═══════════════════════════════════════════════════════════");
+            log.error("✗ ORQUESTACIÓN FALLIDA: {}", e.getMessage());
+            if (reservaId != null && !compensada) {
+                log.warn("⚠️ Iniciando COMPENSACIÓN - Liberando reserva ID={}", reservaId);
+                liberarSinPropagar(reservaId);
+            }
+            log.error("═══════════════════════════════════════════════════════════");
+            throw e;
+        }
+    }
+
+    private void liberarSinPropagar(Long reservaId) {
+        try {
+            ticketClient.liberarReserva(reservaId);
+            log.info("  ✓ Reserva liberada - Stock restaurado");
+        } catch (Exception compensationError) {
+            log.error("  ✗✗ ERROR EN COMPENSACIÓN: {}", compensationError.getMessage());
+        }
+    }
+
+    private static <T> T esperar(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw new RuntimeException(e.getCause());
         }
     }
 
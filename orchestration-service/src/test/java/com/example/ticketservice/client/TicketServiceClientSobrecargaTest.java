@@ -0,0 +1,147 @@
+package com.example.ticketservice.client;
+
+import com.example.ticketservice.exception.ServiceOverloadedException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static com.example.ticketservice.client.DownstreamLimiters.TICKET_SERVICE;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+/**
+ * Con ticket-service en su límite de concurrencia: las llamadas nuevas se rechazan con
+ * ServiceOverloadedException sin envolver (503 + Retry-After), mientras que la compensación de la
+ * saga (liberar la reserva) y los pasos posteriores al pago (confirmar la reserva, crear el
+ * ticket) no se descartan.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE,
+        properties = "orchestration.limits.services.ticket-service.initial-limit=2")
+@ActiveProfiles("test")
+class TicketServiceClientSobrecargaTest {
+
+    @Autowired
+    private TicketServiceClient ticketClient;
+
+    @Autowired
+    private ReactiveTicketServiceClient reactiveTicketClient;
+
+    @Autowired
+    private DownstreamLimiters limiters;
+
+    @Autowired
+    private RestTemplate restTemplate;
+
+    private final CountDownLatch fin = new CountDownLatch(1);
+    private final ExecutorService llamadasEnCurso = Executors.newCachedThreadPool();
+
+    /**
+     * Ocupa todos los lugares del límite con llamadas que esperan hasta el final del test
+     * (el límite AIMD puede haber subido en tests anteriores).
+     */
+    @BeforeEach
+    void saturarTicketService() throws InterruptedException {
+        while (tieneCapacidad()) {
+            CountDownLatch dentro = new CountDownLatch(1);
+            llamadasEnCurso.submit(() -> limiters.ejecutar(TICKET_SERVICE, () -> {
+                dentro.countDown();
+                return esperarFin();
+            }));
+            assertThat(dentro.await(5, TimeUnit.SECONDS)).as("llamada en curso").isTrue();
+        }
+    }
+
+    @AfterEach
+    void liberar() {
+        fin.countDown();
+        llamadasEnCurso.shutdown();
+    }
+
+    @Test
+    void crearReservaPropagaLaSobrecargaSinEnvolver() {
+        assertThatThrownBy(() -> ticketClient.crearReserva(1L, 7L, 2))
+                .isExactlyInstanceOf(ServiceOverloadedException.class);
+        assertThatThrownBy(() -> reactiveTicketClient.crearReserva(1L, 7L, 2).block())
+                .isExactlyInstanceOf(ServiceOverloadedException.class);
+    }
+
+    @Test
+    void liberarReservaNoSeRechazaPorElLimite() {
+        MockRestServiceServer ticketService = MockRestServiceServer.bindTo(restTemplate).build();
+        ticketService.expect(requestTo("http://localhost:8086/api/reservas/42/liberar"))
+                .andExpect(method(HttpMethod.PUT))
+                .andRespond(withSuccess("{\"id\":42,\"estado\":\"LIBERADA\"}", MediaType.APPLICATION_JSON));
+
+        Map<String, Object> liberada = ticketClient.liberarReserva(42L);
+
+        ticketService.verify();
+        assertThat(liberada).containsEntry("estado", "LIBERADA");
+        assertThat(tieneCapacidad()).isFalse();
+    }
+
+    @Test
+    void confirmarYCrearTicketTrasElPagoNoSeRechazanPorElLimite() {
+        MockRestServiceServer ticketService = MockRestServiceServer.bindTo(restTemplate).build();
+        ticketService.expect(requestTo("http://localhost:8086/api/reservas/42/confirmar"))
+                .andExpect(method(HttpMethod.PUT))
+                .andRespond(withSuccess("{\"id\":42,\"estado\":\"CONFIRMADA\"}", MediaType.APPLICATION_JSON));
+        ticketService.expect(requestTo("http://localhost:8086/api/tickets"))
+                .andExpect(method(HttpMethod.POST))
+                .andRespond(withSuccess("{\"ticketId\":9}", MediaType.APPLICATION_JSON));
+
+        Map<String, Object> confirmada = ticketClient.confirmarReserva(42L);
+        Map<String, Object> ticket = ticketClient.crearTicket(7L, 1L, "Concierto", "General", 2, 50.0,
+                "PAY-1", "ana@test.com", "2030-01-01T20:00");
+
+        ticketService.verify();
+        assertThat(confirmada).containsEntry("estado", "CONFIRMADA");
+        assertThat(ticket).containsEntry("ticketId", 9);
+    }
+
+    @Test
+    void confirmarYCrearTicketReactivosLleganATicketService() {
+        // Sin ticket-service escuchando: la llamada se intenta y falla por conexión, no por el límite
+        assertThatThrownBy(() -> reactiveTicketClient.confirmarReserva(42L).block())
+                .isExactlyInstanceOf(RuntimeException.class)
+                .hasMessageStartingWith("Error al confirmar reserva");
+        assertThatThrownBy(() -> reactiveTicketClient.crearTicket(7L, 1L, "Concierto", "General", 2, 50.0,
+                "PAY-1", "ana@test.com", "2030-01-01T20:00").block())
+                .isExactlyInstanceOf(RuntimeException.class)
+                .hasMessageStartingWith("Error al crear ticket");
+        assertThat(tieneCapacidad()).isFalse();
+    }
+
+    private Void esperarFin() {
+        try {
+            fin.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return null;
+    }
+
+    private boolean tieneCapacidad() {
+        try {
+            limiters.verificarCapacidad(TICKET_SERVICE);
+            return true;
+        } catch (ServiceOverloadedException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package com.example.ticketservice.orchestrator;
+
+import com.example.ticketservice.dto.PurchaseTicketRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Latencia p50/p99 de la saga de compra, secuencial frente a concurrente, contra servicios
+ * stub locales con latencias fijas (event 15 ms por consulta, reserva 40 ms, pago 60 ms,
+ * confirmación 20 ms, ticket 30 ms). Comprueba además que en modo concurrente el ticket
+ * nunca se crea antes de que la reserva esté confirmada.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+class TicketPurchaseLatencyTest {
+
+    private static final Logger log = LoggerFactory.getLogger(TicketPurchaseLatencyTest.class);
+
+    private static final int CLIENTES = 8;
+    private static final int CALENTAMIENTO = 20;
+    private static final int COMPRAS = 200;
+
+    private static final ServiciosStub STUB = new ServiciosStub();
+
+    @DynamicPropertySource
+    static void propiedades(DynamicPropertyRegistry registry) {
+        for (String servicio : List.of("user-service", "event-service", "payment-service", "notification-service", "ticket-service")) {
+            registry.add("services." + servicio + ".url", STUB::url);
+        }
+    }
+
+    @AfterAll
+    static void detener() {
+        STUB.detener();
+    }
+
+    @Autowired
+    private TicketPurchaseOrchestrator orchestrator;
+
+    @Test
+    void comparaLatenciaSecuencialYConcurrente() throws Exception {
+        ReflectionTestUtils.setField(orchestrator, "concurrentMode", false);
+        medir(CALENTAMIENTO);
+        long[] secuencial = medir(COMPRAS);
+
+        ReflectionTestUtils.setField(orchestrator, "concurrentMode", true);
+        medir(CALENTAMIENTO);
+        STUB.ticketsSinConfirmar.set(0);
+        long[] concurrente = medir(COMPRAS);
+
+        log.info("Saga secuencial:  p50={} ms p99={} ms", percentil(secuencial, 0.50), percentil(secuencial, 0.99));
+        log.info("Saga concurrente: p50={} ms p99={} ms", percentil(concurrente, 0.50), percentil(concurrente, 0.99));
+
+        assertThat(STUB.ticketsSinConfirmar.get()).isZero();
+        assertThat(percentil(concurrente, 0.50)).isLessThan(percentil(secuencial, 0.50));
+    }
+
+    /**
+     * @return latencia de cada compra en ms, ordenada
+     */
+    private long[] medir(int compras) throws Exception {
+        AtomicInteger siguiente = new AtomicInteger();
+        ExecutorService clientes = Executors.newFixedThreadPool(CLIENTES);
+        try {
+            List<Future<List<Long>>> resultados = new ArrayList<>();
+            for (int c = 0; c < CLIENTES; c++) {
+                resultados.add(clientes.submit(() -> {
+                    List<Long> latencias = new ArrayList<>();
+                    while (siguiente.getAndIncrement() < compras) {
+                        long usuario = STUB.usuarios.incrementAndGet();
+                        long inicio = System.nanoTime();
+                        orchestrator.orchestratePurchase(usuario, "user" + usuario + "@test.com", compra());
+                        latencias.add((System.nanoTime() - inicio) / 1_000_000);
+                    }
+                    return latencias;
+                }));
+            }
+            List<Long> todas = new ArrayList<>();
+            for (Future<List<Long>> resultado : resultados) {
+                todas.addAll(resultado.get());
+            }
+            long[] latencias = todas.stream().mapToLong(Long::longValue).toArray();
+            Arrays.sort(latencias);
+            return latencias;
+        } finally {
+            clientes.shutdownNow();
+        }
+    }
+
+    private static long percentil(long[] ordenadas, double p) {
+        return ordenadas[(int) Math.ceil(p * ordenadas.length) - 1];
+    }
+
+    private static PurchaseTicketRequest compra() {
+        PurchaseTicketRequest.PaymentMethodDto tarjeta = new PurchaseTicketRequest.PaymentMethodDto();
+        tarjeta.setCardNumber("4111111111111111");
+        tarjeta.setCvv("123");
+        tarjeta.setExpiryDate("12/30");
+        tarjeta.setCardHolder("Test");
+        PurchaseTicketRequest request = new PurchaseTicketRequest();
+        request.setIdempotencyKey(UUID.randomUUID().toString());
+        request.setTipoEntradaId(1L);
+        request.setCantidad(2);
+        request.setPaymentMethod(tarjeta);
+        return request;
+    }
+
+    /**
+     * event-, ticket-, payment- y notification-service en un único HttpServer local.
+     */
+    private static final class ServiciosStub {
+
+        private final ObjectMapper mapper = new ObjectMapper();
+        private final HttpServer servidor;
+        private final AtomicLong reservas = new AtomicLong();
+        private final AtomicLong usuarios = new AtomicLong();
+        private final Map<Long, Long> usuarioPorReserva = new ConcurrentHashMap<>();
+        private final Set<Long> usuariosConfirmados = ConcurrentHashMap.newKeySet();
+        private final AtomicInteger ticketsSinConfirmar = new AtomicInteger();
+
+        ServiciosStub() {
+            try {
+                servidor = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 200);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            servidor.setExecutor(Executors.newCachedThreadPool());
+            servidor.createContext("/", this::atender);
+            servidor.start();
+        }
+
+        String url() {
+            return "http://127.0.0.1:" + servidor.getAddress().getPort();
+        }
+
+        void detener() {
+            servidor.stop(0);
+        }
+
+        @SuppressWarnings("unchecked")
+        private void atender(HttpExchange exchange) throws IOException {
+            String ruta = exchange.getRequestURI().getPath();
+            byte[] cuerpo = exchange.getRequestBody().readAllBytes();
+            Map<String, Object> peticion = cuerpo.length > 0 ? mapper.readValue(cuerpo, Map.class) : Map.of();
+            Object respuesta;
+            if (ruta.startsWith("/api/tipos-entrada/")) {
+                esperar(15);
+                respuesta = Map.of("id", 1, "nombre", "General", "precio", 50.0, "cantidadDisponible", 1000, "eventoId", 1);
+            } else if (ruta.startsWith("/api/eventos/")) {
+                esperar(15);
+                respuesta = Map.of("id", 1, "nombre", "Concierto", "fechaEvento", "2026-12-01T20:00:00");
+            } else if (ruta.equals("/api/reservas/crear")) {
+                esperar(40);
+                long reservaId = reservas.incrementAndGet();
+                usuarioPorReserva.put(reservaId, ((Number) peticion.get("usuarioId")).longValue());
+                respuesta = Map.of("id", reservaId, "segundosRestantes", 600);
+            } else if (ruta.endsWith("/confirmar")) {
+                esperar(20);
+                long reservaId = Long.parseLong(ruta.split("/")[3]);
+                usuariosConfirmados.add(usuarioPorReserva.get(reservaId));
+                respuesta = Map.of("id", reservaId, "estado", "CONFIRMADA");
+            } else if (ruta.equals("/api/tickets")) {
+                if (!usuariosConfirmados.contains(((Number) peticion.get("usuarioId")).longValue())) {
+                    ticketsSinConfirmar.incrementAndGet();
+                }
+                esperar(30);
+                respuesta = Map.of("ticketId", UUID.randomUUID().toString(), "total", 100.0);
+            } else if (ruta.equals("/api/payments/authorize")) {
+                esperar(60);
+                respuesta = Map.of("status", "APPROVED", "paymentId", UUID.randomUUID().toString());
+            } else {
+                respuesta = Map.of();
+            }
+
+            byte[] json = mapper.writeValueAsString(respuesta).getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, json.length);
+            exchange.getResponseBody().write(json);
+            exchange.close();
+        }
+
+        private static void esperar(long ms) {
+            try {
+                Thread.sleep(ms);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -34,7 +34,9 @@ public class Payment {
 
     @PrePersist
     protected void onCreate() {
-        fechaCreacion = Instant.now();
+        if (fechaCreacion == null) {
+            fechaCreacion = Instant.now();
+        }
     }
 
     // Constructors
@@ -0,0 +1,180 @@
+package com.example.paymentservice.service;
+
+import com.example.paymentservice.dto.PaymentResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Índice en memoria de claves de idempotencia → respuesta del pago.
+ *
+ * 1. RESPUESTAS RECIENTES: LRU acotado (payment.idempotency.max-entries) con TTL
+ *    (payment.idempotency.ttl). Se llena al registrar cada pago, así que los reintentos y
+ *    dobles clics se responden sin tocar MySQL. Si la clave no está (expiró, se reinició el
+ *    servicio u otra instancia la procesó) se consulta la BD como antes.
+ * 2. EN CURSO: una clave que se está procesando tiene un único future; las peticiones
+ *    concurrentes con la misma clave esperan su resultado en lugar de competir por insertar.
+ *    Si la ejecución falla (nada quedó registrado) la siguiente en espera la reintenta.
+ *
+ * MÉTRICAS: payment.idempotency.lookups (tag result: hit, coalesced, miss),
+ * payment.idempotency.size y payment.idempotency.inflight.
+ */
+@Component
+public class IdempotencyIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyIndex.class);
+
+    private final int maxEntradas;
+    private final long ttlMs;
+    private final long esperaMs;
+
+    private final Map<String, Entrada> recientes;
+    private final Map<String, CompletableFuture<PaymentResponse>> enCurso = new ConcurrentHashMap<>();
+
+    private final Counter aciertos;
+    private final Counter agrupadas;
+    private final Counter fallos;
+
+    private record Entrada(PaymentResponse respuesta, long expiraEn) {
+    }
+
+    public IdempotencyIndex(MeterRegistry meterRegistry,
+                            @Value("${payment.idempotency.max-entries:10000}") int maxEntradas,
+                            @Value("${payment.idempotency.ttl:10m}") Duration ttl,
+                            @Value("${payment.idempotency.wait-timeout:30s}") Duration espera) {
+        this.maxEntradas = maxEntradas;
+        this.ttlMs = ttl.toMillis();
+        this.esperaMs = espera.toMillis();
+        this.recientes = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entrada> eldest) {
+                return size() > IdempotencyIndex.this.maxEntradas;
+            }
+        };
+
+        this.aciertos = lookups(meterRegistry, "hit");
+        this.agrupadas = lookups(meterRegistry, "coalesced");
+        this.fallos = lookups(meterRegistry, "miss");
+        Gauge.builder("payment.idempotency.size", this, IdempotencyIndex::tamano)
+                .description("Respuestas de pago recientes en memoria")
+                .register(meterRegistry);
+        Gauge.builder("payment.idempotency.inflight", enCurso, Map::size)
+                .description("Claves de idempotencia procesándose en este momento")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Devuelve la respuesta registrada para la clave o ejecuta el pago una sola vez.
+     *
+     * @param ejecucion procesa el pago (consultando la BD si hace falta); debe devolver la
+     *                  respuesta ya confirmada en la BD
+     * @throws ResponseStatusException 409 si otra petición con la misma clave no terminó a tiempo
+     */
+    public PaymentResponse ejecutarUnaVez(String clave, Supplier<PaymentResponse> ejecucion) {
+        while (true) {
+            PaymentResponse reciente = buscar(clave);
+            if (reciente != null) {
+                aciertos.increment();
+                return reciente;
+            }
+
+            CompletableFuture<PaymentResponse> propio = new CompletableFuture<>();
+            CompletableFuture<PaymentResponse> existente = enCurso.putIfAbsent(clave, propio);
+            if (existente == null) {
+                fallos.increment();
+                return ejecutar(clave, propio, ejecucion);
+            }
+
+            agrupadas.increment();
+            try {
+                return copia(existente.get(esperaMs, TimeUnit.MILLISECONDS));
+            } catch (ExecutionException e) {
+                // La ejecución en curso falló sin registrar el pago: se vuelve a intentar
+                log.warn("Pago con clave {} falló en otra petición, reintentando: {}", clave, e.getCause().getMessage());
+            } catch (TimeoutException e) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT,
+                        "Hay un pago en proceso con la misma clave de idempotencia");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ResponseStatusException(HttpStatus.CONFLICT,
+                        "Hay un pago en proceso con la misma clave de idempotencia");
+            }
+        }
+    }
+
+    private PaymentResponse ejecutar(String clave, CompletableFuture<PaymentResponse> propio,
+                                     Supplier<PaymentResponse> ejecucion) {
+        try {
+            // Otra ejecución pudo terminar entre la búsqueda y el putIfAbsent
+            PaymentResponse reciente = buscar(clave);
+            PaymentResponse respuesta = reciente != null ? reciente : ejecucion.get();
+            registrar(clave, respuesta);
+            propio.complete(respuesta);
+            return respuesta;
+        } catch (RuntimeException e) {
+            propio.completeExceptionally(e);
+            throw e;
+        } finally {
+            // Después de registrar: quien llegue ahora la encuentra en recientes
+            enCurso.remove(clave, propio);
+        }
+    }
+
+    /**
+     * Registra la respuesta de un pago ya confirmado.
+     */
+    public void registrar(String clave, PaymentResponse respuesta) {
+        Entrada entrada = new Entrada(copia(respuesta), System.currentTimeMillis() + ttlMs);
+        synchronized (recientes) {
+            recientes.put(clave, entrada);
+        }
+    }
+
+    private PaymentResponse buscar(String clave) {
+        synchronized (recientes) {
+            Entrada entrada = recientes.get(clave);
+            if (entrada == null) {
+                return null;
+            }
+            if (entrada.expiraEn() <= System.currentTimeMillis()) {
+                recientes.remove(clave);
+                return null;
+            }
+            return copia(entrada.respuesta());
+        }
+    }
+
+    private int tamano() {
+        synchronized (recientes) {
+            return recientes.size();
+        }
+    }
+
+    /** PaymentResponse es mutable: cada llamador recibe su propia instancia. */
+    private static PaymentResponse copia(PaymentResponse r) {
+        return new PaymentResponse(r.getPaymentId(), r.getStatus(), r.getMonto(), r.getTimestamp(), r.getMensaje());
+    }
+
+    private static Counter lookups(MeterRegistry meterRegistry, String resultado) {
+        return Counter.builder("payment.idempotency.lookups")
+                .description("Búsquedas de claves de idempotencia")
+                .tag("result", resultado)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.paymentservice.service;
+
+import com.example.paymentservice.dto.PaymentResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Registro de auditoría de pagos: una línea clave=valor por intento en el logger
+ * {@code payment.audit}.
+ *
+ * Se escribe después de confirmar la transacción y el mensaje se arma con los parámetros de
+ * SLF4J (sin String.format): si el logger está deshabilitado no se formatea nada. En
+ * logback-spring.xml ese logger pasa por un AsyncAppender, así que la escritura a consola no
+ * ocurre en el hilo de la petición. La tarjeta se registra siempre enmascarada (****1234).
+ *
+ * Ejemplo:
+ * <pre>
+ * pago origen=NUEVO paymentId=PAY-1A2B3C4D estado=APPROVED monto=150.0 tarjeta=****4242 clave=ORD-1 duracionUs=842 motivo="Pago procesado exitosamente"
+ * </pre>
+ */
+@Component
+public class PaymentAuditLog {
+
+    private static final Logger audit = LoggerFactory.getLogger("payment.audit");
+
+    /** De dónde salió la respuesta del intento. */
+    public enum Origen {
+        NUEVO,            // Se procesó y registró ahora
+        REPETIDO_BD,      // Clave ya registrada en la BD
+        REPETIDO_MEMORIA  // Clave resuelta por IdempotencyIndex (reciente o en curso)
+    }
+
+    public void registrar(Origen origen, PaymentResponse respuesta, String tarjeta, String clave, long inicioNanos) {
+        if (!audit.isInfoEnabled()) {
+            return;
+        }
+        audit.info("pago origen={} paymentId={} estado={} monto={} tarjeta={} clave={} duracionUs={} motivo=\"{}\"",
+                origen, respuesta.getPaymentId(), respuesta.getStatus(), respuesta.getMonto(),
+                enmascarar(tarjeta), clave, micros(inicioNanos), respuesta.getMensaje());
+    }
+
+    public void registrarError(String tarjeta, String clave, long inicioNanos, RuntimeException error) {
+        if (!audit.isWarnEnabled()) {
+            return;
+        }
+        audit.warn("pago origen=ERROR tarjeta={} clave={} duracionUs={} error={} motivo=\"{}\"",
+                enmascarar(tarjeta), clave, micros(inicioNanos), error.getClass().getSimpleName(), error.getMessage());
+    }
+
+    /** Últimos 4 dígitos de la tarjeta, o null si no hay suficientes. */
+    static String ultimos4(String tarjeta) {
+        return tarjeta != null && tarjeta.length() >= 4 ? tarjeta.substring(tarjeta.length() - 4) : null;
+    }
+
+    private static String enmascarar(String tarjeta) {
+        String ultimos = ultimos4(tarjeta);
+        return ultimos != null ? "****" + ultimos : "****";
+    }
+
+    private static long micros(long inicioNanos) {
+        return TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - inicioNanos);
+    }
+}
@@ -0,0 +1,222 @@
+package com.example.paymentservice.service;
+
+import com.example.paymentservice.model.Payment;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+import java.util.TimeZone;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Escritura de pagos en modo group commit (payment.group-commit.enabled=true).
+ *
+ * Las peticiones concurrentes dejan su Payment en una cola y esperan. Un único hilo escritor toma
+ * el primero, junta lo que llegue durante payment.group-commit.window (hasta max-batch) y lo
+ * inserta en una sola transacción con un batch JDBC; con rewriteBatchedStatements=true el driver
+ * de MySQL lo envía como un INSERT multi-fila. Cada llamador se libera recién cuando su lote
+ * confirmó. El id es AUTO_INCREMENT y no se lee de vuelta (nadie lo usa): la clave de negocio
+ * payment_id ya viene generada.
+ *
+ * Si el lote falla (p. ej. una clave de idempotencia repetida) se reintenta fila por fila, para
+ * que solo el pago culpable reciba la excepción.
+ *
+ * MÉTRICAS: payment.group-commit.batch.size y payment.group-commit.fallbacks.
+ */
+@Component
+public class PaymentBatchWriter {
+
+    private static final Logger log = LoggerFactory.getLogger(PaymentBatchWriter.class);
+
+    private static final String INSERT =
+            "INSERT INTO payments (payment_id, idempotency_key, monto, status, card_last_four, mensaje, fecha_creacion) "
+                    + "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    /** Hibernate guarda los Instant en UTC; las filas insertadas aquí deben leerse igual. */
+    private static final TimeZone UTC = TimeZone.getTimeZone("UTC");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean habilitado;
+    private final long ventanaNanos;
+    private final int maxLote;
+    private final long esperaMs;
+
+    private final BlockingQueue<Pendiente> cola;
+    private final DistributionSummary tamanoLote;
+    private final Counter reintentosIndividuales;
+
+    private Thread escritor;
+
+    private record Pendiente(Payment payment, CompletableFuture<Void> confirmado) {
+    }
+
+    public PaymentBatchWriter(JdbcTemplate jdbcTemplate,
+                              PlatformTransactionManager transactionManager,
+                              MeterRegistry meterRegistry,
+                              @Value("${payment.group-commit.enabled:false}") boolean habilitado,
+                              @Value("${payment.group-commit.window:5ms}") Duration ventana,
+                              @Value("${payment.group-commit.max-batch:200}") int maxLote,
+                              @Value("${payment.group-commit.queue-capacity:10000}") int capacidad,
+                              @Value("${payment.group-commit.wait-timeout:10s}") Duration espera) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.habilitado = habilitado;
+        this.ventanaNanos = ventana.toNanos();
+        this.maxLote = maxLote;
+        this.esperaMs = espera.toMillis();
+        this.cola = new LinkedBlockingQueue<>(capacidad);
+
+        this.tamanoLote = DistributionSummary.builder("payment.group-commit.batch.size")
+                .description("Pagos insertados por transacción en modo group commit")
+                .register(meterRegistry);
+        this.reintentosIndividuales = Counter.builder("payment.group-commit.fallbacks")
+                .description("Lotes que fallaron y se reintentaron fila por fila")
+                .register(meterRegistry);
+    }
+
+    public boolean habilitado() {
+        return habilitado;
+    }
+
+    @PostConstruct
+    public void iniciar() {
+        if (!habilitado) {
+            return;
+        }
+        escritor = new Thread(this::escribir, "payment-group-commit");
+        escritor.setDaemon(true);
+        escritor.start();
+        log.info("Group commit de pagos activo: ventana {} µs, lotes de hasta {}",
+                TimeUnit.NANOSECONDS.toMicros(ventanaNanos), maxLote);
+    }
+
+    @PreDestroy
+    public void detener() throws InterruptedException {
+        if (escritor != null) {
+            escritor.interrupt();
+            escritor.join(TimeUnit.SECONDS.toMillis(10));
+        }
+    }
+
+    /**
+     * Encola el pago y espera a que su lote confirme.
+     *
+     * @throws org.springframework.dao.DataIntegrityViolationException si la fila viola una
+     *         restricción única (misma clave de idempotencia insertada por otra petición)
+     * @throws ResponseStatusException 503 si la cola está llena o el lote no confirmó a tiempo
+     */
+    public void guardar(Payment payment) {
+        Pendiente pendiente = new Pendiente(payment, new CompletableFuture<>());
+        if (!cola.offer(pendiente)) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                    "Demasiados pagos en espera de escritura, intente nuevamente");
+        }
+        try {
+            pendiente.confirmado().get(esperaMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            // El lote puede confirmar más tarde: un reintento con la misma clave lo encontrará
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                    "El pago no se confirmó a tiempo, reintente con la misma clave de idempotencia");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Escritura del pago interrumpida");
+        }
+    }
+
+    private void escribir() {
+        List<Pendiente> lote = new ArrayList<>(maxLote);
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                lote.add(cola.take());
+                long limite = System.nanoTime() + ventanaNanos;
+                while (lote.size() < maxLote) {
+                    long restante = limite - System.nanoTime();
+                    Pendiente siguiente = restante > 0 ? cola.poll(restante, TimeUnit.NANOSECONDS) : cola.poll();
+                    if (siguiente == null) {
+                        break;
+                    }
+                    lote.add(siguiente);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (!lote.isEmpty()) {
+                confirmar(lote);
+                lote.clear();
+            }
+        }
+        // Quienes sigan esperando reciben error en lugar de agotar su timeout
+        Pendiente pendiente;
+        while ((pendiente = cola.poll()) != null) {
+            pendiente.confirmado().completeExceptionally(
+                    new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Servicio de pagos deteniéndose"));
+        }
+    }
+
+    private void confirmar(List<Pendiente> lote) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(INSERT, lote, lote.size(),
+                    (ps, pendiente) -> asignar(ps, pendiente.payment())));
+            tamanoLote.record(lote.size());
+            lote.forEach(pendiente -> pendiente.confirmado().complete(null));
+        } catch (RuntimeException e) {
+            if (lote.size() == 1) {
+                lote.get(0).confirmado().completeExceptionally(e);
+                return;
+            }
+            reintentosIndividuales.increment();
+            log.warn("Lote de {} pagos rechazado ({}), reintentando fila por fila", lote.size(), e.getMessage());
+            for (Pendiente pendiente : lote) {
+                confirmar(List.of(pendiente));
+            }
+        }
+    }
+
+    private static void asignar(PreparedStatement ps, Payment payment) throws SQLException {
+        ps.setString(1, payment.getPaymentId());
+        if (payment.getIdempotencyKey() != null) {
+            ps.setString(2, payment.getIdempotencyKey());
+        } else {
+            ps.setNull(2, Types.VARCHAR);
+        }
+        if (payment.getMonto() != null) {
+            ps.setDouble(3, payment.getMonto());
+        } else {
+            ps.setNull(3, Types.DOUBLE);
+        }
+        ps.setString(4, payment.getStatus());
+        ps.setString(5, payment.getCardLastFour());
+        ps.setString(6, payment.getMensaje());
+        ps.setTimestamp(7, Timestamp.from(payment.getFechaCreacion()), Calendar.getInstance(UTC));
+    }
+}
@@ -4,11 +4,8 @@ import com.example.paymentservice.dto.PaymentRequest;
 import com.example.paymentservice.dto.PaymentResponse;
 import com.example.paymentservice.model.Payment;
 import com.example.paymentservice.repository.PaymentRepository;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
 import java.util.UUID;
@@ -39,150 +36,140 @@ import java.util.UUID;
 @Service
 public class PaymentService {
 
-    private static final Logger log = LoggerFactory.getLogger(PaymentService.class);
     private static final double LIMITE_MONTO = 1000.0; // Límite para simular fondos insuficientes
 
-    @Autowired
-    private PaymentRepository paymentRepository;
+    private final PaymentRepository paymentRepository;
+    private final IdempotencyIndex idempotencyIndex;
+    private final PaymentAuditLog auditLog;
+    private final PaymentBatchWriter batchWriter;
 
-    @Transactional
+    /** Origen de la respuesta de un intento; lo fija quien la produce (por defecto, la memoria). */
+    private static final class Intento {
+        PaymentAuditLog.Origen origen = PaymentAuditLog.Origen.REPETIDO_MEMORIA;
+    }
+
+    public PaymentService(PaymentRepository paymentRepository,
+                          IdempotencyIndex idempotencyIndex,
+                          PaymentAuditLog auditLog,
+                          PaymentBatchWriter batchWriter) {
+        this.paymentRepository = paymentRepository;
+        this.idempotencyIndex = idempotencyIndex;
+        this.auditLog = auditLog;
+        this.batchWriter = batchWriter;
+    }
+
+    /**
+     * Procesa un pago. Con idempotencyKey, los reintentos devuelven la respuesta original:
+     * primero desde {@link IdempotencyIndex} (memoria) y, si no está, desde la BD. Las peticiones
+     * concurrentes con la misma clave esperan a una única ejecución.
+     *
+     * Cada intento deja un registro en {@link PaymentAuditLog}, ya fuera de la transacción.
+     * La unicidad de idempotency_key la garantiza la BD, así que la búsqueda y el INSERT no
+     * necesitan compartir transacción; el INSERT va directo o por {@link PaymentBatchWriter}.
+     */
     public PaymentResponse procesarPago(PaymentRequest request) {
-        // IDEMPOTENCY CHECK: If idempotencyKey exists, return cached result
-        if (request.getIdempotencyKey() != null && !request.getIdempotencyKey().isEmpty()) {
-            var existingPayment = paymentRepository.findByIdempotencyKey(request.getIdempotencyKey());
-            if (existingPayment.isPresent()) {
-                Payment cached = existingPayment.get();
-                log.info("╔═══════════════════════════════════════════════════════════╗");
-                log.info("║     ♻️ DUPLICATE PAYMENT DETECTED - RETURNING CACHED     ║");
-                log.info("╠═══════════════════════════════════════════════════════════╣");
-                log.info("║ Idempotency Key: {}", String.format("%-37s", request.getIdempotencyKey()) + "║");
-                log.info("║ Cached Payment:  {}", String.format("%-37s", cached.getPaymentId()) + "║");
-                log.info("║ Status:          {}", String.format("%-37s", cached.getStatus()) + "║");
-                log.info("╚═══════════════════════════════════════════════════════════╝");
-                return new PaymentResponse(
-                    cached.getPaymentId(),
-                    cached.getStatus(),
-                    cached.getMonto(),
-                    cached.getFechaCreacion(),
-                    cached.getMensaje()
-                );
-            }
+        long inicio = System.nanoTime();
+        String clave = request.getIdempotencyKey();
+        Intento intento = new Intento();
+        try {
+            PaymentResponse respuesta = clave == null || clave.isEmpty()
+                    ? procesar(request, intento)
+                    : procesarIdempotente(clave, request, intento);
+            auditLog.registrar(intento.origen, respuesta, request.getCardNumber(), clave, inicio);
+            return respuesta;
+        } catch (RuntimeException e) {
+            auditLog.registrarError(request.getCardNumber(), clave, inicio, e);
+            throw e;
         }
-        
+    }
+
+    private PaymentResponse procesarIdempotente(String clave, PaymentRequest request, Intento intento) {
+        return idempotencyIndex.ejecutarUnaVez(clave, () -> {
+            try {
+                return buscarOProcesar(request, intento);
+            } catch (DataIntegrityViolationException e) {
+                // Otra instancia insertó la misma clave entre la búsqueda y el INSERT
+                return paymentRepository.findByIdempotencyKey(clave)
+                        .map(existente -> duplicado(existente, intento))
+                        .orElseThrow(() -> e);
+            }
+        });
+    }
+
+    private PaymentResponse buscarOProcesar(PaymentRequest request, Intento intento) {
+        // IDEMPOTENCY CHECK: la clave no estaba en memoria (expiró, reinicio u otra instancia)
+        return paymentRepository.findByIdempotencyKey(request.getIdempotencyKey())
+                .map(existente -> duplicado(existente, intento))
+                .orElseGet(() -> procesar(request, intento));
+    }
+
+    private PaymentResponse duplicado(Payment cached, Intento intento) {
+        intento.origen = PaymentAuditLog.Origen.REPETIDO_BD;
+        return new PaymentResponse(
+            cached.getPaymentId(),
+            cached.getStatus(),
+            cached.getMonto(),
+            cached.getFechaCreacion(),
+            cached.getMensaje()
+        );
+    }
+
+    private PaymentResponse procesar(PaymentRequest request, Intento intento) {
         String paymentId = "PAY-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
-        
-        log.info("╔═══════════════════════════════════════════════════════════╗");
-        log.info("║           💳 PROCESANDO PAGO - PAYMENT SERVICE           ║");
-        log.info("╠═══════════════════════════════════════════════════════════╣");
-        log.info("║ Payment ID:       {}", String.format("%-39s", paymentId) + "║");
-        log.info("║ Idempotency Key:  {}", String.format("%-39s", request.getIdempotencyKey() != null ? request.getIdempotencyKey() : "N/A") + "║");
-        log.info("║ Monto:            ${}", String.format("%-38s", request.getMonto()) + "║");
-        log.info("║ Tarjeta:          ****{}", String.format("%-35s", request.getCardNumber().substring(request.getCardNumber().length() - 4)) + "║");
-        log.info("╠═══════════════════════════════════════════════════════════╣");
-        
-        // DEBUG: Mostrar número completo para verificar
-        log.info("DEBUG: Número de tarjeta completo: {}", request.getCardNumber());
-        log.info("DEBUG: ¿Termina en 0000? {}", request.getCardNumber().endsWith("0000"));
-        
-        // Validar monto (simulación de regla de negocio)
+        intento.origen = PaymentAuditLog.Origen.NUEVO;
+
+        String status;
+        String mensaje;
         if (request.getMonto() == null || request.getMonto() <= 0) {
-            log.error("║ RESULTADO:        ❌ RECHAZADO - Monto inválido          ║");
-            log.info("╚═══════════════════════════════════════════════════════════╝");
-            
-            // Guardar en BD
-            Payment payment = new Payment(
-                paymentId,
-                request.getIdempotencyKey(),
-                request.getMonto(),
-                "REJECTED",
-                request.getCardNumber() != null ? request.getCardNumber().substring(request.getCardNumber().length() - 4) : null,
-                "Monto inválido"
-            );
-            paymentRepository.save(payment);
-            
-            return new PaymentResponse(
-                paymentId,
-                "REJECTED",
-                request.getMonto(),
-                Instant.now(),
-                "Monto inválido"
-            );
-        }
-        
-        // Simular tarjeta inválida: rechazar tarjetas que terminan en 0000 (para testing de compensación)
-        if (request.getCardNumber() != null && request.getCardNumber().endsWith("0000")) {
-            log.warn("║ RESULTADO:        ❌ RECHAZADO - Tarjeta bloqueada       ║");
-            log.info("╚═══════════════════════════════════════════════════════════╝");
-            
-            // Guardar en BD
-            Payment payment = new Payment(
-                paymentId,
-                request.getIdempotencyKey(),
-                request.getMonto(),
-                "REJECTED",
-                request.getCardNumber().substring(request.getCardNumber().length() - 4),
-                "Tarjeta bloqueada por el banco"
-            );
-            paymentRepository.save(payment);
-            
-            return new PaymentResponse(
-                paymentId,
-                "REJECTED",
-                request.getMonto(),
-                Instant.now(),
-                "Tarjeta bloqueada por el banco"
-            );
-        }
-        
-        // Simular validación de fondos: montos > 1000 son rechazados
-        if (request.getMonto() > LIMITE_MONTO) {
-            log.warn("║ RESULTADO:        ❌ RECHAZADO - Fondos insuficientes    ║");
-            log.info("╚═══════════════════════════════════════════════════════════╝");
-            
-            // Guardar en BD
-            Payment payment = new Payment(
-                paymentId,
-                request.getIdempotencyKey(),
-                request.getMonto(),
-                "REJECTED",
-                request.getCardNumber().substring(request.getCardNumber().length() - 4),
-                "Fondos insuficientes (monto supera límite de $" + LIMITE_MONTO + ")"
-            );
-            paymentRepository.save(payment);
-            
-            return new PaymentResponse(
-                paymentId,
-                "REJECTED",
-                request.getMonto(),
-                Instant.now(),
-                "Fondos insuficientes (monto supera límite de $" + LIMITE_MONTO + ")"
-            );
+            // Validar monto (simulación de regla de negocio)
+            status = "REJECTED";
+            mensaje = "Monto inválido";
+        } else if (request.getCardNumber() != null && request.getCardNumber().endsWith("0000")) {
+            // Simular tarjeta inválida: rechazar tarjetas que terminan en 0000 (para testing de compensación)
+            status = "REJECTED";
+            mensaje = "Tarjeta bloqueada por el banco";
+        } else if (request.getMonto() > LIMITE_MONTO) {
+            // Simular validación de fondos: montos > 1000 son rechazados
+            status = "REJECTED";
+            mensaje = "Fondos insuficientes (monto supera límite de $" + LIMITE_MONTO + ")";
+        } else {
+            status = "APPROVED";
+            mensaje = "Pago procesado exitosamente";
         }
-        
-        // Pago aprobado
-        log.info("║ RESULTADO:        ✅ APROBADO                             ║");
-        log.info("╚═══════════════════════════════════════════════════════════╝");
-        
-        // Guardar en BD
+
+        // Guardar en BD (solo los últimos 4 dígitos de la tarjeta)
         Payment payment = new Payment(
             paymentId,
             request.getIdempotencyKey(),
             request.getMonto(),
-            "APPROVED",
-            request.getCardNumber().substring(request.getCardNumber().length() - 4),
-            "Pago procesado exitosamente"
+            status,
+            PaymentAuditLog.ultimos4(request.getCardNumber()),
+            mensaje
         );
-        paymentRepository.save(payment);
-        
+        payment.setFechaCreacion(Instant.now());
+        guardar(payment);
+
         return new PaymentResponse(
             paymentId,
-            "APPROVED",
+            status,
             request.getMonto(),
-            Instant.now(),
-            "Pago procesado exitosamente"
+            payment.getFechaCreacion(),
+            mensaje
         );
     }
     
+    /**
+     * En modo group commit el INSERT se agrupa con los de otras peticiones concurrentes;
+     * en ambos casos retorna cuando la fila ya está confirmada.
+     */
+    private void guardar(Payment payment) {
+        if (batchWriter.habilitado()) {
+            batchWriter.guardar(payment);
+        } else {
+            paymentRepository.save(payment);
+        }
+    }
+
     public Payment buscarPorPaymentId(String paymentId) {
         return paymentRepository.findByPaymentId(paymentId).orElse(null);
     }
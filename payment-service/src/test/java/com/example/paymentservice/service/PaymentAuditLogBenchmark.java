@@ -0,0 +1,141 @@
+package com.example.paymentservice.service;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.OutputStreamAppender;
+import com.example.paymentservice.dto.PaymentResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.slf4j.LoggerFactory;
+
+import java.io.OutputStream;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coste de logging por pago aprobado, antes y después del registro de auditoría.
+ *
+ * - antes: las líneas que emitía PaymentService.procesarPago (recuadro con String.format, número
+ *   de tarjeta completo en "DEBUG" y resultado), escritas de forma síncrona.
+ * - despues: {@link PaymentAuditLog#registrar}, una línea clave=valor detrás de un AsyncAppender
+ *   configurado como en logback-spring.xml (cola 8192, sin descartar).
+ *
+ * Ambas variantes escriben con el mismo patrón a un stream descartado, para medir el armado del
+ * mensaje y el appender sin el coste de la consola. Con nivel=WARN se ve lo que queda cuando INFO
+ * está deshabilitado (el String.format anterior se evaluaba igual).
+ *
+ * Ejecución (desde payment-service/):
+ *   mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ *   java -cp target/test-classes:target/classes:$(cat target/cp.txt) com.example.paymentservice.service.PaymentAuditLogBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PaymentAuditLogBenchmark {
+
+    private static final String PATRON = "%d{yyyy-MM-dd'T'HH:mm:ss.SSSXXX} %5p %t --- %logger{39} : %m%n";
+    private static final String TARJETA = "4111111111114242";
+    private static final String CLAVE = "ORD-7F3A9C21";
+
+    @Param({"INFO", "WARN"})
+    public String nivel;
+
+    private org.slf4j.Logger logAnterior;
+    private PaymentAuditLog auditLog;
+    private PaymentResponse respuesta;
+    private AsyncAppender asincrono;
+
+    @Setup
+    public void preparar() {
+        LoggerContext contexto = (LoggerContext) LoggerFactory.getILoggerFactory();
+        contexto.reset();
+
+        OutputStreamAppender<ILoggingEvent> descartado = new OutputStreamAppender<>();
+        descartado.setContext(contexto);
+        descartado.setEncoder(encoder(contexto));
+        descartado.setOutputStream(OutputStream.nullOutputStream());
+        descartado.start();
+
+        Logger anterior = contexto.getLogger(PaymentService.class);
+        anterior.setLevel(ch.qos.logback.classic.Level.toLevel(nivel));
+        anterior.setAdditive(false);
+        anterior.addAppender(descartado);
+        logAnterior = anterior;
+
+        asincrono = new AsyncAppender();
+        asincrono.setContext(contexto);
+        asincrono.setQueueSize(8192);
+        asincrono.setDiscardingThreshold(0);
+        asincrono.setIncludeCallerData(false);
+        asincrono.addAppender(descartado);
+        asincrono.start();
+        Logger auditoria = contexto.getLogger("payment.audit");
+        auditoria.setLevel(ch.qos.logback.classic.Level.toLevel(nivel));
+        auditoria.setAdditive(false);
+        auditoria.addAppender(asincrono);
+
+        auditLog = new PaymentAuditLog();
+        respuesta = new PaymentResponse("PAY-1A2B3C4D", "APPROVED", 150.0, Instant.now(), "Pago procesado exitosamente");
+    }
+
+    @TearDown(Level.Trial)
+    public void cerrar() {
+        asincrono.stop();
+    }
+
+    @Benchmark
+    public void antes() {
+        String paymentId = respuesta.getPaymentId();
+        logAnterior.info("╔═══════════════════════════════════════════════════════════╗");
+        logAnterior.info("║           💳 PROCESANDO PAGO - PAYMENT SERVICE           ║");
+        logAnterior.info("╠═══════════════════════════════════════════════════════════╣");
+        logAnterior.info("║ Payment ID:       {}", String.format("%-39s", paymentId) + "║");
+        logAnterior.info("║ Idempotency Key:  {}", String.format("%-39s", CLAVE) + "║");
+        logAnterior.info("║ Monto:            ${}", String.format("%-38s", respuesta.getMonto()) + "║");
+        logAnterior.info("║ Tarjeta:          ****{}", String.format("%-35s", TARJETA.substring(TARJETA.length() - 4)) + "║");
+        logAnterior.info("╠═══════════════════════════════════════════════════════════╣");
+        logAnterior.info("DEBUG: Número de tarjeta completo: {}", TARJETA);
+        logAnterior.info("DEBUG: ¿Termina en 0000? {}", TARJETA.endsWith("0000"));
+        logAnterior.info("║ RESULTADO:        ✅ APROBADO                             ║");
+        logAnterior.info("╚═══════════════════════════════════════════════════════════╝");
+    }
+
+    @Benchmark
+    public void despues() {
+        auditLog.registrar(PaymentAuditLog.Origen.NUEVO, respuesta, TARJETA, CLAVE, System.nanoTime());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(PaymentAuditLogBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+
+    private static PatternLayoutEncoder encoder(LoggerContext contexto) {
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(contexto);
+        encoder.setPattern(PATRON);
+        encoder.start();
+        return encoder;
+    }
+}
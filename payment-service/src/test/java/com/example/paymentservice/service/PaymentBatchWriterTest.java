@@ -0,0 +1,139 @@
+package com.example.paymentservice.service;
+
+import com.example.paymentservice.model.Payment;
+import com.example.paymentservice.repository.PaymentRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Group commit: los INSERT concurrentes se confirman en lotes y una clave repetida dentro de un
+ * lote solo hace fallar a su propio pago.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE,
+        properties = {
+                "spring.datasource.url=jdbc:h2:mem:payment_db_lotes;MODE=MySQL;DB_CLOSE_DELAY=-1",
+                "payment.group-commit.enabled=true",
+                "payment.group-commit.window=50ms"
+        })
+@ActiveProfiles("test")
+class PaymentBatchWriterTest {
+
+    private static final int HILOS = 32;
+
+    @Autowired
+    private PaymentBatchWriter batchWriter;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void limpiar() {
+        paymentRepository.deleteAll();
+    }
+
+    @Test
+    void insertsConcurrentesSeConfirmanEnLotes() throws Exception {
+        double lotesPrevios = lotes().count();
+
+        List<Callable<Void>> llamadas = new ArrayList<>();
+        for (int i = 0; i < HILOS; i++) {
+            Payment payment = pago("PAY-LOTE-" + i, "ORD-LOTE-" + i);
+            llamadas.add(() -> {
+                batchWriter.guardar(payment);
+                return null;
+            });
+        }
+        for (Future<Void> resultado : enParalelo(llamadas)) {
+            resultado.get();
+        }
+
+        assertThat(paymentRepository.count()).isEqualTo(HILOS);
+        assertThat(paymentRepository.findByIdempotencyKey("ORD-LOTE-7"))
+                .hasValueSatisfying(pago -> assertThat(pago.getPaymentId()).isEqualTo("PAY-LOTE-7"));
+        assertThat(lotes().count() - lotesPrevios).isLessThan(HILOS);
+    }
+
+    @Test
+    void claveRepetidaEnElLoteSoloFallaSuPago() throws Exception {
+        double reintentosPrevios = meterRegistry.counter("payment.group-commit.fallbacks").count();
+
+        List<Callable<Void>> llamadas = new ArrayList<>();
+        for (int i = 0; i < HILOS; i++) {
+            // Los dos primeros comparten clave de idempotencia
+            Payment payment = pago("PAY-DUP-" + i, "ORD-DUP-" + Math.max(i, 1));
+            llamadas.add(() -> {
+                batchWriter.guardar(payment);
+                return null;
+            });
+        }
+
+        int rechazados = 0;
+        for (Future<Void> resultado : enParalelo(llamadas)) {
+            try {
+                resultado.get();
+            } catch (Exception e) {
+                assertThat(e.getCause()).isInstanceOf(DataIntegrityViolationException.class);
+                rechazados++;
+            }
+        }
+
+        assertThat(rechazados).isEqualTo(1);
+        assertThat(paymentRepository.count()).isEqualTo(HILOS - 1);
+        assertThat(meterRegistry.counter("payment.group-commit.fallbacks").count()).isGreaterThan(reintentosPrevios);
+    }
+
+    private DistributionSummary lotes() {
+        return meterRegistry.get("payment.group-commit.batch.size").summary();
+    }
+
+    private static List<Future<Void>> enParalelo(List<Callable<Void>> llamadas) throws InterruptedException {
+        CountDownLatch salida = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(llamadas.size());
+        try {
+            List<Future<Void>> futuros = new ArrayList<>();
+            for (Callable<Void> llamada : llamadas) {
+                futuros.add(pool.submit(() -> {
+                    salida.await();
+                    return llamada.call();
+                }));
+            }
+            salida.countDown();
+            for (Future<Void> futuro : futuros) {
+                try {
+                    futuro.get();
+                } catch (Exception ignorada) {
+                    // se inspecciona en cada test
+                }
+            }
+            return futuros;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static Payment pago(String paymentId, String clave) {
+        Payment payment = new Payment(paymentId, clave, 150.0, "APPROVED", "4242", "Pago procesado exitosamente");
+        payment.setFechaCreacion(Instant.now());
+        return payment;
+    }
+}
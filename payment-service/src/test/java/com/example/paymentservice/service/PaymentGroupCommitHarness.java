@@ -0,0 +1,123 @@
+package com.example.paymentservice.service;
+
+import com.example.paymentservice.PaymentServiceApplication;
+import com.example.paymentservice.dto.PaymentRequest;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Throughput de registro de pagos con y sin group commit (payment.group-commit.enabled).
+ *
+ * Levanta el servicio dos veces sobre una BD H2 en archivo (target/group-commit-*), una por modo,
+ * y lanza la misma carga contra {@link PaymentService#procesarPago}: N pagos aprobados con clave
+ * de idempotencia única, repartidos entre C clientes concurrentes, tras un calentamiento. Informa
+ * pagos/s y, en modo group commit, el tamaño medio de lote (payment.group-commit.batch.size).
+ * La URL va sin MODE=MySQL: en ese modo H2 repite ids IDENTITY con INSERT concurrentes.
+ *
+ * Sin HTTP ni gateway: mide la ruta de escritura. Los números de H2 sirven para comparar los dos
+ * modos entre sí, no como referencia de MySQL.
+ *
+ * Ejecución (desde payment-service/), argumentos opcionales [pagos] [clientes]:
+ *   mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ *   java -cp target/test-classes:target/classes:$(cat target/cp.txt) com.example.paymentservice.service.PaymentGroupCommitHarness 10000 64
+ */
+public class PaymentGroupCommitHarness {
+
+    private static final int CALENTAMIENTO = 1000;
+
+    public static void main(String[] args) throws Exception {
+        int pagos = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int clientes = args.length > 1 ? Integer.parseInt(args[1]) : 64;
+
+        List<String> filas = new ArrayList<>();
+        for (boolean groupCommit : new boolean[]{false, true}) {
+            try (ConfigurableApplicationContext contexto = iniciar(groupCommit)) {
+                PaymentService servicio = contexto.getBean(PaymentService.class);
+                ejecutar(servicio, "CAL", CALENTAMIENTO, clientes);
+
+                DistributionSummary lotes = contexto.getBean(MeterRegistry.class)
+                        .find("payment.group-commit.batch.size").summary();
+                long lotesPrevios = lotes != null ? lotes.count() : 0;
+                double filasPrevias = lotes != null ? lotes.totalAmount() : 0;
+
+                long inicio = System.nanoTime();
+                ejecutar(servicio, "PAY", pagos, clientes);
+                double segundos = (System.nanoTime() - inicio) / 1e9;
+
+                String loteMedio = "-";
+                if (groupCommit && lotes != null && lotes.count() > lotesPrevios) {
+                    loteMedio = String.format(Locale.ROOT, "%.1f",
+                            (lotes.totalAmount() - filasPrevias) / (lotes.count() - lotesPrevios));
+                }
+                filas.add(String.format(Locale.ROOT, "%-14s %8d %9d %10.0f %11s",
+                        groupCommit ? "group-commit" : "fila-a-fila", pagos, clientes, pagos / segundos, loteMedio));
+            }
+        }
+
+        System.out.println();
+        System.out.println("modo              pagos  clientes   pagos/s  lote medio");
+        filas.forEach(System.out::println);
+    }
+
+    private static ConfigurableApplicationContext iniciar(boolean groupCommit) {
+        String modo = groupCommit ? "lotes" : "filas";
+        // Como argumentos: las propiedades por defecto del builder no pisarían application*.properties
+        return new SpringApplicationBuilder(PaymentServiceApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("test")
+                .run("--spring.datasource.url=jdbc:h2:file:./target/group-commit-" + modo,
+                        "--payment.group-commit.enabled=" + groupCommit,
+                        "--logging.level.root=WARN",
+                        "--logging.level.payment.audit=WARN");
+    }
+
+    private static void ejecutar(PaymentService servicio, String prefijo, int pagos, int clientes) throws Exception {
+        CountDownLatch salida = new CountDownLatch(1);
+        List<Callable<Void>> tareas = new ArrayList<>();
+        for (int c = 0; c < clientes; c++) {
+            int cliente = c;
+            tareas.add(() -> {
+                salida.await();
+                for (int i = cliente; i < pagos; i += clientes) {
+                    servicio.procesarPago(solicitud(prefijo + "-" + i));
+                }
+                return null;
+            });
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(clientes);
+        try {
+            List<Future<Void>> futuros = new ArrayList<>();
+            tareas.forEach(tarea -> futuros.add(pool.submit(tarea)));
+            salida.countDown();
+            for (Future<Void> futuro : futuros) {
+                futuro.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static PaymentRequest solicitud(String clave) {
+        PaymentRequest request = new PaymentRequest();
+        request.setIdempotencyKey(clave);
+        request.setMonto(150.0);
+        request.setCardNumber("4111111111114242");
+        request.setCvv("123");
+        request.setExpiryDate("12/30");
+        request.setCardHolder("Ana Pérez");
+        return request;
+    }
+}
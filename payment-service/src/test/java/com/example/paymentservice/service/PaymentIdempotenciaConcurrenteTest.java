@@ -0,0 +1,115 @@
+package com.example.paymentservice.service;
+
+import com.example.paymentservice.dto.PaymentRequest;
+import com.example.paymentservice.dto.PaymentResponse;
+import com.example.paymentservice.repository.PaymentRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Muchas peticiones simultáneas con la misma clave de idempotencia: se registra un solo pago
+ * y todas reciben el mismo paymentId, tanto en una instancia (IdempotencyIndex agrupa las
+ * peticiones en curso) como entre dos instancias (la restricción única de la BD decide).
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+class PaymentIdempotenciaConcurrenteTest {
+
+    private static final int HILOS = 32;
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private PaymentAuditLog auditLog;
+
+    @Autowired
+    private PaymentBatchWriter batchWriter;
+
+    @BeforeEach
+    void limpiar() {
+        paymentRepository.deleteAll();
+    }
+
+    @Test
+    void mismaClaveEnParaleloRegistraUnSoloPago() throws Exception {
+        List<PaymentResponse> respuestas = enParalelo(i -> paymentService, "ORD-CONCURRENTE-1");
+
+        assertThat(respuestas).hasSize(HILOS)
+                .extracting(PaymentResponse::getPaymentId).containsOnly(respuestas.get(0).getPaymentId());
+        assertThat(respuestas).extracting(PaymentResponse::getStatus).containsOnly("APPROVED");
+        assertThat(paymentRepository.count()).isEqualTo(1);
+        assertThat(paymentRepository.findByIdempotencyKey("ORD-CONCURRENTE-1"))
+                .hasValueSatisfying(pago -> assertThat(pago.getPaymentId()).isEqualTo(respuestas.get(0).getPaymentId()));
+    }
+
+    @Test
+    void mismaClaveEnDosInstanciasRegistraUnSoloPago() throws Exception {
+        // Segunda instancia: su propio índice en memoria, la misma BD
+        PaymentService otraInstancia = new PaymentService(paymentRepository,
+                new IdempotencyIndex(new SimpleMeterRegistry(), 100, Duration.ofMinutes(10), Duration.ofSeconds(30)),
+                auditLog, batchWriter);
+
+        List<PaymentResponse> respuestas = enParalelo(i -> i % 2 == 0 ? paymentService : otraInstancia,
+                "ORD-CONCURRENTE-2");
+
+        assertThat(respuestas).extracting(PaymentResponse::getPaymentId).containsOnly(respuestas.get(0).getPaymentId());
+        assertThat(paymentRepository.count()).isEqualTo(1);
+    }
+
+    private List<PaymentResponse> enParalelo(IntFunction<PaymentService> instancia, String clave) throws Exception {
+        CountDownLatch salida = new CountDownLatch(1);
+        List<Callable<PaymentResponse>> llamadas = new ArrayList<>();
+        for (int i = 0; i < HILOS; i++) {
+            PaymentService servicio = instancia.apply(i);
+            llamadas.add(() -> {
+                salida.await();
+                return servicio.procesarPago(solicitud(clave));
+            });
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(HILOS);
+        try {
+            List<Future<PaymentResponse>> futuros = new ArrayList<>();
+            llamadas.forEach(llamada -> futuros.add(pool.submit(llamada)));
+            salida.countDown();
+            List<PaymentResponse> respuestas = new ArrayList<>();
+            for (Future<PaymentResponse> futuro : futuros) {
+                respuestas.add(futuro.get());
+            }
+            return respuestas;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static PaymentRequest solicitud(String clave) {
+        PaymentRequest request = new PaymentRequest();
+        request.setIdempotencyKey(clave);
+        request.setMonto(150.0);
+        request.setCardNumber("4111111111114242");
+        request.setCvv("123");
+        request.setExpiryDate("12/30");
+        request.setCardHolder("Ana Pérez");
+        return request;
+    }
+}
@@ -1,14 +1,44 @@
 package com.example.ticketservice.config;
 
+import com.example.common.http.HttpDestination;
+import com.example.common.http.PooledHttpClientFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.client.RestTemplate;
 
+import java.time.Duration;
+import java.util.List;
+
 @Configuration
 public class RestTemplateConfig {
+
+    @Value("${event.service.url:http://localhost:8082}")
+    private String eventServiceUrl;
+
+    @Value("${event.service.max-connections:0}")
+    private int eventServiceMaxConnections;
+
+    @Value("${event.service.connect-timeout:#{null}}")
+    private Duration eventServiceConnectTimeout;
+
+    @Value("${event.service.read-timeout:#{null}}")
+    private Duration eventServiceReadTimeout;
     
+    @Value("${notification.service.url:http://localhost:8085}")
+    private String notificationServiceUrl;
+
+    @Value("${notification.service.read-timeout:#{null}}")
+    private Duration notificationServiceReadTimeout;
+
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public RestTemplate restTemplate(PooledHttpClientFactory pooledHttpClientFactory) {
+        // Reservas y expiraciones llaman a event-service: conexiones keep-alive desde el pool compartido
+        HttpDestination eventService = new HttpDestination("event-service", eventServiceUrl,
+                eventServiceMaxConnections, eventServiceConnectTimeout, eventServiceReadTimeout);
+        // El relay del outbox publica en notification-service por el mismo pool
+        HttpDestination notificationService = new HttpDestination("notification-service", notificationServiceUrl,
+                0, null, notificationServiceReadTimeout);
+        return new RestTemplate(pooledHttpClientFactory.create("ticket", List.of(eventService, notificationService)));
     }
 }
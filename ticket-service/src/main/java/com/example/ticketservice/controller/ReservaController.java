@@ -1,5 +1,6 @@
 package com.example.ticketservice.controller;
 
+import com.example.ticketservice.dto.CreateReservaLoteRequest;
 import com.example.ticketservice.dto.CreateReservaRequest;
 import com.example.ticketservice.dto.ReservaDto;
 import com.example.ticketservice.service.ReservaService;
@@ -29,6 +30,13 @@ public class ReservaController {
         return ResponseEntity.ok(response);
     }
 
+    @PostMapping("/crear-lote")
+    @Operation(summary = "Crear reserva en lote", description = "Reserva varios tipos de entrada de forma atómica: todas las líneas o ninguna")
+    public ResponseEntity<List<ReservaDto>> crearReservaLote(@Valid @RequestBody CreateReservaLoteRequest request) {
+        List<ReservaDto> response = reservaService.crearReservaLote(request);
+        return ResponseEntity.ok(response);
+    }
+
     @PutMapping("/{reservaId}/confirmar")
     @Operation(summary = "Confirmar reserva", description = "Confirma la reserva después de un pago exitoso")
     public ResponseEntity<ReservaDto> confirmarReserva(@PathVariable Long reservaId) {
@@ -0,0 +1,76 @@
+package com.example.ticketservice.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.*;
+
+import java.util.List;
+
+public class CreateReservaLoteRequest {
+    @NotNull(message = "El usuario es requerido")
+    private Long usuarioId;
+    
+    @NotEmpty(message = "Debe incluir al menos un tipo de entrada")
+    @Size(max = 10, message = "No se pueden reservar más de 10 tipos de entrada por lote")
+    @Valid
+    private List<Linea> lineas;
+    
+    // Constructors
+    public CreateReservaLoteRequest() {
+    }
+    
+    public CreateReservaLoteRequest(Long usuarioId, List<Linea> lineas) {
+        this.usuarioId = usuarioId;
+        this.lineas = lineas;
+    }
+    
+    // Getters and Setters
+    public Long getUsuarioId() {
+        return usuarioId;
+    }
+    
+    public void setUsuarioId(Long usuarioId) {
+        this.usuarioId = usuarioId;
+    }
+    
+    public List<Linea> getLineas() {
+        return lineas;
+    }
+    
+    public void setLineas(List<Linea> lineas) {
+        this.lineas = lineas;
+    }
+    
+    public static class Linea {
+        @NotNull(message = "El tipo de entrada es requerido")
+        private Long tipoEntradaId;
+        
+        @NotNull(message = "La cantidad es requerida")
+        @Min(value = 1, message = "La cantidad debe ser al menos 1")
+        @Max(value = 10, message = "No se pueden reservar más de 10 tickets")
+        private Integer cantidad;
+        
+        public Linea() {
+        }
+        
+        public Linea(Long tipoEntradaId, Integer cantidad) {
+            this.tipoEntradaId = tipoEntradaId;
+            this.cantidad = cantidad;
+        }
+        
+        public Long getTipoEntradaId() {
+            return tipoEntradaId;
+        }
+        
+        public void setTipoEntradaId(Long tipoEntradaId) {
+            this.tipoEntradaId = tipoEntradaId;
+        }
+        
+        public Integer getCantidad() {
+            return cantidad;
+        }
+        
+        public void setCantidad(Integer cantidad) {
+            this.cantidad = cantidad;
+        }
+    }
+}
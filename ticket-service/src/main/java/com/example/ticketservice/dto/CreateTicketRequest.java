@@ -17,4 +17,9 @@ public class CreateTicketRequest {
     private Integer cantidad;
     private Double precioUnitario;
     private String paymentId;
+
+    // Opcionales: si llega el email del comprador, la notificación TICKET_COMPRADO se registra
+    // en el outbox dentro de la misma transacción que el ticket
+    private String destinatario;
+    private String fechaEvento;
 }
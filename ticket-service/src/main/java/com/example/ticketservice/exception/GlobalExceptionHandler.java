@@ -51,6 +51,17 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
     }
     
+    @ExceptionHandler(StockServiceUnavailableException.class)
+    public ResponseEntity<ErrorResponse> handleStockServiceUnavailable(StockServiceUnavailableException ex) {
+        log.error("Stock service unavailable: {}", ex.getMessage());
+        ErrorResponse error = new ErrorResponse(
+            "STOCK_SERVICE_UNAVAILABLE",
+            ex.getMessage(),
+            HttpStatus.SERVICE_UNAVAILABLE.value()
+        );
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(error);
+    }
+    
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<Map<String, String>> handleValidationErrors(MethodArgumentNotValidException ex) {
         Map<String, String> errors = new HashMap<>();
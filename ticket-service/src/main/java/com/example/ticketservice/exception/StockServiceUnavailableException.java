@@ -0,0 +1,11 @@
+package com.example.ticketservice.exception;
+
+/**
+ * event-service no respondió de forma concluyente (timeout, error de conexión o 5xx):
+ * no se sabe si el stock se descontó, así que el llamante debe compensar antes de lanzarla.
+ */
+public class StockServiceUnavailableException extends RuntimeException {
+    public StockServiceUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
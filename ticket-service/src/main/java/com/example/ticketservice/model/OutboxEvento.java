@@ -0,0 +1,83 @@
+package com.example.ticketservice.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Efecto secundario pendiente de publicar (patrón transactional outbox).
+ *
+ * Se inserta en la misma transacción que el cambio de dominio que lo origina (p. ej. el ticket),
+ * así que existe si y solo si ese cambio se confirmó. {@code OutboxRelay} lo publica después.
+ * La restricción única (tipo, clave) evita dos entradas para el mismo ticket.
+ */
+@Entity
+@Table(name = "outbox_eventos",
+        uniqueConstraints = @UniqueConstraint(name = "uk_outbox_tipo_clave", columnNames = {"tipo", "clave"}),
+        indexes = {
+                @Index(name = "idx_outbox_estado_proximo", columnList = "estado, proximo_intento, id"),
+                @Index(name = "idx_outbox_estado_publicado", columnList = "estado, publicado_en")
+        })
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxEvento {
+
+    public enum Estado {
+        PENDIENTE,   // Esperando publicación (o reintento)
+        PUBLICADO,   // Aceptado por el destino
+        DESCARTADO   // El destino lo rechazó de forma definitiva (no se reintenta)
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 50)
+    private String tipo; // TICKET_COMPRADO
+
+    /** Clave de deduplicación de negocio (ticketId) */
+    @Column(nullable = false, length = 100)
+    private String clave;
+
+    @Column(nullable = false, length = 200)
+    private String destinatario;
+
+    /** Datos de la notificación en JSON */
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String payload;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    @Builder.Default
+    private Estado estado = Estado.PENDIENTE;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Integer intentos = 0;
+
+    @Column(name = "creado_en", nullable = false, updatable = false)
+    private Instant creadoEn;
+
+    @Column(name = "proximo_intento", nullable = false)
+    private Instant proximoIntento;
+
+    @Column(name = "publicado_en")
+    private Instant publicadoEn;
+
+    @Column(name = "ultimo_error", length = 500)
+    private String ultimoError;
+
+    @PrePersist
+    protected void onCreate() {
+        creadoEn = Instant.now();
+        if (proximoIntento == null) {
+            proximoIntento = creadoEn;
+        }
+    }
+}
@@ -30,6 +30,14 @@ public class Reserva {
     @Column(nullable = false)
     private EstadoReserva estado;
     
+    // Clave de idempotencia de la línea en event-service (reservas en lote)
+    @Column(length = 64)
+    private String operacionStockId;
+    
+    // LIBERADA cuyo stock aún no confirmó event-service (se reintenta tras el commit)
+    @Column(nullable = false)
+    private boolean stockPorRestaurar;
+    
     public enum EstadoReserva {
         ACTIVA,      // Reserva creada, stock decrementado, esperando pago
         CONFIRMADA,  // Pago exitoso, reserva confirmada
@@ -99,6 +107,22 @@ public class Reserva {
         this.fechaExpiracion = fechaExpiracion;
     }
     
+    public String getOperacionStockId() {
+        return operacionStockId;
+    }
+    
+    public void setOperacionStockId(String operacionStockId) {
+        this.operacionStockId = operacionStockId;
+    }
+    
+    public boolean isStockPorRestaurar() {
+        return stockPorRestaurar;
+    }
+    
+    public void setStockPorRestaurar(boolean stockPorRestaurar) {
+        this.stockPorRestaurar = stockPorRestaurar;
+    }
+    
     public EstadoReserva getEstado() {
         return estado;
     }
@@ -0,0 +1,41 @@
+package com.example.ticketservice.repository;
+
+import com.example.ticketservice.model.OutboxEvento;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface OutboxEventoRepository extends JpaRepository<OutboxEvento, Long> {
+
+    /**
+     * Siguiente lote listo para publicar, bloqueado para esta transacción.
+     * lock.timeout = -2 → SKIP LOCKED: varias instancias del relay se reparten las filas sin esperarse.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT o FROM OutboxEvento o WHERE o.estado = 'PENDIENTE' AND o.proximoIntento <= :ahora ORDER BY o.id")
+    List<OutboxEvento> findListosParaPublicar(Instant ahora, Pageable pageable);
+
+    @Query("SELECT COUNT(o) AS pendientes, MIN(o.creadoEn) AS masAntiguo FROM OutboxEvento o WHERE o.estado = 'PENDIENTE'")
+    ResumenPendientes resumirPendientes();
+
+    @Modifying
+    @Query("DELETE FROM OutboxEvento o WHERE o.estado <> 'PENDIENTE' AND o.publicadoEn < :limite")
+    int eliminarProcesadosAntesDe(Instant limite);
+
+    interface ResumenPendientes {
+        long getPendientes();
+
+        Instant getMasAntiguo();
+    }
+}
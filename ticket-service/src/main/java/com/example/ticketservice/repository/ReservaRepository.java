@@ -1,11 +1,16 @@
 package com.example.ticketservice.repository;
 
 import com.example.ticketservice.model.Reserva;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -17,4 +22,20 @@ public interface ReservaRepository extends JpaRepository<Reserva, Long> {
     List<Reserva> findReservasExpiradas(Instant now);
     
     List<Reserva> findByTipoEntradaIdAndEstado(Long tipoEntradaId, Reserva.EstadoReserva estado);
+    
+    List<Reserva> findByEstado(Reserva.EstadoReserva estado);
+    
+    @Query("SELECT r.id FROM Reserva r WHERE r.estado = 'ACTIVA' AND r.fechaExpiracion < :now")
+    List<Long> findIdsReservasExpiradas(Instant now);
+    
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM Reserva r WHERE r.id IN :ids AND r.estado = 'ACTIVA' AND r.fechaExpiracion <= :now ORDER BY r.id")
+    List<Reserva> findExpiradasParaLiberar(Collection<Long> ids, Instant now);
+    
+    @Query("SELECT r FROM Reserva r WHERE r.stockPorRestaurar = true ORDER BY r.id")
+    List<Reserva> findPendientesDeRestaurar(Pageable pageable);
+    
+    @Modifying
+    @Query("UPDATE Reserva r SET r.stockPorRestaurar = false WHERE r.id IN :ids")
+    int marcarStockRestaurado(Collection<Long> ids);
 }
@@ -0,0 +1,62 @@
+package com.example.ticketservice.service;
+
+import com.example.ticketservice.dto.CreateTicketRequest;
+import com.example.ticketservice.model.OutboxEvento;
+import com.example.ticketservice.model.Ticket;
+import com.example.ticketservice.repository.OutboxEventoRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Escritura en el outbox de notificaciones.
+ *
+ * Solo se puede llamar dentro de la transacción que crea el ticket (Propagation.MANDATORY):
+ * si esa transacción hace rollback tampoco queda la notificación, y si confirma la
+ * notificación queda registrada aunque notification-service no esté disponible.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class NotificationOutbox {
+
+    public static final String TICKET_COMPRADO = "TICKET_COMPRADO";
+
+    private final OutboxEventoRepository outboxRepository;
+    private final ObjectMapper objectMapper;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrarTicketComprado(Ticket ticket, CreateTicketRequest request) {
+        Map<String, Object> datos = new LinkedHashMap<>();
+        datos.put("ticketId", ticket.getTicketId());
+        datos.put("eventoNombre", ticket.getEventoNombre());
+        datos.put("tipoEntrada", ticket.getTipoEntradaNombre());
+        datos.put("cantidad", ticket.getCantidad());
+        datos.put("total", ticket.getTotalPagado());
+        datos.put("fechaEvento", request.getFechaEvento());
+
+        OutboxEvento evento = OutboxEvento.builder()
+                .tipo(TICKET_COMPRADO)
+                .clave(ticket.getTicketId())
+                .destinatario(request.getDestinatario())
+                .payload(aJson(datos))
+                .build();
+        outboxRepository.save(evento);
+        log.info("Notificación {} del ticket {} registrada en el outbox", TICKET_COMPRADO, ticket.getTicketId());
+    }
+
+    private String aJson(Map<String, Object> datos) {
+        try {
+            return objectMapper.writeValueAsString(datos);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar la notificación: " + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,329 @@
+package com.example.ticketservice.service;
+
+import com.example.ticketservice.model.OutboxEvento;
+import com.example.ticketservice.repository.OutboxEventoRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Relay del outbox de notificaciones: publica en notification-service lo que
+ * {@link NotificationOutbox} registró junto con cada ticket.
+ *
+ * FLUJO (cada outbox.relay.interval-ms):
+ * 1. En una transacción corta toma hasta outbox.relay.batch-size entradas PENDIENTE con
+ *    SELECT ... FOR UPDATE SKIP LOCKED (varias instancias de ticket-service no toman la misma fila)
+ *    y las reclama moviendo su proximoIntento outbox.relay.claim-timeout hacia adelante. Las de
+ *    payload ilegible pasan a DESCARTADO sin frenar al resto del lote.
+ * 2. Ya confirmado el reclamo (sin filas bloqueadas ni conexión JDBC retenida), las envía en UNA
+ *    petición a POST /api/notifications/send-batch, cada una con su ticketId como clave de idempotencia.
+ * 3. En otra transacción, las aceptadas pasan a PUBLICADO; si falla la llamada se reprograman con
+ *    backoff exponencial y se reintentan indefinidamente.
+ *
+ * La entrega es al-menos-una-vez: si el proceso cae tras reclamar o enviar un lote, sus entradas
+ * vuelven a estar listas al vencer el reclamo y se reenvían; notification-service las reconoce por
+ * la clave mientras conserve su registro (notification.queue.sent-retention) y no duplica el email.
+ *
+ * MÉTRICAS: outbox.pending, outbox.lag (segundos de la entrada pendiente más antigua),
+ * outbox.relay.batch.size, outbox.relay.published (tag result), outbox.relay.failures,
+ * outbox.relay.publish.latency y outbox.delivery.delay (de la transacción del ticket a la publicación).
+ */
+@Service
+public class OutboxRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+    private static final String FAILED = "FAILED";
+    private static final TypeReference<Map<String, Object>> MAPA = new TypeReference<>() {
+    };
+    private static final ParameterizedTypeReference<List<Map<String, Object>>> RESPUESTAS =
+            new ParameterizedTypeReference<>() {
+            };
+
+    private final OutboxEventoRepository outboxRepository;
+    private final RestTemplate restTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+
+    private final AtomicLong pendientes = new AtomicLong();
+    /** creadoEn (ms) de la entrada pendiente más antigua; 0 si no hay pendientes */
+    private final AtomicLong masAntigua = new AtomicLong();
+
+    private final DistributionSummary tamanoLotes;
+    private final Counter publicadas;
+    private final Counter descartadas;
+    private final Counter fallos;
+    private final Timer latenciaPublicacion;
+    private final Timer demoraEntrega;
+
+    @Value("${notification.service.url:http://localhost:8085}")
+    private String notificationServiceUrl;
+
+    @Value("${gateway.secret}")
+    private String gatewaySecret;
+
+    @Value("${outbox.relay.batch-size:100}")
+    private int tamanoLote;
+
+    @Value("${outbox.relay.max-batches-per-run:20}")
+    private int maxLotesPorCiclo;
+
+    @Value("${outbox.relay.initial-backoff-ms:1000}")
+    private long backoffInicialMs;
+
+    @Value("${outbox.relay.max-backoff-ms:60000}")
+    private long backoffMaxMs;
+
+    /** Debe superar la duración máxima de la petición (timeouts de conexión y de respuesta) */
+    @Value("${outbox.relay.claim-timeout:30s}")
+    private Duration reclamo;
+
+    @Value("${outbox.retencion:72h}")
+    private Duration retencion;
+
+    public OutboxRelay(OutboxEventoRepository outboxRepository,
+                       RestTemplate restTemplate,
+                       PlatformTransactionManager transactionManager,
+                       ObjectMapper objectMapper,
+                       MeterRegistry meterRegistry) {
+        this.outboxRepository = outboxRepository;
+        this.restTemplate = restTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+
+        Gauge.builder("outbox.pending", pendientes, AtomicLong::get)
+                .description("Entradas del outbox pendientes de publicar")
+                .register(meterRegistry);
+        Gauge.builder("outbox.lag", masAntigua, OutboxRelay::lagSegundos)
+                .description("Antigüedad de la entrada pendiente más antigua")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        this.tamanoLotes = DistributionSummary.builder("outbox.relay.batch.size")
+                .description("Entradas publicadas por petición a notification-service")
+                .register(meterRegistry);
+        this.publicadas = Counter.builder("outbox.relay.published")
+                .description("Entradas aceptadas por notification-service")
+                .tag("result", "published")
+                .register(meterRegistry);
+        this.descartadas = Counter.builder("outbox.relay.published")
+                .description("Entradas aceptadas por notification-service")
+                .tag("result", "discarded")
+                .register(meterRegistry);
+        this.fallos = Counter.builder("outbox.relay.failures")
+                .description("Lotes que no se pudieron publicar (se reintentan)")
+                .register(meterRegistry);
+        this.latenciaPublicacion = Timer.builder("outbox.relay.publish.latency")
+                .description("Duración de cada petición de publicación")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        this.demoraEntrega = Timer.builder("outbox.delivery.delay")
+                .description("Tiempo desde el commit del ticket hasta la publicación")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.relay.interval-ms:500}")
+    public void publicarPendientes() {
+        try {
+            for (int i = 0; i < maxLotesPorCiclo; i++) {
+                // Lote incompleto o fallido: no hay más trabajo listo por ahora
+                if (publicarLote() < tamanoLote) {
+                    break;
+                }
+            }
+        } catch (Exception e) {
+            log.error("ERROR en el relay del outbox: {}", e.getMessage());
+        } finally {
+            actualizarResumen();
+        }
+    }
+
+    /**
+     * Elimina las entradas ya procesadas con más de outbox.retencion de antigüedad.
+     */
+    @Scheduled(fixedDelayString = "${outbox.limpieza-ms:3600000}", initialDelayString = "${outbox.limpieza-ms:3600000}")
+    public void limpiar() {
+        Integer eliminadas = transactionTemplate.execute(status ->
+                outboxRepository.eliminarProcesadosAntesDe(Instant.now().minus(retencion)));
+        if (eliminadas != null && eliminadas > 0) {
+            log.info("Outbox: {} entradas procesadas eliminadas", eliminadas);
+        }
+    }
+
+    /**
+     * @return entradas tomadas en este lote (0 si no había o si la publicación falló)
+     */
+    private int publicarLote() {
+        Lote lote = transactionTemplate.execute(status -> reclamar());
+        if (lote == null || lote.eventos().isEmpty()) {
+            return lote != null ? lote.tomadas() : 0;
+        }
+
+        List<Map<String, Object>> respuestas;
+        long inicio = System.nanoTime();
+        try {
+            respuestas = enviar(lote);
+            latenciaPublicacion.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+        } catch (RuntimeException e) {
+            latenciaPublicacion.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+            fallos.increment();
+            transactionTemplate.executeWithoutResult(status -> reprogramar(lote.eventos(), e.getMessage()));
+            log.warn("Outbox: no se pudo publicar un lote de {} entradas, se reintentará: {}",
+                    lote.eventos().size(), e.getMessage());
+            return 0;
+        }
+
+        transactionTemplate.executeWithoutResult(status -> registrarRespuestas(lote.eventos(), respuestas));
+        tamanoLotes.record(lote.eventos().size());
+        log.info("Outbox: {} notificaciones publicadas en notification-service", lote.eventos().size());
+        return lote.tomadas();
+    }
+
+    /**
+     * Toma el siguiente lote y lo reclama hasta que termine la publicación.
+     */
+    private Lote reclamar() {
+        Instant ahora = Instant.now();
+        List<OutboxEvento> tomadas = outboxRepository.findListosParaPublicar(ahora, PageRequest.of(0, tamanoLote));
+        List<OutboxEvento> eventos = new ArrayList<>(tomadas.size());
+        List<Map<String, Object>> datos = new ArrayList<>(tomadas.size());
+        for (OutboxEvento evento : tomadas) {
+            try {
+                datos.add(objectMapper.readValue(evento.getPayload(), MAPA));
+            } catch (JsonProcessingException e) {
+                // Reintentar no arregla el payload: se descarta para no bloquear el resto del lote
+                evento.setIntentos(evento.getIntentos() + 1);
+                evento.setEstado(OutboxEvento.Estado.DESCARTADO);
+                evento.setPublicadoEn(ahora);
+                evento.setUltimoError(truncar("Payload inválido: " + e.getOriginalMessage()));
+                descartadas.increment();
+                log.error("Outbox: payload inválido en la entrada {} ({} del ticket {}), se descarta: {}",
+                        evento.getId(), evento.getTipo(), evento.getClave(), e.getOriginalMessage());
+                continue;
+            }
+            // Si el proceso cae antes de registrar el resultado, la entrada vuelve a estar lista al vencer
+            evento.setProximoIntento(ahora.plus(reclamo));
+            eventos.add(evento);
+        }
+        outboxRepository.saveAll(tomadas);
+        return new Lote(tomadas.size(), eventos, datos);
+    }
+
+    private void registrarRespuestas(List<OutboxEvento> eventos, List<Map<String, Object>> respuestas) {
+        Instant publicadoEn = Instant.now();
+        for (int i = 0; i < eventos.size(); i++) {
+            OutboxEvento evento = eventos.get(i);
+            Map<String, Object> respuesta = respuestas.get(i);
+            evento.setIntentos(evento.getIntentos() + 1);
+            evento.setPublicadoEn(publicadoEn);
+            if (FAILED.equals(respuesta.get("status"))) {
+                // Rechazo definitivo (p. ej. tipo no soportado): reintentar no cambia el resultado
+                evento.setEstado(OutboxEvento.Estado.DESCARTADO);
+                evento.setUltimoError(truncar(String.valueOf(respuesta.get("message"))));
+                descartadas.increment();
+                log.error("Outbox: notificación {} del ticket {} rechazada por notification-service: {}",
+                        evento.getTipo(), evento.getClave(), respuesta.get("message"));
+            } else {
+                evento.setEstado(OutboxEvento.Estado.PUBLICADO);
+                publicadas.increment();
+                demoraEntrega.record(Duration.between(evento.getCreadoEn(), publicadoEn));
+            }
+        }
+        outboxRepository.saveAll(eventos);
+    }
+
+    private List<Map<String, Object>> enviar(Lote lote) {
+        List<Map<String, Object>> notificaciones = new ArrayList<>(lote.eventos().size());
+        for (int i = 0; i < lote.eventos().size(); i++) {
+            OutboxEvento evento = lote.eventos().get(i);
+            Map<String, Object> notificacion = new LinkedHashMap<>();
+            notificacion.put("tipo", evento.getTipo());
+            notificacion.put("destinatario", evento.getDestinatario());
+            notificacion.put("datos", lote.datos().get(i));
+            notificacion.put("claveIdempotencia", evento.getTipo() + ":" + evento.getClave());
+            notificaciones.add(notificacion);
+        }
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("X-Gateway-Secret", gatewaySecret);
+        headers.setContentType(MediaType.APPLICATION_JSON);
+
+        List<Map<String, Object>> respuestas = restTemplate.exchange(
+                notificationServiceUrl + "/api/notifications/send-batch", HttpMethod.POST,
+                new HttpEntity<>(notificaciones, headers), RESPUESTAS).getBody();
+        if (respuestas == null || respuestas.size() != notificaciones.size()) {
+            throw new IllegalStateException("Respuesta inesperada de notification-service: "
+                    + (respuestas == null ? "vacía" : respuestas.size() + " resultados para " + notificaciones.size()));
+        }
+        return respuestas;
+    }
+
+    private void reprogramar(List<OutboxEvento> lote, String error) {
+        for (OutboxEvento evento : lote) {
+            int intentos = evento.getIntentos() + 1;
+            long backoff = Math.min(backoffMaxMs, backoffInicialMs << Math.min(intentos - 1, 20));
+            backoff = (long) (backoff * ThreadLocalRandom.current().nextDouble(0.8, 1.2));
+            evento.setIntentos(intentos);
+            evento.setProximoIntento(Instant.now().plusMillis(backoff));
+            evento.setUltimoError(truncar(error));
+        }
+        outboxRepository.saveAll(lote);
+    }
+
+    private void actualizarResumen() {
+        try {
+            OutboxEventoRepository.ResumenPendientes resumen = outboxRepository.resumirPendientes();
+            pendientes.set(resumen.getPendientes());
+            masAntigua.set(resumen.getMasAntiguo() != null ? resumen.getMasAntiguo().toEpochMilli() : 0);
+        } catch (Exception e) {
+            log.warn("Outbox: no se pudo actualizar el resumen de pendientes: {}", e.getMessage());
+        }
+    }
+
+    private static double lagSegundos(AtomicLong masAntigua) {
+        long creado = masAntigua.get();
+        return creado == 0 ? 0 : Math.max(0, System.currentTimeMillis() - creado) / 1000.0;
+    }
+
+    private static String truncar(String mensaje) {
+        if (mensaje == null) {
+            return null;
+        }
+        return mensaje.length() > 500 ? mensaje.substring(0, 500) : mensaje;
+    }
+
+    /**
+     * Lote reclamado: las entradas a enviar con sus datos, y cuántas se tomaron en total
+     * (incluidas las descartadas por payload inválido).
+     */
+    private record Lote(int tomadas, List<OutboxEvento> eventos, List<Map<String, Object>> datos) {
+    }
+}
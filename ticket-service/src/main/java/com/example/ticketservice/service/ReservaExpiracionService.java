@@ -0,0 +1,265 @@
+package com.example.ticketservice.service;
+
+import com.example.ticketservice.model.Reserva;
+import com.example.ticketservice.repository.ReservaRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Collectors;
+
+/**
+ * Motor de expiración de reservas basado en un timing wheel jerárquico.
+ *
+ * Cada reserva ACTIVA se programa en memoria con su fechaExpiracion; un tick por segundo
+ * entrega solo las vencidas (sin barrer la tabla reservas). Las vencidas de un mismo tick se
+ * liberan juntas: un UPDATE de estado y UNA llamada de stock a event-service.
+ *
+ * La liberación se hace en dos pasos: primero se marcan LIBERADA con stockPorRestaurar y se
+ * hace commit; después, en un hilo propio (no en el del scheduler), se restaura el stock con
+ * liberar-lote usando la clave de idempotencia de cada reserva. Si la llamada falla o no se
+ * sabe si se aplicó, se repite más tarde con las mismas claves sin restaurar dos veces.
+ *
+ * Al arrancar se reconstruye desde la BD con todas las reservas ACTIVAS.
+ */
+@Service
+public class ReservaExpiracionService {
+
+    private static final Logger log = LoggerFactory.getLogger(ReservaExpiracionService.class);
+    private static final long TICK_MS = 1000;
+    private static final int WHEEL_SIZE = 64;
+    private static final long REINTENTO_MS = 5000;
+    private static final int LOTE_RESTAURACION = 100;
+
+    private final ReservaRepository reservaRepository;
+    private final RestTemplate restTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    /** Reservas programadas: reservaId → expiración (ms). Una baja aquí cancela el timer. */
+    private final Map<Long, Long> programadas = new ConcurrentHashMap<>();
+    private final TimingWheel<Long> wheel = new TimingWheel<>(TICK_MS, WHEEL_SIZE, System.currentTimeMillis());
+    /** Un solo hilo: las restauraciones no compiten entre sí ni bloquean el tick */
+    private final ExecutorService restauraciones = Executors.newSingleThreadExecutor(tarea -> {
+        Thread hilo = new Thread(tarea, "restauracion-stock");
+        hilo.setDaemon(true);
+        return hilo;
+    });
+
+    @Value("${event.service.url:http://localhost:8082}")
+    private String eventServiceUrl;
+
+    @Value("${gateway.secret}")
+    private String gatewaySecret;
+
+    public ReservaExpiracionService(ReservaRepository reservaRepository,
+                                    RestTemplate restTemplate,
+                                    PlatformTransactionManager transactionManager) {
+        this.reservaRepository = reservaRepository;
+        this.restTemplate = restTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Reconstruye el wheel con las reservas ACTIVAS persistidas (las ya vencidas salen en el primer tick).
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconstruir() {
+        List<Reserva> activas = reservaRepository.findByEstado(Reserva.EstadoReserva.ACTIVA);
+        activas.forEach(reserva -> programar(reserva.getId(), reserva.getFechaExpiracion()));
+        log.info("Motor de expiración reconstruido con {} reservas activas", activas.size());
+    }
+
+    @PreDestroy
+    public void detener() {
+        restauraciones.shutdown();
+    }
+
+    /**
+     * Programa la expiración. Dentro de una transacción se aplaza al commit, para no
+     * expirar una reserva que nunca llegó a persistirse.
+     */
+    public void programar(Long reservaId, Instant fechaExpiracion) {
+        trasCommit(() -> programar(reservaId, fechaExpiracion.toEpochMilli()));
+    }
+
+    /**
+     * Cancela el timer de una reserva confirmada o liberada manualmente (tras el commit si
+     * hay transacción: si ésta hace rollback la reserva sigue ACTIVA y debe expirar).
+     */
+    public void cancelar(Long reservaId) {
+        trasCommit(() -> programadas.remove(reservaId));
+    }
+
+    /**
+     * Restaura el stock de reservas ya marcadas LIBERADA con stockPorRestaurar,
+     * una vez hecho commit de esa marca.
+     */
+    public void restaurarStockTrasCommit(List<Reserva> reservas) {
+        trasCommit(() -> restaurarStockEnSegundoPlano(reservas));
+    }
+
+    @Scheduled(fixedRate = TICK_MS)
+    public void tick() {
+        long ahora = System.currentTimeMillis();
+        List<Long> vencidas = new ArrayList<>();
+        synchronized (wheel) {
+            for (Long reservaId : wheel.advance(ahora)) {
+                Long expiracion = programadas.get(reservaId);
+                // null = cancelada; expiración distinta = reprogramada, la entrada vieja se descarta
+                if (expiracion != null && expiracion <= ahora) {
+                    vencidas.add(reservaId);
+                }
+            }
+        }
+        if (!vencidas.isEmpty()) {
+            liberarExpiradas(vencidas);
+        }
+    }
+
+    /**
+     * Reintenta las restauraciones de stock que quedaron pendientes (event-service caído,
+     * timeout o reinicio del proceso entre el commit y la llamada).
+     */
+    @Scheduled(fixedDelayString = "${reservas.restauracion.reintento-ms:5000}",
+            initialDelayString = "${reservas.restauracion.reintento-ms:5000}")
+    public void reintentarRestauraciones() {
+        // Se lee dentro del hilo de restauración: las tareas ya encoladas terminan antes
+        restauraciones.execute(() -> {
+            try {
+                List<Reserva> pendientes = reservaRepository.findPendientesDeRestaurar(PageRequest.of(0, LOTE_RESTAURACION));
+                if (!pendientes.isEmpty()) {
+                    log.info("Reintentando la restauración de stock de {} reservas liberadas", pendientes.size());
+                    restaurarStock(pendientes);
+                }
+            } catch (Exception e) {
+                log.error("ERROR leyendo restauraciones de stock pendientes: {}", e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Libera en bloque las reservas indicadas que sigan ACTIVAS y vencidas.
+     * Solo toca la BD; la restauración de stock se hace tras el commit en otro hilo.
+     * Si la transacción falla, nada cambia y se reprograman para reintentar.
+     */
+    public void liberarExpiradas(Collection<Long> reservaIds) {
+        try {
+            List<Reserva> liberadas = transactionTemplate.execute(status -> {
+                List<Reserva> expiradas = reservaRepository.findExpiradasParaLiberar(reservaIds, Instant.now());
+                expiradas.forEach(reserva -> {
+                    reserva.setEstado(Reserva.EstadoReserva.LIBERADA);
+                    reserva.setStockPorRestaurar(true);
+                });
+                return reservaRepository.saveAll(expiradas);
+            });
+
+            reservaIds.forEach(programadas::remove);
+            if (liberadas != null && !liberadas.isEmpty()) {
+                log.info("Expiración: {} reservas liberadas en {} tipos de entrada", liberadas.size(),
+                        liberadas.stream().map(Reserva::getTipoEntradaId).distinct().count());
+                restaurarStockEnSegundoPlano(liberadas);
+            }
+        } catch (Exception e) {
+            log.error("ERROR liberando {} reservas expiradas, se reintentará: {}", reservaIds.size(), e.getMessage());
+            long reintento = System.currentTimeMillis() + REINTENTO_MS;
+            reservaIds.forEach(id -> {
+                if (programadas.containsKey(id)) {
+                    programar(id, reintento);
+                }
+            });
+        }
+    }
+
+    private void restaurarStockEnSegundoPlano(List<Reserva> reservas) {
+        try {
+            restauraciones.execute(() -> restaurarStock(reservas));
+        } catch (RejectedExecutionException e) {
+            // Apagando: quedan con stockPorRestaurar y las recoge el reintento al arrancar
+            log.warn("Restauración de stock de {} reservas aplazada: el servicio se está deteniendo", reservas.size());
+        }
+    }
+
+    /**
+     * Una sola llamada liberar-lote con una línea por reserva y su clave de idempotencia;
+     * event-service agrupa por tipo de entrada. Las reservas creadas antes de existir las
+     * claves se envían sin ella.
+     */
+    private void restaurarStock(List<Reserva> reservas) {
+        List<Map<String, Object>> lineas = reservas.stream()
+                .map(reserva -> {
+                    Map<String, Object> linea = new HashMap<>();
+                    linea.put("tipoEntradaId", reserva.getTipoEntradaId());
+                    linea.put("cantidad", reserva.getCantidad());
+                    if (reserva.getOperacionStockId() != null) {
+                        linea.put("operacionId", reserva.getOperacionStockId());
+                    }
+                    return linea;
+                })
+                .collect(Collectors.toList());
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("X-Gateway-Secret", gatewaySecret);
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        HttpEntity<Map<String, Object>> entity = new HttpEntity<>(Map.of("lineas", lineas), headers);
+
+        try {
+            restTemplate.exchange(eventServiceUrl + "/api/tipos-entrada/liberar-lote", HttpMethod.PUT, entity, Void.class);
+            List<Long> ids = reservas.stream().map(Reserva::getId).collect(Collectors.toList());
+            transactionTemplate.executeWithoutResult(status -> reservaRepository.marcarStockRestaurado(ids));
+        } catch (Exception e) {
+            log.error("ERROR restaurando el stock de {} reservas liberadas, se reintentará: {}", reservas.size(), e.getMessage());
+        }
+    }
+
+    private static void trasCommit(Runnable accion) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            accion.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                accion.run();
+            }
+        });
+    }
+
+    private void programar(Long reservaId, long expiracionMs) {
+        programadas.put(reservaId, expiracionMs);
+        boolean programada;
+        synchronized (wheel) {
+            programada = wheel.add(reservaId, expiracionMs);
+        }
+        if (!programada) {
+            // Ya vencida: entra en el siguiente tick
+            synchronized (wheel) {
+                wheel.add(reservaId, System.currentTimeMillis() + TICK_MS);
+            }
+        }
+    }
+}
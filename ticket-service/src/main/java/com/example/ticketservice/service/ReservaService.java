@@ -1,10 +1,12 @@
 package com.example.ticketservice.service;
 
+import com.example.ticketservice.dto.CreateReservaLoteRequest;
 import com.example.ticketservice.dto.CreateReservaRequest;
 import com.example.ticketservice.dto.ReservaDto;
 import com.example.ticketservice.exception.InsufficientStockException;
 import com.example.ticketservice.exception.ReservaExpiredException;
 import com.example.ticketservice.exception.ReservaNotFoundException;
+import com.example.ticketservice.exception.StockServiceUnavailableException;
 import com.example.ticketservice.model.Reserva;
 import com.example.ticketservice.repository.ReservaRepository;
 import org.slf4j.Logger;
@@ -12,15 +14,25 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.sql.Timestamp;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
 @Service
@@ -35,6 +47,12 @@ public class ReservaService {
     @Autowired
     private RestTemplate restTemplate;
     
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private ReservaExpiracionService reservaExpiracionService;
+    
     @Value("${event.service.url:http://localhost:8082}")
     private String eventServiceUrl;
     
@@ -42,7 +60,8 @@ public class ReservaService {
     private String gatewaySecret;
     
     /**
-     * Crear una reserva temporal (decrementa el stock en event-service)
+     * Crear una reserva temporal (decrementa el stock en event-service con reservar-lote,
+     * como un lote de una línea, para que la reserva tenga clave de idempotencia)
      */
     @Transactional
     public ReservaDto crearReserva(CreateReservaRequest request) {
@@ -53,25 +72,7 @@ public class ReservaService {
         log.info("║ Usuario ID:      {}", request.getUsuarioId());
         log.info("║ Cantidad:        {}", request.getCantidad());
         
-        try {
-            // Decrementar stock en event-service
-            String url = eventServiceUrl + "/api/tipos-entrada/" + request.getTipoEntradaId() + "/disminuir?cantidad=" + request.getCantidad();
-            
-            HttpHeaders headers = new HttpHeaders();
-            headers.set("X-Gateway-Secret", gatewaySecret);
-            
-            HttpEntity<Void> entity = new HttpEntity<>(headers);
-            
-            restTemplate.exchange(url, HttpMethod.PUT, entity, Map.class);
-            log.info("║ Stock decrementado en event-service                    ║");
-            
-        } catch (Exception e) {
-            log.error("║ RESULTADO:       ❌ ERROR - {}                  ║", e.getMessage());
-            log.info("═══════════════════════════════════════════════════════════");
-            throw new InsufficientStockException("No hay stock disponible para este tipo de entrada");
-        }
-        
-        // Crear reserva con expiración de 10 minutos
+        // Crear reserva con expiración de 10 minutos y su clave de idempotencia en event-service
         Instant expiracion = Instant.now().plusSeconds(EXPIRACION_MINUTOS * 60);
         Reserva reserva = new Reserva(
             request.getTipoEntradaId(),
@@ -79,8 +80,19 @@ public class ReservaService {
             request.getCantidad(),
             expiracion
         );
+        reserva.setOperacionStockId(UUID.randomUUID().toString());
         
-        reserva = reservaRepository.save(reserva);
+        HttpEntity<Map<String, Object>> entity = reservarStock(List.of(reserva),
+            "No hay stock disponible para este tipo de entrada");
+        
+        try {
+            reserva = reservaRepository.saveAndFlush(reserva);
+        } catch (Exception e) {
+            log.error("║ ERROR guardando la reserva, restaurando stock: {}", e.getMessage());
+            liberarStockLote(entity);
+            throw new RuntimeException("Error al crear la reserva: " + e.getMessage());
+        }
+        reservaExpiracionService.programar(reserva.getId(), reserva.getFechaExpiracion());
         
         log.info("║ Reserva ID:      {}", reserva.getId());
         log.info("║ Expira en:       {} minutos", EXPIRACION_MINUTOS);
@@ -90,6 +102,142 @@ public class ReservaService {
         return ReservaDto.fromEntity(reserva);
     }
     
+    /**
+     * Crear reservas para varios tipos de entrada (carrito) de forma atómica.
+     * Una sola llamada de stock en lote a event-service y un único INSERT multi-fila;
+     * si el INSERT falla se restaura el stock de todo el lote.
+     */
+    @Transactional
+    public List<ReservaDto> crearReservaLote(CreateReservaLoteRequest request) {
+        log.info("═══════════════════════════════════════════════════════════");
+        log.info("║ CREANDO RESERVA EN LOTE                                 ║");
+        log.info("═══════════════════════════════════════════════════════════");
+        log.info("║ Usuario ID:      {}", request.getUsuarioId());
+        log.info("║ Líneas:          {}", request.getLineas().size());
+        
+        // Cada línea lleva su clave de idempotencia: permite compensar sin saber si el lote se aplicó
+        Instant expiracion = Instant.now().plusSeconds(EXPIRACION_MINUTOS * 60);
+        List<Reserva> reservas = new ArrayList<>(request.getLineas().size());
+        request.getLineas().forEach(linea -> {
+            Reserva reserva = new Reserva(
+                linea.getTipoEntradaId(),
+                request.getUsuarioId(),
+                linea.getCantidad(),
+                expiracion
+            );
+            reserva.setOperacionStockId(UUID.randomUUID().toString());
+            reservas.add(reserva);
+        });
+        
+        HttpEntity<Map<String, Object>> entity = reservarStock(reservas,
+            "No hay stock disponible para uno o más tipos de entrada del lote");
+        
+        try {
+            insertarReservas(reservas);
+        } catch (Exception e) {
+            log.error("║ ERROR guardando reservas, restaurando stock del lote: {}", e.getMessage());
+            liberarStockLote(entity);
+            throw new RuntimeException("Error al crear la reserva en lote: " + e.getMessage());
+        }
+        reservas.forEach(reserva -> reservaExpiracionService.programar(reserva.getId(), reserva.getFechaExpiracion()));
+        
+        log.info("║ Reservas IDs:    {}", reservas.stream().map(Reserva::getId).collect(Collectors.toList()));
+        log.info("║ Expira en:       {} minutos", EXPIRACION_MINUTOS);
+        log.info("║ RESULTADO:       ✅ LOTE RESERVADO EXITOSAMENTE         ║");
+        log.info("═══════════════════════════════════════════════════════════");
+        
+        return reservas.stream()
+            .map(ReservaDto::fromEntity)
+            .collect(Collectors.toList());
+    }
+    
+    /**
+     * Descuenta el stock de las reservas en event-service (reservar-lote, todo o nada) con la
+     * clave de idempotencia de cada una.
+     *
+     * @return la petición enviada, para compensarla con liberarStockLote
+     * @throws InsufficientStockException si event-service rechaza el lote (4xx, no se descontó nada)
+     * @throws StockServiceUnavailableException si la respuesta es ambigua; el lote ya se liberó
+     */
+    private HttpEntity<Map<String, Object>> reservarStock(List<Reserva> reservas, String mensajeSinStock) {
+        List<Map<String, Object>> lineas = reservas.stream()
+            .map(reserva -> Map.<String, Object>of(
+                "tipoEntradaId", reserva.getTipoEntradaId(),
+                "cantidad", reserva.getCantidad(),
+                "operacionId", reserva.getOperacionStockId()))
+            .collect(Collectors.toList());
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("X-Gateway-Secret", gatewaySecret);
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        HttpEntity<Map<String, Object>> entity = new HttpEntity<>(Map.of("lineas", lineas), headers);
+        
+        try {
+            restTemplate.exchange(eventServiceUrl + "/api/tipos-entrada/reservar-lote", HttpMethod.PUT, entity, List.class);
+            log.info("║ Stock decrementado en event-service                    ║");
+            return entity;
+            
+        } catch (HttpClientErrorException e) {
+            // 4xx: event-service rechazó el lote dentro de su transacción, no se descontó nada
+            log.error("║ RESULTADO:       ❌ STOCK RECHAZADO ({}) - {}", e.getStatusCode().value(), e.getResponseBodyAsString());
+            log.info("═══════════════════════════════════════════════════════════");
+            throw new InsufficientStockException(mensajeSinStock);
+            
+        } catch (RestClientException e) {
+            // Timeout, error de conexión o 5xx: el descuento pudo aplicarse igualmente
+            log.error("║ RESULTADO:       ❌ RESPUESTA AMBIGUA - {}, liberando el stock", e.getMessage());
+            log.info("═══════════════════════════════════════════════════════════");
+            liberarStockLote(entity);
+            throw new StockServiceUnavailableException("No se pudo confirmar la reserva de stock", e);
+        }
+    }
+    
+    /**
+     * Compensación del lote con las mismas claves de idempotencia: event-service solo restaura
+     * las líneas que llegó a descontar y anula las que aún no ha aplicado, así que es segura
+     * aunque no se sepa si la reserva se hizo.
+     */
+    private void liberarStockLote(HttpEntity<Map<String, Object>> entity) {
+        try {
+            restTemplate.exchange(eventServiceUrl + "/api/tipos-entrada/liberar-lote", HttpMethod.PUT, entity, Void.class);
+        } catch (Exception compensacion) {
+            log.error("║ ERROR restaurando stock del lote {}: {}", entity.getBody(), compensacion.getMessage());
+        }
+    }
+    
+    /**
+     * INSERT multi-fila de reservas. Con IDENTITY Hibernate no puede agrupar inserts,
+     * así que se hace por JDBC y se asignan los IDs generados (consecutivos en MySQL).
+     */
+    private void insertarReservas(List<Reserva> reservas) {
+        StringBuilder sql = new StringBuilder(
+            "INSERT INTO reservas (tipo_entrada_id, usuario_id, cantidad, fecha_creacion, fecha_expiracion, estado, operacion_stock_id, stock_por_restaurar) VALUES ");
+        for (int i = 0; i < reservas.size(); i++) {
+            sql.append(i == 0 ? "(?, ?, ?, ?, ?, ?, ?, ?)" : ", (?, ?, ?, ?, ?, ?, ?, ?)");
+        }
+        
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.update(connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql.toString(), Statement.RETURN_GENERATED_KEYS);
+            int i = 1;
+            for (Reserva reserva : reservas) {
+                ps.setLong(i++, reserva.getTipoEntradaId());
+                ps.setLong(i++, reserva.getUsuarioId());
+                ps.setInt(i++, reserva.getCantidad());
+                ps.setTimestamp(i++, Timestamp.from(reserva.getFechaCreacion()));
+                ps.setTimestamp(i++, Timestamp.from(reserva.getFechaExpiracion()));
+                ps.setString(i++, reserva.getEstado().name());
+                ps.setString(i++, reserva.getOperacionStockId());
+                ps.setBoolean(i++, reserva.isStockPorRestaurar());
+            }
+            return ps;
+        }, keyHolder);
+        
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        for (int i = 0; i < reservas.size(); i++) {
+            reservas.get(i).setId(((Number) keys.get(i).values().iterator().next()).longValue());
+        }
+    }
+    
     /**
      * Confirmar reserva (pago exitoso)
      */
@@ -118,6 +266,7 @@ public class ReservaService {
         
         reserva.setEstado(Reserva.EstadoReserva.CONFIRMADA);
         reserva = reservaRepository.save(reserva);
+        reservaExpiracionService.cancelar(reservaId);
         
         log.info("║ RESULTADO: ✅ RESERVA CONFIRMADA - Stock ya decrementado");
         log.info("═══════════════════════════════════════════════════════════");
@@ -126,7 +275,8 @@ public class ReservaService {
     }
     
     /**
-     * Liberar reserva (pago fallido o cancelación manual)
+     * Liberar reserva (pago fallido o cancelación manual).
+     * El stock se restaura tras el commit, en segundo plano y con reintentos.
      */
     @Transactional
     public ReservaDto liberarReserva(Long reservaId) {
@@ -144,27 +294,15 @@ public class ReservaService {
             return ReservaDto.fromEntity(reserva);
         }
         
-        try {
-            // Incrementar stock en event-service
-            String url = eventServiceUrl + "/api/tipos-entrada/" + reserva.getTipoEntradaId() + "/incrementar?cantidad=" + reserva.getCantidad();
-            
-            HttpHeaders headers = new HttpHeaders();
-            headers.set("X-Gateway-Secret", gatewaySecret);
-            
-            HttpEntity<Void> entity = new HttpEntity<>(headers);
-            
-            restTemplate.exchange(url, HttpMethod.PUT, entity, Map.class);
-            log.info("║ Stock restaurado en event-service (+{})", reserva.getCantidad());
-            
-        } catch (Exception e) {
-            log.error("║ ERROR restaurando stock: {}", e.getMessage());
-            throw new RuntimeException("Error al restaurar stock: " + e.getMessage());
-        }
-        
+        // Se marca y se hace commit antes de tocar el stock: un reintento o un rollback no puede
+        // restaurarlo dos veces (la restauración usa la clave de idempotencia de la reserva)
         reserva.setEstado(Reserva.EstadoReserva.LIBERADA);
+        reserva.setStockPorRestaurar(true);
         reserva = reservaRepository.save(reserva);
+        reservaExpiracionService.cancelar(reservaId);
+        reservaExpiracionService.restaurarStockTrasCommit(List.of(reserva));
         
-        log.info("║ RESULTADO: ✅ RESERVA LIBERADA - Stock restaurado");
+        log.info("║ RESULTADO: ✅ RESERVA LIBERADA - Stock en restauración (+{})", reserva.getCantidad());
         log.info("═══════════════════════════════════════════════════════════");
         
         return ReservaDto.fromEntity(reserva);
@@ -181,26 +319,20 @@ public class ReservaService {
     }
     
     /**
-     * Job automático para liberar reservas expiradas
-     * Se ejecuta cada 30 segundos
+     * Barrido de respaldo para reservas expiradas.
+     * La expiración normal la dispara ReservaExpiracionService (~1s tras vencer); este job
+     * solo recoge lo que el motor en memoria no conoce (p. ej. reservas creadas por otra instancia).
      */
-    @Scheduled(fixedDelay = 30000) // 30 segundos
-    @Transactional
+    @Scheduled(fixedDelayString = "${reservas.expiracion.barrido-ms:300000}")
     public void liberarReservasExpiradas() {
-        List<Reserva> expiradas = reservaRepository.findReservasExpiradas(Instant.now());
+        List<Long> expiradas = reservaRepository.findIdsReservasExpiradas(Instant.now());
         
         if (!expiradas.isEmpty()) {
             log.info("═══════════════════════════════════════════════════════════");
             log.info("║ JOB: Liberando {} reservas expiradas", expiradas.size());
             log.info("═══════════════════════════════════════════════════════════");
             
-            for (Reserva reserva : expiradas) {
-                try {
-                    liberarReserva(reserva.getId());
-                } catch (Exception e) {
-                    log.error("║ ERROR al liberar reserva {}: {}", reserva.getId(), e.getMessage());
-                }
-            }
+            reservaExpiracionService.liberarExpiradas(expiradas);
         }
     }
 }
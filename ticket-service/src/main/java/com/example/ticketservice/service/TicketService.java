@@ -23,6 +23,7 @@ import java.util.stream.Collectors;
  * - Generar Ticket ID único (formato: TKT-XXXXXXXX)
  * - Persistir en base de datos exclusiva
  * - Consultar tickets por usuario, ID o listar todos
+ * - Registrar la notificación de compra en el outbox (la publica {@link OutboxRelay})
  * 
  * IMPORTANTE - SEPARACIÓN DE SERVICIOS:
  * Este servicio es el ÚNICO que:
@@ -39,6 +40,7 @@ import java.util.stream.Collectors;
 public class TicketService {
 
     private final TicketRepository ticketRepository;
+    private final NotificationOutbox notificationOutbox;
 
     @Transactional
     public TicketResponse crearTicket(CreateTicketRequest request) {
@@ -59,6 +61,11 @@ public class TicketService {
         
         ticket = ticketRepository.save(ticket);
         log.info("Ticket creado: {}", ticket.getTicketId());
+
+        // Misma transacción: el email de confirmación queda garantizado si el ticket existe
+        if (request.getDestinatario() != null && !request.getDestinatario().isBlank()) {
+            notificationOutbox.registrarTicketComprado(ticket, request);
+        }
         
         return toResponse(ticket);
     }
@@ -0,0 +1,117 @@
+package com.example.ticketservice.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Timing wheel jerárquico (estilo Kafka/Netty) para programar expiraciones.
+ *
+ * El nivel 0 tiene buckets de {@code tickMs}; cada nivel superior usa como tick el rango
+ * completo del nivel inferior. Agregar y avanzar cuestan O(1) por entrada, sin importar
+ * cuántas reservas activas haya. Cuando vence un bucket de un nivel superior sus entradas
+ * se redistribuyen ("cascada") hacia niveles más finos.
+ *
+ * Un elemento nunca se entrega antes de su expiración: como máximo un tick después.
+ * No es thread-safe: el llamador debe sincronizar el acceso.
+ */
+class TimingWheel<T> {
+
+    private final long tickMs;
+    private final int wheelSize;
+    private final long intervalMs;
+    private final List<List<Entrada<T>>> buckets;
+    private long currentTime;
+    private TimingWheel<T> overflowWheel;
+
+    TimingWheel(long tickMs, int wheelSize, long startMs) {
+        this.tickMs = tickMs;
+        this.wheelSize = wheelSize;
+        this.intervalMs = tickMs * wheelSize;
+        this.currentTime = startMs - (startMs % tickMs);
+        this.buckets = new ArrayList<>(wheelSize);
+        for (int i = 0; i < wheelSize; i++) {
+            buckets.add(new ArrayList<>());
+        }
+    }
+
+    /**
+     * Programa un elemento.
+     *
+     * @return false si ya venció (el llamador debe procesarlo de inmediato)
+     */
+    boolean add(T elemento, long expiracionMs) {
+        // Se redondea hacia arriba al tick para no entregar nunca antes de tiempo
+        return add(new Entrada<>(elemento, expiracionMs + tickMs - 1));
+    }
+
+    /**
+     * Avanza el reloj hasta {@code nowMs} y devuelve los elementos vencidos.
+     */
+    List<T> advance(long nowMs) {
+        List<T> vencidos = new ArrayList<>();
+        while (nowMs >= currentTime + tickMs) {
+            currentTime += tickMs;
+            List<Entrada<T>> drenadas = drenar(currentTime);
+            if (overflowWheel != null) {
+                drenadas.addAll(overflowWheel.avanzarHasta(currentTime));
+            }
+            for (Entrada<T> entrada : drenadas) {
+                if (!add(entrada)) {
+                    vencidos.add(entrada.elemento);
+                }
+            }
+        }
+        return vencidos;
+    }
+
+    private boolean add(Entrada<T> entrada) {
+        if (entrada.deadlineMs < currentTime + tickMs) {
+            return false;
+        }
+        if (entrada.deadlineMs < currentTime + intervalMs) {
+            buckets.get(indice(entrada.deadlineMs)).add(entrada);
+            return true;
+        }
+        if (overflowWheel == null) {
+            overflowWheel = new TimingWheel<>(intervalMs, wheelSize, currentTime);
+        }
+        return overflowWheel.add(entrada);
+    }
+
+    /**
+     * Avance de un nivel superior: no entrega elementos, devuelve las entradas de los
+     * buckets vencidos para que el nivel inferior las vuelva a ubicar.
+     */
+    private List<Entrada<T>> avanzarHasta(long nowMs) {
+        List<Entrada<T>> drenadas = new ArrayList<>();
+        while (nowMs >= currentTime + tickMs) {
+            currentTime += tickMs;
+            drenadas.addAll(drenar(currentTime));
+            if (overflowWheel != null) {
+                drenadas.addAll(overflowWheel.avanzarHasta(currentTime));
+            }
+        }
+        return drenadas;
+    }
+
+    private List<Entrada<T>> drenar(long tiempo) {
+        List<Entrada<T>> bucket = buckets.get(indice(tiempo));
+        List<Entrada<T>> drenadas = new ArrayList<>(bucket);
+        bucket.clear();
+        return drenadas;
+    }
+
+    private int indice(long tiempoMs) {
+        return (int) ((tiempoMs / tickMs) % wheelSize);
+    }
+
+    private static final class Entrada<T> {
+        private final T elemento;
+        private final long deadlineMs;
+
+        private Entrada(T elemento, long deadlineMs) {
+            this.elemento = elemento;
+            this.deadlineMs = deadlineMs;
+        }
+    }
+}
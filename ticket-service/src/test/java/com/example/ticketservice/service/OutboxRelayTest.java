@@ -0,0 +1,115 @@
+package com.example.ticketservice.service;
+
+import com.example.ticketservice.model.OutboxEvento;
+import com.example.ticketservice.repository.OutboxEventoRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.client.RestTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.jsonPath;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withServerError;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+/**
+ * Publicación del outbox: un payload ilegible no frena al resto del lote, y la llamada a
+ * notification-service se hace con el lote ya reclamado y sin transacción abierta.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE,
+        properties = "spring.datasource.url=jdbc:h2:mem:ticket_db_outbox;MODE=MySQL;DB_CLOSE_DELAY=-1")
+@ActiveProfiles("test")
+class OutboxRelayTest {
+
+    private static final String SEND_BATCH = "http://localhost:8085/api/notifications/send-batch";
+
+    @Autowired
+    private OutboxRelay relay;
+
+    @Autowired
+    private OutboxEventoRepository outboxRepository;
+
+    @Autowired
+    private RestTemplate restTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private MockRestServiceServer notificationService;
+
+    @BeforeEach
+    void preparar() {
+        outboxRepository.deleteAll();
+        notificationService = MockRestServiceServer.bindTo(restTemplate).build();
+    }
+
+    @Test
+    void payloadIlegibleSeDescartaYElRestoSePublica() {
+        OutboxEvento primero = registrar("TKT-1", "{\"ticketId\":\"TKT-1\"}");
+        OutboxEvento ilegible = registrar("TKT-2", "{no es json");
+        OutboxEvento tercero = registrar("TKT-3", "{\"ticketId\":\"TKT-3\"}");
+
+        notificationService.expect(requestTo(SEND_BATCH))
+                .andExpect(method(HttpMethod.POST))
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].claveIdempotencia").value("TICKET_COMPRADO:TKT-1"))
+                .andExpect(jsonPath("$[1].claveIdempotencia").value("TICKET_COMPRADO:TKT-3"))
+                .andRespond(withSuccess("[{\"status\":\"QUEUED\"},{\"status\":\"QUEUED\"}]", MediaType.APPLICATION_JSON));
+
+        relay.publicarPendientes();
+
+        notificationService.verify();
+        assertThat(estado(primero)).isEqualTo(OutboxEvento.Estado.PUBLICADO);
+        assertThat(estado(tercero)).isEqualTo(OutboxEvento.Estado.PUBLICADO);
+        OutboxEvento descartado = outboxRepository.findById(ilegible.getId()).orElseThrow();
+        assertThat(descartado.getEstado()).isEqualTo(OutboxEvento.Estado.DESCARTADO);
+        assertThat(descartado.getUltimoError()).startsWith("Payload inválido");
+    }
+
+    @Test
+    void laLlamadaHttpSeHaceConElLoteReclamadoYSinTransaccion() {
+        OutboxEvento evento = registrar("TKT-4", "{\"ticketId\":\"TKT-4\"}");
+
+        notificationService.expect(requestTo(SEND_BATCH))
+                .andRespond(request -> {
+                    assertThat(TransactionSynchronizationManager.isActualTransactionActive()).isFalse();
+                    // El reclamo ya está confirmado: otra instancia no tomaría la entrada
+                    Timestamp proximoIntento = jdbcTemplate.queryForObject(
+                            "SELECT proximo_intento FROM outbox_eventos WHERE id = ?", Timestamp.class, evento.getId());
+                    assertThat(proximoIntento.toInstant()).isAfter(Instant.now());
+                    return withServerError().createResponse(request);
+                });
+
+        relay.publicarPendientes();
+
+        notificationService.verify();
+        OutboxEvento reprogramado = outboxRepository.findById(evento.getId()).orElseThrow();
+        assertThat(reprogramado.getEstado()).isEqualTo(OutboxEvento.Estado.PENDIENTE);
+        assertThat(reprogramado.getIntentos()).isEqualTo(1);
+    }
+
+    private OutboxEvento registrar(String ticketId, String payload) {
+        return outboxRepository.save(OutboxEvento.builder()
+                .tipo(NotificationOutbox.TICKET_COMPRADO)
+                .clave(ticketId)
+                .destinatario("cliente@test.com")
+                .payload(payload)
+                .build());
+    }
+
+    private OutboxEvento.Estado estado(OutboxEvento evento) {
+        return outboxRepository.findById(evento.getId()).orElseThrow().getEstado();
+    }
+}
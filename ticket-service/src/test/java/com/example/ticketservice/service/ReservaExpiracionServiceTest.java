@@ -0,0 +1,143 @@
+package com.example.ticketservice.service;
+
+import com.example.ticketservice.model.Reserva;
+import com.example.ticketservice.repository.ReservaRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.test.web.client.RequestMatcher;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.client.RestTemplate;
+
+import java.net.SocketTimeoutException;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withException;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+/**
+ * Liberación de reservas: la marca LIBERADA se confirma antes de llamar a event-service y la
+ * restauración de stock, con la clave de cada reserva, se reintenta hasta que se confirma.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+class ReservaExpiracionServiceTest {
+
+    private static final String LIBERAR_LOTE = "http://event-service/api/tipos-entrada/liberar-lote";
+
+    @Autowired
+    private ReservaExpiracionService expiracionService;
+
+    @Autowired
+    private ReservaService reservaService;
+
+    @Autowired
+    private ReservaRepository reservaRepository;
+
+    @Autowired
+    private RestTemplate restTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private MockRestServiceServer eventService;
+    private final List<String> cuerpos = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void preparar() {
+        reservaRepository.deleteAll();
+        cuerpos.clear();
+        eventService = MockRestServiceServer.bindTo(restTemplate).build();
+    }
+
+    @Test
+    void expiradaSeMarcaYRestauraConSuClave() throws Exception {
+        Reserva reserva = guardar(Instant.now().minusSeconds(1));
+        eventService.expect(requestTo(LIBERAR_LOTE)).andExpect(capturar()).andRespond(withSuccess());
+
+        expiracionService.liberarExpiradas(List.of(reserva.getId()));
+
+        esperarRestauracion(reserva.getId());
+        eventService.verify();
+        assertThat(recargar(reserva).getEstado()).isEqualTo(Reserva.EstadoReserva.LIBERADA);
+        assertThat(cuerpos).singleElement().asString().contains(reserva.getOperacionStockId());
+    }
+
+    @Test
+    void restauracionFallidaQuedaPendienteYSeReintentaConLaMismaClave() throws Exception {
+        Reserva reserva = guardar(Instant.now().minusSeconds(1));
+        eventService.expect(requestTo(LIBERAR_LOTE)).andExpect(capturar())
+                .andRespond(withException(new SocketTimeoutException("Read timed out")));
+        eventService.expect(requestTo(LIBERAR_LOTE)).andExpect(capturar()).andRespond(withSuccess());
+
+        expiracionService.liberarExpiradas(List.of(reserva.getId()));
+        esperar(() -> cuerpos.size() == 1);
+        Thread.sleep(100);
+
+        // La marca ya está confirmada: la reserva no vuelve a ACTIVA ni se libera otra vez
+        Reserva liberada = recargar(reserva);
+        assertThat(liberada.getEstado()).isEqualTo(Reserva.EstadoReserva.LIBERADA);
+        assertThat(liberada.isStockPorRestaurar()).isTrue();
+        expiracionService.liberarExpiradas(List.of(reserva.getId()));
+
+        expiracionService.reintentarRestauraciones();
+
+        esperarRestauracion(reserva.getId());
+        eventService.verify();
+        assertThat(cuerpos).hasSize(2).allSatisfy(cuerpo ->
+                assertThat(cuerpo).contains(reserva.getOperacionStockId()));
+    }
+
+    @Test
+    void liberacionManualRevertidaNoTocaElStock() throws Exception {
+        Reserva reserva = guardar(Instant.now().plusSeconds(600));
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            reservaService.liberarReserva(reserva.getId());
+            status.setRollbackOnly();
+        });
+        Thread.sleep(300);
+
+        eventService.verify();
+        Reserva actual = recargar(reserva);
+        assertThat(actual.getEstado()).isEqualTo(Reserva.EstadoReserva.ACTIVA);
+        assertThat(actual.isStockPorRestaurar()).isFalse();
+    }
+
+    private Reserva guardar(Instant expiracion) {
+        Reserva reserva = new Reserva(1L, 7L, 2, expiracion);
+        reserva.setOperacionStockId(UUID.randomUUID().toString());
+        return reservaRepository.save(reserva);
+    }
+
+    private Reserva recargar(Reserva reserva) {
+        return reservaRepository.findById(reserva.getId()).orElseThrow();
+    }
+
+    private void esperarRestauracion(Long reservaId) throws InterruptedException {
+        esperar(() -> !reservaRepository.findById(reservaId).orElseThrow().isStockPorRestaurar());
+    }
+
+    private RequestMatcher capturar() {
+        return request -> cuerpos.add(((MockClientHttpRequest) request).getBodyAsString());
+    }
+
+    private static void esperar(BooleanSupplier condicion) throws InterruptedException {
+        long limite = System.currentTimeMillis() + 5000;
+        while (!condicion.getAsBoolean()) {
+            assertThat(System.currentTimeMillis()).as("tiempo de espera agotado").isLessThan(limite);
+            Thread.sleep(20);
+        }
+    }
+}
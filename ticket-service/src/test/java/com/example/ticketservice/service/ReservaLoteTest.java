@@ -0,0 +1,134 @@
+package com.example.ticketservice.service;
+
+import com.example.ticketservice.dto.CreateReservaLoteRequest;
+import com.example.ticketservice.dto.ReservaDto;
+import com.example.ticketservice.exception.InsufficientStockException;
+import com.example.ticketservice.exception.StockServiceUnavailableException;
+import com.example.ticketservice.model.Reserva;
+import com.example.ticketservice.repository.ReservaRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.test.web.client.RequestMatcher;
+import org.springframework.web.client.RestTemplate;
+
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withException;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withServerError;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+/**
+ * crearReservaLote frente a las respuestas de event-service: un rechazo 4xx es definitivo,
+ * mientras que un timeout o un 5xx son ambiguos y obligan a liberar el lote con las mismas claves.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+class ReservaLoteTest {
+
+    private static final String RESERVAR_LOTE = "http://event-service/api/tipos-entrada/reservar-lote";
+    private static final String LIBERAR_LOTE = "http://event-service/api/tipos-entrada/liberar-lote";
+
+    @Autowired
+    private ReservaService reservaService;
+
+    @Autowired
+    private ReservaRepository reservaRepository;
+
+    @Autowired
+    private RestTemplate restTemplate;
+
+    private MockRestServiceServer eventService;
+    private final List<String> cuerpos = new ArrayList<>();
+
+    @BeforeEach
+    void preparar() {
+        reservaRepository.deleteAll();
+        cuerpos.clear();
+        eventService = MockRestServiceServer.bindTo(restTemplate).build();
+    }
+
+    @Test
+    void rechazoPorStockNoCompensaNiGuardaReservas() {
+        eventService.expect(requestTo(RESERVAR_LOTE)).andExpect(method(HttpMethod.PUT))
+                .andRespond(withStatus(HttpStatus.BAD_REQUEST));
+
+        assertThatThrownBy(() -> reservaService.crearReservaLote(lote()))
+                .isInstanceOf(InsufficientStockException.class);
+
+        eventService.verify();
+        assertThat(reservaRepository.count()).isZero();
+    }
+
+    @Test
+    void timeoutDeLecturaLiberaElLoteConLasMismasClaves() {
+        eventService.expect(requestTo(RESERVAR_LOTE)).andExpect(capturar())
+                .andRespond(withException(new SocketTimeoutException("Read timed out")));
+        eventService.expect(requestTo(LIBERAR_LOTE)).andExpect(method(HttpMethod.PUT)).andExpect(capturar())
+                .andRespond(withSuccess());
+
+        assertThatThrownBy(() -> reservaService.crearReservaLote(lote()))
+                .isInstanceOf(StockServiceUnavailableException.class);
+
+        eventService.verify();
+        assertThat(cuerpos.get(0)).contains("operacionId").isEqualTo(cuerpos.get(1));
+        assertThat(reservaRepository.count()).isZero();
+    }
+
+    @Test
+    void errorDelServidorTambienCompensa() {
+        eventService.expect(requestTo(RESERVAR_LOTE)).andRespond(withServerError());
+        eventService.expect(requestTo(LIBERAR_LOTE)).andRespond(withSuccess());
+
+        assertThatThrownBy(() -> reservaService.crearReservaLote(lote()))
+                .isInstanceOf(StockServiceUnavailableException.class);
+
+        eventService.verify();
+    }
+
+    @Test
+    void loteAceptadoGuardaLasReservasConSuClave() {
+        eventService.expect(requestTo(RESERVAR_LOTE))
+                .andRespond(withSuccess("[]", MediaType.APPLICATION_JSON));
+
+        List<ReservaDto> reservas = reservaService.crearReservaLote(lote());
+
+        eventService.verify();
+        assertThat(reservas).hasSize(2);
+        assertThat(reservaRepository.findAll()).extracting(Reserva::getOperacionStockId)
+                .doesNotContainNull()
+                .doesNotHaveDuplicates();
+    }
+
+    private RequestMatcher capturar() {
+        return request -> cuerpos.add(((MockClientHttpRequest) request).getBodyAsString());
+    }
+
+    private static CreateReservaLoteRequest lote() {
+        CreateReservaLoteRequest request = new CreateReservaLoteRequest();
+        request.setUsuarioId(7L);
+        request.setLineas(List.of(linea(1L, 2), linea(2L, 1)));
+        return request;
+    }
+
+    private static CreateReservaLoteRequest.Linea linea(Long tipoEntradaId, int cantidad) {
+        CreateReservaLoteRequest.Linea linea = new CreateReservaLoteRequest.Linea();
+        linea.setTipoEntradaId(tipoEntradaId);
+        linea.setCantidad(cantidad);
+        return linea;
+    }
+}
@@ -1,25 +1,46 @@
 package com.example.userservice.config;
 
+import com.example.common.http.HttpDestination;
+import com.example.common.http.PooledHttpClientFactory;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.client.RestTemplate;
 
+import java.time.Duration;
 import java.util.Collections;
+import java.util.List;
 
 /**
  * Configuración de RestTemplate con interceptor para comunicación entre servicios.
  * Agrega automáticamente el header X-Gateway-Secret en todas las peticiones.
+ * Las conexiones salen del pool keep-alive compartido (common), con timeouts por destino.
  */
 @Configuration
 @RequiredArgsConstructor
 public class RestTemplateConfig {
     
     private final GatewaySecretInterceptor gatewaySecretInterceptor;
+
+    @Value("${services.notification-service.url:http://localhost:8085}")
+    private String notificationServiceUrl;
+
+    @Value("${services.notification-service.max-connections:0}")
+    private int notificationServiceMaxConnections;
+
+    @Value("${services.notification-service.connect-timeout:#{null}}")
+    private Duration notificationServiceConnectTimeout;
+
+    @Value("${services.notification-service.read-timeout:#{null}}")
+    private Duration notificationServiceReadTimeout;
     
     @Bean
-    public RestTemplate restTemplate() {
-        RestTemplate restTemplate = new RestTemplate();
+    public RestTemplate restTemplate(PooledHttpClientFactory pooledHttpClientFactory) {
+        HttpDestination notificationService = new HttpDestination("notification-service", notificationServiceUrl,
+                notificationServiceMaxConnections, notificationServiceConnectTimeout, notificationServiceReadTimeout);
+        RestTemplate restTemplate = new RestTemplate(
+                pooledHttpClientFactory.create("user", List.of(notificationService)));
         restTemplate.setInterceptors(Collections.singletonList(gatewaySecretInterceptor));
         return restTemplate;
     }
@@ -4,11 +4,11 @@ import com.example.userservice.dto.AuthResponse;
 import com.example.userservice.dto.LoginRequest;
 import com.example.userservice.dto.UserDto;
 import com.example.userservice.exception.InvalidCredentialsException;
-import com.example.userservice.model.User;
+import com.example.userservice.exception.TooManyRequestsException;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
 
 import java.util.HashMap;
@@ -29,41 +29,53 @@ import java.util.Map;
  * - Usa Spring Security AuthenticationManager para validar
  * - Contraseñas hasheadas con BCrypt
  * - Token incluye userId en claims para identificación posterior
+ * - Rate limiting por email (política LOGIN): un login exitoso reinicia el contador
  */
 @Service
 @RequiredArgsConstructor
 public class AuthService {
 
     private final AuthenticationManager authenticationManager;
-    private final UserService userService;
     private final JwtService jwtService;
+    private final RateLimitService rateLimitService;
 
     public AuthResponse login(LoginRequest request) {
+        // PASO 0: Rate limiting por email, fuera del try para no convertirlo en credenciales inválidas
+        String clave = request.getEmail() != null ? request.getEmail().toLowerCase() : "";
+        long esperaMs = rateLimitService.tryAcquire(RateLimitService.LOGIN, clave);
+        if (esperaMs > 0) {
+            throw new TooManyRequestsException(
+                String.format("Demasiados intentos de inicio de sesión. Por favor espera %d minutos antes de intentar nuevamente.",
+                    RateLimitService.minutos(esperaMs)));
+        }
+
         try {
             // PASO 1: Autenticar credenciales con Spring Security
             // Spring Security validará la contraseña hasheada automáticamente
-            authenticationManager.authenticate(
+            // El usuario se carga una sola vez (UserService.loadUserByUsername, con cache)
+            Authentication authentication = authenticationManager.authenticate(
                     new UsernamePasswordAuthenticationToken(
                             request.getEmail(),
                             request.getContrasena()
                     )
             );
 
-            // PASO 2: Buscar información completa del usuario
-            User user = userService.findByEmail(request.getEmail());
+            // PASO 2: Datos del usuario que dejó la autenticación en el principal
+            UsuarioAutenticado principal = (UsuarioAutenticado) authentication.getPrincipal();
+            UserDto user = principal.getUsuario();
 
             // PASO 3: Generar token JWT con userId y rol en los claims
             // Los claims son datos adicionales embebidos en el token
-            UserDetails userDetails = userService.loadUserByUsername(user.getEmail());
             Map<String, Object> claims = new HashMap<>();
             claims.put("userId", user.getId()); // Claim personalizado para identificar usuario
             claims.put("nombre", user.getNombre());
             claims.put("apellido", user.getApellido());
-            claims.put("rol", user.getRol().name()); // Claim para autorización basada en roles
-            String token = jwtService.generateToken(claims, userDetails);
+            claims.put("rol", user.getRol()); // Claim para autorización basada en roles
+            String token = jwtService.generateToken(claims, principal);
+            rateLimitService.reset(RateLimitService.LOGIN, clave);
 
             // PASO 4: Retornar token + datos del usuario
-            return AuthResponse.success(token, UserDto.fromEntity(user));
+            return AuthResponse.success(token, user);
         } catch (Exception e) {
             // Cualquier error en autenticación lanza excepción personalizada por seguridad
             throw new InvalidCredentialsException();
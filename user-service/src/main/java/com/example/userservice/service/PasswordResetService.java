@@ -30,6 +30,7 @@ public class PasswordResetService {
     private final PasswordEncoder passwordEncoder;
     private final RestTemplate restTemplate;
     private final RateLimitService rateLimitService;
+    private final UserDetailsCache userDetailsCache;
     
     @Value("${services.notification-service.url:http://localhost:8085}")
     private String notificationServiceUrl;
@@ -41,18 +42,15 @@ public class PasswordResetService {
     public void requestPasswordReset(String email) {
         log.info("🔑 Solicitud de restablecimiento de contraseña para: {}", email);
         
-        // PASO 1: Verificar rate limiting (máximo 3 intentos cada 15 minutos)
-        if (!rateLimitService.canRequestPasswordReset(email)) {
-            long minutesLeft = rateLimitService.getRemainingWaitMinutes(email);
-            log.warn("Rate limit excedido para: {} | Esperar {} minutos", email, minutesLeft);
+        // PASO 1-2: Verificar rate limiting y registrar el intento (por defecto 3 cada 15 minutos)
+        long esperaMs = rateLimitService.tryAcquire(RateLimitService.PASSWORD_RESET, email.toLowerCase());
+        if (esperaMs > 0) {
+            long minutesLeft = RateLimitService.minutos(esperaMs);
             throw new TooManyRequestsException(
                 String.format("Has excedido el límite de solicitudes. Por favor espera %d minutos antes de intentar nuevamente.", 
                     minutesLeft));
         }
         
-        // PASO 2: Registrar el intento
-        rateLimitService.recordPasswordResetAttempt(email);
-        
         // PASO 3: Buscar usuario (por seguridad, no revelamos si existe)
         User user = userRepository.findByEmail(email).orElse(null);
         if (user == null) {
@@ -92,6 +90,7 @@ public class PasswordResetService {
         User user = resetToken.getUser();
         user.setContrasena(passwordEncoder.encode(newPassword));
         userRepository.save(user);
+        userDetailsCache.invalidar(user.getEmail());
         
         // Marcar token como usado
         resetToken.setUsed(true);
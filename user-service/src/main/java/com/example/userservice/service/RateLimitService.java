@@ -1,140 +1,208 @@
 package com.example.userservice.service;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.time.Instant;
+import java.time.Duration;
+import java.util.Iterator;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Servicio de Rate Limiting para prevenir spam y ataques de fuerza bruta.
- * 
- * Implementa una estrategia de "sliding window" en memoria para:
- * - Password reset: Máximo 3 intentos por email cada 15 minutos
- * 
+ *
+ * Motor de "sliding window" en memoria con políticas con nombre:
+ * - {@link #PASSWORD_RESET}: rate-limit.password-reset.* (por defecto 3 intentos cada 15 minutos)
+ * - {@link #LOGIN}: rate-limit.login.* (por defecto 5 intentos cada 15 minutos; un login
+ *   exitoso reinicia el contador con {@link #reset})
+ *
  * Características:
- * - Thread-safe con ConcurrentHashMap
- * - Limpieza automática de entradas expiradas
- * - Configuración flexible por tipo de operación
+ * - Ventana deslizante aproximada con dos contadores (ventana fija actual y anterior, esta
+ *   última ponderada por la parte que todavía cae dentro de la ventana deslizante)
+ * - Memoria O(1) por clave: un único long (índice de ventana + ambos contadores)
+ * - {@link #tryAcquire} verifica y registra en una sola operación atómica (compareAndSet)
+ * - Sin limpieza completa del mapa: cada llamada revisa unas pocas claves y elimina las
+ *   que ya no tienen intentos dentro de la ventana
  */
 @Service
 @Slf4j
 public class RateLimitService {
 
-    // Configuración de rate limiting
-    private static final int PASSWORD_RESET_MAX_ATTEMPTS = 3;
-    private static final long PASSWORD_RESET_WINDOW_MINUTES = 15;
-    
-    // Almacenamiento en memoria de intentos por email
-    private final Map<String, AttemptRecord> passwordResetAttempts = new ConcurrentHashMap<>();
+    public static final String PASSWORD_RESET = "pwd_reset";
+    public static final String LOGIN = "login";
+
+    /** Claves revisadas por llamada para eliminar las expiradas */
+    private static final int CLAVES_POR_BARRIDO = 2;
+    private static final int MAX_CONTADOR = 0xFFFF;
+
+    private final Map<String, Politica> politicas = new ConcurrentHashMap<>();
+
+    public RateLimitService(@Value("${rate-limit.password-reset.max-attempts:3}") int resetMaxIntentos,
+                            @Value("${rate-limit.password-reset.window:15m}") Duration resetVentana,
+                            @Value("${rate-limit.login.max-attempts:5}") int loginMaxIntentos,
+                            @Value("${rate-limit.login.window:15m}") Duration loginVentana) {
+        registrar(PASSWORD_RESET, resetMaxIntentos, resetVentana);
+        registrar(LOGIN, loginMaxIntentos, loginVentana);
+    }
 
     /**
-     * Verifica si un email puede solicitar password reset.
-     * @param email 
-     * @return true si está permitido, false si excedió el límite
+     * Registra (o reemplaza) una política.
      */
-    public boolean canRequestPasswordReset(String email) {
-        String key = "pwd_reset:" + email.toLowerCase();
-        AttemptRecord record = passwordResetAttempts.get(key);
-        
-        Instant now = Instant.now();
-        Instant windowStart = now.minusSeconds(PASSWORD_RESET_WINDOW_MINUTES * 60);
-        
-        // Si no hay registro previo, está permitido
-        if (record == null) {
-            return true;
+    public void registrar(String nombre, int maxIntentos, Duration ventana) {
+        if (maxIntentos < 1 || maxIntentos > MAX_CONTADOR || ventana.toMillis() < 1) {
+            throw new IllegalArgumentException("Política de rate limit inválida: " + nombre);
         }
-        
-        // Si el último intento fue fuera de la ventana, limpiar y permitir
-        if (record.firstAttempt.isBefore(windowStart)) {
-            passwordResetAttempts.remove(key);
-            return true;
-        }
-        
-        // Si está dentro de la ventana, verificar cantidad de intentos
-        boolean allowed = record.count < PASSWORD_RESET_MAX_ATTEMPTS;
-        
-        if (!allowed) {
-            long minutesLeft = PASSWORD_RESET_WINDOW_MINUTES - 
-                ((now.getEpochSecond() - record.firstAttempt.getEpochSecond()) / 60);
-            log.warn("Rate limit excedido para password reset: {} | Intentos: {} | Esperar {} minutos", 
-                email, record.count, minutesLeft);
-        }
-        
-        return allowed;
+        politicas.put(nombre, new Politica(nombre, maxIntentos, ventana.toMillis()));
+        log.info("Rate limit '{}': {} intentos cada {}", nombre, maxIntentos, ventana);
     }
 
     /**
-     * Registra un intento de password reset.
-     * @param email Email del usuario
+     * Intenta registrar un intento para la clave.
+     *
+     * @return 0 si está permitido (y quedó registrado); si no, milisegundos hasta que lo esté
      */
-    public void recordPasswordResetAttempt(String email) {
-        String key = "pwd_reset:" + email.toLowerCase();
-        Instant now = Instant.now();
-        
-        passwordResetAttempts.compute(key, (k, existing) -> {
-            if (existing == null) {
-                // Primer intento
-                return new AttemptRecord(now, 1);
-            } else {
-                // Incrementar contador
-                existing.count++;
-                existing.lastAttempt = now;
-                return existing;
-            }
-        });
-        
-        log.debug("Password reset attempt registrado para {}: {} intentos", email, 
-            passwordResetAttempts.get(key).count);
+    public long tryAcquire(String politica, String clave) {
+        return politica(politica).tryAcquire(clave, System.currentTimeMillis());
     }
 
     /**
-     * Obtiene el tiempo restante de espera en minutos.
-     * @param email Email del usuario
-     * @return Minutos restantes, o 0 si no hay restricción
+     * Olvida los intentos de la clave (p. ej. tras un login exitoso).
      */
-    public long getRemainingWaitMinutes(String email) {
-        String key = "pwd_reset:" + email.toLowerCase();
-        AttemptRecord record = passwordResetAttempts.get(key);
-        
-        if (record == null) {
-            return 0;
-        }
-        
-        Instant now = Instant.now();
-        long elapsedMinutes = (now.getEpochSecond() - record.firstAttempt.getEpochSecond()) / 60;
-        long remaining = PASSWORD_RESET_WINDOW_MINUTES - elapsedMinutes;
-        
-        return Math.max(0, remaining);
+    public void reset(String politica, String clave) {
+        politica(politica).estados.remove(clave);
     }
 
     /**
-     * Limpia registros expirados (llamar periódicamente con @Scheduled).
+     * Minutos a esperar, redondeando hacia arriba, para mensajes al usuario.
      */
-    public void cleanupExpiredRecords() {
-        Instant now = Instant.now();
-        Instant windowStart = now.minusSeconds(PASSWORD_RESET_WINDOW_MINUTES * 60);
-        
-        passwordResetAttempts.entrySet().removeIf(entry -> 
-            entry.getValue().firstAttempt.isBefore(windowStart)
-        );
-        
-        log.info("Rate limit cleanup: {} registros activos", passwordResetAttempts.size());
+    public static long minutos(long esperaMs) {
+        return Math.max(1, (esperaMs + 59_999) / 60_000);
+    }
+
+    Politica politica(String nombre) {
+        Politica politica = politicas.get(nombre);
+        if (politica == null) {
+            throw new IllegalArgumentException("Política de rate limit desconocida: " + nombre);
+        }
+        return politica;
     }
 
     /**
-     * Registro de intentos con timestamp.
+     * Estado de una política. Cada clave guarda un long:
+     * bits 32-63 = índice de la ventana fija actual, 16-31 = intentos en la anterior,
+     * 0-15 = intentos en la actual.
      */
-    private static class AttemptRecord {
-        Instant firstAttempt;
-        Instant lastAttempt;
-        int count;
-        
-        AttemptRecord(Instant firstAttempt, int count) {
-            this.firstAttempt = firstAttempt;
-            this.lastAttempt = firstAttempt;
-            this.count = count;
+    static final class Politica {
+
+        private final String nombre;
+        private final int maxIntentos;
+        private final long ventanaMs;
+        /** Origen de los índices de ventana: mantiene el índice dentro de 32 bits */
+        private final long origenMs;
+
+        final Map<String, AtomicLong> estados;
+        private final AtomicBoolean barriendo = new AtomicBoolean();
+        private Iterator<Map.Entry<String, AtomicLong>> cursor;
+
+        Politica(String nombre, int maxIntentos, long ventanaMs) {
+            this(nombre, maxIntentos, ventanaMs, System.currentTimeMillis(), new ConcurrentHashMap<>());
+        }
+
+        Politica(String nombre, int maxIntentos, long ventanaMs, long origenMs, Map<String, AtomicLong> estados) {
+            this.nombre = nombre;
+            this.maxIntentos = maxIntentos;
+            this.ventanaMs = ventanaMs;
+            this.origenMs = origenMs;
+            this.estados = estados;
+        }
+
+        long tryAcquire(String clave, long ahora) {
+            barrer(ahora);
+            long indice = (ahora - origenMs) / ventanaMs;
+            // Fracción de la ventana anterior que todavía cae dentro de la ventana deslizante
+            double pesoAnterior = 1.0 - (double) ((ahora - origenMs) % ventanaMs) / ventanaMs;
+
+            while (true) {
+                AtomicLong estado = estados.computeIfAbsent(clave, k -> new AtomicLong(empaquetar(indice, 0, 0)));
+                long actual = estado.get();
+                long indiceGuardado = actual >>> 32;
+                int anterior;
+                int enCurso;
+                if (indiceGuardado == indice) {
+                    anterior = (int) ((actual >>> 16) & MAX_CONTADOR);
+                    enCurso = (int) (actual & MAX_CONTADOR);
+                } else if (indiceGuardado == indice - 1) {
+                    anterior = (int) (actual & MAX_CONTADOR);
+                    enCurso = 0;
+                } else {
+                    anterior = 0;
+                    enCurso = 0;
+                }
+
+                double estimados = anterior * pesoAnterior + enCurso;
+                if (estimados + 1 > maxIntentos) {
+                    log.warn("Rate limit '{}' excedido para {} | Intentos: {}", nombre, clave, (long) Math.ceil(estimados));
+                    return esperaMs(anterior, enCurso, ahora);
+                }
+                if (estado.compareAndSet(actual, empaquetar(indice, anterior, enCurso + 1))) {
+                    // Si el barrido eliminó la clave justo antes, el intento quedó en un estado
+                    // huérfano: se vuelve a registrar en el que está ahora en el mapa
+                    if (estados.get(clave) == estado) {
+                        return 0;
+                    }
+                }
+            }
+        }
+
+        /**
+         * Tiempo hasta que anterior * peso + enCurso + 1 <= maxIntentos.
+         */
+        private long esperaMs(int anterior, int enCurso, long ahora) {
+            long transcurrido = (ahora - origenMs) % ventanaMs;
+            long finVentana = ventanaMs - transcurrido;
+            if (enCurso + 1 > maxIntentos) {
+                // En la próxima ventana los de ahora pasan a ser "anteriores" y pierden peso con el tiempo
+                double fraccion = 1.0 - (double) (maxIntentos - 1) / enCurso;
+                return finVentana + (long) Math.ceil(fraccion * ventanaMs) + 1;
+            }
+            double fraccion = 1.0 - (double) (maxIntentos - 1 - enCurso) / anterior;
+            return Math.max(1, (long) Math.ceil(fraccion * ventanaMs) - transcurrido + 1);
+        }
+
+        /**
+         * Revisa unas pocas claves y elimina las que ya no tienen intentos en la ventana.
+         * Recorre el mapa de forma circular entre llamadas; si otro hilo está barriendo, no espera.
+         */
+        private void barrer(long ahora) {
+            if (!barriendo.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                long indice = (ahora - origenMs) / ventanaMs;
+                for (int i = 0; i < CLAVES_POR_BARRIDO; i++) {
+                    if (cursor == null || !cursor.hasNext()) {
+                        cursor = estados.entrySet().iterator();
+                        if (!cursor.hasNext()) {
+                            return;
+                        }
+                    }
+                    Map.Entry<String, AtomicLong> entrada = cursor.next();
+                    long guardado = entrada.getValue().get();
+                    // Índice anterior a la ventana previa: ningún intento cuenta ya
+                    if ((guardado >>> 32) < indice - 1) {
+                        estados.remove(entrada.getKey(), entrada.getValue());
+                    }
+                }
+            } finally {
+                barriendo.set(false);
+            }
+        }
+
+        private static long empaquetar(long indice, int anterior, int enCurso) {
+            return (indice << 32) | ((long) anterior << 16) | enCurso;
         }
     }
 }
@@ -0,0 +1,108 @@
+package com.example.userservice.service;
+
+import com.example.userservice.dto.UserDto;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * CACHE DE CUENTAS para {@link UserService#loadUserByUsername}: la usan el login
+ * (DaoAuthenticationProvider) y JwtAuthenticationFilter en cada petición autenticada.
+ *
+ * En memoria, acotada por tamaño (LRU) y con TTL corto (user-details.cache.*). Guarda el hash de
+ * la contraseña y el UserDto, nunca el UserDetails que se entrega: Spring borra las credenciales
+ * del principal tras autenticar, así que cada llamada construye uno nuevo.
+ *
+ * Las actualizaciones, bajas y restablecimientos de contraseña llaman a {@link #invalidar(String)},
+ * que actúa también después del commit. Un contador de generación evita que una lectura iniciada
+ * antes de la invalidación vuelva a guardar datos viejos. Con varias instancias, las demás ven el
+ * cambio cuando vence el TTL.
+ */
+@Component
+@Slf4j
+public class UserDetailsCache {
+
+    /** Lo que se cachea por email */
+    public record Cuenta(String email, String contrasena, UserDto usuario) {
+    }
+
+    private final boolean enabled;
+    private final long ttlMs;
+    private final LinkedHashMap<String, Entrada> entradas;
+    private final AtomicLong generacion = new AtomicLong();
+
+    public UserDetailsCache(@Value("${user-details.cache.enabled:true}") boolean enabled,
+                            @Value("${user-details.cache.max-size:10000}") int maxSize,
+                            @Value("${user-details.cache.ttl-ms:30000}") long ttlMs) {
+        this.enabled = enabled;
+        this.ttlMs = ttlMs;
+        this.entradas = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entrada> eldest) {
+                return size() > maxSize;
+            }
+        };
+        log.info("Cache de UserDetails {} ({} cuentas, TTL {} ms)", enabled ? "activa" : "desactivada", maxSize, ttlMs);
+    }
+
+    /**
+     * Cuenta cacheada para el email o, si no está, la que devuelve {@code cargar}
+     * (que puede lanzar UsernameNotFoundException; en ese caso no se cachea nada).
+     */
+    public Cuenta obtener(String email, Function<String, Cuenta> cargar) {
+        if (!enabled) {
+            return cargar.apply(email);
+        }
+        String clave = email.toLowerCase();
+        long leida = generacion.get();
+        synchronized (this) {
+            Entrada entrada = entradas.get(clave);
+            // Se exige el email exacto: la búsqueda en BD puede distinguir mayúsculas
+            if (entrada != null && entrada.venceMs > System.currentTimeMillis()
+                    && entrada.cuenta.email().equals(email)) {
+                return entrada.cuenta;
+            }
+        }
+        Cuenta cuenta = cargar.apply(email);
+        synchronized (this) {
+            if (generacion.get() == leida) {
+                entradas.put(clave, new Entrada(cuenta, System.currentTimeMillis() + ttlMs));
+            }
+        }
+        return cuenta;
+    }
+
+    /**
+     * Olvida la cuenta del email, ahora y, si hay una transacción activa, tras el commit.
+     */
+    public void invalidar(String email) {
+        if (!enabled || email == null) {
+            return;
+        }
+        String clave = email.toLowerCase();
+        quitar(clave);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    quitar(clave);
+                }
+            });
+        }
+    }
+
+    private synchronized void quitar(String clave) {
+        generacion.incrementAndGet();
+        entradas.remove(clave);
+    }
+
+    private record Entrada(Cuenta cuenta, long venceMs) {
+    }
+}
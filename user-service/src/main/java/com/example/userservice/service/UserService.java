@@ -19,7 +19,6 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -31,25 +30,28 @@ public class UserService implements UserDetailsService {
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final JwtService jwtService;
+    private final UserDetailsCache userDetailsCache;
 
     public UserService(UserRepository userRepository, 
                       @Lazy PasswordEncoder passwordEncoder,
-                      JwtService jwtService) {
+                      JwtService jwtService,
+                      UserDetailsCache userDetailsCache) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.jwtService = jwtService;
+        this.userDetailsCache = userDetailsCache;
     }
 
+    /**
+     * Devuelve un {@link UsuarioAutenticado} (nuevo en cada llamada) a partir de {@link UserDetailsCache}.
+     */
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        User user = userRepository.findByEmail(username)
-                .orElseThrow(() -> new UsernameNotFoundException("Usuario no encontrado: " + username));
-        
-        return new org.springframework.security.core.userdetails.User(
-                user.getEmail(),
-                user.getContrasena(),
-                new ArrayList<>()
-        );
+        return new UsuarioAutenticado(userDetailsCache.obtener(username, email -> {
+            User user = userRepository.findByEmail(email)
+                    .orElseThrow(() -> new UsernameNotFoundException("Usuario no encontrado: " + email));
+            return new UserDetailsCache.Cuenta(user.getEmail(), user.getContrasena(), UserDto.fromEntity(user));
+        }));
     }
 
     @Transactional
@@ -73,7 +75,8 @@ public class UserService implements UserDetailsService {
             user = userRepository.save(user);
 
             // Generar token con userId y rol en los claims
-            UserDetails userDetails = loadUserByUsername(user.getEmail());
+            UserDetails userDetails = new UsuarioAutenticado(
+                    new UserDetailsCache.Cuenta(user.getEmail(), user.getContrasena(), UserDto.fromEntity(user)));
             Map<String, Object> claims = new HashMap<>();
             claims.put("userId", user.getId());
             claims.put("nombre", user.getNombre());
@@ -139,6 +142,7 @@ public class UserService implements UserDetailsService {
         }
 
         user = userRepository.save(user);
+        userDetailsCache.invalidar(user.getEmail());
         return UserDto.fromEntity(user);
     }
 
@@ -150,5 +154,6 @@ public class UserService implements UserDetailsService {
         //Desactivar el usuario
         user.setActivo(false);
         userRepository.save(user);
+        userDetailsCache.invalidar(user.getEmail());
     }
 }
@@ -0,0 +1,22 @@
+package com.example.userservice.service;
+
+import com.example.userservice.dto.UserDto;
+import lombok.Getter;
+import org.springframework.security.core.userdetails.User;
+
+import java.util.ArrayList;
+
+/**
+ * UserDetails que además lleva los datos del usuario, para que el login genere el token
+ * con lo que ya cargó la autenticación sin volver a consultar la BD.
+ */
+@Getter
+public class UsuarioAutenticado extends User {
+
+    private final transient UserDto usuario;
+
+    public UsuarioAutenticado(UserDetailsCache.Cuenta cuenta) {
+        super(cuenta.email(), cuenta.contrasena(), new ArrayList<>());
+        this.usuario = cuenta.usuario();
+    }
+}
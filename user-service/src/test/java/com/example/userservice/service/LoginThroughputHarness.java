@@ -0,0 +1,137 @@
+package com.example.userservice.service;
+
+import com.example.userservice.UserServiceApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Throughput de POST /login y GET /me, con y sin {@link UserDetailsCache}
+ * (user-details.cache.enabled).
+ *
+ * Levanta user-service dos veces en un puerto libre sobre H2 en memoria (sin Flyway, esquema desde
+ * las entidades), registra 32 usuarios y lanza por HTTP N logins y 10·N peticiones /me con un JWT,
+ * repartidos entre C clientes, tras una ronda de calentamiento. El login lo domina BCrypt; /me
+ * mide lo que cuesta cargar el usuario en cada petición autenticada.
+ *
+ * Ejecución (desde user-service/), argumentos opcionales [logins] [clientes]:
+ *   mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ *   java -cp target/test-classes:target/classes:$(cat target/cp.txt) com.example.userservice.service.LoginThroughputHarness 200 8
+ */
+public class LoginThroughputHarness {
+
+    private static final String GATEWAY_SECRET = "soa-gateway-secret-key-2024";
+    private static final int USUARIOS = 32;
+
+    private static final HttpClient HTTP = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+    public static void main(String[] args) throws Exception {
+        int logins = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        int clientes = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+
+        List<String> filas = new ArrayList<>();
+        for (boolean cache : new boolean[]{false, true}) {
+            try (ConfigurableApplicationContext contexto = iniciar(cache)) {
+                String base = "http://localhost:" + contexto.getEnvironment().getProperty("local.server.port") + "/api/users/";
+                for (int u = 0; u < USUARIOS; u++) {
+                    post(base + "register", "{\"email\":\"u" + u + "@test.com\",\"contrasena\":\"secreto123\","
+                            + "\"nombre\":\"Ana\",\"apellido\":\"Pérez\",\"telefono\":\"123456789\"}");
+                }
+                HttpResponse<String> login = post(base + "login", credenciales(0));
+                if (login.statusCode() != 200) {
+                    throw new IllegalStateException("Login inicial falló: " + login.statusCode() + " " + login.body());
+                }
+                String token = login.body().replaceAll(".*\"token\":\"([^\"]+)\".*", "$1");
+
+                medir(base, token, "login", Math.max(1, logins / 10), clientes);
+                medir(base, token, "me", Math.max(1, logins), clientes);
+                double loginsPorSegundo = medir(base, token, "login", logins, clientes);
+                double mePorSegundo = medir(base, token, "me", logins * 10, clientes);
+                filas.add(String.format(Locale.ROOT, "%-12s %8d %9d %10.1f %10.1f",
+                        cache ? "con-cache" : "sin-cache", logins, clientes, loginsPorSegundo, mePorSegundo));
+            }
+        }
+
+        System.out.println();
+        System.out.println("modo           logins  clientes    login/s      /me/s");
+        filas.forEach(System.out::println);
+    }
+
+    private static ConfigurableApplicationContext iniciar(boolean cache) {
+        // Como argumentos: las propiedades por defecto del builder no pisarían application.properties
+        return new SpringApplicationBuilder(UserServiceApplication.class)
+                .run("--server.port=0",
+                        "--spring.datasource.url=jdbc:h2:mem:user_db_" + cache + ";MODE=MySQL;DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.flyway.enabled=false",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--spring.jpa.show-sql=false",
+                        "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                        "--user-details.cache.enabled=" + cache,
+                        "--logging.level.root=WARN");
+    }
+
+    /**
+     * @return peticiones por segundo; falla si alguna no respondió 200
+     */
+    private static double medir(String base, String token, String modo, int peticiones, int clientes)
+            throws InterruptedException {
+        AtomicInteger siguiente = new AtomicInteger();
+        AtomicInteger errores = new AtomicInteger();
+        Runnable cliente = () -> {
+            int i;
+            while ((i = siguiente.getAndIncrement()) < peticiones) {
+                try {
+                    int status = modo.equals("login")
+                            ? post(base + "login", credenciales(i % USUARIOS)).statusCode()
+                            : HTTP.send(HttpRequest.newBuilder(URI.create(base + "me"))
+                                    .header("Authorization", "Bearer " + token)
+                                    .header("X-Gateway-Secret", GATEWAY_SECRET)
+                                    .build(), HttpResponse.BodyHandlers.discarding()).statusCode();
+                    if (status != 200) {
+                        errores.incrementAndGet();
+                    }
+                } catch (Exception e) {
+                    errores.incrementAndGet();
+                }
+            }
+        };
+
+        Thread[] hilos = new Thread[clientes];
+        long inicio = System.nanoTime();
+        for (int k = 0; k < clientes; k++) {
+            hilos[k] = new Thread(cliente);
+            hilos[k].start();
+        }
+        for (Thread hilo : hilos) {
+            hilo.join();
+        }
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+        if (errores.get() > 0) {
+            throw new IllegalStateException(modo + ": " + errores.get() + " de " + peticiones + " peticiones fallaron");
+        }
+        return peticiones / segundos;
+    }
+
+    private static String credenciales(int usuario) {
+        return "{\"email\":\"u" + usuario + "@test.com\",\"contrasena\":\"secreto123\"}";
+    }
+
+    private static HttpResponse<String> post(String url, String json) throws Exception {
+        return HTTP.send(HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", "application/json")
+                .header("X-Gateway-Secret", GATEWAY_SECRET)
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build(), HttpResponse.BodyHandlers.ofString());
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.userservice.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Motor de ventana deslizante de {@link RateLimitService.Politica} con instantes explícitos:
+ * 5 intentos por ventana de 60 s, índices de ventana contados desde t = 0.
+ */
+class RateLimitServiceTest {
+
+    private static final int MAX = 5;
+    private static final long VENTANA = 60_000;
+
+    private final Map<String, AtomicLong> estados = new ConcurrentHashMap<>();
+    private final RateLimitService.Politica politica = politica(estados);
+
+    @Test
+    void elEstadoEmpaquetaIndiceAnteriorYEnCurso() {
+        for (int i = 0; i < 3; i++) {
+            politica.tryAcquire("ana@test.com", 1_000);
+        }
+        assertThat(estados.get("ana@test.com").get()).isEqualTo(3L);
+
+        // Ventana 1: los 3 pasan a la mitad "anterior"
+        assertThat(politica.tryAcquire("ana@test.com", VENTANA)).isZero();
+        assertThat(estados.get("ana@test.com").get()).isEqualTo((1L << 32) | (3L << 16) | 1);
+
+        // Un índice que no entra en 16 bits sigue intacto en los 32 altos
+        long ventana70000 = 70_000 * VENTANA;
+        assertThat(politica.tryAcquire("ana@test.com", ventana70000)).isZero();
+        long estado = estados.get("ana@test.com").get();
+        assertThat(estado >>> 32).isEqualTo(70_000L);
+        assertThat((estado >>> 16) & 0xFFFF).isZero();
+        assertThat(estado & 0xFFFF).isEqualTo(1L);
+    }
+
+    @Test
+    void laVentanaAnteriorPesaSegunLoQueQuedaDentro() {
+        for (int i = 0; i < MAX; i++) {
+            assertThat(politica.tryAcquire("ana@test.com", 10_000)).isZero();
+        }
+        assertThat(politica.tryAcquire("ana@test.com", 10_000)).isPositive();
+
+        // Mitad de la ventana 1: los 5 anteriores cuentan 2.5, entran 2 más
+        long mitad = VENTANA + VENTANA / 2;
+        assertThat(politica.tryAcquire("ana@test.com", mitad)).isZero();
+        assertThat(politica.tryAcquire("ana@test.com", mitad)).isZero();
+        assertThat(politica.tryAcquire("ana@test.com", mitad)).isPositive();
+
+        // Ventana 2: solo pesan los 2 de la ventana 1
+        assertThat(politica.tryAcquire("ana@test.com", 2 * VENTANA)).isZero();
+        assertThat(estados.get("ana@test.com").get()).isEqualTo((2L << 32) | (2L << 16) | 1);
+
+        // Más de una ventana sin intentos: empieza de cero
+        for (int i = 0; i < MAX; i++) {
+            assertThat(politica.tryAcquire("ana@test.com", 5 * VENTANA)).isZero();
+        }
+        assertThat(politica.tryAcquire("ana@test.com", 5 * VENTANA)).isPositive();
+    }
+
+    @Test
+    void esperaMsLlevaAlPrimerInstantePermitidoConVentanaLlena() {
+        for (int i = 0; i < MAX; i++) {
+            politica.tryAcquire("ana@test.com", 10_000);
+        }
+
+        // Fin de la ventana 0 (50 s) + lo que tarda el peso de los 5 en bajar a 4/5 (12 s) + 1
+        long espera = politica.tryAcquire("ana@test.com", 10_000);
+        assertThat(espera).isEqualTo(62_001);
+
+        assertThat(politica.tryAcquire("ana@test.com", 10_000 + espera - 2)).isPositive();
+        assertThat(politica.tryAcquire("ana@test.com", 10_000 + espera)).isZero();
+    }
+
+    @Test
+    void esperaMsConIntentosEnAmbasVentanas() {
+        for (int i = 0; i < MAX; i++) {
+            politica.tryAcquire("ana@test.com", 0);
+        }
+        long ahora = VENTANA + 12_001;
+        assertThat(politica.tryAcquire("ana@test.com", ahora)).isZero();
+
+        // 5 anteriores * peso + 1 en curso + 1: hay que esperar a que el peso baje a 3/5
+        long espera = politica.tryAcquire("ana@test.com", ahora);
+        assertThat(espera).isEqualTo(12_000);
+
+        assertThat(politica.tryAcquire("ana@test.com", ahora + espera - 2)).isPositive();
+        assertThat(politica.tryAcquire("ana@test.com", ahora + espera)).isZero();
+    }
+
+    @Test
+    void unIntentoSobreUnEstadoBarridoSeRegistraEnElNuevo() {
+        AtomicInteger lecturas = new AtomicInteger();
+        Map<String, AtomicLong> conBarrido = new ConcurrentHashMap<>() {
+            @Override
+            public AtomicLong get(Object clave) {
+                // El barrido elimina la clave entre el compareAndSet y la comprobación posterior
+                if (lecturas.getAndIncrement() == 0) {
+                    remove(clave);
+                }
+                return super.get(clave);
+            }
+        };
+        RateLimitService.Politica politica = politica(conBarrido);
+
+        assertThat(politica.tryAcquire("ana@test.com", 1_000)).isZero();
+
+        assertThat(lecturas).hasValue(2);
+        assertThat(conBarrido).containsKey("ana@test.com");
+        assertThat(conBarrido.get("ana@test.com").get() & 0xFFFF).isEqualTo(1L);
+    }
+
+    @Test
+    void elBarridoEliminaClavesSinIntentosEnLaVentana() {
+        politica.tryAcquire("vieja@test.com", 1_000);
+        politica.tryAcquire("reciente@test.com", 2 * VENTANA);
+
+        politica.tryAcquire("otra@test.com", 3 * VENTANA);
+
+        assertThat(estados).doesNotContainKey("vieja@test.com").containsKey("reciente@test.com");
+    }
+
+    private static RateLimitService.Politica politica(Map<String, AtomicLong> estados) {
+        return new RateLimitService.Politica("test", MAX, VENTANA, 0, estados);
+    }
+}